@@ -0,0 +1,13 @@
+package com.example.demo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables Spring's scheduled task execution for background jobs
+ * (replenishment planning, maintenance tasks, etc.)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -7,14 +7,24 @@ import io.swagger.v3.oas.models.info.Info;
 import io.swagger.v3.oas.models.info.License;
 import io.swagger.v3.oas.models.security.SecurityRequirement;
 import io.swagger.v3.oas.models.security.SecurityScheme;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    // Long-running streamed responses (order exports) at once
+    @Value("${app.async.concurrency-limit:16}")
+    private int asyncConcurrencyLimit;
+
+    @Value("${app.async.timeout-ms:1800000}")
+    private long asyncTimeoutMs;
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
@@ -23,6 +33,19 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedHeaders("*");
     }
 
+    /**
+     * Streaming response bodies are written on their own threads rather than on request threads.
+     * These are virtual threads where the runtime supports them (Java 21+), platform threads otherwise.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("mvc-async-");
+        executor.setVirtualThreads(Runtime.version().feature() >= 21);
+        executor.setConcurrencyLimit(asyncConcurrencyLimit);
+        configurer.setTaskExecutor(executor);
+        configurer.setDefaultTimeout(asyncTimeoutMs);
+    }
+
     @Bean
     public OpenAPI customOpenAPI() {
         return new OpenAPI()
@@ -0,0 +1,66 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.BackInStockSubscriptionDTO;
+import com.example.demo.dto.BackInStockSubscriptionRequestDTO;
+import com.example.demo.service.BackInStockService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/back-in-stock")
+@Tag(name = "Back In Stock Controller", description = "API for alerts when out-of-stock products are restocked")
+public class BackInStockController {
+
+    private static final Logger logger = LoggerFactory.getLogger(BackInStockController.class);
+
+    private final BackInStockService backInStockService;
+
+    @Autowired
+    public BackInStockController(BackInStockService backInStockService) {
+        this.backInStockService = backInStockService;
+    }
+
+    @PostMapping("/subscriptions")
+    @PreAuthorize("hasRole('ADMIN') or @securityService.isCustomerResourceOwner(#request.customerId)")
+    @Operation(summary = "Subscribe to a restock", description = "Alerts the customer once when the out-of-stock product is restocked at the store, or at any store without one")
+    public ResponseEntity<BackInStockSubscriptionDTO> subscribe(@Valid @RequestBody BackInStockSubscriptionRequestDTO request) {
+        logger.info("Customer {} subscribing to restock of product {} at store {}",
+                request.getCustomerId(), request.getProductId(), request.getStoreId());
+        try {
+            return new ResponseEntity<>(BackInStockSubscriptionDTO.fromEntity(backInStockService.subscribe(
+                    request.getCustomerId(), request.getProductId(), request.getStoreId())), HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @GetMapping("/customer/{customerId}/subscriptions")
+    @PreAuthorize("hasRole('ADMIN') or @securityService.isCustomerResourceOwner(#customerId)")
+    @Operation(summary = "Get a customer's subscriptions", description = "Returns the restocks the customer is waiting for, newest first")
+    public ResponseEntity<List<BackInStockSubscriptionDTO>> getSubscriptions(@PathVariable Integer customerId) {
+        logger.debug("Fetching back-in-stock subscriptions for customer ID: {}", customerId);
+        return ResponseEntity.ok(backInStockService.getSubscriptions(customerId).stream()
+                .map(BackInStockSubscriptionDTO::fromEntity)
+                .toList());
+    }
+
+    @DeleteMapping("/customer/{customerId}/subscriptions/{subscriptionId}")
+    @PreAuthorize("hasRole('ADMIN') or @securityService.isCustomerResourceOwner(#customerId)")
+    @Operation(summary = "Cancel a subscription", description = "Stops waiting for a restock")
+    public ResponseEntity<Void> unsubscribe(@PathVariable Integer customerId, @PathVariable Integer subscriptionId) {
+        logger.info("Customer {} cancelling back-in-stock subscription {}", customerId, subscriptionId);
+        backInStockService.unsubscribe(customerId, subscriptionId);
+        return ResponseEntity.noContent().build();
+    }
+}
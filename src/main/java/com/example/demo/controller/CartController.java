@@ -1,8 +1,11 @@
 package com.example.demo.controller;
 
 import com.example.demo.dto.CartDTO;
+import com.example.demo.dto.CheckoutRequestDTO;
 import com.example.demo.entities.Cart;
+import com.example.demo.exception.BusinessException;
 import com.example.demo.service.CartService;
+import com.example.demo.service.IdempotencyService;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
@@ -28,10 +31,12 @@ import java.util.Optional;
 public class CartController {
 
     private final CartService cartService;
+    private final IdempotencyService idempotencyService;
 
     @Autowired
-    public CartController(CartService cartService) {
+    public CartController(CartService cartService, IdempotencyService idempotencyService) {
         this.cartService = cartService;
+        this.idempotencyService = idempotencyService;
     }
 
     /**
@@ -192,19 +197,24 @@ public class CartController {
 
     /**
      * Convert cart to order
+     * A retry with the same Idempotency-Key returns the first order ID instead of checking out again
      */
     @PostMapping("/{id}/checkout")
     @PreAuthorize("hasRole('ADMIN') or @securityService.isCartResourceOwner(#id)")
-    public ResponseEntity<?> checkout(@PathVariable Integer id) {
+    public ResponseEntity<?> checkout(@PathVariable Integer id, @Valid @RequestBody CheckoutRequestDTO request,
+                                      @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         log.info("REST request to checkout Cart with ID {}", id);
         try {
-            Integer orderId = cartService.checkout(id);
+            Integer orderId = idempotencyService.execute("checkout:" + id, idempotencyKey, request, Integer.class,
+                    () -> cartService.checkout(id, request));
             Map<String, Integer> response = new HashMap<>();
             response.put("orderId", orderId);
             return new ResponseEntity<>(response, HttpStatus.CREATED);
         } catch (EntityNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
-        } catch (IllegalStateException e) {
+        } catch (BusinessException e) {
+            throw new ResponseStatusException(e.getStatus(), e.getMessage(), e);
+        } catch (IllegalStateException | IllegalArgumentException e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
         } catch (Exception e) {
             log.error("Error checking out cart", e);
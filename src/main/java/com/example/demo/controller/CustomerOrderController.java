@@ -2,7 +2,9 @@ package com.example.demo.controller;
 
 import com.example.demo.dto.CustomerOrderDTO;
 import com.example.demo.entities.CustomerOrder;
+import com.example.demo.exception.BusinessException;
 import com.example.demo.service.CustomerOrderService;
+import com.example.demo.service.IdempotencyService;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
@@ -34,10 +36,12 @@ import java.util.stream.Collectors;
 public class CustomerOrderController {
 
     private final CustomerOrderService orderService;
+    private final IdempotencyService idempotencyService;
 
     @Autowired
-    public CustomerOrderController(CustomerOrderService orderService) {
+    public CustomerOrderController(CustomerOrderService orderService, IdempotencyService idempotencyService) {
         this.orderService = orderService;
+        this.idempotencyService = idempotencyService;
     }
 
     /**
@@ -114,10 +118,12 @@ public class CustomerOrderController {
 
     /**
      * Create a new order
+     * A retry with the same Idempotency-Key returns the first response instead of creating another order
      */
     @PostMapping
     @PreAuthorize("hasRole('ADMIN') or @securityService.isCustomerResourceOwner(#orderDTO.customerId)")
-    public ResponseEntity<?> createOrder(@Valid @RequestBody CustomerOrderDTO orderDTO, BindingResult bindingResult) {
+    public ResponseEntity<?> createOrder(@Valid @RequestBody CustomerOrderDTO orderDTO, BindingResult bindingResult,
+                                         @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         log.info("REST request to create Order for customer ID {}", orderDTO.getCustomerId());
         
         if (bindingResult.hasErrors()) {
@@ -125,10 +131,14 @@ public class CustomerOrderController {
         }
         
         try {
-            CustomerOrder order = orderService.createOrderFromDTO(orderDTO);
-            return new ResponseEntity<>(CustomerOrderDTO.fromEntity(order), HttpStatus.CREATED);
+            CustomerOrderDTO order = idempotencyService.execute("order:" + orderDTO.getCustomerId(), idempotencyKey,
+                    orderDTO, CustomerOrderDTO.class,
+                    () -> CustomerOrderDTO.fromEntity(orderService.createOrderFromDTO(orderDTO)));
+            return new ResponseEntity<>(order, HttpStatus.CREATED);
         } catch (EntityNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+        } catch (BusinessException e) {
+            throw new ResponseStatusException(e.getStatus(), e.getMessage(), e);
         } catch (Exception e) {
             log.error("Error creating order", e);
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error creating order: " + e.getMessage(), e);
@@ -150,6 +160,8 @@ public class CustomerOrderController {
             return ResponseEntity.ok(CustomerOrderDTO.fromEntity(order));
         } catch (EntityNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+        } catch (BusinessException e) {
+            throw new ResponseStatusException(e.getStatus(), e.getMessage(), e);
         } catch (IllegalArgumentException e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
         } catch (Exception e) {
@@ -0,0 +1,61 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.DemandForecastDTO;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.service.DemandForecastService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/forecasts")
+@Tag(name = "Demand Forecast Controller", description = "API for per-product, per-store daily demand forecasts")
+public class DemandForecastController {
+
+    private static final Logger logger = LoggerFactory.getLogger(DemandForecastController.class);
+
+    private final DemandForecastService demandForecastService;
+
+    @Autowired
+    public DemandForecastController(DemandForecastService demandForecastService) {
+        this.demandForecastService = demandForecastService;
+    }
+
+    @GetMapping("/products/{productId}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    @Operation(summary = "Get product forecasts", description = "Returns the daily demand forecast and error metrics of a product in every store it sold in")
+    public ResponseEntity<List<DemandForecastDTO>> getForecasts(@PathVariable Integer productId) {
+        return ResponseEntity.ok(demandForecastService.getForecasts(productId));
+    }
+
+    @GetMapping("/products/{productId}/stores/{storeId}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    @Operation(summary = "Get product forecast for a store", description = "Returns the daily demand forecast and error metrics of a product in one store")
+    public ResponseEntity<DemandForecastDTO> getForecast(@PathVariable Integer productId, @PathVariable Integer storeId) {
+        DemandForecastDTO forecast = demandForecastService.getForecast(productId, storeId)
+                .orElseThrow(() -> new ResourceNotFoundException("DemandForecast", "productId", productId));
+        return ResponseEntity.ok(forecast);
+    }
+
+    @PostMapping("/runs")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Run demand forecast", description = "Refits every product and store demand series from recent orders")
+    public ResponseEntity<Map<String, Integer>> runForecast() {
+        logger.info("Running demand forecast");
+        try {
+            return ResponseEntity.ok(Map.of("seriesFitted", demandForecastService.runForecast()));
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
+        }
+    }
+}
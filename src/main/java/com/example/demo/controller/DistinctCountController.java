@@ -0,0 +1,64 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.DistinctCountDTO;
+import com.example.demo.service.DistinctCountService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/analytics/distinct-customers")
+@Tag(name = "Distinct Count Controller", description = "API for estimated unique customers per product, store and category")
+public class DistinctCountController {
+
+    private static final Logger logger = LoggerFactory.getLogger(DistinctCountController.class);
+
+    private final DistinctCountService distinctCountService;
+
+    @Autowired
+    public DistinctCountController(DistinctCountService distinctCountService) {
+        this.distinctCountService = distinctCountService;
+    }
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    @Operation(summary = "Count unique customers", description = "Estimates the unique customers who bought any of the given products, at any of the given stores or in any of the given categories over a date range")
+    public ResponseEntity<DistinctCountDTO> countDistinctCustomers(
+            @RequestParam(required = false) List<Integer> productIds,
+            @RequestParam(required = false) List<Integer> storeIds,
+            @RequestParam(required = false) List<Integer> categoryIds,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(distinctCountService.countDistinctCustomers(productIds, storeIds, categoryIds, from, to));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Rebuild sketches", description = "Recomputes the daily distinct-customer sketches of a date range from raw orders")
+    public ResponseEntity<Map<String, Integer>> rebuild(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        logger.info("Rebuilding distinct-count sketches from {} to {}", from, to);
+        try {
+            return ResponseEntity.ok(Map.of("sketchesWritten", distinctCountService.rebuild(from, to)));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+}
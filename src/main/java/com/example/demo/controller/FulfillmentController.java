@@ -0,0 +1,66 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.FulfillmentAllocationDTO;
+import com.example.demo.dto.FulfillmentRequestDTO;
+import com.example.demo.service.FulfillmentAllocationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@RestController
+@RequestMapping("/api/v1/fulfillment")
+@Tag(name = "Fulfillment Controller", description = "API to decide which stores fulfil an order")
+public class FulfillmentController {
+
+    private static final Logger logger = LoggerFactory.getLogger(FulfillmentController.class);
+
+    private static final int DEFAULT_HOLD_MINUTES = 30;
+
+    private final FulfillmentAllocationService fulfillmentAllocationService;
+
+    @Autowired
+    public FulfillmentController(FulfillmentAllocationService fulfillmentAllocationService) {
+        this.fulfillmentAllocationService = fulfillmentAllocationService;
+    }
+
+    @PostMapping("/allocate")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or hasRole('EMPLOYEE')")
+    @Operation(summary = "Preview allocation", description = "Splits order lines across stores with the fewest shipments")
+    public ResponseEntity<FulfillmentAllocationDTO> allocate(@Valid @RequestBody FulfillmentRequestDTO request) {
+        logger.info("Allocating {} order lines across stores", request.getLines().size());
+        try {
+            return ResponseEntity.ok(fulfillmentAllocationService.allocate(request.getLines()));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @PostMapping("/reserve")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or hasRole('EMPLOYEE')")
+    @Operation(summary = "Allocate and reserve", description = "Splits order lines across stores and reserves the stock atomically")
+    public ResponseEntity<FulfillmentAllocationDTO> reserve(@Valid @RequestBody FulfillmentRequestDTO request) {
+        int holdMinutes = request.getHoldMinutes() != null ? request.getHoldMinutes() : DEFAULT_HOLD_MINUTES;
+        logger.info("Reserving {} order lines across stores for {} minutes", request.getLines().size(), holdMinutes);
+        try {
+            Instant expiresAt = Instant.now().plus(Duration.ofMinutes(holdMinutes));
+            FulfillmentAllocationDTO allocation =
+                    fulfillmentAllocationService.allocateAndReserve(request.getLines(), expiresAt);
+            return new ResponseEntity<>(allocation, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
+        }
+    }
+}
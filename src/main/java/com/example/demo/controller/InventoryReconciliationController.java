@@ -0,0 +1,83 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.InventoryDriftDTO;
+import com.example.demo.dto.ReconciliationStatusDTO;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.service.InventoryReconciliationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/inventory/reconciliation")
+@Tag(name = "Inventory Reconciliation Controller", description = "API to verify store inventory against sales, returns and supply orders")
+public class InventoryReconciliationController {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryReconciliationController.class);
+
+    private final InventoryReconciliationService reconciliationService;
+
+    @Autowired
+    public InventoryReconciliationController(InventoryReconciliationService reconciliationService) {
+        this.reconciliationService = reconciliationService;
+    }
+
+    @PostMapping("/runs")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Start reconciliation", description = "Starts a background reconciliation run, optionally correcting drifting quantities")
+    public ResponseEntity<Map<String, Integer>> startRun(@RequestParam(defaultValue = "false") boolean applyCorrections) {
+        logger.info("Starting inventory reconciliation (apply corrections: {})", applyCorrections);
+        try {
+            Integer runId = reconciliationService.startReconciliation(applyCorrections);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("runId", runId));
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
+        }
+    }
+
+    @GetMapping("/status")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    @Operation(summary = "Current run status", description = "Returns progress and throughput of the active run, or the last run")
+    public ResponseEntity<ReconciliationStatusDTO> getStatus() {
+        return reconciliationService.getCurrentStatus()
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+
+    @GetMapping("/runs")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    @Operation(summary = "Recent runs", description = "Returns the most recent reconciliation runs")
+    public ResponseEntity<List<ReconciliationStatusDTO>> getRecentRuns() {
+        return ResponseEntity.ok(reconciliationService.getRecentRuns());
+    }
+
+    @GetMapping("/runs/{runId}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    @Operation(summary = "Get run", description = "Returns a reconciliation run by ID")
+    public ResponseEntity<ReconciliationStatusDTO> getRun(@PathVariable Integer runId) {
+        ReconciliationStatusDTO run = reconciliationService.getRun(runId)
+                .orElseThrow(() -> new ResourceNotFoundException("Reconciliation run", "id", runId));
+        return ResponseEntity.ok(run);
+    }
+
+    @GetMapping("/runs/{runId}/drifts")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    @Operation(summary = "Drift report", description = "Returns the drift report of a run, optionally for a single store")
+    public ResponseEntity<Page<InventoryDriftDTO>> getDriftReport(@PathVariable Integer runId,
+                                                                  @RequestParam(required = false) Integer storeId,
+                                                                  Pageable pageable) {
+        return ResponseEntity.ok(reconciliationService.getDriftReport(runId, storeId, pageable));
+    }
+}
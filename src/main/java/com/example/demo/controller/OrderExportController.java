@@ -0,0 +1,72 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.OrderExportService;
+import com.example.demo.service.OrderExportService.Format;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/v1/orders/export")
+@Tag(name = "Order Export Controller", description = "API for streaming order exports")
+public class OrderExportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderExportController.class);
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final OrderExportService orderExportService;
+
+    @Autowired
+    public OrderExportController(OrderExportService orderExportService) {
+        this.orderExportService = orderExportService;
+    }
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    @Operation(summary = "Export orders", description = "Streams the orders purchased in a date range with their lines as CSV or NDJSON, optionally gzipped")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "CSV") Format format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        // Validated up front: once streaming starts the status can no longer change
+        if (from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Start date cannot be after end date");
+        }
+
+        String filename = "orders-" + from + "-" + to + (format == Format.CSV ? ".csv" : ".ndjson") + (gzip ? ".gz" : "");
+        MediaType contentType = gzip ? MediaType.parseMediaType("application/gzip")
+                : format == Format.CSV ? MediaType.parseMediaType("text/csv;charset=UTF-8")
+                : MediaType.parseMediaType("application/x-ndjson");
+
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+                orderExportService.exportOrders(from, to, format, compressed);
+                compressed.finish();
+            } else {
+                orderExportService.exportOrders(from, to, format, out);
+            }
+        };
+        logger.info("Exporting orders from {} to {} as {}", from, to, format);
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+}
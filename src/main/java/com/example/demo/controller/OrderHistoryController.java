@@ -0,0 +1,71 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.OrderHistoryDTO;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.service.OrderArchiveService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/orders")
+@Tag(name = "Order History Controller", description = "API for order history across the hot and archived order tables")
+public class OrderHistoryController {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderHistoryController.class);
+
+    private final OrderArchiveService orderArchiveService;
+
+    @Autowired
+    public OrderHistoryController(OrderArchiveService orderArchiveService) {
+        this.orderArchiveService = orderArchiveService;
+    }
+
+    @GetMapping("/history")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or @securityService.isCustomerResourceOwner(#customerId)")
+    @Operation(summary = "Order history", description = "Returns orders by customer, status and purchase date, reading the archive only for ranges that reach into it")
+    public ResponseEntity<List<OrderHistoryDTO>> getOrderHistory(
+            @RequestParam(required = false) Integer customerId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(orderArchiveService.getOrderHistory(customerId, status, from, to));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @GetMapping("/history/{orderId}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    @Operation(summary = "Get order from history", description = "Returns an order whether it is still hot or already archived")
+    public ResponseEntity<OrderHistoryDTO> getOrder(@PathVariable Integer orderId) {
+        OrderHistoryDTO order = orderArchiveService.findOrder(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+        return ResponseEntity.ok(order);
+    }
+
+    @PostMapping("/archive/runs")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Archive closed orders", description = "Moves closed orders older than the configured horizon to the archive tables")
+    public ResponseEntity<Map<String, Integer>> archiveClosedOrders() {
+        logger.info("Archiving closed orders");
+        try {
+            return ResponseEntity.ok(Map.of("ordersArchived", orderArchiveService.archiveClosedOrders()));
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.OrderIntakeRequestDTO;
+import com.example.demo.dto.OrderIntakeStatusDTO;
+import com.example.demo.exception.BusinessException;
+import com.example.demo.service.OrderIntakeService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/orders/intake")
+@Tag(name = "Order Intake Controller", description = "API to place orders asynchronously during traffic peaks")
+public class OrderIntakeController {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderIntakeController.class);
+
+    private final OrderIntakeService orderIntakeService;
+
+    @Autowired
+    public OrderIntakeController(OrderIntakeService orderIntakeService) {
+        this.orderIntakeService = orderIntakeService;
+    }
+
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN') or @securityService.isCustomerResourceOwner(#request.customerId)")
+    @Operation(summary = "Queue an order", description = "Accepts the order for asynchronous placement and returns an intake ID to poll")
+    public ResponseEntity<Map<String, String>> submitOrder(@Valid @RequestBody OrderIntakeRequestDTO request) {
+        logger.info("Queueing order for customer ID {}", request.getCustomerId());
+        try {
+            String intakeId = orderIntakeService.submit(request);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .header(HttpHeaders.LOCATION, "/api/v1/orders/intake/" + intakeId)
+                    .body(Map.of("intakeId", intakeId));
+        } catch (BusinessException e) {
+            // Queue full: tell the client to back off
+            return ResponseEntity.status(e.getStatus())
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @GetMapping("/{intakeId}")
+    @Operation(summary = "Get order intake status", description = "Returns the outcome of a queued order, optionally waiting up to waitMs for it to finish")
+    public ResponseEntity<OrderIntakeStatusDTO> getIntakeStatus(@PathVariable String intakeId,
+                                                                @RequestParam(defaultValue = "0") long waitMs) {
+        return orderIntakeService.getStatus(intakeId, waitMs)
+                .map(ResponseEntity::ok)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order intake not found with ID: " + intakeId));
+    }
+}
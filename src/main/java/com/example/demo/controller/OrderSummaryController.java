@@ -0,0 +1,56 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.OrderSummaryDTO;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.service.OrderSummaryService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/order-summaries")
+@Tag(name = "Order Summary Controller", description = "API for precomputed order summaries used by order history and tracking pages")
+public class OrderSummaryController {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderSummaryController.class);
+
+    private final OrderSummaryService orderSummaryService;
+
+    @Autowired
+    public OrderSummaryController(OrderSummaryService orderSummaryService) {
+        this.orderSummaryService = orderSummaryService;
+    }
+
+    @GetMapping("/{orderId}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    @Operation(summary = "Get order summary", description = "Returns the order header, lines, totals, shipment status and returns in one document")
+    public ResponseEntity<OrderSummaryDTO> getSummary(@PathVariable Integer orderId) {
+        OrderSummaryDTO summary = orderSummaryService.getSummary(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+        return ResponseEntity.ok(summary);
+    }
+
+    @GetMapping("/customer/{customerId}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or @securityService.isCustomerResourceOwner(#customerId)")
+    @Operation(summary = "Get customer order summaries", description = "Returns a page of a customer's order summaries, newest first")
+    public ResponseEntity<Page<OrderSummaryDTO>> getCustomerSummaries(@PathVariable Integer customerId, Pageable pageable) {
+        return ResponseEntity.ok(orderSummaryService.getCustomerSummaries(customerId, pageable));
+    }
+
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Rebuild order summaries", description = "Recomputes the summary documents of all orders")
+    public ResponseEntity<Map<String, Integer>> rebuildAll() {
+        logger.info("Rebuilding all order summaries");
+        return ResponseEntity.ok(Map.of("ordersProcessed", orderSummaryService.rebuildAll()));
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.PromotionCodeBatchRequestDTO;
+import com.example.demo.dto.PromotionCodeBatchStatusDTO;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.service.PromotionCodeService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/promotions/{promotionId}/codes")
+@Tag(name = "Promotion Code Controller", description = "API to mint and list one-time promotion codes")
+public class PromotionCodeController {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromotionCodeController.class);
+
+    private final PromotionCodeService promotionCodeService;
+
+    @Autowired
+    public PromotionCodeController(PromotionCodeService promotionCodeService) {
+        this.promotionCodeService = promotionCodeService;
+    }
+
+    @PostMapping("/batches")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Generate one-time codes", description = "Starts a background batch of unique one-time codes for a promotion")
+    public ResponseEntity<Map<String, String>> startBatch(@PathVariable Integer promotionId,
+                                                          @Valid @RequestBody PromotionCodeBatchRequestDTO request) {
+        logger.info("Generating {} one-time codes for promotion {}", request.getCount(), promotionId);
+        try {
+            String batchId = promotionCodeService.startBatch(promotionId, request);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("batchId", batchId));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @GetMapping("/batches/{batchId}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    @Operation(summary = "Batch progress", description = "Returns the progress and collision counts of a code batch")
+    public ResponseEntity<PromotionCodeBatchStatusDTO> getBatch(@PathVariable Integer promotionId,
+                                                                @PathVariable String batchId) {
+        PromotionCodeBatchStatusDTO batch = promotionCodeService.getBatch(batchId)
+                .filter(status -> status.getPromotionId().equals(promotionId))
+                .orElseThrow(() -> new ResourceNotFoundException("Code batch", "id", batchId));
+        return ResponseEntity.ok(batch);
+    }
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    @Operation(summary = "List one-time codes", description = "Returns the one-time codes of a promotion, one page at a time")
+    public ResponseEntity<Page<String>> getCodes(@PathVariable Integer promotionId, Pageable pageable) {
+        return ResponseEntity.ok(promotionCodeService.getCodes(promotionId, pageable));
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.CartEvaluationDTO;
+import com.example.demo.dto.CartEvaluationRequestDTO;
+import com.example.demo.dto.PromotionRuleDTO;
+import com.example.demo.entities.Promotion;
+import com.example.demo.service.PromotionRuleService;
+import com.example.demo.service.PromotionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/promotions")
+@Tag(name = "Promotion Rule Controller", description = "API for promotion targeting rules and cart discount previews")
+public class PromotionRuleController {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromotionRuleController.class);
+
+    private final PromotionRuleService promotionRuleService;
+    private final PromotionService promotionService;
+
+    @Autowired
+    public PromotionRuleController(PromotionRuleService promotionRuleService, PromotionService promotionService) {
+        this.promotionRuleService = promotionRuleService;
+        this.promotionService = promotionService;
+    }
+
+    @GetMapping("/{promotionId}/rules")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    @Operation(summary = "Get promotion rules", description = "Lists the targeting rules of a promotion in stacking order")
+    public ResponseEntity<List<PromotionRuleDTO>> getRules(@PathVariable Integer promotionId) {
+        return ResponseEntity.ok(promotionRuleService.getRules(promotionId));
+    }
+
+    @PostMapping("/{promotionId}/rules")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Add a promotion rule", description = "Adds a product, category, brand or whole-cart rule to a promotion")
+    public ResponseEntity<PromotionRuleDTO> addRule(@PathVariable Integer promotionId,
+                                                    @Valid @RequestBody PromotionRuleDTO rule) {
+        logger.info("Adding {} rule to promotion {}", rule.getTargetType(), promotionId);
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(promotionRuleService.addRule(promotionId, rule));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @DeleteMapping("/{promotionId}/rules/{ruleId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Delete a promotion rule")
+    public ResponseEntity<Void> deleteRule(@PathVariable Integer promotionId, @PathVariable Integer ruleId) {
+        promotionRuleService.deleteRule(promotionId, ruleId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/evaluate")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Preview cart discounts", description = "Prices a cart with the automatic promotions and an optional promotion code, without placing an order")
+    public ResponseEntity<CartEvaluationDTO> evaluateCart(@Valid @RequestBody CartEvaluationRequestDTO request) {
+        Promotion promotion = null;
+        if (request.getPromotionCode() != null && !request.getPromotionCode().isBlank()) {
+            promotion = promotionService.findValidPromotion(request.getPromotionCode())
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                            "Promotion code is not valid: " + request.getPromotionCode()));
+        }
+        try {
+            return ResponseEntity.ok(promotionRuleService.evaluateCart(request.getLines(), promotion));
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.ReplenishmentPlanDTO;
+import com.example.demo.service.ReplenishmentService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/api/v1/replenishment")
+@Tag(name = "Replenishment Controller", description = "API to plan and generate supply orders from stock levels")
+public class ReplenishmentController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplenishmentController.class);
+
+    private final ReplenishmentService replenishmentService;
+
+    @Autowired
+    public ReplenishmentController(ReplenishmentService replenishmentService) {
+        this.replenishmentService = replenishmentService;
+    }
+
+    @GetMapping("/plan")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    @Operation(summary = "Preview replenishment", description = "Computes supply order drafts grouped by supplier without saving them")
+    public ResponseEntity<ReplenishmentPlanDTO> previewReplenishment() {
+        logger.info("Computing replenishment plan preview");
+        try {
+            return ResponseEntity.ok(replenishmentService.planReplenishment());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
+        }
+    }
+
+    @PostMapping("/run")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    @Operation(summary = "Run replenishment", description = "Computes the replenishment plan and creates the supply order drafts")
+    public ResponseEntity<ReplenishmentPlanDTO> runReplenishment() {
+        logger.info("Running replenishment");
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(replenishmentService.runReplenishment());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
+        }
+    }
+}
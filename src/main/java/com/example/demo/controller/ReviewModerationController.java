@@ -0,0 +1,84 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.ReviewDTO;
+import com.example.demo.dto.ReviewModerationRequestDTO;
+import com.example.demo.dto.ReviewModerationStatsDTO;
+import com.example.demo.service.ReviewModerationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/reviews/moderation")
+@Tag(name = "Review Moderation Controller", description = "API for the review moderation queue")
+public class ReviewModerationController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReviewModerationController.class);
+
+    private final ReviewModerationService moderationService;
+
+    @Autowired
+    public ReviewModerationController(ReviewModerationService moderationService) {
+        this.moderationService = moderationService;
+    }
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    @Operation(summary = "List reviews by moderation status", description = "Returns PENDING, FLAGGED, APPROVED or REJECTED reviews; flagged ones carry the check's reason")
+    public ResponseEntity<Page<ReviewDTO>> getReviews(@RequestParam(defaultValue = "FLAGGED") String status,
+                                                      Pageable pageable) {
+        try {
+            return ResponseEntity.ok(moderationService.getReviewsByStatus(status, pageable).map(ReviewDTO::fromEntity));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @PutMapping("/{reviewId}/approve")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    @Operation(summary = "Approve a review", description = "Publishes the review whatever its status")
+    public ResponseEntity<ReviewDTO> approve(@PathVariable Integer reviewId) {
+        logger.info("Approving review {}", reviewId);
+        return ResponseEntity.ok(ReviewDTO.fromEntity(moderationService.approveReview(reviewId)));
+    }
+
+    @PutMapping("/{reviewId}/reject")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    @Operation(summary = "Reject a review", description = "Hides the review whatever its status")
+    public ResponseEntity<ReviewDTO> reject(@PathVariable Integer reviewId,
+                                            @RequestParam(required = false) String reason) {
+        logger.info("Rejecting review {}", reviewId);
+        return ResponseEntity.ok(ReviewDTO.fromEntity(moderationService.rejectReview(reviewId, reason)));
+    }
+
+    @PostMapping("/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Approve or reject by filter", description = "Decides every review matching the filter with a single update and returns how many changed")
+    public ResponseEntity<Map<String, Integer>> moderate(@Valid @RequestBody ReviewModerationRequestDTO request) {
+        logger.info("Bulk moderation: {}", request);
+        try {
+            return ResponseEntity.ok(Map.of("updated", moderationService.moderate(request)));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    @Operation(summary = "Moderation pipeline stats", description = "Returns queue depth, backlog, decision counts, throughput and latency of the checks")
+    public ResponseEntity<ReviewModerationStatsDTO> getStats() {
+        return ResponseEntity.ok(moderationService.getStats());
+    }
+}
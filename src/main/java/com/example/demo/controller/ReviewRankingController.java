@@ -0,0 +1,109 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.ReviewDTO;
+import com.example.demo.dto.ReviewFeedDTO;
+import com.example.demo.dto.ReviewVoteRequestDTO;
+import com.example.demo.entities.Review;
+import com.example.demo.service.ReviewService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/reviews")
+@Tag(name = "Review Ranking Controller", description = "API for review helpfulness votes and ranked review lists")
+public class ReviewRankingController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReviewRankingController.class);
+    private static final int MAX_FEED_LIMIT = 100;
+
+    private final ReviewService reviewService;
+
+    @Autowired
+    public ReviewRankingController(ReviewService reviewService) {
+        this.reviewService = reviewService;
+    }
+
+    @PostMapping("/{reviewId}/votes")
+    @PreAuthorize("hasRole('ADMIN') or @securityService.isCustomerResourceOwner(#request.customerId)")
+    @Operation(summary = "Vote on a review", description = "Records whether a customer found a review helpful, replacing their earlier vote")
+    public ResponseEntity<ReviewDTO> vote(@PathVariable Integer reviewId,
+                                          @Valid @RequestBody ReviewVoteRequestDTO request) {
+        logger.info("Customer {} voting on review {}", request.getCustomerId(), reviewId);
+        try {
+            return ResponseEntity.ok(ReviewDTO.fromEntity(
+                    reviewService.voteOnReview(reviewId, request.getCustomerId(), request.getHelpful())));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @GetMapping("/product/{productId}/most-helpful")
+    @Operation(summary = "Get most helpful reviews", description = "Returns a product's reviews by helpfulness, favouring recent ones")
+    public ResponseEntity<Page<ReviewDTO>> getMostHelpful(@PathVariable Integer productId, Pageable pageable) {
+        logger.debug("Fetching most helpful reviews for product ID: {}", productId);
+        return ResponseEntity.ok(reviewService.getMostHelpfulReviews(productId, pageable).map(ReviewDTO::fromEntity));
+    }
+
+    @GetMapping("/product/{productId}/most-recent")
+    @Operation(summary = "Get most recent reviews", description = "Returns a product's reviews, newest first")
+    public ResponseEntity<Page<ReviewDTO>> getMostRecent(@PathVariable Integer productId, Pageable pageable) {
+        logger.debug("Fetching most recent reviews for product ID: {}", productId);
+        return ResponseEntity.ok(reviewService.getMostRecentReviews(productId, pageable).map(ReviewDTO::fromEntity));
+    }
+
+    @GetMapping("/recent")
+    @Operation(summary = "Get recent reviews feed", description = "Returns the latest published reviews, continuing after the given cursor")
+    public ResponseEntity<ReviewFeedDTO> getRecentFeed(@RequestParam(required = false) String cursor,
+                                                       @RequestParam(defaultValue = "20") int limit) {
+        logger.debug("Fetching recent reviews feed after cursor: {}", cursor);
+        return ResponseEntity.ok(feed(null, cursor, limit));
+    }
+
+    @GetMapping("/product/{productId}/recent")
+    @Operation(summary = "Get recent reviews feed of a product", description = "Returns a product's latest published reviews, continuing after the given cursor")
+    public ResponseEntity<ReviewFeedDTO> getRecentFeedOfProduct(@PathVariable Integer productId,
+                                                                @RequestParam(required = false) String cursor,
+                                                                @RequestParam(defaultValue = "20") int limit) {
+        logger.debug("Fetching recent reviews feed for product ID: {} after cursor: {}", productId, cursor);
+        return ResponseEntity.ok(feed(productId, cursor, limit));
+    }
+
+    // Cursors are "<review date>_<review ID>" of the last review served
+    private ReviewFeedDTO feed(Integer productId, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_FEED_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + MAX_FEED_LIMIT);
+        }
+        Instant before = null;
+        Integer beforeId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            int separator = cursor.lastIndexOf('_');
+            try {
+                before = Instant.parse(cursor.substring(0, Math.max(separator, 0)));
+                beforeId = Integer.valueOf(cursor.substring(separator + 1));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + cursor, e);
+            }
+        }
+        List<Review> reviews = reviewService.getRecentReviews(productId, before, beforeId, limit);
+        Review last = reviews.size() == limit ? reviews.get(reviews.size() - 1) : null;
+        return ReviewFeedDTO.builder()
+                .reviews(reviews.stream().map(ReviewDTO::fromEntity).toList())
+                .nextCursor(last != null ? last.getReviewDate() + "_" + last.getId() : null)
+                .build();
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.ReviewDTO;
+import com.example.demo.service.ReviewService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/api/v1/reviews/search")
+@Tag(name = "Review Search Controller", description = "API for full-text search over review comments")
+public class ReviewSearchController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReviewSearchController.class);
+
+    private final ReviewService reviewService;
+
+    @Autowired
+    public ReviewSearchController(ReviewService reviewService) {
+        this.reviewService = reviewService;
+    }
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    @Operation(summary = "Search reviews", description = "Returns reviews whose comments contain all the words and \"quoted phrases\" of the query, most relevant first")
+    public ResponseEntity<Page<ReviewDTO>> search(@RequestParam String q,
+                                                  @RequestParam(required = false) Integer productId,
+                                                  @RequestParam(required = false) Integer minRating,
+                                                  @RequestParam(required = false) Integer maxRating,
+                                                  Pageable pageable) {
+        if (q.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Search query cannot be empty");
+        }
+        logger.debug("Searching reviews for '{}'", q);
+        try {
+            return ResponseEntity.ok(reviewService.searchReviews(q, productId, minRating, maxRating, pageable)
+                    .map(ReviewDTO::fromEntity));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+}
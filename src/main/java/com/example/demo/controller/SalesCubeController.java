@@ -0,0 +1,52 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.SalesCubeQueryDTO;
+import com.example.demo.dto.SalesCubeResultDTO;
+import com.example.demo.service.SalesCubeService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/analytics/sales-cube")
+@Tag(name = "Sales Cube Controller", description = "API to slice revenue and units by product, category, store, employee and day")
+public class SalesCubeController {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesCubeController.class);
+
+    private final SalesCubeService salesCubeService;
+
+    @Autowired
+    public SalesCubeController(SalesCubeService salesCubeService) {
+        this.salesCubeService = salesCubeService;
+    }
+
+    @PostMapping("/query")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    @Operation(summary = "Query the sales cube", description = "Filters sale lines, groups them by the requested dimensions and returns the top groups by revenue or units")
+    public ResponseEntity<SalesCubeResultDTO> query(@Valid @RequestBody SalesCubeQueryDTO query) {
+        try {
+            return ResponseEntity.ok(salesCubeService.query(query));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @PostMapping("/reload")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Reload the sales cube", description = "Rebuilds the cube from the order tables")
+    public ResponseEntity<Map<String, Integer>> reload() {
+        logger.info("Reloading the sales cube");
+        return ResponseEntity.ok(Map.of("linesLoaded", salesCubeService.reload()));
+    }
+}
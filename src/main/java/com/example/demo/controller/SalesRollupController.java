@@ -0,0 +1,64 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.SalesRevenueDTO;
+import com.example.demo.service.SalesRollupService;
+import com.example.demo.service.SalesRollupService.Dimension;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/sales/rollups")
+@Tag(name = "Sales Rollup Controller", description = "API for revenue reports served from daily sales rollups")
+public class SalesRollupController {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesRollupController.class);
+
+    private final SalesRollupService salesRollupService;
+
+    @Autowired
+    public SalesRollupController(SalesRollupService salesRollupService) {
+        this.salesRollupService = salesRollupService;
+    }
+
+    @GetMapping("/revenue")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    @Operation(summary = "Revenue report", description = "Returns revenue, order count and units for a store, employee, customer, product, promotion or overall")
+    public ResponseEntity<SalesRevenueDTO> getRevenue(
+            @RequestParam(defaultValue = "ALL") Dimension dimension,
+            @RequestParam(required = false) Integer id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "false") boolean includeDays) {
+        try {
+            return ResponseEntity.ok(salesRollupService.getRevenue(dimension, id, from, to, includeDays));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Rebuild rollups", description = "Recomputes the daily rollups of a date range from raw orders")
+    public ResponseEntity<Map<String, Integer>> rebuild(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        logger.info("Rebuilding sales rollups from {} to {}", from, to);
+        try {
+            return ResponseEntity.ok(Map.of("rowsWritten", salesRollupService.rebuild(from, to)));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.demo.dto;
+
+import com.example.demo.entities.BackInStockSubscription;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * Data Transfer Object for BackInStockSubscription entities
+ */
+@Value
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BackInStockSubscriptionDTO {
+
+    Integer id;
+
+    Integer customerId;
+
+    Integer productId;
+
+    String productName;
+
+    // Absent when any store's restock counts
+    Integer storeId;
+
+    Instant createdAt;
+
+    public static BackInStockSubscriptionDTO fromEntity(BackInStockSubscription subscription) {
+        if (subscription == null) {
+            return null;
+        }
+
+        return BackInStockSubscriptionDTO.builder()
+                .id(subscription.getId())
+                .customerId(subscription.getCustomer() != null ? subscription.getCustomer().getId() : null)
+                .productId(subscription.getProduct() != null ? subscription.getProduct().getId() : null)
+                .productName(subscription.getProduct() != null ? subscription.getProduct().getProductName() : null)
+                .storeId(subscription.getStore() != null ? subscription.getStore().getId() : null)
+                .createdAt(subscription.getCreatedAt())
+                .build();
+    }
+}
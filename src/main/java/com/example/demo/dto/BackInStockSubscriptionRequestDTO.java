@@ -0,0 +1,24 @@
+package com.example.demo.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+/**
+ * Data Transfer Object for a customer's back-in-stock subscription to a product
+ * Without a store ID the customer is alerted when the product is restocked at any store
+ */
+@Value
+@Builder
+@Jacksonized
+public class BackInStockSubscriptionRequestDTO {
+
+    @NotNull(message = "Customer ID is required")
+    Integer customerId;
+
+    @NotNull(message = "Product ID is required")
+    Integer productId;
+
+    Integer storeId;
+}
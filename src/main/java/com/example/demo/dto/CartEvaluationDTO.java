@@ -0,0 +1,31 @@
+package com.example.demo.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data Transfer Object for the promotions applied to a cart and the resulting prices
+ */
+@Value
+@Builder
+public class CartEvaluationDTO {
+
+    BigDecimal subtotal;
+
+    BigDecimal discount;
+
+    BigDecimal total;
+
+    // Promotions applied, in the order they were stacked
+    List<Integer> appliedPromotionIds;
+
+    // Rule applied for each applied promotion; 0 for a promotion without rules
+    List<Integer> appliedRuleIds;
+
+    // Discount per product line
+    Map<Integer, BigDecimal> lineDiscounts;
+}
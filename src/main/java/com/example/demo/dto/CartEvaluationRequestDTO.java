@@ -0,0 +1,26 @@
+package com.example.demo.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.util.Map;
+
+/**
+ * Data Transfer Object for previewing the promotions on a cart
+ * Maps product IDs to the quantity in the cart
+ */
+@Value
+@Builder
+@Jacksonized
+public class CartEvaluationRequestDTO {
+
+    @Size(max = 20, message = "Promotion code cannot exceed 20 characters")
+    String promotionCode;
+
+    @NotEmpty(message = "At least one cart line is required")
+    Map<Integer, @Min(value = 1, message = "Quantity must be at least 1") Integer> lines;
+}
@@ -0,0 +1,27 @@
+package com.example.demo.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+/**
+ * Data Transfer Object for cart checkout requests
+ */
+@Value
+@Builder
+@Jacksonized
+public class CheckoutRequestDTO {
+
+    @NotNull(message = "Payment method ID cannot be null")
+    Integer paymentMethodId;
+
+    Integer addressId;
+
+    @Size(max = 20, message = "Promotion code cannot exceed 20 characters")
+    String promotionCode;
+
+    // Seller the order is booked on; online orders fall back to the configured online seller
+    Integer employeeSellerId;
+}
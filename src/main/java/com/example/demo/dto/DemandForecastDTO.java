@@ -0,0 +1,65 @@
+package com.example.demo.dto;
+
+import com.example.demo.entities.DemandForecast;
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Data Transfer Object for the demand forecast of a product in a store
+ */
+@Value
+@Builder
+public class DemandForecastDTO {
+
+    Integer productId;
+
+    Integer storeId;
+
+    String model;
+
+    BigDecimal alpha;
+
+    // Expected units per day; both models forecast a flat rate
+    BigDecimal dailyForecast;
+
+    BigDecimal mae;
+
+    BigDecimal rmse;
+
+    BigDecimal bias;
+
+    Integer demandDays;
+
+    Integer observedDays;
+
+    Instant generatedAt;
+
+    /**
+     * Converts a DemandForecast entity to DemandForecastDTO
+     *
+     * @param forecast The DemandForecast entity
+     * @return DemandForecastDTO
+     */
+    public static DemandForecastDTO fromEntity(DemandForecast forecast) {
+        if (forecast == null) {
+            return null;
+        }
+
+        return DemandForecastDTO.builder()
+                .productId(forecast.getProductId())
+                .storeId(forecast.getStoreId())
+                .model(forecast.getModel())
+                .alpha(forecast.getAlpha())
+                .dailyForecast(forecast.getDailyForecast())
+                .mae(forecast.getMae())
+                .rmse(forecast.getRmse())
+                .bias(forecast.getBias())
+                .demandDays(forecast.getDemandDays())
+                .observedDays(forecast.getObservedDays())
+                .generatedAt(forecast.getGeneratedAt())
+                .build();
+    }
+}
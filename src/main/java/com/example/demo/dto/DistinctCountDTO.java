@@ -0,0 +1,40 @@
+package com.example.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Data Transfer Object for an estimated number of distinct customers across a set of products,
+ * stores and categories over a date range, with its error bounds
+ */
+@Value
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DistinctCountDTO {
+
+    List<Integer> productIds;
+
+    List<Integer> storeIds;
+
+    List<Integer> categoryIds;
+
+    LocalDate from;
+
+    LocalDate to;
+
+    long estimate;
+
+    // Relative standard error of the estimate
+    double standardError;
+
+    // 95% confidence interval
+    long lowerBound;
+
+    long upperBound;
+
+    int sketchesMerged;
+}
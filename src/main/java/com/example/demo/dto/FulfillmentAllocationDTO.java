@@ -0,0 +1,49 @@
+package com.example.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data Transfer Object for the result of a fulfillment allocation
+ * One shipment per store, plus whatever could not be allocated anywhere
+ */
+@Value
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FulfillmentAllocationDTO {
+
+    int shipmentCount;
+
+    // False when the solver ran out of time and returned its best split so far
+    boolean optimal;
+
+    boolean fullyAllocated;
+
+    List<Shipment> shipments;
+
+    // Product ID to the quantity no store could supply
+    Map<Integer, Integer> unallocated;
+
+    Instant reservedUntil;
+
+    /**
+     * Lines shipped from a single store
+     */
+    @Value
+    @Builder
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Shipment {
+
+        Integer storeId;
+
+        // Product ID to the quantity taken from this store
+        Map<Integer, Integer> lines;
+
+        List<Integer> reservationIds;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.demo.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.util.Map;
+
+/**
+ * Data Transfer Object for fulfillment allocation requests
+ * Maps product IDs to the quantity ordered
+ */
+@Value
+@Builder
+@Jacksonized
+public class FulfillmentRequestDTO {
+
+    @NotEmpty(message = "At least one order line is required")
+    Map<Integer, @Min(value = 1, message = "Quantity must be at least 1") Integer> lines;
+
+    // How long the reservations are held, only used when reserving
+    @Min(value = 1, message = "Hold time must be at least 1 minute")
+    Integer holdMinutes;
+}
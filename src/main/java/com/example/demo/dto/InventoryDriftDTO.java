@@ -0,0 +1,52 @@
+package com.example.demo.dto;
+
+import com.example.demo.entities.InventoryDrift;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Data Transfer Object for a single line of an inventory drift report
+ */
+@Value
+@Builder
+public class InventoryDriftDTO {
+
+    Integer storeId;
+
+    Integer productId;
+
+    Integer actualQuantity;
+
+    Integer expectedQuantity;
+
+    Integer reservedQuantity;
+
+    Integer drift;
+
+    Boolean overReserved;
+
+    Boolean corrected;
+
+    /**
+     * Converts an InventoryDrift entity to InventoryDriftDTO
+     *
+     * @param drift The InventoryDrift entity
+     * @return InventoryDriftDTO
+     */
+    public static InventoryDriftDTO fromEntity(InventoryDrift drift) {
+        if (drift == null) {
+            return null;
+        }
+
+        return InventoryDriftDTO.builder()
+                .storeId(drift.getStoreId())
+                .productId(drift.getProductId())
+                .actualQuantity(drift.getActualQuantity())
+                .expectedQuantity(drift.getExpectedQuantity())
+                .reservedQuantity(drift.getReservedQuantity())
+                .drift(drift.getDrift())
+                .overReserved(drift.getOverReserved())
+                .corrected(drift.getCorrected())
+                .build();
+    }
+}
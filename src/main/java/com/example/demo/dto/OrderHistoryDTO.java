@@ -0,0 +1,32 @@
+package com.example.demo.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Data Transfer Object for an order from either the hot order tables or the archive
+ */
+@Value
+@Builder
+public class OrderHistoryDTO {
+
+    Integer orderId;
+
+    Integer customerId;
+
+    Integer employeeSellerId;
+
+    Integer storeId;
+
+    LocalDate purchaseDate;
+
+    BigDecimal totalPrice;
+
+    String status;
+
+    // True when the order was read from the archive tables
+    boolean archived;
+}
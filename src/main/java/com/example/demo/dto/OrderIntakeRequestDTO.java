@@ -0,0 +1,38 @@
+package com.example.demo.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.util.Map;
+
+/**
+ * Data Transfer Object for orders placed through the asynchronous intake queue
+ * Maps product IDs to the quantity ordered
+ */
+@Value
+@Builder
+@Jacksonized
+public class OrderIntakeRequestDTO {
+
+    @NotNull(message = "Customer ID is required")
+    Integer customerId;
+
+    // Seller the order is booked on; online orders fall back to the configured online seller
+    Integer employeeSellerId;
+
+    @NotNull(message = "Payment method ID is required")
+    Integer paymentMethodId;
+
+    Integer addressId;
+
+    @Size(max = 20, message = "Promotion code cannot exceed 20 characters")
+    String promotionCode;
+
+    @NotEmpty(message = "At least one order line is required")
+    Map<Integer, @Min(value = 1, message = "Quantity must be at least 1") Integer> lines;
+}
@@ -0,0 +1,29 @@
+package com.example.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * Data Transfer Object for the outcome of an asynchronously placed order
+ * Status is QUEUED, PROCESSING, COMPLETED or REJECTED; the order ID is set once completed
+ */
+@Value
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OrderIntakeStatusDTO {
+
+    String intakeId;
+
+    String status;
+
+    Integer orderId;
+
+    String error;
+
+    Instant acceptedAt;
+
+    Instant completedAt;
+}
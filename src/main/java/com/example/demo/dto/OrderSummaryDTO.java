@@ -0,0 +1,113 @@
+package com.example.demo.dto;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Data Transfer Object for the denormalized order summary behind the order history and tracking pages
+ * Stored as the JSON document of OrderSummaryDocument and returned as is
+ */
+@Value
+@Builder
+@Jacksonized
+public class OrderSummaryDTO {
+
+    Integer orderId;
+
+    Integer customerId;
+
+    Integer employeeSellerId;
+
+    Integer storeId;
+
+    Integer paymentMethodId;
+
+    Integer addressId;
+
+    String promotionCode;
+
+    LocalDate purchaseDate;
+
+    String status;
+
+    List<Line> lines;
+
+    // Sum of original prices before discounts
+    BigDecimal subtotal;
+
+    BigDecimal discountTotal;
+
+    BigDecimal total;
+
+    BigDecimal refundedTotal;
+
+    // Total less refunds
+    BigDecimal netTotal;
+
+    // PENDING until something ships, IN_TRANSIT while any shipment is undelivered, then DELIVERED
+    String shipmentStatus;
+
+    List<Shipment> shipments;
+
+    List<ReturnLine> returns;
+
+    Instant updatedAt;
+
+    @Value
+    @Builder
+    @Jacksonized
+    public static class Line {
+
+        Integer productId;
+
+        String productName;
+
+        Integer quantity;
+
+        BigDecimal unitPrice;
+
+        BigDecimal unitDiscount;
+
+        BigDecimal lineTotal;
+    }
+
+    @Value
+    @Builder
+    @Jacksonized
+    public static class Shipment {
+
+        Integer shippingId;
+
+        String trackingNumber;
+
+        String shippingProvider;
+
+        Instant shippedDate;
+
+        Instant deliveredDate;
+    }
+
+    @Value
+    @Builder
+    @Jacksonized
+    public static class ReturnLine {
+
+        Integer returnId;
+
+        Integer productId;
+
+        Integer quantityReturned;
+
+        BigDecimal refundedAmount;
+
+        String reason;
+
+        LocalDate returnDate;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.demo.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+/**
+ * Data Transfer Object for minting a batch of one-time promotion codes
+ * Codes are the prefix followed by length random characters of the alphabet
+ */
+@Value
+@Builder
+@Jacksonized
+public class PromotionCodeBatchRequestDTO {
+
+    @NotNull(message = "Count is required")
+    @Min(value = 1, message = "Count must be at least 1")
+    @Max(value = 50_000_000, message = "Count cannot exceed 50,000,000")
+    Integer count;
+
+    @Min(value = 4, message = "Length must be at least 4")
+    @Max(value = 20, message = "Length cannot exceed 20")
+    Integer length;
+
+    // Defaults to upper-case letters and digits without the easily confused 0, 1, I and O
+    @Size(min = 2, max = 64, message = "Alphabet must have between 2 and 64 characters")
+    String alphabet;
+
+    @Pattern(regexp = "[A-Za-z0-9-]{0,10}", message = "Prefix must be up to 10 letters, digits or dashes")
+    String prefix;
+}
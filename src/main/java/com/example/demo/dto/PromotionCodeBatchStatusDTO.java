@@ -0,0 +1,46 @@
+package com.example.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * Data Transfer Object for the progress of a one-time code batch
+ * Status is QUEUED, SEEDING, GENERATING, COMPLETED or FAILED
+ */
+@Value
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PromotionCodeBatchStatusDTO {
+
+    String batchId;
+
+    Integer promotionId;
+
+    String status;
+
+    Integer requested;
+
+    // Codes inserted so far
+    Long generated;
+
+    // Existing codes loaded into the Bloom filter
+    Long existingCodes;
+
+    // Candidates the Bloom filter flagged, and those the database confirmed as taken
+    Long probableCollisions;
+
+    Long confirmedCollisions;
+
+    Instant startedAt;
+
+    Instant finishedAt;
+
+    Long elapsedMs;
+
+    Double codesPerSecond;
+
+    String errorMessage;
+}
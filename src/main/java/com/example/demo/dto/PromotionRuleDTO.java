@@ -0,0 +1,73 @@
+package com.example.demo.dto;
+
+import com.example.demo.entities.PromotionRule;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.math.BigDecimal;
+
+/**
+ * Data Transfer Object for promotion targeting rules
+ * A rule takes either a percentage or a fixed amount off the lines it targets
+ */
+@Value
+@Builder
+@Jacksonized
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PromotionRuleDTO {
+
+    Integer id;
+
+    Integer promotionId;
+
+    @NotNull(message = "Target type is required")
+    @Pattern(regexp = "PRODUCT|CATEGORY|BRAND|CART", message = "Target type must be PRODUCT, CATEGORY, BRAND or CART")
+    String targetType;
+
+    // Product or category ID for PRODUCT and CATEGORY rules
+    Integer targetId;
+
+    @Size(max = 50, message = "Brand cannot exceed 50 characters")
+    String brand;
+
+    @DecimalMin(value = "0.0", message = "Minimum spend cannot be negative")
+    BigDecimal minSpend;
+
+    @Min(value = 0, message = "Minimum quantity cannot be negative")
+    Integer minQuantity;
+
+    @DecimalMin(value = "0.0", inclusive = false, message = "Discount percentage must be greater than 0")
+    @DecimalMax(value = "100.0", message = "Discount percentage cannot exceed 100")
+    BigDecimal discountPercentage;
+
+    @DecimalMin(value = "0.0", inclusive = false, message = "Discount amount must be greater than 0")
+    BigDecimal discountAmount;
+
+    Integer priority;
+
+    Boolean exclusive;
+
+    public static PromotionRuleDTO fromEntity(PromotionRule rule) {
+        return PromotionRuleDTO.builder()
+                .id(rule.getId())
+                .promotionId(rule.getPromotion().getId())
+                .targetType(rule.getTargetType())
+                .targetId(rule.getTargetId())
+                .brand(rule.getBrand())
+                .minSpend(rule.getMinSpend())
+                .minQuantity(rule.getMinQuantity())
+                .discountPercentage(rule.getDiscountPercentage())
+                .discountAmount(rule.getDiscountAmount())
+                .priority(rule.getPriority())
+                .exclusive(rule.getExclusive())
+                .build();
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.demo.dto;
+
+import com.example.demo.entities.InventoryReconciliationRun;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * Data Transfer Object for inventory reconciliation runs
+ * Reports progress and throughput while a run is active, and the totals once it has finished
+ */
+@Value
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ReconciliationStatusDTO {
+
+    Integer runId;
+
+    String status;
+
+    Boolean applyCorrections;
+
+    Integer totalStores;
+
+    Integer storesChecked;
+
+    Long keysChecked;
+
+    Integer driftCount;
+
+    Integer correctionsApplied;
+
+    Instant startedAt;
+
+    Instant finishedAt;
+
+    Long elapsedMs;
+
+    // (store, product) keys reconciled per second
+    Double keysPerSecond;
+
+    String errorMessage;
+
+    /**
+     * Converts a finished InventoryReconciliationRun entity to ReconciliationStatusDTO
+     *
+     * @param run The InventoryReconciliationRun entity
+     * @return ReconciliationStatusDTO
+     */
+    public static ReconciliationStatusDTO fromEntity(InventoryReconciliationRun run) {
+        if (run == null) {
+            return null;
+        }
+
+        Long elapsedMs = run.getFinishedAt() != null
+                ? run.getFinishedAt().toEpochMilli() - run.getStartedAt().toEpochMilli()
+                : null;
+
+        return ReconciliationStatusDTO.builder()
+                .runId(run.getId())
+                .status(run.getStatus())
+                .applyCorrections(run.getApplyCorrections())
+                .storesChecked(run.getStoresChecked())
+                .keysChecked(run.getKeysChecked())
+                .driftCount(run.getDriftCount())
+                .correctionsApplied(run.getCorrectionsApplied())
+                .startedAt(run.getStartedAt())
+                .finishedAt(run.getFinishedAt())
+                .elapsedMs(elapsedMs)
+                .keysPerSecond(elapsedMs != null && elapsedMs > 0 ? run.getKeysChecked() * 1000.0 / elapsedMs : null)
+                .errorMessage(run.getErrorMessage())
+                .build();
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Data Transfer Object for a replenishment planner run
+ * Holds the supply order drafts grouped by supplier together with run statistics
+ */
+@Value
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ReplenishmentPlanDTO {
+
+    LocalDate planDate;
+
+    boolean applied;
+
+    int storesProcessed;
+
+    long skusEvaluated;
+
+    int linesPlanned;
+
+    int supplyOrdersCreated;
+
+    long durationMs;
+
+    List<SupplierDraft> drafts;
+
+    /**
+     * Supply order lines planned for a single supplier
+     */
+    @Value
+    @Builder
+    public static class SupplierDraft {
+
+        Integer supplierId;
+
+        List<Line> lines;
+    }
+
+    /**
+     * A single planned supply order line, summed over all stores that need the product
+     */
+    @Value
+    @Builder
+    public static class Line {
+
+        Integer productId;
+
+        Integer quantity;
+
+        BigDecimal unitPrice;
+
+        int storesBelowReorderPoint;
+    }
+}
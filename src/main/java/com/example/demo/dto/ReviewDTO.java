@@ -37,6 +37,14 @@ public class ReviewDTO {
     String comment;
     
     Instant reviewDate;
+
+    Integer helpfulVotes;
+
+    Integer unhelpfulVotes;
+
+    String status;
+
+    String moderationNote;
     
     /**
      * Converts a Review entity to ReviewDTO
@@ -65,6 +73,10 @@ public class ReviewDTO {
                 .rating(review.getRating())
                 .comment(review.getComment())
                 .reviewDate(review.getReviewDate())
+                .helpfulVotes(review.getHelpfulVotes())
+                .unhelpfulVotes(review.getUnhelpfulVotes())
+                .status(review.getStatus())
+                .moderationNote(review.getModerationNote())
                 .build();
     }
     
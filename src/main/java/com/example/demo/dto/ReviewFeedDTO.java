@@ -0,0 +1,21 @@
+package com.example.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for a page of the recent reviews feed
+ * The cursor is passed back to fetch the reviews after this page, and is absent on the last page
+ */
+@Value
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ReviewFeedDTO {
+
+    List<ReviewDTO> reviews;
+
+    String nextCursor;
+}
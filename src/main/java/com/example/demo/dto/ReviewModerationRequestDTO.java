@@ -0,0 +1,51 @@
+package com.example.demo.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Data Transfer Object for approving or rejecting every review matching a filter
+ * Statuses default to PENDING and FLAGGED; other filter fields are optional
+ */
+@Value
+@Builder
+@Jacksonized
+public class ReviewModerationRequestDTO {
+
+    @NotNull(message = "Action is required")
+    @Pattern(regexp = "APPROVE|REJECT", message = "Action must be APPROVE or REJECT")
+    String action;
+
+    @Size(max = 255, message = "Reason cannot exceed 255 characters")
+    String reason;
+
+    List<@Pattern(regexp = "PENDING|FLAGGED|APPROVED|REJECTED", message = "Unknown review status") String> statuses;
+
+    Integer productId;
+
+    Integer customerId;
+
+    @Min(value = 1, message = "Rating must be at least 1")
+    @Max(value = 5, message = "Rating cannot exceed 5")
+    Integer minRating;
+
+    @Min(value = 1, message = "Rating must be at least 1")
+    @Max(value = 5, message = "Rating cannot exceed 5")
+    Integer maxRating;
+
+    Instant submittedFrom;
+
+    Instant submittedTo;
+
+    // Part of the note a check left on flagged reviews, e.g. "blocked word"
+    String noteContains;
+}
@@ -0,0 +1,38 @@
+package com.example.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Data Transfer Object for the state of the review moderation pipeline
+ * Latency is from submission to the checks' decision, over the most recent decisions
+ */
+@Value
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ReviewModerationStatsDTO {
+
+    // Reviews queued for the workers, and all reviews still waiting for their checks
+    Integer queueDepth;
+
+    Long pending;
+
+    // Reviews held for a moderator
+    Long flagged;
+
+    // Decisions by the checks since startup
+    Long checked;
+
+    Long approved;
+
+    Long held;
+
+    Double reviewsPerMinute;
+
+    Long medianLatencyMs;
+
+    Long p95LatencyMs;
+
+    Long maxLatencyMs;
+}
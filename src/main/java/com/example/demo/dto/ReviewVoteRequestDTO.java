@@ -0,0 +1,21 @@
+package com.example.demo.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+/**
+ * Data Transfer Object for a customer's helpful or not helpful vote on a review
+ */
+@Value
+@Builder
+@Jacksonized
+public class ReviewVoteRequestDTO {
+
+    @NotNull(message = "Customer ID is required")
+    Integer customerId;
+
+    @NotNull(message = "Helpful is required")
+    Boolean helpful;
+}
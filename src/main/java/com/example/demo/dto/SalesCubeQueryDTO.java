@@ -0,0 +1,44 @@
+package com.example.demo.dto;
+
+import com.example.demo.service.SalesCubeService.Dimension;
+import com.example.demo.service.SalesCubeService.Measure;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Data Transfer Object for a sales cube slice: filters, group-by dimensions and the top-N ranking
+ * Empty filters match everything; no group-by returns a single total row
+ */
+@Value
+@Builder
+@Jacksonized
+public class SalesCubeQueryDTO {
+
+    Set<Integer> productIds;
+
+    Set<Integer> categoryIds;
+
+    Set<Integer> storeIds;
+
+    Set<Integer> employeeIds;
+
+    LocalDate from;
+
+    LocalDate to;
+
+    List<Dimension> groupBy;
+
+    // Rows are ranked by this measure, highest first; defaults to revenue
+    Measure measure;
+
+    @Min(value = 1, message = "Limit must be at least 1")
+    @Max(value = 1000, message = "Limit cannot exceed 1000")
+    Integer limit;
+}
@@ -0,0 +1,56 @@
+package com.example.demo.dto;
+
+import com.example.demo.service.SalesCubeService.Dimension;
+import com.example.demo.service.SalesCubeService.Measure;
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data Transfer Object for the result of a sales cube query
+ * Totals cover all matching lines; grouping by category counts a line under each of its product's categories
+ */
+@Value
+@Builder
+public class SalesCubeResultDTO {
+
+    List<Dimension> groupBy;
+
+    Measure measure;
+
+    long scannedRows;
+
+    long matchedRows;
+
+    long units;
+
+    BigDecimal revenue;
+
+    int totalGroups;
+
+    Integer loadedThroughOrderId;
+
+    long elapsedMillis;
+
+    List<Row> rows;
+
+    /**
+     * One group; keys map each group-by dimension to its ID, or to the date for DAY.
+     * A null CATEGORY key holds products without a category
+     */
+    @Value
+    @Builder
+    public static class Row {
+
+        Map<Dimension, Object> keys;
+
+        long lines;
+
+        long units;
+
+        BigDecimal revenue;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Data Transfer Object for revenue of one rollup dimension member over a date range
+ * Reports how many days came from the daily rollups and how many were aggregated from raw orders
+ */
+@Value
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SalesRevenueDTO {
+
+    String dimension;
+
+    Integer dimensionId;
+
+    LocalDate from;
+
+    LocalDate to;
+
+    long orderCount;
+
+    long units;
+
+    BigDecimal revenue;
+
+    long rollupDays;
+
+    long rawDays;
+
+    List<Day> days;
+
+    /**
+     * Sales of a single day; days without sales are omitted
+     */
+    @Value
+    @Builder
+    public static class Day {
+
+        LocalDate date;
+
+        long orderCount;
+
+        long units;
+
+        BigDecimal revenue;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.demo.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Closed order moved out of Customer_Order by the order archive.
+ * References are kept as plain IDs so archived rows never block changes to the hot tables.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "\"Customer_Order_Archive\"", indexes = {
+        @Index(name = "IX_Customer_Order_Archive_Customer", columnList = "\"Customer_ID\", \"Purchase_Date\""),
+        @Index(name = "IX_Customer_Order_Archive_Date", columnList = "\"Purchase_Date\""),
+        @Index(name = "IX_Customer_Order_Archive_Status", columnList = "\"Status\", \"Purchase_Date\"")
+})
+public class ArchivedCustomerOrder {
+    @Id
+    @Column(name = "\"Order_ID\"", nullable = false)
+    private Integer id;
+
+    @Column(name = "\"Employee_Seller_ID\"", nullable = false)
+    private Integer employeeSellerId;
+
+    // Store of the seller at the time of archiving
+    @Column(name = "\"Store_ID\"")
+    private Integer storeId;
+
+    @Column(name = "\"Customer_ID\"", nullable = false)
+    private Integer customerId;
+
+    @Column(name = "\"Payment_Method_ID\"", nullable = false)
+    private Integer paymentMethodId;
+
+    @Column(name = "\"Address_ID\"")
+    private Integer addressId;
+
+    @Column(name = "\"Promotion_ID\"")
+    private Integer promotionId;
+
+    @Column(name = "\"Purchase_Date\"", nullable = false)
+    private LocalDate purchaseDate;
+
+    @Column(name = "\"Total_Price\"", nullable = false, precision = 10, scale = 2)
+    private BigDecimal totalPrice;
+
+    @Column(name = "\"Status\"", nullable = false, length = 20)
+    private String status;
+
+    @Column(name = "\"Archived_On\"", nullable = false)
+    private LocalDate archivedOn;
+}
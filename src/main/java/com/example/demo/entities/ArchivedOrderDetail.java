@@ -0,0 +1,36 @@
+package com.example.demo.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@Entity
+@IdClass(ArchivedOrderDetailId.class)
+@Table(name = "\"Order_Detail_Archive\"", indexes = {
+        @Index(name = "IX_Order_Detail_Archive_Product", columnList = "\"Product_ID\"")
+})
+public class ArchivedOrderDetail {
+    @Id
+    @Column(name = "\"Order_ID\"", nullable = false)
+    private Integer orderId;
+
+    @Id
+    @Column(name = "\"Product_ID\"", nullable = false)
+    private Integer productId;
+
+    @Column(name = "\"Quantity\"", nullable = false)
+    private Integer quantity;
+
+    @Column(name = "\"Original_Price\"", nullable = false, precision = 10, scale = 2)
+    private BigDecimal originalPrice;
+
+    @Column(name = "\"Discount_Amount\"", nullable = false, precision = 10, scale = 2)
+    private BigDecimal discountAmount;
+
+    @Column(name = "\"Final_Price\"", nullable = false, precision = 10, scale = 2)
+    private BigDecimal finalPrice;
+}
@@ -0,0 +1,34 @@
+package com.example.demo.entities;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+public class ArchivedOrderDetailId implements Serializable {
+    private static final long serialVersionUID = 5562071894410238817L;
+
+    private Integer orderId;
+
+    private Integer productId;
+
+    public ArchivedOrderDetailId() {
+    }
+
+    public ArchivedOrderDetailId(Integer orderId, Integer productId) {
+        this.orderId = orderId;
+        this.productId = productId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ArchivedOrderDetailId entity = (ArchivedOrderDetailId) o;
+        return Objects.equals(this.orderId, entity.orderId) &&
+                Objects.equals(this.productId, entity.productId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(orderId, productId);
+    }
+}
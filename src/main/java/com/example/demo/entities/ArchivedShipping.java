@@ -0,0 +1,34 @@
+package com.example.demo.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "\"Shipping_Archive\"", indexes = {
+        @Index(name = "IX_Shipping_Archive_Order", columnList = "\"Order_ID\"")
+})
+public class ArchivedShipping {
+    @Id
+    @Column(name = "\"Shipping_ID\"", nullable = false)
+    private Integer id;
+
+    @Column(name = "\"Order_ID\"", nullable = false)
+    private Integer orderId;
+
+    @Column(name = "\"Tracking_Number\"", length = 50)
+    private String trackingNumber;
+
+    @Column(name = "\"Shipping_Provider\"", length = 50)
+    private String shippingProvider;
+
+    @Column(name = "\"Shipped_Date\"")
+    private Instant shippedDate;
+
+    @Column(name = "\"Delivered_Date\"")
+    private Instant deliveredDate;
+}
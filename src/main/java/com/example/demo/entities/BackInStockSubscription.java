@@ -0,0 +1,43 @@
+package com.example.demo.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.Instant;
+
+// A customer's request to be told when a product is back in stock, at one store or at any; served once
+@Getter
+@Setter
+@Entity
+@Table(name = "\"Back_In_Stock_Subscriptions\"", indexes = {
+        @Index(name = "IX_Back_In_Stock_Subscriptions_Product", columnList = "\"Product_ID\", \"Store_ID\", \"Customer_ID\""),
+        @Index(name = "IX_Back_In_Stock_Subscriptions_Customer", columnList = "\"Customer_ID\"")
+})
+public class BackInStockSubscription {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "\"Subscription_ID\"", nullable = false)
+    private Integer id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @JoinColumn(name = "\"Customer_ID\"", nullable = false)
+    private Customer customer;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @JoinColumn(name = "\"Product_ID\"", nullable = false)
+    private Product product;
+
+    // Null for a restock at any store
+    @ManyToOne(fetch = FetchType.LAZY)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @JoinColumn(name = "\"Store_ID\"")
+    private Store store;
+
+    @Column(name = "\"Created_At\"", nullable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,56 @@
+package com.example.demo.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Getter
+@Setter
+@Entity
+@IdClass(DemandForecastId.class)
+@Table(name = "\"Demand_Forecast\"", indexes = {
+        @Index(name = "IX_Demand_Forecast_Generated_At", columnList = "\"Generated_At\"")
+})
+public class DemandForecast {
+    @Id
+    @Column(name = "\"Product_ID\"", nullable = false)
+    private Integer productId;
+
+    @Id
+    @Column(name = "\"Store_ID\"", nullable = false)
+    private Integer storeId;
+
+    // SES or CROSTON
+    @Column(name = "\"Model\"", nullable = false, length = 16)
+    private String model;
+
+    @Column(name = "\"Alpha\"", nullable = false, precision = 5, scale = 4)
+    private BigDecimal alpha;
+
+    // Expected units per day
+    @Column(name = "\"Daily_Forecast\"", nullable = false, precision = 12, scale = 4)
+    private BigDecimal dailyForecast;
+
+    // One-step-ahead in-sample errors (actual - forecast) over the history window
+    @Column(name = "\"Mae\"", nullable = false, precision = 12, scale = 4)
+    private BigDecimal mae;
+
+    @Column(name = "\"Rmse\"", nullable = false, precision = 12, scale = 4)
+    private BigDecimal rmse;
+
+    @Column(name = "\"Bias\"", nullable = false, precision = 12, scale = 4)
+    private BigDecimal bias;
+
+    // Days with at least one unit sold, out of the days observed since the first sale
+    @Column(name = "\"Demand_Days\"", nullable = false)
+    private Integer demandDays;
+
+    @Column(name = "\"Observed_Days\"", nullable = false)
+    private Integer observedDays;
+
+    @Column(name = "\"Generated_At\"", nullable = false)
+    private Instant generatedAt;
+}
@@ -0,0 +1,34 @@
+package com.example.demo.entities;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+public class DemandForecastId implements Serializable {
+    private static final long serialVersionUID = 3318742950186347201L;
+
+    private Integer productId;
+
+    private Integer storeId;
+
+    public DemandForecastId() {
+    }
+
+    public DemandForecastId(Integer productId, Integer storeId) {
+        this.productId = productId;
+        this.storeId = storeId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DemandForecastId entity = (DemandForecastId) o;
+        return Objects.equals(this.productId, entity.productId) &&
+                Objects.equals(this.storeId, entity.storeId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(productId, storeId);
+    }
+}
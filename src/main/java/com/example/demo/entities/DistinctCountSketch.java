@@ -0,0 +1,26 @@
+package com.example.demo.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "\"Distinct_Count_Sketch\"", indexes = {
+        @Index(name = "IX_Distinct_Count_Sketch_Date", columnList = "\"Sales_Date\"")
+})
+public class DistinctCountSketch {
+    @EmbeddedId
+    private DistinctCountSketchId id;
+
+    // Serialized HyperLogLog of the customer IDs that bought in this dimension member on this day
+    @Lob
+    @Column(name = "\"Sketch\"", nullable = false)
+    private byte[] sketch;
+
+    @Column(name = "\"Updated_At\"", nullable = false)
+    private Instant updatedAt;
+}
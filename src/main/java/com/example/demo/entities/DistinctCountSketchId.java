@@ -0,0 +1,52 @@
+package com.example.demo.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.Hibernate;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+@Getter
+@Setter
+@Embeddable
+public class DistinctCountSketchId implements Serializable {
+    private static final long serialVersionUID = 7431256019873410665L;
+
+    // PRODUCT, STORE or CATEGORY
+    @Column(name = "\"Dimension\"", nullable = false, length = 10)
+    private String dimension;
+
+    @Column(name = "\"Dimension_ID\"", nullable = false)
+    private Integer dimensionId;
+
+    @Column(name = "\"Sales_Date\"", nullable = false)
+    private LocalDate salesDate;
+
+    public DistinctCountSketchId() {
+    }
+
+    public DistinctCountSketchId(String dimension, Integer dimensionId, LocalDate salesDate) {
+        this.dimension = dimension;
+        this.dimensionId = dimensionId;
+        this.salesDate = salesDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) return false;
+        DistinctCountSketchId entity = (DistinctCountSketchId) o;
+        return Objects.equals(this.dimension, entity.dimension) &&
+                Objects.equals(this.dimensionId, entity.dimensionId) &&
+                Objects.equals(this.salesDate, entity.salesDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(dimension, dimensionId, salesDate);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.demo.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "\"Idempotency_Key\"", indexes = {
+        @Index(name = "IX_Idempotency_Key_Expires_At", columnList = "\"Expires_At\"")
+})
+public class IdempotencyRecord {
+    // Scope and client key, e.g. "checkout:42:<key>"
+    @Id
+    @Column(name = "\"Idempotency_Key\"", nullable = false, length = 160)
+    private String id;
+
+    // SHA-256 of the request payload, to reject a key reused for a different request
+    @Column(name = "\"Request_Hash\"", nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(name = "\"Status\"", nullable = false, length = 20)
+    private String status;
+
+    @Lob
+    @Column(name = "\"Response_Body\"")
+    private String responseBody;
+
+    @Column(name = "\"Created_At\"", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "\"Expires_At\"", nullable = false)
+    private Instant expiresAt;
+}
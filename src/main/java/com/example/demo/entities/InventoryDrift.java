@@ -0,0 +1,52 @@
+package com.example.demo.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "\"Inventory_Drift\"", indexes = {
+        @Index(name = "IX_Inventory_Drift_Run", columnList = "\"Run_ID\"")
+})
+public class InventoryDrift {
+    // Pooled sequence rather than identity, which would make Hibernate insert the report row by row;
+    // on MySQL the sequence is emulated with a table
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "Inventory_Drift_Seq")
+    @SequenceGenerator(name = "Inventory_Drift_Seq", sequenceName = "Inventory_Drift_Seq", allocationSize = 500)
+    @Column(name = "\"Drift_ID\"", nullable = false)
+    private Integer id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "\"Run_ID\"", nullable = false)
+    private InventoryReconciliationRun run;
+
+    @Column(name = "\"Store_ID\"", nullable = false)
+    private Integer storeId;
+
+    @Column(name = "\"Product_ID\"", nullable = false)
+    private Integer productId;
+
+    // Quantity recorded in Store_Inventory when the key was checked
+    @Column(name = "\"Actual_Quantity\"", nullable = false)
+    private Integer actualQuantity;
+
+    // Supply receipts - units sold + units returned
+    @Column(name = "\"Expected_Quantity\"", nullable = false)
+    private Integer expectedQuantity;
+
+    @Column(name = "\"Reserved_Quantity\"", nullable = false)
+    private Integer reservedQuantity;
+
+    // Actual - expected
+    @Column(name = "\"Drift\"", nullable = false)
+    private Integer drift;
+
+    @Column(name = "\"Over_Reserved\"", nullable = false)
+    private Boolean overReserved;
+
+    @Column(name = "\"Corrected\"", nullable = false)
+    private Boolean corrected = false;
+}
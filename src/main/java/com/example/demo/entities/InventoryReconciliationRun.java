@@ -0,0 +1,45 @@
+package com.example.demo.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "\"Inventory_Reconciliation_Run\"")
+public class InventoryReconciliationRun {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "\"Run_ID\"", nullable = false)
+    private Integer id;
+
+    @Column(name = "\"Started_At\"", nullable = false)
+    private Instant startedAt;
+
+    @Column(name = "\"Finished_At\"")
+    private Instant finishedAt;
+
+    @Column(name = "\"Status\"", nullable = false, length = 20)
+    private String status;
+
+    @Column(name = "\"Apply_Corrections\"", nullable = false)
+    private Boolean applyCorrections;
+
+    @Column(name = "\"Stores_Checked\"", nullable = false)
+    private Integer storesChecked = 0;
+
+    @Column(name = "\"Keys_Checked\"", nullable = false)
+    private Long keysChecked = 0L;
+
+    @Column(name = "\"Drift_Count\"", nullable = false)
+    private Integer driftCount = 0;
+
+    @Column(name = "\"Corrections_Applied\"", nullable = false)
+    private Integer correctionsApplied = 0;
+
+    @Column(name = "\"Error_Message\"", length = 500)
+    private String errorMessage;
+}
@@ -14,7 +14,9 @@ import java.time.LocalDate;
 @Getter
 @Setter
 @Entity
-@Table(name = "\"Notification\"")
+@Table(name = "\"Notification\"", indexes = {
+        @Index(name = "IX_Notification_Product_Type_Date", columnList = "\"Product_ID\", \"Type\", \"Sent_Date\", \"Customer_ID\"")
+})
 public class Notification {
     private Integer id;
 
@@ -30,7 +32,11 @@ public class Notification {
 
     private LocalDate sentDate;
 
+    // What the notification is about, e.g. PRICE_DROP; null for free-form messages
+    private String type;
+
     @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "\"Notification_ID\"", nullable = false)
     public Integer getId() {
         return id;
@@ -78,6 +84,11 @@ public class Notification {
         return sentDate;
     }
 
+    @Column(name = "\"Type\"", length = 32)
+    public String getType() {
+        return type;
+    }
+
     public void setRead(boolean b) {
         // TODO Auto-generated method stub
         throw new UnsupportedOperationException("Unimplemented method 'setRead'");
@@ -0,0 +1,32 @@
+package com.example.demo.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Progress of the order archive; a single row with ID 1.
+ * Every archived order was purchased before archivedBefore, so queries starting on or after it
+ * only need the hot tables.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "\"Order_Archive_State\"")
+public class OrderArchiveState {
+    @Id
+    @Column(name = "\"State_ID\"", nullable = false)
+    private Integer id;
+
+    @Column(name = "\"Archived_Before\"", nullable = false)
+    private LocalDate archivedBefore;
+
+    @Column(name = "\"Orders_Archived\"", nullable = false)
+    private Long ordersArchived = 0L;
+
+    @Column(name = "\"Last_Run_At\"")
+    private Instant lastRunAt;
+}
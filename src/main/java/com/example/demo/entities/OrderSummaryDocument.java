@@ -0,0 +1,41 @@
+package com.example.demo.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Precomputed order summary (header, lines, totals, shipments and returns) stored as JSON,
+ * so order history and tracking pages render from a single indexed read
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "\"Order_Summary\"", indexes = {
+        @Index(name = "IX_Order_Summary_Customer", columnList = "\"Customer_ID\", \"Purchase_Date\"")
+})
+public class OrderSummaryDocument {
+    @Id
+    @Column(name = "\"Order_ID\"", nullable = false)
+    private Integer orderId;
+
+    @Column(name = "\"Customer_ID\"", nullable = false)
+    private Integer customerId;
+
+    @Column(name = "\"Purchase_Date\"", nullable = false)
+    private LocalDate purchaseDate;
+
+    @Column(name = "\"Status\"", nullable = false, length = 20)
+    private String status;
+
+    // Serialized OrderSummaryDTO
+    @Lob
+    @Column(name = "\"Document\"", nullable = false)
+    private String document;
+
+    @Column(name = "\"Updated_At\"", nullable = false)
+    private Instant updatedAt;
+}
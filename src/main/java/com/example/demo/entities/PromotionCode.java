@@ -0,0 +1,28 @@
+package com.example.demo.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+// One-time code of a promotion; the code itself is the key so that bulk inserts can be batched
+@Getter
+@Setter
+@Entity
+@Table(name = "\"Promotion_Codes\"", indexes = {
+        @Index(name = "IX_Promotion_Codes_Promotion", columnList = "\"Promotion_ID\"")
+})
+public class PromotionCode {
+    @Id
+    @Column(name = "\"Code\"", nullable = false, length = 20)
+    private String code;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "\"Promotion_ID\"", nullable = false)
+    private Promotion promotion;
+
+    // Set when an order uses the code
+    @Column(name = "\"Redeemed_At\"")
+    private Instant redeemedAt;
+}
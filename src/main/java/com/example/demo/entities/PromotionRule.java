@@ -0,0 +1,61 @@
+package com.example.demo.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+/**
+ * Targeting and discount rule of a promotion. Several rules of one promotion are alternative tiers,
+ * of which the best qualifying one applies.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "\"Promotion_Rules\"", indexes = {
+        @Index(name = "IX_Promotion_Rules_Promotion", columnList = "\"Promotion_ID\"")
+})
+public class PromotionRule {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "\"Rule_ID\"", nullable = false)
+    private Integer id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "\"Promotion_ID\"", nullable = false)
+    private Promotion promotion;
+
+    // PRODUCT, CATEGORY, BRAND or CART
+    @Column(name = "\"Target_Type\"", nullable = false, length = 10)
+    private String targetType;
+
+    // Product or category ID for PRODUCT and CATEGORY rules
+    @Column(name = "\"Target_ID\"")
+    private Integer targetId;
+
+    @Column(name = "\"Brand\"", length = 50)
+    private String brand;
+
+    // Minimum spend on the targeted lines
+    @Column(name = "\"Min_Spend\"", precision = 10, scale = 2)
+    private BigDecimal minSpend;
+
+    // Minimum units of the targeted lines
+    @Column(name = "\"Min_Quantity\"")
+    private Integer minQuantity;
+
+    @Column(name = "\"Discount_Percentage\"", precision = 5, scale = 2)
+    private BigDecimal discountPercentage;
+
+    @Column(name = "\"Discount_Amount\"", precision = 10, scale = 2)
+    private BigDecimal discountAmount;
+
+    // Higher priorities stack first and win ties
+    @Column(name = "\"Priority\"", nullable = false)
+    private Integer priority = 0;
+
+    // An exclusive rule never combines with other promotions
+    @Column(name = "\"Exclusive\"", nullable = false)
+    private Boolean exclusive = false;
+}
@@ -0,0 +1,34 @@
+package com.example.demo.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Uses of a promotion held by one application instance as of its last lease or renewal: permits it
+ * may still hand out plus reservations not yet committed. Renewed while the instance runs; a lease
+ * that is not renewed in time, e.g. because its instance died, no longer counts against the
+ * promotion's maxUses.
+ */
+@Getter
+@Setter
+@Entity
+@IdClass(PromotionUsageLeaseId.class)
+@Table(name = "\"Promotion_Usage_Lease\"")
+public class PromotionUsageLease {
+    @Id
+    @Column(name = "\"Promotion_ID\"", nullable = false)
+    private Integer promotionId;
+
+    @Id
+    @Column(name = "\"Instance_ID\"", nullable = false, length = 36)
+    private String instanceId;
+
+    @Column(name = "\"Held\"", nullable = false)
+    private Long held;
+
+    @Column(name = "\"Renewed_At\"", nullable = false)
+    private Instant renewedAt;
+}
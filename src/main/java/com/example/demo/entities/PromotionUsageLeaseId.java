@@ -0,0 +1,34 @@
+package com.example.demo.entities;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+public class PromotionUsageLeaseId implements Serializable {
+    private static final long serialVersionUID = 3308154412695540127L;
+
+    private Integer promotionId;
+
+    private String instanceId;
+
+    public PromotionUsageLeaseId() {
+    }
+
+    public PromotionUsageLeaseId(Integer promotionId, String instanceId) {
+        this.promotionId = promotionId;
+        this.instanceId = instanceId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PromotionUsageLeaseId entity = (PromotionUsageLeaseId) o;
+        return Objects.equals(this.promotionId, entity.promotionId) &&
+                Objects.equals(this.instanceId, entity.instanceId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(promotionId, instanceId);
+    }
+}
@@ -13,7 +13,13 @@ import java.time.Instant;
 @Getter
 @Setter
 @Entity
-@Table(name = "\"Reviews\"")
+@Table(name = "\"Reviews\"", indexes = {
+        @Index(name = "UX_Reviews_Product_Customer", columnList = "\"Product_ID\", \"Customer_ID\"", unique = true),
+        @Index(name = "IX_Reviews_Product_Helpfulness", columnList = "\"Product_ID\", \"Helpfulness_Score\""),
+        @Index(name = "IX_Reviews_Product_Date", columnList = "\"Product_ID\", \"Review_Date\""),
+        @Index(name = "IX_Reviews_Status", columnList = "\"Status\", \"Review_ID\""),
+        @Index(name = "IX_Reviews_Status_Date", columnList = "\"Status\", \"Review_Date\"")
+})
 public class Review {
     private Integer id;
 
@@ -27,6 +33,21 @@ public class Review {
 
     private Instant reviewDate;
 
+    private Integer helpfulVotes = 0;
+
+    private Integer unhelpfulVotes = 0;
+
+    // Ranking key maintained on every vote, see ReviewRanking.helpfulnessScore
+    private Double helpfulnessScore;
+
+    // PENDING until checked, then APPROVED or FLAGGED for a moderator, who approves or REJECTs it
+    private String status = "PENDING";
+
+    // Why the review was flagged or rejected
+    private String moderationNote;
+
+    private Instant moderatedAt;
+
     @Id
     @Column(name = "\"Review_ID\"", nullable = false)
     public Integer getId() {
@@ -67,4 +88,41 @@ public class Review {
         return reviewDate;
     }
 
+    @NotNull
+    @ColumnDefault("0")
+    @Column(name = "\"Helpful_Votes\"", nullable = false)
+    public Integer getHelpfulVotes() {
+        return helpfulVotes;
+    }
+
+    @NotNull
+    @ColumnDefault("0")
+    @Column(name = "\"Unhelpful_Votes\"", nullable = false)
+    public Integer getUnhelpfulVotes() {
+        return unhelpfulVotes;
+    }
+
+    @Column(name = "\"Helpfulness_Score\"")
+    public Double getHelpfulnessScore() {
+        return helpfulnessScore;
+    }
+
+    // Reviews from before moderation are approved
+    @NotNull
+    @ColumnDefault("'APPROVED'")
+    @Column(name = "\"Status\"", nullable = false, length = 20)
+    public String getStatus() {
+        return status;
+    }
+
+    @Column(name = "\"Moderation_Note\"")
+    public String getModerationNote() {
+        return moderationNote;
+    }
+
+    @Column(name = "\"Moderated_At\"")
+    public Instant getModeratedAt() {
+        return moderatedAt;
+    }
+
 }
\ No newline at end of file
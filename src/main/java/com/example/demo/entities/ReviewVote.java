@@ -0,0 +1,39 @@
+package com.example.demo.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.Instant;
+
+// A customer's helpful / not helpful vote on a review; one per customer and review
+@Getter
+@Setter
+@Entity
+@Table(name = "\"Review_Votes\"", indexes = {
+        @Index(name = "UX_Review_Votes_Review_Customer", columnList = "\"Review_ID\", \"Customer_ID\"", unique = true)
+})
+public class ReviewVote {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "\"Vote_ID\"", nullable = false)
+    private Integer id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @JoinColumn(name = "\"Review_ID\"", nullable = false)
+    private Review review;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @JoinColumn(name = "\"Customer_ID\"", nullable = false)
+    private Customer customer;
+
+    @Column(name = "\"Helpful\"", nullable = false)
+    private Boolean helpful;
+
+    @Column(name = "\"Voted_At\"", nullable = false)
+    private Instant votedAt;
+}
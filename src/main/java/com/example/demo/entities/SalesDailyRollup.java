@@ -0,0 +1,29 @@
+package com.example.demo.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "\"Sales_Daily_Rollup\"", indexes = {
+        @Index(name = "IX_Sales_Daily_Rollup_Date", columnList = "\"Sales_Date\"")
+})
+public class SalesDailyRollup {
+    @EmbeddedId
+    private SalesDailyRollupId id;
+
+    // Orders that are not cancelled
+    @Column(name = "\"Order_Count\"", nullable = false)
+    private Long orderCount = 0L;
+
+    // Units sold, only tracked for the PRODUCT dimension
+    @Column(name = "\"Units\"", nullable = false)
+    private Long units = 0L;
+
+    @Column(name = "\"Revenue\"", nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+}
@@ -0,0 +1,53 @@
+package com.example.demo.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.Hibernate;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+@Getter
+@Setter
+@Embeddable
+public class SalesDailyRollupId implements Serializable {
+    private static final long serialVersionUID = 3120447715266904712L;
+
+    // ALL, STORE, EMPLOYEE, CUSTOMER, PRODUCT or PROMOTION
+    @Column(name = "\"Dimension\"", nullable = false, length = 10)
+    private String dimension;
+
+    // ID within the dimension, 0 for ALL
+    @Column(name = "\"Dimension_ID\"", nullable = false)
+    private Integer dimensionId;
+
+    @Column(name = "\"Sales_Date\"", nullable = false)
+    private LocalDate salesDate;
+
+    public SalesDailyRollupId() {
+    }
+
+    public SalesDailyRollupId(String dimension, Integer dimensionId, LocalDate salesDate) {
+        this.dimension = dimension;
+        this.dimensionId = dimensionId;
+        this.salesDate = salesDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) return false;
+        SalesDailyRollupId entity = (SalesDailyRollupId) o;
+        return Objects.equals(this.dimension, entity.dimension) &&
+                Objects.equals(this.dimensionId, entity.dimensionId) &&
+                Objects.equals(this.salesDate, entity.salesDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(dimension, dimensionId, salesDate);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.demo.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * A day whose rollups were changed after it closed. Written in the transaction of the order change
+ * so the day is recomputed even if the in-memory delta is lost; cleared once the day is rebuilt.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "\"Sales_Rollup_Dirty_Day\"")
+public class SalesRollupDirtyDay {
+    // Markers are insert-only so concurrent changes to the same day never conflict
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "\"Marker_ID\"", nullable = false)
+    private Integer id;
+
+    @Column(name = "\"Sales_Date\"", nullable = false)
+    private LocalDate salesDate;
+}
@@ -0,0 +1,26 @@
+package com.example.demo.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Days for which the sales rollups are complete; a single row with ID 1
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "\"Sales_Rollup_State\"")
+public class SalesRollupState {
+    @Id
+    @Column(name = "\"State_ID\"", nullable = false)
+    private Integer id;
+
+    @Column(name = "\"Covered_From\"", nullable = false)
+    private LocalDate coveredFrom;
+
+    @Column(name = "\"Covered_Through\"", nullable = false)
+    private LocalDate coveredThrough;
+}
@@ -13,7 +13,9 @@ import java.time.LocalDate;
 @Getter
 @Setter
 @Entity
-@Table(name = "\"Wishlist\"")
+@Table(name = "\"Wishlist\"", indexes = {
+        @Index(name = "IX_Wishlist_Product_Customer", columnList = "\"Product_ID\", \"Customer_ID\"")
+})
 public class Wishlist {
     private Integer id;
 
@@ -0,0 +1,41 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.ArchivedCustomerOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.QueryHint;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+@Repository
+public interface ArchivedCustomerOrderRepository extends JpaRepository<ArchivedCustomerOrder, Integer> {
+
+    // Copy hot orders into the archive in one statement, returns the number of rows copied
+    @Modifying
+    @Query("INSERT INTO ArchivedCustomerOrder (id, employeeSellerId, storeId, customerId, paymentMethodId, addressId, " +
+           "promotionId, purchaseDate, totalPrice, status, archivedOn) " +
+           "SELECT o.id, e.id, e.store.id, o.customer.id, o.paymentMethod.id, a.id, p.id, o.purchaseDate, " +
+           "o.totalPrice, o.status, local date " +
+           "FROM CustomerOrder o JOIN o.employeeSeller e LEFT JOIN o.address a LEFT JOIN o.promotion p " +
+           "WHERE o.id IN :orderIds")
+    int copyFromHot(@Param("orderIds") Collection<Integer> orderIds);
+
+    // Stream the lines of archived orders purchased in [from, to], in the same row layout as
+    // CustomerOrderRepository.streamExportRows; must be consumed inside a transaction.
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT o.id, o.purchaseDate, o.status, o.customerId, o.employeeSellerId, o.storeId, o.paymentMethodId, " +
+           "o.addressId, p.code, o.totalPrice, d.productId, d.quantity, d.originalPrice, d.discountAmount, d.finalPrice " +
+           "FROM ArchivedCustomerOrder o LEFT JOIN Promotion p ON p.id = o.promotionId " +
+           "LEFT JOIN ArchivedOrderDetail d ON d.orderId = o.id " +
+           "WHERE o.purchaseDate BETWEEN :from AND :to ORDER BY o.id, d.productId")
+    Stream<Object[]> streamExportRows(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
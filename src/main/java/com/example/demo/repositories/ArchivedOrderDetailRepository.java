@@ -0,0 +1,56 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.ArchivedOrderDetail;
+import com.example.demo.entities.ArchivedOrderDetailId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+@Repository
+public interface ArchivedOrderDetailRepository extends JpaRepository<ArchivedOrderDetail, ArchivedOrderDetailId> {
+
+    List<ArchivedOrderDetail> findByOrderId(Integer orderId);
+
+    // Copy the details of hot orders into the archive in one statement
+    @Modifying
+    @Query("INSERT INTO ArchivedOrderDetail (orderId, productId, quantity, originalPrice, discountAmount, finalPrice) " +
+           "SELECT d.order.id, d.product.id, d.quantity, d.originalPrice, d.discountAmount, d.finalPrice " +
+           "FROM OrderDetail d WHERE d.order.id IN :orderIds")
+    int copyFromHot(@Param("orderIds") Collection<Integer> orderIds);
+
+    // Stream archived sale lines (excluding cancelled orders), in the same row layout as
+    // OrderDetailRepository.streamSaleLinesAfter; must be consumed inside a transaction.
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "5000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT o.id, d.productId, o.storeId, o.employeeSellerId, o.purchaseDate, d.quantity, d.finalPrice " +
+           "FROM ArchivedOrderDetail d JOIN ArchivedCustomerOrder o ON o.id = d.orderId " +
+           "WHERE o.status <> 'CANCELLED' AND o.storeId IS NOT NULL")
+    Stream<Object[]> streamSaleLines();
+
+    // Every product a customer has ordered in archived orders
+    @Query("SELECT DISTINCT d.productId FROM ArchivedOrderDetail d JOIN ArchivedCustomerOrder o ON o.id = d.orderId " +
+           "WHERE o.customerId = :customerId")
+    List<Integer> findPurchasedProductIds(@Param("customerId") Integer customerId);
+
+    @Query("SELECT CASE WHEN COUNT(d) > 0 THEN true ELSE false END " +
+           "FROM ArchivedOrderDetail d JOIN ArchivedCustomerOrder o ON o.id = d.orderId " +
+           "WHERE o.customerId = :customerId AND d.productId = :productId")
+    boolean existsPurchase(@Param("customerId") Integer customerId, @Param("productId") Integer productId);
+
+    // Stream all-time archived units sold per product for a store (excluding cancelled orders), in the
+    // same row layout as OrderDetailRepository.streamUnitsSoldByStore; must be consumed inside a transaction.
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT d.productId, SUM(d.quantity) FROM ArchivedOrderDetail d JOIN ArchivedCustomerOrder o ON o.id = d.orderId " +
+           "WHERE o.storeId = :storeId AND o.status <> 'CANCELLED' GROUP BY d.productId")
+    Stream<Object[]> streamUnitsSoldByStore(@Param("storeId") Integer storeId);
+}
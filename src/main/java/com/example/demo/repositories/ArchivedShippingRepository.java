@@ -0,0 +1,24 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.ArchivedShipping;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedShippingRepository extends JpaRepository<ArchivedShipping, Integer> {
+
+    List<ArchivedShipping> findByOrderId(Integer orderId);
+
+    // Copy the shipments of hot orders into the archive in one statement
+    @Modifying
+    @Query("INSERT INTO ArchivedShipping (id, orderId, trackingNumber, shippingProvider, shippedDate, deliveredDate) " +
+           "SELECT s.id, s.order.id, s.trackingNumber, s.shippingProvider, s.shippedDate, s.deliveredDate " +
+           "FROM Shipping s WHERE s.order.id IN :orderIds")
+    int copyFromHot(@Param("orderIds") Collection<Integer> orderIds);
+}
@@ -0,0 +1,58 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.BackInStockSubscription;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+@Repository
+public interface BackInStockSubscriptionRepository extends JpaRepository<BackInStockSubscription, Integer> {
+
+    // A customer's subscription to the product at the store, or at any store when storeId is null
+    @Query("SELECT s FROM BackInStockSubscription s LEFT JOIN s.store st WHERE s.customer.id = :customerId " +
+           "AND s.product.id = :productId AND ((:storeId IS NULL AND st IS NULL) OR st.id = :storeId)")
+    Optional<BackInStockSubscription> findSubscription(@Param("customerId") Integer customerId,
+                                                       @Param("productId") Integer productId,
+                                                       @Param("storeId") Integer storeId);
+
+    @Query("SELECT s FROM BackInStockSubscription s JOIN FETCH s.product LEFT JOIN FETCH s.store " +
+           "WHERE s.customer.id = :customerId ORDER BY s.createdAt DESC")
+    List<BackInStockSubscription> findByCustomerIdWithProductAndStore(@Param("customerId") Integer customerId);
+
+    // Stream every subscription for the index, rows are [productId, storeId or null, customerId];
+    // must be consumed inside a transaction
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT s.product.id, st.id, s.customer.id FROM BackInStockSubscription s LEFT JOIN s.store st")
+    Stream<Object[]> streamIndexRows();
+
+    // Subscriptions of one product, rows are [storeId or null, customerId]
+    @Query("SELECT st.id, s.customer.id FROM BackInStockSubscription s LEFT JOIN s.store st WHERE s.product.id = :productId")
+    List<Object[]> findIndexRowsByProductId(@Param("productId") Integer productId);
+
+    // Of the given customers, those subscribed to a restock of the product at the store
+    @Query("SELECT DISTINCT s.customer.id FROM BackInStockSubscription s LEFT JOIN s.store st " +
+           "WHERE s.product.id = :productId AND s.customer.id IN :customerIds AND (st IS NULL OR st.id = :storeId)")
+    List<Integer> findSubscribedCustomerIds(@Param("productId") Integer productId,
+                                            @Param("storeId") Integer storeId,
+                                            @Param("customerIds") Collection<Integer> customerIds);
+
+    // Delete the subscriptions a restock of the product at the store served
+    @Modifying
+    @Query("DELETE FROM BackInStockSubscription s WHERE s.product.id = :productId AND s.customer.id IN :customerIds " +
+           "AND (s.store IS NULL OR s.store.id = :storeId)")
+    int deleteServed(@Param("productId") Integer productId,
+                     @Param("storeId") Integer storeId,
+                     @Param("customerIds") Collection<Integer> customerIds);
+}
@@ -8,6 +8,9 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -15,4 +18,13 @@ public interface CartRepository extends JpaRepository<Cart, Integer> {
     List<Cart> findByCustomer(Customer customer);
     List<Cart> findByProduct(Product product);
     Optional<Cart> findByCustomerAndproduct(Customer customer, Product product);
+
+    // Load a customer's cart lines together with their products in one query
+    @Query("SELECT c FROM Cart c JOIN FETCH c.product WHERE c.customer.id = :customerId")
+    List<Cart> findByCustomerIdWithProduct(@Param("customerId") Integer customerId);
+
+    // Delete a customer's whole cart in a single statement
+    @Modifying
+    @Query("DELETE FROM Cart c WHERE c.customer.id = :customerId")
+    int deleteByCustomerId(@Param("customerId") Integer customerId);
 }
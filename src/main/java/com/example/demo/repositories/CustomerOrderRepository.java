@@ -8,11 +8,25 @@ import com.example.demo.entities.Promotion;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface CustomerOrderRepository extends JpaRepository<CustomerOrder, Integer> {
+import jakarta.persistence.QueryHint;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_FLUSH_MODE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+public interface CustomerOrderRepository extends JpaRepository<CustomerOrder, Integer>, CustomerOrderRepositoryCustom {
     List<CustomerOrder> findByCustomerId(Integer customerId);
     List<CustomerOrder> findByCustomerIdAndStatus(Integer customerId, String status);
     List<CustomerOrder> findByPurchaseDateBetween(LocalDate startDate, LocalDate endDate);
@@ -35,4 +49,52 @@ public interface CustomerOrderRepository extends JpaRepository<CustomerOrder, In
     long countByStatus(String status);
     List<Object[]> findTopCustomersByOrderCount();
     List<Object[]> findTopEmployeesBySales();
+
+    // Closed orders purchased before a date that can move to the archive; orders with returns stay hot
+    @Query("SELECT o.id FROM CustomerOrder o WHERE o.purchaseDate < :before AND o.status IN :statuses " +
+           "AND NOT EXISTS (SELECT r.id FROM Return r WHERE r.order = o) ORDER BY o.id")
+    List<Integer> findArchivableIds(@Param("before") LocalDate before,
+                                    @Param("statuses") Collection<String> statuses,
+                                    Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM CustomerOrder o WHERE o.id IN :orderIds")
+    int deleteByIds(@Param("orderIds") Collection<Integer> orderIds);
+
+    // Orders with seller, promotion, details and products loaded in one query
+    @Query("SELECT DISTINCT o FROM CustomerOrder o JOIN FETCH o.employeeSeller LEFT JOIN FETCH o.promotion " +
+           "LEFT JOIN FETCH o.orderDetails d LEFT JOIN FETCH d.product WHERE o.id IN :orderIds")
+    List<CustomerOrder> findWithDetailsByIdIn(@Param("orderIds") Collection<Integer> orderIds);
+
+    // Orders after an ID that have no summary document yet, in ID order
+    @Query("SELECT o.id FROM CustomerOrder o WHERE o.id > :afterId " +
+           "AND NOT EXISTS (SELECT d.orderId FROM OrderSummaryDocument d WHERE d.orderId = o.id) ORDER BY o.id")
+    List<Integer> findIdsWithoutSummaryAfter(@Param("afterId") Integer afterId, Pageable pageable);
+
+    // Status as stored; does not flush first, so pending changes to a managed order are not seen
+    @QueryHints(@QueryHint(name = HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query("SELECT o.status FROM CustomerOrder o WHERE o.id = :orderId")
+    Optional<String> findStoredStatusById(@Param("orderId") Integer orderId);
+
+    @Query("SELECT o.id FROM CustomerOrder o WHERE o.id > :afterId ORDER BY o.id")
+    List<Integer> findIdsAfter(@Param("afterId") Integer afterId, Pageable pageable);
+
+    // Stream the lines of orders purchased in [from, to], ordered by order. Orders without lines give one row
+    // with null line columns. Rows are [orderId, purchaseDate, status, customerId, employeeSellerId, storeId,
+    // paymentMethodId, addressId, promotionCode, totalPrice, productId, quantity, originalPrice, discountAmount,
+    // finalPrice]; must be consumed inside a transaction.
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT o.id, o.purchaseDate, o.status, o.customer.id, e.id, e.store.id, o.paymentMethod.id, a.id, " +
+           "p.code, o.totalPrice, od.product.id, od.quantity, od.originalPrice, od.discountAmount, od.finalPrice " +
+           "FROM CustomerOrder o JOIN o.employeeSeller e LEFT JOIN o.address a LEFT JOIN o.promotion p " +
+           "LEFT JOIN o.orderDetails od " +
+           "WHERE o.purchaseDate BETWEEN :from AND :to ORDER BY o.id, od.product.id")
+    Stream<Object[]> streamExportRows(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Stream the distinct (store, customer) pairs of a day's orders, stores attributed through the selling
+    // employee, excluding cancelled orders. Rows are [storeId, customerId]; must be consumed inside a transaction.
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "5000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT DISTINCT e.store.id, o.customer.id FROM CustomerOrder o JOIN o.employeeSeller e " +
+           "WHERE o.purchaseDate = :day AND o.status <> 'CANCELLED'")
+    Stream<Object[]> streamStoreBuyers(@Param("day") LocalDate day);
 }
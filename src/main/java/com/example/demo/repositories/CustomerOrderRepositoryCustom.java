@@ -0,0 +1,29 @@
+package com.example.demo.repositories;
+
+import com.example.demo.dto.OrderHistoryDTO;
+import com.example.demo.entities.CustomerOrder;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Order queries spanning the hot order tables and the archive.
+ * They read the archive only when the range starts before the archive boundary, so recent
+ * queries never touch it; run them inside one transaction to see a consistent split.
+ */
+public interface CustomerOrderRepositoryCustom {
+
+    // Orders matching the optional filters, newest first; a null from or to leaves that side open
+    List<OrderHistoryDTO> findHistory(Integer customerId, String status, LocalDate from, LocalDate to);
+
+    Optional<OrderHistoryDTO> findHistoryById(Integer orderId);
+
+    // Same filters and order as findHistory, as entities. Archived orders come back as detached copies with
+    // their lines and shippings; they are read-only and must not be saved
+    List<CustomerOrder> findOrders(Integer customerId, String status, LocalDate from, LocalDate to);
+
+    Optional<CustomerOrder> findOrderById(Integer orderId);
+
+    boolean isArchived(Integer orderId);
+}
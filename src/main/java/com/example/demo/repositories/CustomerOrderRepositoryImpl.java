@@ -0,0 +1,267 @@
+package com.example.demo.repositories;
+
+import com.example.demo.dto.OrderHistoryDTO;
+import com.example.demo.entities.Address;
+import com.example.demo.entities.ArchivedCustomerOrder;
+import com.example.demo.entities.ArchivedOrderDetail;
+import com.example.demo.entities.ArchivedShipping;
+import com.example.demo.entities.Customer;
+import com.example.demo.entities.CustomerOrder;
+import com.example.demo.entities.Employee;
+import com.example.demo.entities.OrderArchiveState;
+import com.example.demo.entities.OrderDetail;
+import com.example.demo.entities.OrderDetailId;
+import com.example.demo.entities.PaymentMethod;
+import com.example.demo.entities.Product;
+import com.example.demo.entities.Promotion;
+import com.example.demo.entities.Shipping;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class CustomerOrderRepositoryImpl implements CustomerOrderRepositoryCustom {
+
+    private static final Integer ARCHIVE_STATE_ID = 1;
+
+    // Order IDs per query when loading the lines and shippings of archived orders
+    private static final int ID_CHUNK = 1000;
+
+    private static final String HOT_SELECT = "SELECT o.id, o.customer.id, e.id, e.store.id, o.purchaseDate, " +
+            "o.totalPrice, o.status FROM CustomerOrder o JOIN o.employeeSeller e WHERE 1 = 1";
+
+    private static final String ARCHIVE_SELECT = "SELECT o.id, o.customerId, o.employeeSellerId, o.storeId, " +
+            "o.purchaseDate, o.totalPrice, o.status FROM ArchivedCustomerOrder o WHERE 1 = 1";
+
+    private static final String HOT_ORDERS = "SELECT o FROM CustomerOrder o WHERE 1 = 1";
+
+    private static final String ARCHIVED_ORDERS = "SELECT o FROM ArchivedCustomerOrder o WHERE 1 = 1";
+
+    private static final Comparator<CustomerOrder> NEWEST_FIRST = Comparator
+            .comparing(CustomerOrder::getPurchaseDate)
+            .thenComparing(CustomerOrder::getId)
+            .reversed();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<OrderHistoryDTO> findHistory(Integer customerId, String status, LocalDate from, LocalDate to) {
+        // Keyed by order ID: an order archived between the two reads shows up once
+        Map<Integer, OrderHistoryDTO> orders = new LinkedHashMap<>();
+        for (Object[] row : select(HOT_SELECT, Object[].class, "o.customer.id", customerId, status, from, to, null)
+                .getResultList()) {
+            orders.put((Integer) row[0], toHistory(row, false));
+        }
+
+        LocalDate archivedBefore = archivedBefore();
+        if (reachesArchive(from, archivedBefore)) {
+            for (Object[] row : select(ARCHIVE_SELECT, Object[].class, "o.customerId", customerId, status, from, to,
+                    archivedBefore).getResultList()) {
+                orders.putIfAbsent((Integer) row[0], toHistory(row, true));
+            }
+        }
+
+        return orders.values().stream()
+                .sorted(Comparator.comparing(OrderHistoryDTO::getPurchaseDate)
+                        .thenComparing(OrderHistoryDTO::getOrderId)
+                        .reversed())
+                .toList();
+    }
+
+    @Override
+    public Optional<OrderHistoryDTO> findHistoryById(Integer orderId) {
+        List<Object[]> hot = entityManager.createQuery(HOT_SELECT + " AND o.id = :orderId", Object[].class)
+                .setParameter("orderId", orderId)
+                .getResultList();
+        if (!hot.isEmpty()) {
+            return Optional.of(toHistory(hot.get(0), false));
+        }
+        return entityManager.createQuery(ARCHIVE_SELECT + " AND o.id = :orderId", Object[].class)
+                .setParameter("orderId", orderId)
+                .getResultStream()
+                .findFirst()
+                .map(row -> toHistory(row, true));
+    }
+
+    @Override
+    public List<CustomerOrder> findOrders(Integer customerId, String status, LocalDate from, LocalDate to) {
+        Map<Integer, CustomerOrder> orders = new LinkedHashMap<>();
+        for (CustomerOrder order : select(HOT_ORDERS, CustomerOrder.class, "o.customer.id", customerId, status, from,
+                to, null).getResultList()) {
+            orders.put(order.getId(), order);
+        }
+
+        LocalDate archivedBefore = archivedBefore();
+        if (reachesArchive(from, archivedBefore)) {
+            List<ArchivedCustomerOrder> archived = select(ARCHIVED_ORDERS, ArchivedCustomerOrder.class, "o.customerId",
+                    customerId, status, from, to, archivedBefore).getResultList().stream()
+                    .filter(order -> !orders.containsKey(order.getId()))
+                    .toList();
+            toOrders(archived).forEach(order -> orders.put(order.getId(), order));
+        }
+
+        return orders.values().stream().sorted(NEWEST_FIRST).toList();
+    }
+
+    @Override
+    public Optional<CustomerOrder> findOrderById(Integer orderId) {
+        CustomerOrder hot = entityManager.find(CustomerOrder.class, orderId);
+        if (hot != null) {
+            return Optional.of(hot);
+        }
+        ArchivedCustomerOrder archived = entityManager.find(ArchivedCustomerOrder.class, orderId);
+        return archived != null ? Optional.of(toOrders(List.of(archived)).get(0)) : Optional.empty();
+    }
+
+    @Override
+    public boolean isArchived(Integer orderId) {
+        return entityManager.createQuery("SELECT CASE WHEN COUNT(o) > 0 THEN true ELSE false END " +
+                        "FROM ArchivedCustomerOrder o WHERE o.id = :orderId", Boolean.class)
+                .setParameter("orderId", orderId)
+                .getSingleResult();
+    }
+
+    private <T> TypedQuery<T> select(String base, Class<T> type, String customerPath, Integer customerId,
+                                     String status, LocalDate from, LocalDate to, LocalDate before) {
+        StringBuilder jpql = new StringBuilder(base);
+        if (customerId != null) {
+            jpql.append(" AND ").append(customerPath).append(" = :customerId");
+        }
+        if (status != null) {
+            jpql.append(" AND o.status = :status");
+        }
+        if (from != null) {
+            jpql.append(" AND o.purchaseDate >= :from");
+        }
+        if (to != null) {
+            jpql.append(" AND o.purchaseDate <= :to");
+        }
+        // Everything in the archive is older than the boundary; the bound lets the date index prune
+        if (before != null) {
+            jpql.append(" AND o.purchaseDate < :before");
+        }
+
+        TypedQuery<T> query = entityManager.createQuery(jpql.toString(), type);
+        if (customerId != null) {
+            query.setParameter("customerId", customerId);
+        }
+        if (status != null) {
+            query.setParameter("status", status);
+        }
+        if (from != null) {
+            query.setParameter("from", from);
+        }
+        if (to != null) {
+            query.setParameter("to", to);
+        }
+        if (before != null) {
+            query.setParameter("before", before);
+        }
+        return query;
+    }
+
+    // Everything in the archive was purchased before the boundary, so a range starting on or after it skips it
+    private static boolean reachesArchive(LocalDate from, LocalDate archivedBefore) {
+        return archivedBefore != null && (from == null || from.isBefore(archivedBefore));
+    }
+
+    private LocalDate archivedBefore() {
+        OrderArchiveState state = entityManager.find(OrderArchiveState.class, ARCHIVE_STATE_ID);
+        return state != null ? state.getArchivedBefore() : null;
+    }
+
+    // Rebuilds archived orders with their lines and shippings; related rows are references, loaded on first use
+    private List<CustomerOrder> toOrders(List<ArchivedCustomerOrder> archived) {
+        Map<Integer, CustomerOrder> orders = new LinkedHashMap<>();
+        for (ArchivedCustomerOrder row : archived) {
+            orders.put(row.getId(), toOrder(row));
+        }
+
+        List<Integer> orderIds = new ArrayList<>(orders.keySet());
+        for (int start = 0; start < orderIds.size(); start += ID_CHUNK) {
+            List<Integer> chunk = orderIds.subList(start, Math.min(start + ID_CHUNK, orderIds.size()));
+            for (ArchivedOrderDetail line : entityManager.createQuery(
+                    "SELECT d FROM ArchivedOrderDetail d WHERE d.orderId IN :orderIds", ArchivedOrderDetail.class)
+                    .setParameter("orderIds", chunk)
+                    .getResultList()) {
+                CustomerOrder order = orders.get(line.getOrderId());
+                order.getOrderDetails().add(toDetail(order, line));
+            }
+            for (ArchivedShipping row : entityManager.createQuery(
+                    "SELECT s FROM ArchivedShipping s WHERE s.orderId IN :orderIds", ArchivedShipping.class)
+                    .setParameter("orderIds", chunk)
+                    .getResultList()) {
+                CustomerOrder order = orders.get(row.getOrderId());
+                order.getShippings().add(toShipping(order, row));
+            }
+        }
+        return new ArrayList<>(orders.values());
+    }
+
+    private CustomerOrder toOrder(ArchivedCustomerOrder row) {
+        CustomerOrder order = new CustomerOrder();
+        order.setId(row.getId());
+        order.setEmployeeSeller(entityManager.getReference(Employee.class, row.getEmployeeSellerId()));
+        order.setCustomer(entityManager.getReference(Customer.class, row.getCustomerId()));
+        order.setPaymentMethod(entityManager.getReference(PaymentMethod.class, row.getPaymentMethodId()));
+        order.setAddress(reference(Address.class, row.getAddressId()));
+        order.setPromotion(reference(Promotion.class, row.getPromotionId()));
+        order.setPurchaseDate(row.getPurchaseDate());
+        order.setTotalPrice(row.getTotalPrice());
+        order.setStatus(row.getStatus());
+        return order;
+    }
+
+    private OrderDetail toDetail(CustomerOrder order, ArchivedOrderDetail line) {
+        OrderDetailId id = new OrderDetailId();
+        id.setOrderId(line.getOrderId());
+        id.setProductId(line.getProductId());
+
+        OrderDetail detail = new OrderDetail();
+        detail.setId(id);
+        detail.setOrder(order);
+        detail.setProduct(entityManager.getReference(Product.class, line.getProductId()));
+        detail.setQuantity(line.getQuantity());
+        detail.setOriginalPrice(line.getOriginalPrice());
+        detail.setDiscountAmount(line.getDiscountAmount());
+        detail.setFinalPrice(line.getFinalPrice());
+        return detail;
+    }
+
+    private Shipping toShipping(CustomerOrder order, ArchivedShipping row) {
+        Shipping shipping = new Shipping();
+        shipping.setId(row.getId());
+        shipping.setOrder(order);
+        shipping.setTrackingNumber(row.getTrackingNumber());
+        shipping.setShippingProvider(row.getShippingProvider());
+        shipping.setShippedDate(row.getShippedDate());
+        shipping.setDeliveredDate(row.getDeliveredDate());
+        return shipping;
+    }
+
+    private <T> T reference(Class<T> type, Integer id) {
+        return id != null ? entityManager.getReference(type, id) : null;
+    }
+
+    private OrderHistoryDTO toHistory(Object[] row, boolean archived) {
+        return OrderHistoryDTO.builder()
+                .orderId((Integer) row[0])
+                .customerId((Integer) row[1])
+                .employeeSellerId((Integer) row[2])
+                .storeId((Integer) row[3])
+                .purchaseDate((LocalDate) row[4])
+                .totalPrice((BigDecimal) row[5])
+                .status((String) row[6])
+                .archived(archived)
+                .build();
+    }
+}
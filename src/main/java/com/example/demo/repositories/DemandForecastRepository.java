@@ -0,0 +1,29 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.DemandForecast;
+import com.example.demo.entities.DemandForecastId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DemandForecastRepository extends JpaRepository<DemandForecast, DemandForecastId>, DemandForecastRepositoryCustom {
+
+    List<DemandForecast> findByProductIdOrderByStoreId(Integer productId);
+
+    // Remove the forecasts of a set of products before their new ones are inserted
+    @Modifying
+    @Query("DELETE FROM DemandForecast f WHERE f.productId IN :productIds")
+    int deleteByProductIds(@Param("productIds") Collection<Integer> productIds);
+
+    // Remove forecasts of series that had no sales in the last run's history window
+    @Modifying
+    @Query("DELETE FROM DemandForecast f WHERE f.generatedAt < :generatedAt")
+    int deleteGeneratedBefore(@Param("generatedAt") Instant generatedAt);
+}
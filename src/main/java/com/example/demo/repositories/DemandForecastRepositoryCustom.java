@@ -0,0 +1,11 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.DemandForecast;
+
+import java.util.List;
+
+public interface DemandForecastRepositoryCustom {
+
+    // Insert new forecasts as one JDBC batch (persist, unlike save, never selects first)
+    void insertAll(List<DemandForecast> forecasts);
+}
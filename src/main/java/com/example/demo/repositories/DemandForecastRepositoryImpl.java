@@ -0,0 +1,21 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.DemandForecast;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.List;
+
+public class DemandForecastRepositoryImpl implements DemandForecastRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void insertAll(List<DemandForecast> forecasts) {
+        for (DemandForecast forecast : forecasts) {
+            entityManager.persist(forecast);
+        }
+        entityManager.flush();
+    }
+}
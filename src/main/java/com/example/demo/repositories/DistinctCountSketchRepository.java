@@ -0,0 +1,30 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.DistinctCountSketch;
+import com.example.demo.entities.DistinctCountSketchId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DistinctCountSketchRepository extends JpaRepository<DistinctCountSketch, DistinctCountSketchId>,
+        DistinctCountSketchRepositoryCustom {
+
+    // Sketches of a set of members of one dimension over a date range
+    @Query("SELECT s FROM DistinctCountSketch s WHERE s.id.dimension = :dimension AND s.id.dimensionId IN :dimensionIds " +
+           "AND s.id.salesDate BETWEEN :from AND :to")
+    List<DistinctCountSketch> findSketches(@Param("dimension") String dimension,
+                                           @Param("dimensionIds") Collection<Integer> dimensionIds,
+                                           @Param("from") LocalDate from,
+                                           @Param("to") LocalDate to);
+
+    @Modifying
+    @Query("DELETE FROM DistinctCountSketch s WHERE s.id.salesDate = :salesDate")
+    int deleteBySalesDate(@Param("salesDate") LocalDate salesDate);
+}
@@ -0,0 +1,11 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.DistinctCountSketch;
+
+import java.util.List;
+
+public interface DistinctCountSketchRepositoryCustom {
+
+    // Insert new sketches as one JDBC batch (persist, unlike save, never selects first)
+    void insertAll(List<DistinctCountSketch> sketches);
+}
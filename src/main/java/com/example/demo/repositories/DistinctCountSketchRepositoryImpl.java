@@ -0,0 +1,21 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.DistinctCountSketch;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.List;
+
+public class DistinctCountSketchRepositoryImpl implements DistinctCountSketchRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void insertAll(List<DistinctCountSketch> sketches) {
+        for (DistinctCountSketch sketch : sketches) {
+            entityManager.persist(sketch);
+        }
+        entityManager.flush();
+    }
+}
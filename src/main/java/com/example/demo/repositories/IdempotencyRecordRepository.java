@@ -0,0 +1,32 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // Purge keys past their retention
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+
+    // Complete the claim made at claimedAt; 0 when it was released or taken over meanwhile
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = 'COMPLETED', r.responseBody = :body " +
+           "WHERE r.id = :id AND r.status = 'IN_PROGRESS' AND r.createdAt = :claimedAt")
+    int markCompleted(@Param("id") String id, @Param("claimedAt") Instant claimedAt, @Param("body") String body);
+
+    // Drop an IN_PROGRESS claim, either our own or one whose lease ran out. Clears the persistence
+    // context so the key can be claimed again in the same transaction.
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM IdempotencyRecord r " +
+           "WHERE r.id = :id AND r.status = 'IN_PROGRESS' AND r.createdAt <= :claimedAt")
+    int deleteClaim(@Param("id") String id, @Param("claimedAt") Instant claimedAt);
+}
@@ -0,0 +1,17 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.InventoryDrift;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface InventoryDriftRepository extends JpaRepository<InventoryDrift, Integer> {
+
+    // Drift report of a run, one page at a time
+    Page<InventoryDrift> findByRunId(Integer runId, Pageable pageable);
+
+    // Drift report of a run for a single store
+    Page<InventoryDrift> findByRunIdAndStoreId(Integer runId, Integer storeId, Pageable pageable);
+}
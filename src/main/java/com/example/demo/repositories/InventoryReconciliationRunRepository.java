@@ -0,0 +1,14 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.InventoryReconciliationRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface InventoryReconciliationRunRepository extends JpaRepository<InventoryReconciliationRun, Integer> {
+
+    // Most recent runs first
+    List<InventoryReconciliationRun> findTop20ByOrderByStartedAtDesc();
+}
@@ -1,16 +1,23 @@
 package com.example.demo.repositories;
 
 import com.example.demo.entities.Notification;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-public interface NotificationRepository extends JpaRepository<Notification, Integer> {
+public interface NotificationRepository extends JpaRepository<Notification, Integer>, NotificationRepositoryCustom {
 
     // Find notifications by customer
     List<Notification> findByCustomerId(Integer customerId);
@@ -35,6 +42,20 @@ public interface NotificationRepository extends JpaRepository<Notification, Inte
     @Query("SELECT n FROM Notification n WHERE LOWER(n.message) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
     List<Notification> searchByMessage(@Param("searchTerm") String searchTerm);
 
+    // Stream every notification for the search index, rows are [notificationId, customerId, message];
+    // must be consumed inside a transaction
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT n.id, c.id, n.message FROM Notification n LEFT JOIN n.customer c")
+    Stream<Object[]> streamSearchRows();
+
+    // Of the given customers, those already sent a notification of the type about the product on the date
+    @Query("SELECT n.customer.id FROM Notification n WHERE n.product.id = :productId AND n.type = :type " +
+           "AND n.sentDate = :sentDate AND n.customer.id IN :customerIds")
+    List<Integer> findNotifiedCustomerIds(@Param("productId") Integer productId,
+                                          @Param("type") String type,
+                                          @Param("sentDate") LocalDate sentDate,
+                                          @Param("customerIds") Collection<Integer> customerIds);
+
     // Count unread notifications for a customer
     @Query("SELECT COUNT(n) FROM Notification n WHERE n.customer.id = :customerId AND n.read = false")
     Long countUnreadByCustomerId(@Param("customerId") Integer customerId);
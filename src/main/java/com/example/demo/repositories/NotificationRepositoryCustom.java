@@ -0,0 +1,12 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.Notification;
+
+import java.util.List;
+
+public interface NotificationRepositoryCustom {
+
+    // Insert new notifications as one JDBC batch and set their generated IDs; Hibernate cannot batch
+    // inserts of identity-keyed entities, so this bypasses the persistence context
+    void insertAll(List<Notification> notifications);
+}
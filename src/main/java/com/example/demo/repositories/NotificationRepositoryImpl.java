@@ -0,0 +1,59 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.Notification;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.List;
+
+public class NotificationRepositoryImpl implements NotificationRepositoryCustom {
+
+    private static final String INSERT = "INSERT INTO `Notification` "
+            + "(`Customer_ID`, `Store_ID`, `Product_ID`, `Employee_ID`, `Message`, `Sent_Date`, `Type`) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void insertAll(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement insert = connection.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+                for (Notification notification : notifications) {
+                    setId(insert, 1, notification.getCustomer() != null ? notification.getCustomer().getId() : null);
+                    setId(insert, 2, notification.getStore() != null ? notification.getStore().getId() : null);
+                    setId(insert, 3, notification.getProduct() != null ? notification.getProduct().getId() : null);
+                    setId(insert, 4, notification.getEmployee() != null ? notification.getEmployee().getId() : null);
+                    insert.setString(5, notification.getMessage());
+                    insert.setDate(6, Date.valueOf(notification.getSentDate()));
+                    insert.setString(7, notification.getType());
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    for (int i = 0; i < notifications.size() && keys.next(); i++) {
+                        notifications.get(i).setId(keys.getInt(1));
+                    }
+                }
+            }
+        });
+    }
+
+    private static void setId(PreparedStatement statement, int index, Integer id) throws SQLException {
+        if (id != null) {
+            statement.setInt(index, id);
+        } else {
+            statement.setNull(index, Types.INTEGER);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.OrderArchiveState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OrderArchiveStateRepository extends JpaRepository<OrderArchiveState, Integer> {
+}
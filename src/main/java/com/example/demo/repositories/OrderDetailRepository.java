@@ -5,15 +5,23 @@ import com.example.demo.entities.OrderDetailId;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-public interface OrderDetailRepository extends JpaRepository<OrderDetail, OrderDetailId> {
+public interface OrderDetailRepository extends JpaRepository<OrderDetail, OrderDetailId>, OrderDetailRepositoryCustom {
 
     // Find all order details for a specific order
     List<OrderDetail> findByOrderId(Integer orderId);
@@ -44,7 +52,60 @@ public interface OrderDetailRepository extends JpaRepository<OrderDetail, OrderD
     @Query("DELETE FROM OrderDetail od WHERE od.order.id = :orderId")
     void deleteAllByOrderId(@Param("orderId") Integer orderId);
 
+    // Delete all order details for a set of orders
+    @Modifying
+    @Query("DELETE FROM OrderDetail od WHERE od.order.id IN :orderIds")
+    int deleteAllByOrderIds(@Param("orderIds") Collection<Integer> orderIds);
+
     void deleteByOrderIdAndProductId(Integer orderId, Integer productId);
 
     boolean existsByOrderCustomerIdAndProductId(Integer customerId, Integer productId);
-}
\ No newline at end of file
+
+    // Every product a customer has ordered
+    @Query("SELECT DISTINCT od.product.id FROM OrderDetail od WHERE od.order.customer.id = :customerId")
+    List<Integer> findPurchasedProductIds(@Param("customerId") Integer customerId);
+
+    // Stream units sold per product for a store (attributed through the selling employee) since a date.
+    // Rows are [productId, unitsSold]; must be consumed inside a transaction.
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT od.product.id, SUM(od.quantity) FROM OrderDetail od JOIN od.order o " +
+           "WHERE o.employeeSeller.store.id = :storeId AND o.purchaseDate >= :since AND o.status <> 'CANCELLED' " +
+           "GROUP BY od.product.id")
+    Stream<Object[]> streamUnitsSoldByStoreSince(@Param("storeId") Integer storeId,
+                                                 @Param("since") LocalDate since);
+
+    // Stream all-time units sold per product for a store (excluding cancelled orders).
+    // Rows are [productId, unitsSold]; must be consumed inside a transaction.
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT od.product.id, SUM(od.quantity) FROM OrderDetail od JOIN od.order o " +
+           "WHERE o.employeeSeller.store.id = :storeId AND o.status <> 'CANCELLED' " +
+           "GROUP BY od.product.id")
+    Stream<Object[]> streamUnitsSoldByStore(@Param("storeId") Integer storeId);
+
+    // Stream sale lines of orders after an order ID (excluding cancelled orders).
+    // Rows are [orderId, productId, storeId, employeeId, purchaseDate, quantity, finalPrice];
+    // must be consumed inside a transaction.
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "5000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT o.id, od.product.id, e.store.id, e.id, o.purchaseDate, od.quantity, od.finalPrice " +
+           "FROM OrderDetail od JOIN od.order o JOIN o.employeeSeller e " +
+           "WHERE o.id > :afterOrderId AND o.status <> 'CANCELLED' AND o.purchaseDate IS NOT NULL")
+    Stream<Object[]> streamSaleLinesAfter(@Param("afterOrderId") Integer afterOrderId);
+
+    // Stream units sold per product, store (attributed through the selling employee) and day in
+    // [since, until), excluding cancelled orders. Rows are [productId, storeId, purchaseDate, units],
+    // ordered so that each (product, store) series is contiguous; must be consumed inside a transaction.
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "5000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT od.product.id, e.store.id, o.purchaseDate, SUM(od.quantity) " +
+           "FROM OrderDetail od JOIN od.order o JOIN o.employeeSeller e " +
+           "WHERE o.purchaseDate >= :since AND o.purchaseDate < :until AND o.status <> 'CANCELLED' " +
+           "GROUP BY od.product.id, e.store.id, o.purchaseDate " +
+           "ORDER BY od.product.id, e.store.id, o.purchaseDate")
+    Stream<Object[]> streamDailyDemand(@Param("since") LocalDate since, @Param("until") LocalDate until);
+
+    // Stream the distinct (product, customer) pairs of a day's orders, excluding cancelled orders.
+    // Rows are [productId, customerId]; must be consumed inside a transaction.
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "5000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT DISTINCT od.product.id, o.customer.id FROM OrderDetail od JOIN od.order o " +
+           "WHERE o.purchaseDate = :day AND o.status <> 'CANCELLED'")
+    Stream<Object[]> streamProductBuyers(@Param("day") LocalDate day);
+}
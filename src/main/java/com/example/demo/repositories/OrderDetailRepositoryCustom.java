@@ -0,0 +1,11 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.OrderDetail;
+
+import java.util.List;
+
+public interface OrderDetailRepositoryCustom {
+
+    // Insert new order details as one JDBC batch (persist, unlike save, never selects first)
+    void insertAll(List<OrderDetail> orderDetails);
+}
@@ -0,0 +1,21 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.OrderDetail;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.List;
+
+public class OrderDetailRepositoryImpl implements OrderDetailRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void insertAll(List<OrderDetail> orderDetails) {
+        for (OrderDetail orderDetail : orderDetails) {
+            entityManager.persist(orderDetail);
+        }
+        entityManager.flush();
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.OrderSummaryDocument;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OrderSummaryDocumentRepository extends JpaRepository<OrderSummaryDocument, Integer>,
+        OrderSummaryDocumentRepositoryCustom {
+
+    // Served by the (Customer_ID, Purchase_Date) index
+    Page<OrderSummaryDocument> findByCustomerIdOrderByPurchaseDateDescOrderIdDesc(Integer customerId, Pageable pageable);
+}
@@ -0,0 +1,11 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.OrderSummaryDocument;
+
+import java.util.List;
+
+public interface OrderSummaryDocumentRepositoryCustom {
+
+    // Insert new documents as one JDBC batch (persist, unlike save, never selects first)
+    void insertAll(List<OrderSummaryDocument> documents);
+}
@@ -0,0 +1,21 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.OrderSummaryDocument;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.List;
+
+public class OrderSummaryDocumentRepositoryImpl implements OrderSummaryDocumentRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void insertAll(List<OrderSummaryDocument> documents) {
+        for (OrderSummaryDocument document : documents) {
+            entityManager.persist(document);
+        }
+        entityManager.flush();
+    }
+}
@@ -5,12 +5,19 @@ import com.example.demo.entities.Supplier;
 import com.example.demo.entities.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FLUSH_MODE;
 
 
 @Repository
@@ -87,4 +94,17 @@ public interface ProductRepository extends JpaRepository<Product, Integer> {
     
     // Check if product exists by name and brand
     boolean existsByProductNameAndBrand(String productName, String brand);
+    
+    // Category IDs of all products, as [productId, categoryId] rows
+    @Query("SELECT p.id, c.id FROM Product p JOIN p.categories c")
+    List<Object[]> findAllCategoryIds();
+    
+    // Category IDs of the given products, as [productId, categoryId] rows
+    @Query("SELECT p.id, c.id FROM Product p JOIN p.categories c WHERE p.id IN :productIds")
+    List<Object[]> findCategoryIdsByProductIds(@Param("productIds") Collection<Integer> productIds);
+
+    // Price as stored; does not flush first, so pending changes to a managed product are not seen
+    @QueryHints(@QueryHint(name = HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query("SELECT p.price FROM Product p WHERE p.id = :productId")
+    Optional<BigDecimal> findStoredPriceById(@Param("productId") Integer productId);
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.Promotion;
+import com.example.demo.entities.PromotionCode;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+@Repository
+public interface PromotionCodeRepository extends JpaRepository<PromotionCode, String> {
+
+    // Promotion of an unused one-time code
+    @Query("SELECT c.promotion FROM PromotionCode c WHERE c.code = :code AND c.redeemedAt IS NULL")
+    Optional<Promotion> findPromotionByUnusedCode(@Param("code") String code);
+
+    // Marks a one-time code used, returning 0 when it does not exist or was already used
+    @Modifying
+    @Query("UPDATE PromotionCode c SET c.redeemedAt = :redeemedAt WHERE c.code = :code AND c.redeemedAt IS NULL")
+    int redeem(@Param("code") String code, @Param("redeemedAt") Instant redeemedAt);
+
+    // Codes of a promotion, one page at a time
+    @Query("SELECT c.code FROM PromotionCode c WHERE c.promotion.id = :promotionId")
+    Page<String> findCodesByPromotionId(@Param("promotionId") Integer promotionId, Pageable pageable);
+
+    // Which of the given codes are taken, as one-time codes or as promotion codes
+    @Query("SELECT c.code FROM PromotionCode c WHERE c.code IN :codes")
+    List<String> findExistingCodes(@Param("codes") Collection<String> codes);
+
+    @Query("SELECT p.code FROM Promotion p WHERE p.code IN :codes")
+    List<String> findExistingPromotionCodes(@Param("codes") Collection<String> codes);
+
+    // Stream every code in use; must be consumed inside a transaction
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "10000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT c.code FROM PromotionCode c")
+    Stream<String> streamAllCodes();
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "10000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT p.code FROM Promotion p WHERE p.code IS NOT NULL")
+    Stream<String> streamAllPromotionCodes();
+}
@@ -1,7 +1,9 @@
 package com.example.demo.repositories;
 
 import com.example.demo.entities.Promotion;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -36,6 +38,11 @@ public interface PromotionRepository extends JpaRepository<Promotion, Integer> {
     // Count uses of a promotion
     @Query("SELECT COUNT(o) FROM CustomerOrder o WHERE o.promotion.id = :promotionId")
     long countPromotionUses(@Param("promotionId") Integer promotionId);
+
+    // Lock a promotion's row so that leases of its uses are granted one at a time across instances
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Promotion p WHERE p.id = :id")
+    Optional<Promotion> lockById(@Param("id") Integer id);
     
     // Find promotions by discount amount range
     List<Promotion> findByDiscountAmountBetween(BigDecimal minAmount, BigDecimal maxAmount);
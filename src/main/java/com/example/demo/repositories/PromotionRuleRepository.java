@@ -0,0 +1,24 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.PromotionRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PromotionRuleRepository extends JpaRepository<PromotionRule, Integer> {
+
+    @Query("SELECT r FROM PromotionRule r WHERE r.promotion.id = :promotionId ORDER BY r.priority DESC, r.id")
+    List<PromotionRule> findByPromotionId(@Param("promotionId") Integer promotionId);
+
+    @Query("SELECT r FROM PromotionRule r WHERE r.promotion.id IN :promotionIds")
+    List<PromotionRule> findByPromotionIds(@Param("promotionIds") Collection<Integer> promotionIds);
+
+    @Query("SELECT r FROM PromotionRule r WHERE r.id = :id AND r.promotion.id = :promotionId")
+    Optional<PromotionRule> findByIdAndPromotionId(@Param("id") Integer id, @Param("promotionId") Integer promotionId);
+}
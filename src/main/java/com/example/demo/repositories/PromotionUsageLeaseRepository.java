@@ -0,0 +1,30 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.PromotionUsageLease;
+import com.example.demo.entities.PromotionUsageLeaseId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface PromotionUsageLeaseRepository extends JpaRepository<PromotionUsageLease, PromotionUsageLeaseId> {
+
+    // Uses held by the other instances whose leases were renewed after a time
+    @Query("SELECT COALESCE(SUM(l.held), 0) FROM PromotionUsageLease l WHERE l.promotionId = :promotionId " +
+           "AND l.instanceId <> :instanceId AND l.renewedAt > :renewedAfter")
+    long sumHeldByOthers(@Param("promotionId") Integer promotionId,
+                         @Param("instanceId") String instanceId,
+                         @Param("renewedAfter") Instant renewedAfter);
+
+    @Modifying
+    @Query("DELETE FROM PromotionUsageLease l WHERE l.instanceId = :instanceId")
+    int deleteByInstance(@Param("instanceId") String instanceId);
+
+    @Modifying
+    @Query("DELETE FROM PromotionUsageLease l WHERE l.renewedAt < :before")
+    int deleteExpired(@Param("before") Instant before);
+}
@@ -8,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -56,4 +57,18 @@ public interface ReservedStockRepository extends JpaRepository<ReservedStock, In
     @Query("UPDATE ReservedStock rs SET rs.quantity = :newQuantity WHERE rs.id = :reservationId")
     void updateReservationQuantity(@Param("reservationId") Integer reservationId, 
                                  @Param("newQuantity") Integer newQuantity);
-}
\ No newline at end of file
+
+    // Active reserved quantities of the given products, rows are [storeId, productId, reservedQuantity]
+    @Query("SELECT rs.store.id, rs.product.id, SUM(rs.quantity) FROM ReservedStock rs WHERE " +
+           "rs.product.id IN :productIds AND " +
+           "rs.expiresAt > CURRENT_TIMESTAMP " +
+           "GROUP BY rs.store.id, rs.product.id")
+    List<Object[]> sumActiveReservationsByStoreAndProduct(@Param("productIds") Collection<Integer> productIds);
+
+    // Active reserved quantities per product in a store, rows are [productId, reservedQuantity]
+    @Query("SELECT rs.product.id, SUM(rs.quantity) FROM ReservedStock rs WHERE " +
+           "rs.store.id = :storeId AND " +
+           "rs.expiresAt > CURRENT_TIMESTAMP " +
+           "GROUP BY rs.product.id")
+    List<Object[]> sumActiveReservationsByProductForStore(@Param("storeId") Integer storeId);
+}
@@ -3,18 +3,28 @@ package com.example.demo.repositories;
 import com.example.demo.entities.Return;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface ReturnRepository extends JpaRepository<Return, Integer> {
 
     // Find returns by order
     List<Return> findByOrderId(Integer orderId);
+
+    // Find returns for a set of orders
+    List<Return> findByOrderIdIn(Collection<Integer> orderIds);
     
     // Find returns by product
     List<Return> findByProductId(Integer productId);
@@ -36,4 +46,12 @@ public interface ReturnRepository extends JpaRepository<Return, Integer> {
     // Find returns with high refund amounts
     @Query("SELECT r FROM Return r WHERE r.refundedAmount >= :amount")
     List<Return> findHighValueReturns(@Param("amount") BigDecimal amount);
-}
\ No newline at end of file
+
+
+    // Stream units returned per product to a store (the store that made the sale).
+    // Rows are [productId, unitsReturned]; must be consumed inside a transaction.
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT r.product.id, SUM(r.quantityReturned) FROM Return r " +
+           "WHERE r.order.employeeSeller.store.id = :storeId GROUP BY r.product.id")
+    Stream<Object[]> streamUnitsReturnedByStore(@Param("storeId") Integer storeId);
+}
@@ -1,19 +1,31 @@
 package com.example.demo.repositories;
 
 import com.example.demo.entities.Review;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Integer> {
 
-    // Find reviews by product
-    List<Review> findByProductId(Integer productId);
+    // Published reviews of a product
+    @Query("SELECT r FROM Review r WHERE r.product.id = :productId AND r.status = 'APPROVED'")
+    List<Review> findPublishedByProductId(@Param("productId") Integer productId);
     
     // Find reviews by customer
     List<Review> findByCustomerId(Integer customerId);
@@ -21,20 +33,129 @@ public interface ReviewRepository extends JpaRepository<Review, Integer> {
     // Find review by product and customer
     Optional<Review> findByProductIdAndCustomerId(Integer productId, Integer customerId);
     
-    // Find reviews by rating range
-    List<Review> findByRatingBetween(Integer minRating, Integer maxRating);
+    // Published reviews in a rating range
+    @Query("SELECT r FROM Review r WHERE r.rating BETWEEN :minRating AND :maxRating AND r.status = 'APPROVED'")
+    List<Review> findPublishedByRatingBetween(@Param("minRating") Integer minRating,
+                                              @Param("maxRating") Integer maxRating);
     
-    // Calculate average rating for product
-    @Query("SELECT AVG(r.rating) FROM Review r WHERE r.product.id = :productId")
+    // Average rating of a product's published reviews
+    @Query("SELECT AVG(r.rating) FROM Review r WHERE r.product.id = :productId AND r.status = 'APPROVED'")
     Optional<Double> calculateAverageRating(@Param("productId") Integer productId);
     
-    // Count reviews by product
-    long countByProductId(Integer productId);
-    
-    // Find recent reviews
-    List<Review> findTop5ByOrderByReviewDateDesc();
+    // Count a product's published reviews
+    @Query("SELECT COUNT(r) FROM Review r WHERE r.product.id = :productId AND r.status = 'APPROVED'")
+    long countPublishedByProductId(@Param("productId") Integer productId);
+
+    long countByProductIdAndStatus(Integer productId, String status);
+
+    // Latest published reviews, rows are [reviewId, reviewDate]
+    @Query("SELECT r.id, r.reviewDate FROM Review r WHERE r.status = 'APPROVED' ORDER BY r.reviewDate DESC, r.id DESC")
+    List<Object[]> findRecentFeed(Pageable pageable);
+
+    // Published reviews older than the (before, beforeId) cursor, newest first
+    @Query("SELECT r FROM Review r JOIN FETCH r.product JOIN FETCH r.customer WHERE r.status = 'APPROVED' " +
+           "AND (r.reviewDate < :before OR (r.reviewDate = :before AND r.id < :beforeId)) " +
+           "ORDER BY r.reviewDate DESC, r.id DESC")
+    List<Review> findPublishedBefore(@Param("before") Instant before, @Param("beforeId") Integer beforeId,
+                                     Pageable pageable);
+
+    @Query("SELECT r FROM Review r JOIN FETCH r.product JOIN FETCH r.customer " +
+           "WHERE r.product.id = :productId AND r.status = 'APPROVED' " +
+           "AND (r.reviewDate < :before OR (r.reviewDate = :before AND r.id < :beforeId)) " +
+           "ORDER BY r.reviewDate DESC, r.id DESC")
+    List<Review> findPublishedByProductBefore(@Param("productId") Integer productId, @Param("before") Instant before,
+                                              @Param("beforeId") Integer beforeId, Pageable pageable);
     
     // Search reviews by comment content
     @Query("SELECT r FROM Review r WHERE LOWER(r.comment) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
     List<Review> searchByComment(@Param("searchTerm") String searchTerm);
+
+    // Stream every review for the search index, rows are [reviewId, productId, rating, comment];
+    // must be consumed inside a transaction
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT r.id, r.product.id, r.rating, r.comment FROM Review r")
+    Stream<Object[]> streamSearchRows();
+
+    // Reviews with their product and customer, for a page of search results
+    @Query("SELECT r FROM Review r JOIN FETCH r.product JOIN FETCH r.customer WHERE r.id IN :ids")
+    List<Review> findWithProductAndCustomerByIdIn(@Param("ids") Collection<Integer> ids);
+
+    // Every product a customer has reviewed
+    @Query("SELECT r.product.id FROM Review r WHERE r.customer.id = :customerId")
+    List<Integer> findReviewedProductIds(@Param("customerId") Integer customerId);
+
+    // Count a vote, or a changed vote with -1 on the side it left; the review is reloaded afterwards
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Review r SET r.helpfulVotes = r.helpfulVotes + :helpful, " +
+           "r.unhelpfulVotes = r.unhelpfulVotes + :unhelpful WHERE r.id = :reviewId")
+    int addVotes(@Param("reviewId") Integer reviewId, @Param("helpful") int helpful, @Param("unhelpful") int unhelpful);
+
+    // Reviews from before helpfulness scores were kept
+    List<Review> findByProductIdAndHelpfulnessScoreIsNull(Integer productId);
+
+    // Top of a product's helpfulness ranking, rows are [reviewId, helpfulnessScore]
+    @Query("SELECT r.id, r.helpfulnessScore FROM Review r WHERE r.product.id = :productId AND r.status = 'APPROVED' " +
+           "ORDER BY r.helpfulnessScore DESC, r.id DESC")
+    List<Object[]> findHelpfulnessRanking(@Param("productId") Integer productId, Pageable pageable);
+
+    // Latest published reviews of a product, rows are [reviewId, reviewDate]
+    @Query("SELECT r.id, r.reviewDate FROM Review r WHERE r.product.id = :productId AND r.status = 'APPROVED' " +
+           "ORDER BY r.reviewDate DESC, r.id DESC")
+    List<Object[]> findRecentFeedByProduct(@Param("productId") Integer productId, Pageable pageable);
+
+    // Pages past the in-memory rankings
+    @Query("SELECT r FROM Review r WHERE r.product.id = :productId AND r.status = 'APPROVED' " +
+           "ORDER BY r.helpfulnessScore DESC, r.id DESC")
+    Page<Review> findByProductIdOrderByHelpfulness(@Param("productId") Integer productId, Pageable pageable);
+
+    // Published reviews across all products, most helpful first
+    @Query("SELECT r FROM Review r JOIN FETCH r.product JOIN FETCH r.customer WHERE r.status = 'APPROVED' " +
+           "AND r.helpfulnessScore IS NOT NULL ORDER BY r.helpfulnessScore DESC, r.id DESC")
+    List<Review> findMostHelpful(Pageable pageable);
+
+    @Query("SELECT r FROM Review r WHERE r.product.id = :productId AND r.status = 'APPROVED' " +
+           "ORDER BY r.reviewDate DESC, r.id DESC")
+    Page<Review> findByProductIdOrderByRecency(@Param("productId") Integer productId, Pageable pageable);
+
+    // Latest review texts, rows are [reviewId, comment]
+    @Query("SELECT r.id, r.comment FROM Review r WHERE r.comment IS NOT NULL ORDER BY r.reviewDate DESC")
+    List<Object[]> findRecentComments(Pageable pageable);
+
+    // Reviews waiting for their checks, oldest first
+    @Query("SELECT r.id FROM Review r WHERE r.status = 'PENDING' ORDER BY r.id")
+    List<Integer> findPendingIds(Pageable pageable);
+
+    Page<Review> findByStatus(String status, Pageable pageable);
+
+    long countByStatus(String status);
+
+    // Moderation decision for the given reviews that are still in one of the from statuses
+    @Modifying
+    @Query("UPDATE Review r SET r.status = :status, r.moderationNote = :note, r.moderatedAt = :moderatedAt " +
+           "WHERE r.id IN :ids AND r.status IN :fromStatuses")
+    int moderate(@Param("ids") Collection<Integer> ids, @Param("fromStatuses") Collection<String> fromStatuses,
+                 @Param("status") String status, @Param("note") String note, @Param("moderatedAt") Instant moderatedAt);
+
+    // Moderation decision for every review matching the filter; null filter values match anything
+    @Modifying
+    @Query("UPDATE Review r SET r.status = :status, r.moderationNote = :note, r.moderatedAt = :moderatedAt " +
+           "WHERE r.status IN :fromStatuses " +
+           "AND (:productId IS NULL OR r.product.id = :productId) " +
+           "AND (:customerId IS NULL OR r.customer.id = :customerId) " +
+           "AND (:minRating IS NULL OR r.rating >= :minRating) " +
+           "AND (:maxRating IS NULL OR r.rating <= :maxRating) " +
+           "AND (:submittedFrom IS NULL OR r.reviewDate >= :submittedFrom) " +
+           "AND (:submittedTo IS NULL OR r.reviewDate < :submittedTo) " +
+           "AND (:noteContains IS NULL OR r.moderationNote LIKE CONCAT('%', :noteContains, '%'))")
+    int moderateMatching(@Param("fromStatuses") Collection<String> fromStatuses,
+                         @Param("productId") Integer productId,
+                         @Param("customerId") Integer customerId,
+                         @Param("minRating") Integer minRating,
+                         @Param("maxRating") Integer maxRating,
+                         @Param("submittedFrom") Instant submittedFrom,
+                         @Param("submittedTo") Instant submittedTo,
+                         @Param("noteContains") String noteContains,
+                         @Param("status") String status,
+                         @Param("note") String note,
+                         @Param("moderatedAt") Instant moderatedAt);
 }
\ No newline at end of file
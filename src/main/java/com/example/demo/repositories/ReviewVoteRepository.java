@@ -0,0 +1,13 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.ReviewVote;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ReviewVoteRepository extends JpaRepository<ReviewVote, Integer> {
+
+    Optional<ReviewVote> findByReviewIdAndCustomerId(Integer reviewId, Integer customerId);
+}
@@ -0,0 +1,77 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.SalesDailyRollup;
+import com.example.demo.entities.SalesDailyRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Daily sales rollups and the raw aggregations they are built from.
+ *
+ * The aggregate* queries return [dimensionId, date, orderCount, units, revenue] per day over
+ * orders that are not cancelled; a null id aggregates every member of the dimension.
+ */
+@Repository
+public interface SalesDailyRollupRepository extends JpaRepository<SalesDailyRollup, SalesDailyRollupId>,
+        SalesDailyRollupRepositoryCustom {
+
+    // Add a delta to an existing rollup row, returns 0 when the row does not exist yet
+    @Modifying
+    @Query("UPDATE SalesDailyRollup r SET r.orderCount = r.orderCount + :orders, r.units = r.units + :units, " +
+           "r.revenue = r.revenue + :revenue WHERE r.id = :id")
+    int addToRollup(@Param("id") SalesDailyRollupId id, @Param("orders") long orders,
+                    @Param("units") long units, @Param("revenue") BigDecimal revenue);
+
+    @Modifying
+    @Query("DELETE FROM SalesDailyRollup r WHERE r.id.salesDate BETWEEN :from AND :to")
+    int deleteByDateRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Rollup rows of one dimension member, by day
+    @Query("SELECT r FROM SalesDailyRollup r WHERE r.id.dimension = :dimension AND r.id.dimensionId = :dimensionId " +
+           "AND r.id.salesDate BETWEEN :from AND :to ORDER BY r.id.salesDate")
+    List<SalesDailyRollup> findSeries(@Param("dimension") String dimension, @Param("dimensionId") Integer dimensionId,
+                                      @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT 0, o.purchaseDate, COUNT(o), 0L, SUM(o.totalPrice) FROM CustomerOrder o " +
+           "WHERE o.purchaseDate BETWEEN :from AND :to AND (o.status IS NULL OR o.status <> 'CANCELLED') " +
+           "GROUP BY o.purchaseDate")
+    List<Object[]> aggregateAll(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT e.store.id, o.purchaseDate, COUNT(o), 0L, SUM(o.totalPrice) FROM CustomerOrder o JOIN o.employeeSeller e " +
+           "WHERE o.purchaseDate BETWEEN :from AND :to AND (o.status IS NULL OR o.status <> 'CANCELLED') " +
+           "AND e.store IS NOT NULL AND (:id IS NULL OR e.store.id = :id) " +
+           "GROUP BY e.store.id, o.purchaseDate")
+    List<Object[]> aggregateByStore(@Param("id") Integer storeId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT o.employeeSeller.id, o.purchaseDate, COUNT(o), 0L, SUM(o.totalPrice) FROM CustomerOrder o " +
+           "WHERE o.purchaseDate BETWEEN :from AND :to AND (o.status IS NULL OR o.status <> 'CANCELLED') " +
+           "AND (:id IS NULL OR o.employeeSeller.id = :id) " +
+           "GROUP BY o.employeeSeller.id, o.purchaseDate")
+    List<Object[]> aggregateByEmployee(@Param("id") Integer employeeId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT o.customer.id, o.purchaseDate, COUNT(o), 0L, SUM(o.totalPrice) FROM CustomerOrder o " +
+           "WHERE o.purchaseDate BETWEEN :from AND :to AND (o.status IS NULL OR o.status <> 'CANCELLED') " +
+           "AND (:id IS NULL OR o.customer.id = :id) " +
+           "GROUP BY o.customer.id, o.purchaseDate")
+    List<Object[]> aggregateByCustomer(@Param("id") Integer customerId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT p.id, o.purchaseDate, COUNT(o), 0L, SUM(o.totalPrice) FROM CustomerOrder o JOIN o.promotion p " +
+           "WHERE o.purchaseDate BETWEEN :from AND :to AND (o.status IS NULL OR o.status <> 'CANCELLED') " +
+           "AND (:id IS NULL OR p.id = :id) " +
+           "GROUP BY p.id, o.purchaseDate")
+    List<Object[]> aggregateByPromotion(@Param("id") Integer promotionId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT d.product.id, o.purchaseDate, COUNT(DISTINCT o.id), SUM(d.quantity), SUM(d.finalPrice) " +
+           "FROM OrderDetail d JOIN d.order o " +
+           "WHERE o.purchaseDate BETWEEN :from AND :to AND (o.status IS NULL OR o.status <> 'CANCELLED') " +
+           "AND (:id IS NULL OR d.product.id = :id) " +
+           "GROUP BY d.product.id, o.purchaseDate")
+    List<Object[]> aggregateByProduct(@Param("id") Integer productId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
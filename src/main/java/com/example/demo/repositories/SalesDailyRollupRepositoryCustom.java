@@ -0,0 +1,11 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.SalesDailyRollup;
+
+import java.util.List;
+
+public interface SalesDailyRollupRepositoryCustom {
+
+    // Insert new rollup rows as one JDBC batch (persist, unlike save, never selects first)
+    void insertAll(List<SalesDailyRollup> rollups);
+}
@@ -0,0 +1,21 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.SalesDailyRollup;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.List;
+
+public class SalesDailyRollupRepositoryImpl implements SalesDailyRollupRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void insertAll(List<SalesDailyRollup> rollups) {
+        for (SalesDailyRollup rollup : rollups) {
+            entityManager.persist(rollup);
+        }
+        entityManager.flush();
+    }
+}
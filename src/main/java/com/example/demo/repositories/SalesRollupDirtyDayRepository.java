@@ -0,0 +1,26 @@
+package com.example.demo.repositories;
+
+import com.example.demo.entities.SalesRollupDirtyDay;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface SalesRollupDirtyDayRepository extends JpaRepository<SalesRollupDirtyDay, Integer> {
+
+    @Query("SELECT MAX(d.id) FROM SalesRollupDirtyDay d")
+    Integer findMaxId();
+
+    @Query("SELECT DISTINCT d.salesDate FROM SalesRollupDirtyDay d WHERE d.id <= :maxId ORDER BY d.salesDate")
+    List<LocalDate> findDatesUpTo(@Param("maxId") Integer maxId);
+
+    // Markers written after the repair started stay for the next one
+    @Modifying
+    @Query("DELETE FROM SalesRollupDirtyDay d WHERE d.id <= :maxId")
+    int deleteUpTo(@Param("maxId") Integer maxId);
+}
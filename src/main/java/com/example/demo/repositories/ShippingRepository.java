@@ -3,9 +3,13 @@ package com.example.demo.repositories;
 import com.example.demo.entities.CustomerOrder;
 import com.example.demo.entities.Shipping;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,6 +19,9 @@ public interface ShippingRepository extends JpaRepository<Shipping, Integer> {
     // Find all shipping records for a specific order
     List<Shipping> findByOrder(CustomerOrder order);
     
+    // Find all shipping records for a set of orders
+    List<Shipping> findByOrderIdIn(Collection<Integer> orderIds);
+    
     // Find by tracking number
     Optional<Shipping> findByTrackingNumber(String trackingNumber);
     
@@ -32,4 +39,9 @@ public interface ShippingRepository extends JpaRepository<Shipping, Integer> {
     
     // Find shipments by provider shipped after a certain date
     List<Shipping> findByShippingProviderAndShippedDateAfter(String provider, Instant date);
+    
+    // Delete all shipping records for a set of orders
+    @Modifying
+    @Query("DELETE FROM Shipping s WHERE s.order.id IN :orderIds")
+    int deleteAllByOrderIds(@Param("orderIds") Collection<Integer> orderIds);
 }
\ No newline at end of file
@@ -37,4 +37,9 @@ public interface StorageRepository extends JpaRepository<Storage, Integer> {
     
     // Find by store and location
     List<Storage> findByStoreAndLocationContaining(Store store, String locationKeyword);
+
+    // Replenishment thresholds per store: rows are [storeId, reorderLevel, maxStock],
+    // taking the largest value configured across the store's storage areas
+    @Query("SELECT s.store.id, MAX(s.reorderLevel), MAX(s.maxStock) FROM Storage s GROUP BY s.store.id")
+    List<Object[]> findReplenishmentThresholdsByStore();
 }
\ No newline at end of file
@@ -4,15 +4,25 @@ import com.example.demo.entities.Product;
 import com.example.demo.entities.Store;
 import com.example.demo.entities.StoreInventory;
 import com.example.demo.entities.StoreInventoryId;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-public interface StoreInventoryRepository extends JpaRepository<StoreInventory, StoreInventoryId> {
+public interface StoreInventoryRepository extends JpaRepository<StoreInventory, StoreInventoryId>, StoreInventoryRepositoryCustom {
     
     // Find all inventory items for a specific store
     List<StoreInventory> findByStore(Store store);
@@ -41,4 +51,34 @@ public interface StoreInventoryRepository extends JpaRepository<StoreInventory,
     List<StoreInventory> findLowStockItemsByStore(Store store);
 
     Optional<StoreInventory> findByStoreIdAndProductId(Integer storeId, Integer productId);
-}
\ No newline at end of file
+
+    // Whether any store has more than the given quantity of the product
+    boolean existsByProductIdAndQuantityGreaterThan(Integer productId, Integer quantity);
+
+    // Stream stock positions of active, supplier-backed products in a store.
+    // Rows are [productId, quantity, supplierId, price]; must be consumed inside a transaction.
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT si.product.id, si.quantity, p.supplier.id, p.price FROM StoreInventory si JOIN si.product p " +
+           "WHERE si.store.id = :storeId AND p.isActive = true AND p.supplier IS NOT NULL")
+    Stream<Object[]> streamReplenishableStockByStore(@Param("storeId") Integer storeId);
+
+    // Stock of the given products in every store that carries them, rows are [storeId, productId, quantity]
+    @Query("SELECT si.store.id, si.product.id, si.quantity FROM StoreInventory si " +
+           "WHERE si.product.id IN :productIds AND si.quantity > 0")
+    List<Object[]> findStockMatrixRows(@Param("productIds") Collection<Integer> productIds);
+
+    // Lock the inventory rows of the given products, in a fixed order to avoid deadlocks between allocators
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT si FROM StoreInventory si WHERE si.product.id IN :productIds ORDER BY si.store.id, si.product.id")
+    List<StoreInventory> lockByProductIds(@Param("productIds") Collection<Integer> productIds);
+
+    // Stream recorded quantities of a store, rows are [productId, quantity]; must be consumed inside a transaction
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT si.product.id, si.quantity FROM StoreInventory si WHERE si.store.id = :storeId")
+    Stream<Object[]> streamQuantitiesByStore(@Param("storeId") Integer storeId);
+
+    // Inventory rows of a store for the given products, used to apply corrections in batches
+    @Query("SELECT si FROM StoreInventory si WHERE si.store.id = :storeId AND si.product.id IN :productIds")
+    List<StoreInventory> findByStoreIdAndProductIdIn(@Param("storeId") Integer storeId,
+                                                     @Param("productIds") Collection<Integer> productIds);
+}
@@ -0,0 +1,10 @@
+package com.example.demo.repositories;
+
+import java.util.Map;
+
+public interface StoreInventoryRepositoryCustom {
+
+    // Decrement several products of a store in one UPDATE, only where enough stock is left.
+    // Returns the number of rows updated; fewer rows than products means some stock was short.
+    int decrementStock(Integer storeId, Map<Integer, Integer> quantitiesByProductId);
+}
@@ -0,0 +1,41 @@
+package com.example.demo.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.util.Map;
+
+public class StoreInventoryRepositoryImpl implements StoreInventoryRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int decrementStock(Integer storeId, Map<Integer, Integer> quantitiesByProductId) {
+        if (quantitiesByProductId.isEmpty()) {
+            return 0;
+        }
+
+        // CASE si.id.productId WHEN :p0 THEN :q0 WHEN :p1 THEN :q1 ... END
+        StringBuilder amount = new StringBuilder("CASE si.id.productId");
+        for (int i = 0; i < quantitiesByProductId.size(); i++) {
+            amount.append(" WHEN :p").append(i).append(" THEN :q").append(i);
+        }
+        amount.append(" END");
+
+        Query query = entityManager.createQuery(
+                "UPDATE StoreInventory si SET si.quantity = si.quantity - " + amount +
+                " WHERE si.id.storeId = :storeId AND si.id.productId IN :productIds" +
+                " AND si.quantity >= " + amount);
+        int i = 0;
+        for (Map.Entry<Integer, Integer> entry : quantitiesByProductId.entrySet()) {
+            query.setParameter("p" + i, entry.getKey());
+            query.setParameter("q" + i, entry.getValue());
+            i++;
+        }
+        query.setParameter("storeId", storeId);
+        query.setParameter("productIds", quantitiesByProductId.keySet());
+        return query.executeUpdate();
+    }
+}
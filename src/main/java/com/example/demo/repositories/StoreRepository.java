@@ -3,9 +3,11 @@ package com.example.demo.repositories;
 import com.example.demo.entities.Store;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface StoreRepository extends JpaRepository<Store, Integer> {
@@ -35,4 +37,12 @@ public interface StoreRepository extends JpaRepository<Store, Integer> {
     // Find stores with unread notifications
     @Query("SELECT DISTINCT s FROM Store s JOIN s.notifications n WHERE n.isRead = false")
     List<Store> findStoresWithUnreadNotifications();
+
+    // Store of an employee
+    @Query("SELECT e.store.id FROM Employee e WHERE e.id = :employeeId")
+    Optional<Integer> findStoreIdByEmployeeId(@Param("employeeId") Integer employeeId);
+
+    // All store ids in ascending order
+    @Query("SELECT s.id FROM Store s ORDER BY s.id")
+    List<Integer> findAllIds();
 }
\ No newline at end of file
@@ -6,11 +6,18 @@ import com.example.demo.entities.Supplier;
 import com.example.demo.entities.SupplyOrder;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface SupplyOrderRepository extends JpaRepository<SupplyOrder, Integer> {
@@ -56,4 +63,15 @@ public interface SupplyOrderRepository extends JpaRepository<SupplyOrder, Intege
     // Calculate total value of orders by product
     @Query("SELECT SUM(so.price * so.quantityOrdered) FROM SupplyOrder so WHERE so.product = :product")
     BigDecimal calculateTotalValueByProduct(Product product);
-}
\ No newline at end of file
+
+    // Find ids of products with a supply order placed on or after a date (still in transit)
+    @Query("SELECT DISTINCT so.product.id FROM SupplyOrder so WHERE so.orderDate >= :date")
+    List<Integer> findProductIdsOrderedSince(LocalDate date);
+
+    // Stream units received per product by a store (supply orders handled by the store's employees;
+    // unassigned drafts are not counted). Rows are [productId, unitsReceived]; must be consumed inside a transaction.
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT so.product.id, SUM(so.quantityOrdered) FROM SupplyOrder so " +
+           "WHERE so.employee.store.id = :storeId GROUP BY so.product.id")
+    Stream<Object[]> streamUnitsReceivedByStore(@Param("storeId") Integer storeId);
+}
@@ -3,8 +3,10 @@ package com.example.demo.repositories;
 import com.example.demo.entities.Customer;
 import com.example.demo.entities.Product;
 import com.example.demo.entities.Wishlist;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -51,4 +53,11 @@ public interface WishlistRepository extends JpaRepository<Wishlist, Integer> {
     // Find customers who added a specific product to wishlist
     @Query("SELECT w.customer FROM Wishlist w WHERE w.product = :product")
     List<Customer> findCustomersWhoAddedProduct(Product product);
+
+    // Next page of IDs of customers with the product on their wishlist, in ID order after the given one
+    @Query("SELECT DISTINCT w.customer.id FROM Wishlist w WHERE w.product.id = :productId AND w.customer.id > :afterCustomerId " +
+           "ORDER BY w.customer.id")
+    List<Integer> findCustomerIdsByProductAfter(@Param("productId") Integer productId,
+                                                @Param("afterCustomerId") Integer afterCustomerId,
+                                                Pageable pageable);
 }
\ No newline at end of file
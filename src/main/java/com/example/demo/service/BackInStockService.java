@@ -0,0 +1,21 @@
+package com.example.demo.service;
+
+import com.example.demo.entities.BackInStockSubscription;
+
+import java.util.List;
+
+public interface BackInStockService {
+
+    // Subscribe a customer to a restock of an out-of-stock product at a store, or at any store when storeId is null
+    BackInStockSubscription subscribe(Integer customerId, Integer productId, Integer storeId);
+
+    // Cancel one of the customer's subscriptions
+    void unsubscribe(Integer customerId, Integer subscriptionId);
+
+    // A customer's pending subscriptions, newest first
+    List<BackInStockSubscription> getSubscriptions(Integer customerId);
+
+    // Called from every inventory write: alerts the subscribers once the current transaction commits
+    // if the product went from out of stock (no inventory counts as none) to in stock at the store
+    void stockChanged(Integer storeId, Integer productId, Integer previousQuantity, Integer quantity);
+}
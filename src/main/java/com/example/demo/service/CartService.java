@@ -1,6 +1,7 @@
 package com.example.demo.service;
 
 import com.example.demo.dto.CartDTO;
+import com.example.demo.dto.CheckoutRequestDTO;
 import com.example.demo.entities.Cart;
 import com.example.demo.entities.Customer;
 import com.example.demo.entities.CustomerOrder;
@@ -44,5 +45,5 @@ public interface CartService {
     Cart clearCart(Integer customerId);
     
     // Process checkout and create order
-    Integer checkout(Integer customerId);
+    Integer checkout(Integer customerId, CheckoutRequestDTO request);
 }
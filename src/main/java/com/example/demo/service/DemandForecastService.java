@@ -0,0 +1,17 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.DemandForecastDTO;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface DemandForecastService {
+
+    // Refit every (product, store) series sold in the history window, returns the number of series fitted
+    int runForecast();
+
+    // Forecasts of a product in every store it sold in
+    List<DemandForecastDTO> getForecasts(Integer productId);
+
+    Optional<DemandForecastDTO> getForecast(Integer productId, Integer storeId);
+}
@@ -0,0 +1,25 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.DistinctCountDTO;
+import com.example.demo.entities.CustomerOrder;
+import com.example.demo.entities.OrderDetail;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+public interface DistinctCountService {
+
+    enum Dimension { PRODUCT, STORE, CATEGORY }
+
+    // Add the order's customer to the daily sketches of its store, products and their categories once the
+    // surrounding transaction commits
+    void recordOrderCreated(CustomerOrder order, Collection<OrderDetail> details);
+
+    // Estimated distinct customers who bought any of the given products, at any of the given stores or in any
+    // of the given categories, between from and to inclusive
+    DistinctCountDTO countDistinctCustomers(Collection<Integer> productIds, Collection<Integer> storeIds,
+                                            Collection<Integer> categoryIds, LocalDate from, LocalDate to);
+
+    // Recompute the sketches of a date range from raw orders, returns the number of sketches written
+    int rebuild(LocalDate from, LocalDate to);
+}
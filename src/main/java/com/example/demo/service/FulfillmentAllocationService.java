@@ -0,0 +1,15 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.FulfillmentAllocationDTO;
+
+import java.time.Instant;
+import java.util.Map;
+
+public interface FulfillmentAllocationService {
+
+    // Pick the stores that should fulfil the order lines (product ID -> quantity) without reserving anything
+    FulfillmentAllocationDTO allocate(Map<Integer, Integer> orderLines);
+
+    // Pick the stores and reserve the allocated stock in one transaction, all or nothing
+    FulfillmentAllocationDTO allocateAndReserve(Map<Integer, Integer> orderLines, Instant expiresAt);
+}
@@ -0,0 +1,13 @@
+package com.example.demo.service;
+
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+
+    // Run the action once per scope and Idempotency-Key; repeats get the stored response and
+    // concurrent duplicates wait for the first execution. A null key runs the action directly.
+    <T> T execute(String scope, String key, Object request, Class<T> responseType, Supplier<T> action);
+
+    // Remove expired keys from the cache and the database, returns the number of rows deleted
+    int purgeExpired();
+}
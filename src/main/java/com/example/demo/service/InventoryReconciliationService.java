@@ -0,0 +1,27 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.InventoryDriftDTO;
+import com.example.demo.dto.ReconciliationStatusDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface InventoryReconciliationService {
+
+    // Start a reconciliation run in the background and return its run ID
+    Integer startReconciliation(boolean applyCorrections);
+
+    // Live progress of the active run, or the totals of the last one
+    Optional<ReconciliationStatusDTO> getCurrentStatus();
+
+    // Get a run by ID
+    Optional<ReconciliationStatusDTO> getRun(Integer runId);
+
+    // Get the most recent runs
+    List<ReconciliationStatusDTO> getRecentRuns();
+
+    // Get the drift report of a run, optionally restricted to one store
+    Page<InventoryDriftDTO> getDriftReport(Integer runId, Integer storeId, Pageable pageable);
+}
@@ -1,6 +1,9 @@
 package com.example.demo.service;
 
 import com.example.demo.entities.Notification;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
 import java.time.LocalDate;
 import java.util.List;
 
@@ -9,6 +12,9 @@ public interface NotificationService {
     // Create a new notification
     Notification createNotification(Notification notification);
 
+    // Create many notifications in one batch, e.g. alerts to every customer following a product
+    List<Notification> createNotifications(List<Notification> notifications);
+
     // Get notification by ID
     Notification getNotificationById(Integer id);
 
@@ -36,6 +42,9 @@ public interface NotificationService {
     // Search notifications by message content
     List<Notification> searchNotifications(String searchTerm);
 
+    // Full-text search over messages, best matches first, optionally for one customer
+    Page<Notification> searchNotifications(String query, Integer customerId, Pageable pageable);
+
     // Get count of unread notifications for customer
     Long getUnreadCountForCustomer(Integer customerId);
 }
\ No newline at end of file
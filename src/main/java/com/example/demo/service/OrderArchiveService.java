@@ -0,0 +1,18 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.OrderHistoryDTO;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface OrderArchiveService {
+
+    // Move closed orders older than the horizon to the archive tables, returns the number of orders moved
+    int archiveClosedOrders();
+
+    // Orders from the hot tables and, when the range reaches back far enough, the archive
+    List<OrderHistoryDTO> getOrderHistory(Integer customerId, String status, LocalDate from, LocalDate to);
+
+    Optional<OrderHistoryDTO> findOrder(Integer orderId);
+}
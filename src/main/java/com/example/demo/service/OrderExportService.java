@@ -0,0 +1,19 @@
+package com.example.demo.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+public interface OrderExportService {
+
+    enum Format {
+        // One row per order line
+        CSV,
+        // One JSON object per order, lines nested
+        NDJSON
+    }
+
+    // Write the orders purchased in [from, to] with their lines to out, archived orders included.
+    // Returns the number of orders written; out is flushed but not closed.
+    int exportOrders(LocalDate from, LocalDate to, Format format, OutputStream out) throws IOException;
+}
@@ -0,0 +1,18 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.OrderIntakeRequestDTO;
+import com.example.demo.dto.OrderIntakeStatusDTO;
+
+import java.util.Optional;
+
+public interface OrderIntakeService {
+
+    // Queue an order for asynchronous placement and return its intake ID; fails with 429 when the queue is full
+    String submit(OrderIntakeRequestDTO request);
+
+    // Current outcome of a queued order, waiting up to waitMillis for it to finish
+    Optional<OrderIntakeStatusDTO> getStatus(String intakeId, long waitMillis);
+
+    // Number of orders waiting in the queue
+    int getQueueDepth();
+}
@@ -0,0 +1,21 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.OrderSummaryDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Optional;
+
+public interface OrderSummaryService {
+
+    // Schedule the order's summary document for a rebuild once the surrounding transaction commits
+    void markChanged(Integer orderId);
+
+    Optional<OrderSummaryDTO> getSummary(Integer orderId);
+
+    // A customer's order summaries, newest first
+    Page<OrderSummaryDTO> getCustomerSummaries(Integer customerId, Pageable pageable);
+
+    // Rebuild the documents of all orders, returns the number of orders processed
+    int rebuildAll();
+}
@@ -0,0 +1,12 @@
+package com.example.demo.service;
+
+import com.example.demo.entities.Product;
+
+import java.math.BigDecimal;
+
+public interface PriceDropAlertService {
+
+    // Queue alerts to everyone with the product on their wishlist once the current transaction
+    // commits, if its price went down from the previous one
+    void priceChanged(Product product, BigDecimal previousPrice);
+}
@@ -0,0 +1,20 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.PromotionCodeBatchRequestDTO;
+import com.example.demo.dto.PromotionCodeBatchStatusDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Optional;
+
+public interface PromotionCodeService {
+
+    // Queue a batch of one-time codes for a promotion and return the batch ID
+    String startBatch(Integer promotionId, PromotionCodeBatchRequestDTO request);
+
+    // Progress of a batch, while it runs and for a while after it finished
+    Optional<PromotionCodeBatchStatusDTO> getBatch(String batchId);
+
+    // One-time codes of a promotion
+    Page<String> getCodes(Integer promotionId, Pageable pageable);
+}
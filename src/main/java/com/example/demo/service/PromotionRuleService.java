@@ -0,0 +1,31 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CartEvaluationDTO;
+import com.example.demo.dto.PromotionRuleDTO;
+import com.example.demo.entities.OrderDetail;
+import com.example.demo.entities.Product;
+import com.example.demo.entities.Promotion;
+
+import java.util.List;
+import java.util.Map;
+
+public interface PromotionRuleService {
+
+    List<PromotionRuleDTO> getRules(Integer promotionId);
+
+    PromotionRuleDTO addRule(Integer promotionId, PromotionRuleDTO rule);
+
+    void deleteRule(Integer promotionId, Integer ruleId);
+
+    /**
+     * Prices order lines with the automatic promotions and, if given, the promotion whose code was
+     * entered. Throws IllegalStateException when that promotion does not apply to the lines.
+     */
+    List<OrderDetail> priceOrder(Map<Integer, Product> products, Map<Integer, Integer> quantities, Promotion promotion);
+
+    // Previews the promotions on a cart without placing an order
+    CartEvaluationDTO evaluateCart(Map<Integer, Integer> lines, Promotion promotion);
+
+    // Recompiles the rule index before the next evaluation, once the current transaction commits
+    void markStale();
+}
@@ -22,10 +22,23 @@ public interface PromotionService {
     
     // Validation methods
     boolean isPromotionValid(String code);
+    Optional<Promotion> findValidPromotion(String code);
     boolean isPromotionApplicable(Integer promotionId, BigDecimal orderTotal);
     
     // Usage tracking
     long getPromotionUsageCount(Integer promotionId);
+
+    /**
+     * Atomically takes one of the promotion's remaining uses, returning false when none remain.
+     * Call it inside the transaction that records the use: the use is handed back if it rolls back.
+     */
+    boolean reserveUse(Promotion promotion);
+
+    /**
+     * Marks a one-time code as used, returning false when it already was. Always true for the
+     * promotion's own code. Call it inside the transaction that records the use.
+     */
+    boolean redeemCode(String code);
     
     // Activation management
     void activatePromotion(Integer id);
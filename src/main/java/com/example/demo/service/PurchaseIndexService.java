@@ -0,0 +1,24 @@
+package com.example.demo.service;
+
+import com.example.demo.entities.CustomerOrder;
+import com.example.demo.entities.OrderDetail;
+
+import java.util.Collection;
+
+public interface PurchaseIndexService {
+
+    // Add the order's products to its customer's purchases once the surrounding transaction commits
+    void recordOrderCreated(CustomerOrder order, Collection<OrderDetail> details);
+
+    // Whether the customer has ordered the product, answered from memory when it has
+    boolean hasPurchased(Integer customerId, Integer productId);
+
+    // Whether the customer has reviewed the product; a true answer may be stale, a false one only
+    // when the review was written by another instance
+    boolean hasReviewed(Integer customerId, Integer productId);
+
+    // Keep the reviewed products in step once the surrounding transaction commits
+    void recordReviewCreated(Integer customerId, Integer productId);
+
+    void recordReviewDeleted(Integer customerId, Integer productId);
+}
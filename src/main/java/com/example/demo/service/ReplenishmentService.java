@@ -0,0 +1,12 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ReplenishmentPlanDTO;
+
+public interface ReplenishmentService {
+
+    // Compute supply order drafts from stock levels and sales velocity without persisting anything
+    ReplenishmentPlanDTO planReplenishment();
+
+    // Compute the plan and create the supply orders (unassigned, i.e. drafts awaiting a buyer)
+    ReplenishmentPlanDTO runReplenishment();
+}
@@ -0,0 +1,13 @@
+package com.example.demo.service;
+
+import com.example.demo.entities.Review;
+
+/**
+ * Local check run on every new or edited review before it is published. Checks are called from
+ * several moderation workers at once.
+ */
+public interface ReviewCheck {
+
+    // Why the review should be held for a moderator, or null when it passes
+    String check(Review review);
+}
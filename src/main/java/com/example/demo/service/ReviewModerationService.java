@@ -0,0 +1,24 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ReviewModerationRequestDTO;
+import com.example.demo.dto.ReviewModerationStatsDTO;
+import com.example.demo.entities.Review;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface ReviewModerationService {
+
+    // Publish a review whatever its status
+    Review approveReview(Integer reviewId);
+
+    // Hide a review whatever its status
+    Review rejectReview(Integer reviewId, String reason);
+
+    // Approve or reject every review matching the filter in one update, returns the number changed
+    int moderate(ReviewModerationRequestDTO request);
+
+    // Reviews in one moderation status, e.g. the FLAGGED ones waiting for a moderator
+    Page<Review> getReviewsByStatus(String status, Pageable pageable);
+
+    ReviewModerationStatsDTO getStats();
+}
@@ -1,6 +1,11 @@
 package com.example.demo.service;
 
 import com.example.demo.entities.Review;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,7 +17,7 @@ public interface ReviewService {
     // Get review by ID
     Optional<Review> getReviewById(Integer id);
     
-    // Get all reviews for a product
+    // Get the published reviews of a product
     List<Review> getReviewsByProduct(Integer productId);
     
     // Get all reviews by a customer
@@ -21,24 +26,55 @@ public interface ReviewService {
     // Get a customer's review for a specific product
     Optional<Review> getCustomerReviewForProduct(Integer customerId, Integer productId);
     
-    // Get reviews by rating range
+    // Get published reviews by rating range
     List<Review> getReviewsByRatingRange(Integer minRating, Integer maxRating);
     
-    // Calculate average rating for a product
+    // Calculate average rating of a product's published reviews
     Optional<Double> getAverageRatingForProduct(Integer productId);
     
-    // Get review count for product
+    // Get published review count for product
     long getReviewCountForProduct(Integer productId);
     
     // Get recent reviews
     List<Review> getRecentReviews(int limit);
+
+    // Latest published reviews, overall or of one product, older than the (before, beforeId) cursor when given
+    List<Review> getRecentReviews(Integer productId, Instant before, Integer beforeId, int limit);
     
     // Search reviews by comment content
     List<Review> searchReviews(String searchTerm);
+
+    /**
+     * Full-text search over comments, best matches first. Words are matched in any inflection
+     * ("charging" finds "charged") and "quoted phrases" word for word; all of them must match.
+     */
+    Page<Review> searchReviews(String query, Integer productId, Integer minRating, Integer maxRating, Pageable pageable);
     
     // Delete a review
     void deleteReview(Integer id);
 
+    /**
+     * Records a customer's helpful or not helpful vote on a review, replacing their earlier vote.
+     * Throws IllegalArgumentException for a vote on the customer's own review.
+     */
+    Review voteOnReview(Integer reviewId, Integer customerId, boolean helpful);
+
+    // A product's approved reviews, most helpful first
+    Page<Review> getMostHelpfulReviews(Integer productId, Pageable pageable);
+
+    // Approved reviews across all products, most helpful first
+    List<Review> getMostHelpfulReviews(int limit);
+
+    // A product's approved reviews, most recent first
+    Page<Review> getMostRecentReviews(Integer productId, Pageable pageable);
+
+    // Bring the product rankings in line with the current status of moderated reviews, once the
+    // surrounding transaction commits
+    void recordModerated(Collection<Review> reviews);
+
+    // Drop the product rankings so that they are rebuilt from the database on the next read
+    void refreshRankings();
+
     List<Review> findByRating(Integer rating);
 
     Optional<Review> findById(Integer id);
@@ -0,0 +1,20 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.SalesCubeQueryDTO;
+import com.example.demo.dto.SalesCubeResultDTO;
+
+public interface SalesCubeService {
+
+    enum Dimension { PRODUCT, CATEGORY, STORE, EMPLOYEE, DAY }
+
+    enum Measure { REVENUE, UNITS }
+
+    // Filter, group and rank the sale lines held in memory
+    SalesCubeResultDTO query(SalesCubeQueryDTO query);
+
+    // Append the lines of orders placed since the last load, returns the number of lines added
+    int appendNewOrders();
+
+    // Rebuild the cube from the order tables, picking up status changes; returns the number of lines loaded
+    int reload();
+}
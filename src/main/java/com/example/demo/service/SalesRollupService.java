@@ -0,0 +1,31 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.SalesRevenueDTO;
+import com.example.demo.entities.CustomerOrder;
+import com.example.demo.entities.OrderDetail;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+public interface SalesRollupService {
+
+    enum Dimension { ALL, STORE, EMPLOYEE, CUSTOMER, PRODUCT, PROMOTION }
+
+    // Add a new order and its details to the rollups once the surrounding transaction commits
+    void recordOrderCreated(CustomerOrder order, Collection<OrderDetail> details);
+
+    // Moving an order into or out of CANCELLED removes it from or adds it back to the rollups
+    void recordStatusChange(CustomerOrder order, String previousStatus);
+
+    // Remove an order about to be deleted from the rollups; call before deleting it, details are read here
+    void recordOrderDeleted(CustomerOrder order);
+
+    // Replace a line's product contribution; previous is null for an added line and current null for a removed one
+    void recordLineChange(CustomerOrder order, OrderDetail previous, OrderDetail current);
+
+    // Recompute the rollups of a date range from raw orders, returns the number of rows written
+    int rebuild(LocalDate from, LocalDate to);
+
+    // Revenue of a dimension member; a null from or to means since the first order or up to today
+    SalesRevenueDTO getRevenue(Dimension dimension, Integer dimensionId, LocalDate from, LocalDate to, boolean includeDays);
+}
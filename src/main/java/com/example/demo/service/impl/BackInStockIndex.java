@@ -0,0 +1,177 @@
+package com.example.demo.service.impl;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Back-in-stock subscriptions by product.
+ *
+ * A product's subscriptions are one sorted long[] of storeId << 32 | customerId, store 0 standing
+ * for any store, so each costs 8 bytes and the subscribers of a restock at a store are two
+ * contiguous ranges: the any-store one and the store's. Arrays are replaced rather than changed,
+ * so lookups read a consistent array without locking while writers copy under the map's per-key
+ * lock. A whole index, e.g. a rebuild, is loaded through a {@link Builder} instead, since copying
+ * a product's array on every add would be quadratic in its subscriptions.
+ */
+public class BackInStockIndex {
+
+    private static final int ANY_STORE = 0;
+
+    private final ConcurrentHashMap<Integer, long[]> byProduct = new ConcurrentHashMap<>();
+
+    /**
+     * Collects subscriptions in any order, appending each product's keys to a growing buffer, then
+     * sorts every product's keys once and installs them in a new index.
+     */
+    public static class Builder {
+
+        private final Map<Integer, KeyBuffer> byProduct = new HashMap<>();
+
+        // Store null subscribes to a restock at any store
+        public Builder add(int productId, Integer storeId, int customerId) {
+            byProduct.computeIfAbsent(productId, id -> new KeyBuffer()).append(key(storeId, customerId));
+            return this;
+        }
+
+        public BackInStockIndex build() {
+            BackInStockIndex index = new BackInStockIndex();
+            byProduct.forEach((productId, keys) -> index.byProduct.put(productId, keys.sorted()));
+            return index;
+        }
+    }
+
+    private static class KeyBuffer {
+
+        private long[] keys = new long[4];
+        private int count;
+
+        void append(long key) {
+            if (count == keys.length) {
+                keys = Arrays.copyOf(keys, count * 2);
+            }
+            keys[count++] = key;
+        }
+
+        // Ascending without repeats, trimmed to length
+        long[] sorted() {
+            Arrays.sort(keys, 0, count);
+            int distinct = 0;
+            for (int i = 0; i < count; i++) {
+                if (distinct == 0 || keys[i] != keys[distinct - 1]) {
+                    keys[distinct++] = keys[i];
+                }
+            }
+            return Arrays.copyOf(keys, distinct);
+        }
+    }
+
+    // Store null subscribes to a restock at any store. Copies the product's array, so bulk loads go through a Builder
+    public void add(int productId, Integer storeId, int customerId) {
+        long key = key(storeId, customerId);
+        byProduct.compute(productId, (id, keys) -> {
+            if (keys == null) {
+                return new long[]{key};
+            }
+            int index = Arrays.binarySearch(keys, key);
+            if (index >= 0) {
+                return keys;
+            }
+            int at = -index - 1;
+            long[] grown = new long[keys.length + 1];
+            System.arraycopy(keys, 0, grown, 0, at);
+            grown[at] = key;
+            System.arraycopy(keys, at, grown, at + 1, keys.length - at);
+            return grown;
+        });
+    }
+
+    public void remove(int productId, Integer storeId, int customerId) {
+        long key = key(storeId, customerId);
+        byProduct.computeIfPresent(productId, (id, keys) -> {
+            int index = Arrays.binarySearch(keys, key);
+            if (index < 0) {
+                return keys;
+            }
+            if (keys.length == 1) {
+                return null;
+            }
+            long[] shrunk = new long[keys.length - 1];
+            System.arraycopy(keys, 0, shrunk, 0, index);
+            System.arraycopy(keys, index + 1, shrunk, index, keys.length - index - 1);
+            return shrunk;
+        });
+    }
+
+    // Customers to alert about a restock at the store, subscribed to it or to any store, ascending
+    public int[] subscribers(int productId, int storeId) {
+        long[] keys = byProduct.get(productId);
+        if (keys == null) {
+            return new int[0];
+        }
+        int anyFrom = lowerBound(keys, key(null, 0));
+        int anyTo = lowerBound(keys, key(ANY_STORE + 1, 0));
+        int storeFrom = lowerBound(keys, key(storeId, 0));
+        int storeTo = storeId == ANY_STORE ? storeFrom
+                : storeId == Integer.MAX_VALUE ? keys.length : lowerBound(keys, key(storeId + 1, 0));
+
+        int[] customerIds = new int[anyTo - anyFrom + storeTo - storeFrom];
+        int count = 0;
+        int a = anyFrom;
+        int s = storeFrom;
+        while (a < anyTo || s < storeTo) {
+            int any = a < anyTo ? customerId(keys[a]) : Integer.MAX_VALUE;
+            int store = s < storeTo ? customerId(keys[s]) : Integer.MAX_VALUE;
+            int next = Math.min(any, store);
+            if (any == next) {
+                a++;
+            }
+            if (store == next) {
+                s++;
+            }
+            customerIds[count++] = next;
+        }
+        return Arrays.copyOf(customerIds, count);
+    }
+
+    // Drops the subscriptions an alert about a restock at the store served, customer IDs ascending
+    public void removeServed(int productId, int storeId, int[] customerIds) {
+        byProduct.computeIfPresent(productId, (id, keys) -> {
+            long[] kept = new long[keys.length];
+            int count = 0;
+            for (long key : keys) {
+                int store = (int) (key >>> 32);
+                boolean served = (store == ANY_STORE || store == storeId)
+                        && Arrays.binarySearch(customerIds, customerId(key)) >= 0;
+                if (!served) {
+                    kept[count++] = key;
+                }
+            }
+            return count == 0 ? null : count == keys.length ? keys : Arrays.copyOf(kept, count);
+        });
+    }
+
+    // Number of subscriptions held
+    public long size() {
+        return byProduct.values().stream().mapToLong(keys -> keys.length).sum();
+    }
+
+    public int productCount() {
+        return byProduct.size();
+    }
+
+    private static long key(Integer storeId, int customerId) {
+        return ((long) (storeId != null ? storeId : ANY_STORE) << 32) | (customerId & 0xFFFFFFFFL);
+    }
+
+    private static int customerId(long key) {
+        return (int) key;
+    }
+
+    // First index whose key is at least the given one
+    private static int lowerBound(long[] keys, long key) {
+        int index = Arrays.binarySearch(keys, key);
+        return index >= 0 ? index : -index - 1;
+    }
+}
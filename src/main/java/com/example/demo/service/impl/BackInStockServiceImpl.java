@@ -0,0 +1,339 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.entities.BackInStockSubscription;
+import com.example.demo.entities.Customer;
+import com.example.demo.entities.Notification;
+import com.example.demo.entities.Product;
+import com.example.demo.entities.Store;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.repositories.BackInStockSubscriptionRepository;
+import com.example.demo.repositories.CustomerRepository;
+import com.example.demo.repositories.ProductRepository;
+import com.example.demo.repositories.StoreInventoryRepository;
+import com.example.demo.repositories.StoreRepository;
+import com.example.demo.service.BackInStockService;
+import com.example.demo.service.NotificationService;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Back-in-stock subscriptions and their alerts.
+ *
+ * Subscriptions are rows of Back_In_Stock_Subscriptions, mirrored in a {@link BackInStockIndex}
+ * that is built at startup, rebuilt every app.stock-alerts.index.rebuild-interval-ms and updated
+ * after each subscription change commits, so a restock finds its subscribers without a query.
+ *
+ * The inventory write paths report every quantity change; a change from zero or no inventory to a
+ * positive quantity queues the restock once it commits. A single background thread sends the
+ * alerts in batches of app.stock-alerts.batch-size, each in its own transaction that writes the
+ * notifications as one JDBC batch and deletes the subscriptions served, and paces the batches to
+ * app.stock-alerts.max-per-second notifications so a popular restock cannot flood the database.
+ * A restock that happens again while its alerts are still queued is sent once.
+ */
+@Service
+public class BackInStockServiceImpl implements BackInStockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BackInStockServiceImpl.class);
+
+    static final String TYPE = "BACK_IN_STOCK";
+    private static final int MAX_MESSAGE_LENGTH = 255;
+
+    @Value("${app.stock-alerts.batch-size:200}")
+    private int batchSize;
+
+    // Across all restocks, since batches are sent one at a time
+    @Value("${app.stock-alerts.max-per-second:500}")
+    private int maxPerSecond;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final BackInStockSubscriptionRepository subscriptionRepository;
+    private final CustomerRepository customerRepository;
+    private final ProductRepository productRepository;
+    private final StoreRepository storeRepository;
+    private final StoreInventoryRepository storeInventoryRepository;
+    private final NotificationService notificationService;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate writeTransaction;
+
+    private final Object indexLock = new Object();
+    // Null until the first build
+    private volatile BackInStockIndex index;
+    // Changes committed while a rebuild runs, replayed onto the new index; guarded by indexLock
+    private List<Consumer<BackInStockIndex>> pendingUpdates;
+
+    private final ExecutorService sender = Executors.newSingleThreadExecutor();
+    // Restocks whose alerts have not started yet
+    private final Set<Restock> queued = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public BackInStockServiceImpl(BackInStockSubscriptionRepository subscriptionRepository,
+                                  CustomerRepository customerRepository,
+                                  ProductRepository productRepository,
+                                  StoreRepository storeRepository,
+                                  StoreInventoryRepository storeInventoryRepository,
+                                  NotificationService notificationService,
+                                  PlatformTransactionManager transactionManager) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.customerRepository = customerRepository;
+        this.productRepository = productRepository;
+        this.storeRepository = storeRepository;
+        this.storeInventoryRepository = storeInventoryRepository;
+        this.notificationService = notificationService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    @Transactional
+    public BackInStockSubscription subscribe(Integer customerId, Integer productId, Integer storeId) {
+        Customer customer = customerRepository.findById(customerId)
+                .orElseThrow(() -> new ResourceNotFoundException("Customer", "id", customerId));
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
+        Store store = storeId != null ? storeRepository.findById(storeId)
+                .orElseThrow(() -> new ResourceNotFoundException("Store", "id", storeId)) : null;
+
+        Optional<BackInStockSubscription> existing = subscriptionRepository.findSubscription(customerId, productId, storeId);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        boolean inStock = storeId != null
+                ? storeInventoryRepository.findByStoreIdAndProductId(storeId, productId)
+                        .map(inventory -> inventory.getQuantity() > 0).orElse(false)
+                : storeInventoryRepository.existsByProductIdAndQuantityGreaterThan(productId, 0);
+        if (inStock) {
+            throw new IllegalArgumentException("Product " + productId + " is in stock"
+                    + (storeId != null ? " at store " + storeId : ""));
+        }
+
+        BackInStockSubscription subscription = new BackInStockSubscription();
+        subscription.setCustomer(customer);
+        subscription.setProduct(product);
+        subscription.setStore(store);
+        subscription.setCreatedAt(Instant.now());
+        BackInStockSubscription saved = subscriptionRepository.save(subscription);
+        updateIndexAfterCommit(current -> current.add(productId, storeId, customerId));
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public void unsubscribe(Integer customerId, Integer subscriptionId) {
+        BackInStockSubscription subscription = subscriptionRepository.findById(subscriptionId)
+                .filter(found -> found.getCustomer().getId().equals(customerId))
+                .orElseThrow(() -> new ResourceNotFoundException("BackInStockSubscription", "id", subscriptionId));
+        Integer productId = subscription.getProduct().getId();
+        Integer storeId = subscription.getStore() != null ? subscription.getStore().getId() : null;
+        subscriptionRepository.delete(subscription);
+        updateIndexAfterCommit(current -> current.remove(productId, storeId, customerId));
+    }
+
+    @Override
+    public List<BackInStockSubscription> getSubscriptions(Integer customerId) {
+        if (!customerRepository.existsById(customerId)) {
+            throw new ResourceNotFoundException("Customer", "id", customerId);
+        }
+        return subscriptionRepository.findByCustomerIdWithProductAndStore(customerId);
+    }
+
+    @Override
+    public void stockChanged(Integer storeId, Integer productId, Integer previousQuantity, Integer quantity) {
+        if (storeId == null || productId == null
+                || (previousQuantity != null && previousQuantity > 0) || quantity == null || quantity <= 0) {
+            return;
+        }
+        Restock restock = new Restock(productId, storeId);
+        afterCommit(() -> {
+            if (queued.add(restock)) {
+                sender.execute(() -> send(restock));
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.stock-alerts.index.rebuild-interval-ms:3600000}")
+    public void rebuildIndex() {
+        synchronized (indexLock) {
+            pendingUpdates = new ArrayList<>();
+        }
+        try {
+            long started = System.currentTimeMillis();
+            BackInStockIndex.Builder builder = new BackInStockIndex.Builder();
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = subscriptionRepository.streamIndexRows()) {
+                    rows.forEach(row -> builder.add((Integer) row[0], (Integer) row[1], (Integer) row[2]));
+                }
+            });
+            BackInStockIndex rebuilt = builder.build();
+            synchronized (indexLock) {
+                pendingUpdates.forEach(update -> update.accept(rebuilt));
+                index = rebuilt;
+            }
+            logger.info("Indexed {} back-in-stock subscriptions to {} products in {} ms",
+                    rebuilt.size(), rebuilt.productCount(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            logger.error("Failed to build the back-in-stock subscription index", e);
+        } finally {
+            synchronized (indexLock) {
+                pendingUpdates = null;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    private void send(Restock restock) {
+        queued.remove(restock);
+        long started = System.currentTimeMillis();
+        int[] customerIds = subscribers(restock);
+        if (customerIds.length == 0) {
+            return;
+        }
+        Optional<String> productName = productRepository.findById(restock.productId).map(Product::getProductName);
+        if (productName.isEmpty()) {
+            return;
+        }
+        String message = message(productName.get());
+        int sent = 0;
+        try {
+            for (int from = 0; from < customerIds.length; from += batchSize) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new IllegalStateException("Interrupted by shutdown");
+                }
+                long batchStarted = System.nanoTime();
+                int[] batch = Arrays.copyOfRange(customerIds, from, Math.min(customerIds.length, from + batchSize));
+                Integer written = writeTransaction.execute(status -> sendBatch(restock, message, batch));
+                sent += written != null ? written : 0;
+                pace(batchStarted, batch.length);
+            }
+            logger.info("Sent {} back-in-stock alerts for product {} at store {} in {} ms",
+                    sent, restock.productId, restock.storeId, System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            // Subscriptions not served yet stay for the next restock
+            logger.error("Back-in-stock alerts for product {} at store {} failed after {} of {} subscribers",
+                    restock.productId, restock.storeId, sent, customerIds.length, e);
+        }
+    }
+
+    // From the index once built, otherwise from the database
+    private int[] subscribers(Restock restock) {
+        BackInStockIndex current = index;
+        if (current != null) {
+            return current.subscribers(restock.productId, restock.storeId);
+        }
+        BackInStockIndex loaded = new BackInStockIndex();
+        for (Object[] row : subscriptionRepository.findIndexRowsByProductId(restock.productId)) {
+            loaded.add(restock.productId, (Integer) row[0], (Integer) row[1]);
+        }
+        return loaded.subscribers(restock.productId, restock.storeId);
+    }
+
+    // Alerts the customers still subscribed and deletes what they subscribed with, in one transaction
+    private int sendBatch(Restock restock, String message, int[] customerIds) {
+        List<Integer> subscribed = subscriptionRepository.findSubscribedCustomerIds(
+                restock.productId, restock.storeId, Arrays.stream(customerIds).boxed().toList());
+        if (subscribed.isEmpty()) {
+            return 0;
+        }
+        subscriptionRepository.deleteServed(restock.productId, restock.storeId, subscribed);
+
+        Product product = entityManager.getReference(Product.class, restock.productId);
+        Store store = entityManager.getReference(Store.class, restock.storeId);
+        LocalDate today = LocalDate.now();
+        List<Notification> notifications = new ArrayList<>(subscribed.size());
+        for (Integer customerId : subscribed) {
+            Notification notification = new Notification();
+            notification.setCustomer(entityManager.getReference(Customer.class, customerId));
+            notification.setProduct(product);
+            notification.setStore(store);
+            notification.setType(TYPE);
+            notification.setMessage(message);
+            notification.setSentDate(today);
+            notifications.add(notification);
+        }
+        notificationService.createNotifications(notifications);
+
+        int[] served = subscribed.stream().mapToInt(Integer::intValue).sorted().toArray();
+        updateIndexAfterCommit(current -> current.removeServed(restock.productId, restock.storeId, served));
+        return notifications.size();
+    }
+
+    // Sleeps out the rest of the time count notifications are allowed at maxPerSecond
+    private void pace(long batchStarted, int count) {
+        long wait = batchStarted + count * 1_000_000_000L / maxPerSecond - System.nanoTime();
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static String message(String productName) {
+        String message = "Back in stock: " + productName;
+        return message.length() > MAX_MESSAGE_LENGTH ? message.substring(0, MAX_MESSAGE_LENGTH) : message;
+    }
+
+    private void updateIndexAfterCommit(Consumer<BackInStockIndex> update) {
+        afterCommit(() -> {
+            synchronized (indexLock) {
+                if (pendingUpdates != null) {
+                    pendingUpdates.add(update);
+                }
+                BackInStockIndex current = index;
+                if (current != null) {
+                    update.accept(current);
+                }
+            }
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // A product restocked at a store
+    private record Restock(int productId, int storeId) {
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.entities.Review;
+import com.example.demo.service.ReviewCheck;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Holds reviews that use a word of the app.reviews.moderation.blocked-words dictionary. Words are
+ * compared by stem, so that listing a word also blocks its usual inflections.
+ */
+@Component
+public class BlockedWordsReviewCheck implements ReviewCheck {
+
+    private final Set<String> blockedStems;
+
+    public BlockedWordsReviewCheck(@Value("${app.reviews.moderation.blocked-words:}") List<String> blockedWords) {
+        this.blockedStems = blockedWords.stream()
+                .map(word -> word.trim().toLowerCase(Locale.ROOT))
+                .filter(word -> !word.isEmpty())
+                .map(TextIndex::stem)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public String check(Review review) {
+        if (blockedStems.isEmpty() || review.getComment() == null) {
+            return null;
+        }
+        for (String word : review.getComment().toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty() && blockedStems.contains(TextIndex.stem(word))) {
+                return "Contains blocked word: " + word;
+            }
+        }
+        return null;
+    }
+}
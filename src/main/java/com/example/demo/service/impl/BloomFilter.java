@@ -0,0 +1,84 @@
+package com.example.demo.service.impl;
+
+/**
+ * Bloom filter over strings.
+ *
+ * Answers "definitely absent" or "possibly present" in constant time and a fixed, small amount of
+ * memory: the bit count and number of hashes are derived from the expected number of insertions
+ * and the target false positive rate. The k bit positions come from two 64-bit hashes combined as
+ * h1 + i * h2, which behaves like k independent hashes at the cost of two.
+ *
+ * Not thread-safe.
+ */
+public class BloomFilter {
+
+    private final long[] words;
+    private final long bits;
+    private final int hashes;
+
+    /**
+     * @param expectedInsertions number of strings the filter is sized for
+     * @param falsePositiveRate  false positive rate once that many strings have been added
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions < 1) {
+            throw new IllegalArgumentException("Expected insertions must be positive");
+        }
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1");
+        }
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        if (optimalBits > (long) Integer.MAX_VALUE * Long.SIZE) {
+            throw new IllegalArgumentException("Bloom filter for " + expectedInsertions + " insertions is too large");
+        }
+        this.words = new long[(int) ((optimalBits + Long.SIZE - 1) / Long.SIZE)];
+        this.bits = (long) words.length * Long.SIZE;
+        this.hashes = Math.max(1, (int) Math.round((double) bits / expectedInsertions * Math.log(2)));
+    }
+
+    public void put(CharSequence value) {
+        long h1 = hash(value);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    // False means the value was never added; true means it probably was
+    public boolean mightContain(CharSequence value) {
+        long h1 = hash(value);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getBitCount() {
+        return bits;
+    }
+
+    public int getHashCount() {
+        return hashes;
+    }
+
+    // FNV-1a over the characters, finished with a strong mix so that similar codes spread apart
+    private static long hash(CharSequence value) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
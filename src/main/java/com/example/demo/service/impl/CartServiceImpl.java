@@ -1,42 +1,106 @@
 package com.example.demo.service.impl;
 
 import com.example.demo.dto.CartDTO;
+import com.example.demo.dto.CheckoutRequestDTO;
 import com.example.demo.entities.Cart;
 import com.example.demo.entities.Customer;
 import com.example.demo.entities.CustomerOrder;
+import com.example.demo.entities.Employee;
+import com.example.demo.entities.OrderDetail;
+import com.example.demo.entities.OrderDetailId;
 import com.example.demo.entities.Product;
+import com.example.demo.entities.Promotion;
+import com.example.demo.repositories.AddressRepository;
 import com.example.demo.repositories.CartRepository;
 import com.example.demo.repositories.CustomerOrderRepository;
 import com.example.demo.repositories.CustomerRepository;
+import com.example.demo.repositories.OrderDetailRepository;
+import com.example.demo.repositories.PaymentMethodRepository;
 import com.example.demo.repositories.ProductRepository;
+import com.example.demo.repositories.StoreInventoryRepository;
+import com.example.demo.repositories.StoreRepository;
 import com.example.demo.service.CartService;
+import com.example.demo.service.PromotionRuleService;
+import com.example.demo.service.PromotionService;
+import com.example.demo.service.DistinctCountService;
+import com.example.demo.service.OrderSummaryService;
+import com.example.demo.service.PurchaseIndexService;
+import com.example.demo.service.SalesRollupService;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 public class CartServiceImpl implements CartService {
 
+    // Seller online orders are booked on when the request does not name one
+    @Value("${app.checkout.online-seller-id:#{null}}")
+    private Integer onlineSellerId;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     private final CartRepository cartRepository;
     private final CustomerRepository customerRepository;
     private final ProductRepository productRepository;
     private final CustomerOrderRepository orderRepository;
+    private final OrderDetailRepository orderDetailRepository;
+    private final StoreInventoryRepository storeInventoryRepository;
+    private final StoreRepository storeRepository;
+    private final PaymentMethodRepository paymentMethodRepository;
+    private final AddressRepository addressRepository;
+    private final PromotionService promotionService;
+    private final PromotionRuleService promotionRuleService;
+    private final CartWriteBehindStore cartStore;
+    private final SalesRollupService salesRollupService;
+    private final OrderSummaryService orderSummaryService;
+    private final DistinctCountService distinctCountService;
+    private final PurchaseIndexService purchaseIndexService;
 
     @Autowired
     public CartServiceImpl(CartRepository cartRepository,
                           CustomerRepository customerRepository,
                           ProductRepository productRepository,
-                          CustomerOrderRepository orderRepository) {
+                          CustomerOrderRepository orderRepository,
+                          OrderDetailRepository orderDetailRepository,
+                          StoreInventoryRepository storeInventoryRepository,
+                          StoreRepository storeRepository,
+                          PaymentMethodRepository paymentMethodRepository,
+                          AddressRepository addressRepository,
+                          PromotionService promotionService,
+                          PromotionRuleService promotionRuleService,
+                          CartWriteBehindStore cartStore,
+                          SalesRollupService salesRollupService,
+                          OrderSummaryService orderSummaryService,
+                          DistinctCountService distinctCountService,
+                          PurchaseIndexService purchaseIndexService) {
         this.cartRepository = cartRepository;
         this.customerRepository = customerRepository;
         this.productRepository = productRepository;
         this.orderRepository = orderRepository;
+        this.orderDetailRepository = orderDetailRepository;
+        this.storeInventoryRepository = storeInventoryRepository;
+        this.storeRepository = storeRepository;
+        this.paymentMethodRepository = paymentMethodRepository;
+        this.addressRepository = addressRepository;
+        this.promotionService = promotionService;
+        this.promotionRuleService = promotionRuleService;
+        this.cartStore = cartStore;
+        this.salesRollupService = salesRollupService;
+        this.orderSummaryService = orderSummaryService;
+        this.distinctCountService = distinctCountService;
+        this.purchaseIndexService = purchaseIndexService;
     }
 
     @Override
@@ -51,6 +115,7 @@ public class CartServiceImpl implements CartService {
 
     @Override
     public List<Cart> getCartsByCustomer(Customer customer) {
+        cartStore.flush(customer.getId());
         return cartRepository.findByCustomer(customer);
     }
 
@@ -89,6 +154,7 @@ public class CartServiceImpl implements CartService {
     @Transactional
     public void updateCartQuantity(Integer cartId, Integer quantity){
         cartRepository.findById(cartId).ifPresent(cart -> {
+            cartStore.flushAndEvict(cart.getCustomer().getId());
             cart.setQuantity(quantity);
             cartRepository.save(cart);
         });
@@ -119,6 +185,8 @@ public class CartServiceImpl implements CartService {
         Product product = productRepository.findById(cartDTO.getProductId())
             .orElseThrow(() -> new EntityNotFoundException("Product not found with ID: " + cartDTO.getProductId()));
         cart.setProduct(product);
+
+        cartStore.flushAndEvict(customer.getId());
         
         cart.setQuantity(cartDTO.getQuantity());
         cart.setAddedDate(LocalDate.now());
@@ -126,32 +194,24 @@ public class CartServiceImpl implements CartService {
         return saveCart(cart);
     }
     
+    /**
+     * Applied to the write-behind cart store; the Cart table is updated by its next flush.
+     * Not transactional, so repeated clicks on a cached cart never touch the database.
+     */
     @Override
-    @Transactional
     public Cart addProductToCart(Integer customerId, Integer productId, Integer quantity) {
-        Customer customer = customerRepository.findById(customerId)
-            .orElseThrow(() -> new EntityNotFoundException("Customer not found with ID: " + customerId));
-            
-        Product product = productRepository.findById(productId)
-            .orElseThrow(() -> new EntityNotFoundException("Product not found with ID: " + productId));
-            
-        // Check if product already in cart
-        Optional<Cart> existingCart = getCartByCustomerAndProduct(customer, product);
-        
-        if (existingCart.isPresent()) {
-            // Update quantity if product already in cart
-            Cart cart = existingCart.get();
-            cart.setQuantity(cart.getQuantity() + quantity);
-            return saveCart(cart);
-        } else {
-            // Add new product to cart
-            Cart newCart = new Cart();
-            newCart.setCustomer(customer);
-            newCart.setProduct(product);
-            newCart.setQuantity(quantity);
-            newCart.setAddedDate(LocalDate.now());
-            return saveCart(newCart);
+        if (quantity == null || quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than zero");
         }
+        CartWriteBehindStore.CartLine line = cartStore.addProduct(customerId, productId, quantity);
+
+        Cart cart = new Cart();
+        cart.setId(line.getCartId());
+        cart.setCustomer(customerRepository.getReferenceById(customerId));
+        cart.setProduct(productRepository.getReferenceById(productId));
+        cart.setQuantity(line.getQuantity());
+        cart.setAddedDate(line.getAddedDate());
+        return cart;
     }
     
     @Override
@@ -163,6 +223,7 @@ public class CartServiceImpl implements CartService {
         if (!cart.getProduct().getId().equals(productId)) {
             throw new IllegalArgumentException("Product ID does not match the product in cart");
         }
+        cartStore.flushAndEvict(cart.getCustomer().getId());
         
         // Delete the cart item
         deleteCart(cart.getId());
@@ -183,6 +244,7 @@ public class CartServiceImpl implements CartService {
         if (quantity <= 0) {
             throw new IllegalArgumentException("Quantity must be greater than zero");
         }
+        cartStore.flushAndEvict(cart.getCustomer().getId());
         
         cart.setQuantity(quantity);
         return saveCart(cart);
@@ -193,52 +255,106 @@ public class CartServiceImpl implements CartService {
     public Cart clearCart(Integer customerId) {
         Customer customer = customerRepository.findById(customerId)
             .orElseThrow(() -> new EntityNotFoundException("Customer not found with ID: " + customerId));
-            
-        List<Cart> carts = getCartsByCustomer(customer);
-        if (carts.isEmpty()) {
+
+        cartStore.flush(customerId);
+        if (cartRepository.deleteByCustomerId(customerId) == 0) {
             throw new EntityNotFoundException("No cart found for customer ID: " + customerId);
         }
-        
-        cartRepository.deleteAll(carts);
-        
+        cartStore.discard(customerId);
+
         // Return an empty cart reference for the customer
         Cart emptyCart = new Cart();
         emptyCart.setCustomer(customer);
         emptyCart.setQuantity(0);
         return emptyCart;
     }
-    
+
+    /**
+     * Turns the customer's cart into an order in a single transaction with a fixed number of
+     * statements regardless of cart size, once pending cart store changes are flushed: one
+     * fetch-join read of the cart, one conditional stock UPDATE for all products at the seller's
+     * store, one order insert, one batched insert of the order details and one bulk delete of the
+     * cart. Any failure rolls the whole checkout back.
+     */
     @Override
     @Transactional
-    public Integer checkout(Integer customerId) {
-        Customer customer = customerRepository.findById(customerId)
-            .orElseThrow(() -> new EntityNotFoundException("Customer not found with ID: " + customerId));
-            
-        List<Cart> cartItems = getCartsByCustomer(customer);
-        
+    public Integer checkout(Integer customerId, CheckoutRequestDTO request) {
+        cartStore.flush(customerId);
+        List<Cart> cartItems = cartRepository.findByCustomerIdWithProduct(customerId);
         if (cartItems.isEmpty()) {
+            if (!customerRepository.existsById(customerId)) {
+                throw new EntityNotFoundException("Customer not found with ID: " + customerId);
+            }
             throw new IllegalStateException("Cart is empty");
         }
-        
-        // Create a new order
+
+        // Several cart rows for the same product become one order line
+        Map<Integer, Product> products = new LinkedHashMap<>();
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        for (Cart cart : cartItems) {
+            if (cart.getQuantity() == null || cart.getQuantity() <= 0) {
+                throw new IllegalStateException("Invalid quantity in cart for product ID: " + cart.getProduct().getId());
+            }
+            products.putIfAbsent(cart.getProduct().getId(), cart.getProduct());
+            quantities.merge(cart.getProduct().getId(), cart.getQuantity(), Integer::sum);
+        }
+
+        Integer sellerId = request.getEmployeeSellerId() != null ? request.getEmployeeSellerId() : onlineSellerId;
+        if (sellerId == null) {
+            throw new IllegalArgumentException("No seller given and no online seller configured");
+        }
+        Integer storeId = storeRepository.findStoreIdByEmployeeId(sellerId)
+            .orElseThrow(() -> new EntityNotFoundException("Employee not found with ID: " + sellerId));
+
+        Promotion promotion = null;
+        if (request.getPromotionCode() != null && !request.getPromotionCode().isBlank()) {
+            promotion = promotionService.findValidPromotion(request.getPromotionCode())
+                .orElseThrow(() -> new IllegalStateException("Promotion code is not valid: " + request.getPromotionCode()));
+            if (!promotionService.reserveUse(promotion)) {
+                throw new IllegalStateException("Promotion code has reached its usage limit: " + request.getPromotionCode());
+            }
+            if (!promotionService.redeemCode(request.getPromotionCode())) {
+                throw new IllegalStateException("Promotion code has already been used: " + request.getPromotionCode());
+            }
+        }
+
+        List<OrderDetail> orderDetails = promotionRuleService.priceOrder(products, quantities, promotion);
+
+        if (storeInventoryRepository.decrementStock(storeId, quantities) < quantities.size()) {
+            throw new IllegalStateException("Insufficient stock at store " + storeId + " for one or more cart items");
+        }
+
         CustomerOrder order = new CustomerOrder();
-        order.setCustomer(customer);
-        order.setOrderDate(LocalDateTime.now());
+        order.setCustomer(customerRepository.getReferenceById(customerId));
+        order.setEmployeeSeller(entityManager.getReference(Employee.class, sellerId));
+        order.setPaymentMethod(paymentMethodRepository.getReferenceById(request.getPaymentMethodId()));
+        if (request.getAddressId() != null) {
+            order.setAddress(addressRepository.getReferenceById(request.getAddressId()));
+        }
+        order.setPromotion(promotion);
+        order.setPurchaseDate(LocalDate.now());
+        order.setTotalPrice(orderDetails.stream()
+            .map(OrderDetail::getFinalPrice)
+            .reduce(BigDecimal.ZERO, BigDecimal::add));
         order.setStatus("PENDING");
-        
-        // Calculate total amount
-        double totalAmount = cartItems.stream()
-            .mapToDouble(cart -> cart.getProduct().getPrice().doubleValue() * cart.getQuantity())
-            .sum();
-            
-        order.setTotalAmount(totalAmount);
-        
-        // Save the order
-        CustomerOrder savedOrder = orderRepository.save(order);
-        
-        // Clear the cart after checkout
-        clearCart(customerId);
-        
+        CustomerOrder savedOrder = orderRepository.saveAndFlush(order);
+
+        for (OrderDetail orderDetail : orderDetails) {
+            OrderDetailId id = new OrderDetailId();
+            id.setOrderId(savedOrder.getId());
+            id.setProductId(orderDetail.getProduct().getId());
+            orderDetail.setId(id);
+            orderDetail.setOrder(savedOrder);
+        }
+        orderDetailRepository.insertAll(orderDetails);
+        salesRollupService.recordOrderCreated(savedOrder, orderDetails);
+        distinctCountService.recordOrderCreated(savedOrder, orderDetails);
+        purchaseIndexService.recordOrderCreated(savedOrder, orderDetails);
+        orderSummaryService.markChanged(savedOrder.getId());
+
+        cartRepository.deleteByCustomerId(customerId);
+        cartStore.discard(customerId);
+
         return savedOrder.getId();
     }
 }
@@ -0,0 +1,579 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.entities.Cart;
+import com.example.demo.repositories.CartRepository;
+import com.example.demo.repositories.CustomerRepository;
+import com.example.demo.repositories.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind store for active carts.
+ *
+ * Carts are kept per customer in a bounded LRU map and mutated in memory, so repeated clicks on
+ * the same cart cost no database round trips. Dirty carts are written to the {@code Cart} table in
+ * batches on a schedule, when they are evicted, and on demand before anything reads the table
+ * directly (checkout, listing, row-level edits).
+ *
+ * Every mutation is first appended to a journal as the absolute state of the line
+ * ({@code S customer product quantity date}) or as a clear ({@code C customer}), so replaying a
+ * record twice is harmless. A clear retires the customer's earlier records: it is written when the
+ * cart was emptied in the database, and when the cart is handed over to a caller that edits the
+ * table directly, whose edit replaying the older records would otherwise undo. The journal is split
+ * in segments: a full flush rolls over to a new segment and deletes the older ones once the
+ * database write has committed. Leftover segments are replayed at startup.
+ */
+@Component
+public class CartWriteBehindStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartWriteBehindStore.class);
+    private static final String SEGMENT_PREFIX = "cart-journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    @Value("${app.cart.store.max-carts:10000}")
+    private int maxCarts;
+
+    @Value("${app.cart.store.journal-dir:data/cart-journal}")
+    private String journalDir;
+
+    // Force each journal record to disk; without it records survive a process crash but not power loss
+    @Value("${app.cart.store.journal-fsync:false}")
+    private boolean journalFsync;
+
+    private final CartRepository cartRepository;
+    private final CustomerRepository customerRepository;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate flushTransaction;
+
+    private final Object lock = new Object();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private Map<Integer, CustomerCart> carts;
+    // Dirty carts pushed out of the LRU map, written by the next flush
+    private final Map<Integer, CustomerCart> evicted = new HashMap<>();
+
+    private Path journalPath;
+    private long segment;
+    private FileOutputStream journalStream;
+    private Writer journal;
+
+    @Autowired
+    public CartWriteBehindStore(CartRepository cartRepository,
+                                CustomerRepository customerRepository,
+                                ProductRepository productRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.cartRepository = cartRepository;
+        this.customerRepository = customerRepository;
+        this.productRepository = productRepository;
+        // Flushes commit on their own so a rolled back caller cannot undo what the store marked clean
+        this.flushTransaction = new TransactionTemplate(transactionManager);
+        this.flushTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        carts = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, CustomerCart> eldest) {
+                if (size() <= maxCarts) {
+                    return false;
+                }
+                if (eldest.getValue().dirty) {
+                    evicted.put(eldest.getKey(), eldest.getValue());
+                }
+                return true;
+            }
+        };
+
+        journalPath = Paths.get(journalDir);
+        Files.createDirectories(journalPath);
+        TreeMap<Long, Path> segments = listSegments();
+        segment = segments.isEmpty() ? 0 : segments.lastKey() + 1;
+        openSegment();
+
+        if (!segments.isEmpty()) {
+            int records = 0;
+            for (Path path : segments.values()) {
+                records += replay(path);
+            }
+            flushAll();
+            logger.info("Replayed {} cart journal records from {} segments", records, segments.size());
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        try {
+            flushAll();
+        } finally {
+            synchronized (lock) {
+                journal.close();
+            }
+        }
+    }
+
+    /**
+     * Adds a quantity of a product to the customer's cart, removing the line when the result drops
+     * to zero or below. Returns the resulting line, or null when it was removed.
+     */
+    public CartLine addProduct(Integer customerId, Integer productId, int quantity) {
+        CustomerCart cart = get(customerId);
+        boolean known;
+        synchronized (lock) {
+            known = cart.lines.containsKey(productId);
+        }
+        if (!known && quantity > 0 && !productRepository.existsById(productId)) {
+            throw new EntityNotFoundException("Product not found with ID: " + productId);
+        }
+        synchronized (lock) {
+            cart = attach(customerId, cart);
+            Line line = cart.lines.get(productId);
+            int newQuantity = (line == null ? 0 : line.quantity) + quantity;
+            return apply(customerId, cart, productId, newQuantity, LocalDate.now(), true);
+        }
+    }
+
+    /**
+     * Writes the customer's cart to the database if it has unsaved changes.
+     */
+    public void flush(Integer customerId) {
+        flushLock.lock();
+        try {
+            CustomerCart snapshot;
+            synchronized (lock) {
+                CustomerCart cart = attach(customerId, null);
+                if (cart == null || !cart.dirty) {
+                    return;
+                }
+                snapshot = cart.takeSnapshot();
+            }
+            write(Map.of(customerId, snapshot));
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Writes the customer's cart and drops it from memory, for callers that edit the table directly.
+     * The database then holds everything the customer's journal records describe, so they are
+     * retired with a clear record and cannot undo the caller's edit when replayed after a crash.
+     */
+    public void flushAndEvict(Integer customerId) {
+        flushLock.lock();
+        try {
+            while (true) {
+                flush(customerId);
+                synchronized (lock) {
+                    CustomerCart cart = carts.get(customerId);
+                    // Changed again while it was being written; write that too before retiring the records
+                    if (cart != null && cart.dirty) {
+                        continue;
+                    }
+                    append("C " + customerId);
+                    carts.remove(customerId);
+                    return;
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Records that the customer's cart was emptied in the database (checkout, clear) and forgets it.
+     */
+    public void discard(Integer customerId) {
+        synchronized (lock) {
+            append("C " + customerId);
+            carts.remove(customerId);
+            evicted.remove(customerId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cart.store.flush-interval-ms:5000}")
+    public void flushAll() {
+        flushLock.lock();
+        try {
+            Map<Integer, CustomerCart> snapshots = new HashMap<>();
+            long flushedUpTo;
+            synchronized (lock) {
+                for (Map.Entry<Integer, CustomerCart> entry : carts.entrySet()) {
+                    if (entry.getValue().dirty) {
+                        snapshots.put(entry.getKey(), entry.getValue().takeSnapshot());
+                    }
+                }
+                for (Map.Entry<Integer, CustomerCart> entry : evicted.entrySet()) {
+                    snapshots.put(entry.getKey(), entry.getValue().takeSnapshot());
+                }
+                evicted.clear();
+                // Everything journaled so far is in the snapshots; later records go to a new segment
+                flushedUpTo = segment;
+                rollSegment();
+            }
+            if (!snapshots.isEmpty()) {
+                write(snapshots);
+            }
+            deleteSegmentsBefore(flushedUpTo + 1);
+        } catch (IOException e) {
+            logger.error("Failed to roll the cart journal", e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private CustomerCart get(Integer customerId) {
+        synchronized (lock) {
+            CustomerCart cart = attach(customerId, null);
+            if (cart != null) {
+                return cart;
+            }
+        }
+        CustomerCart loaded = load(customerId);
+        synchronized (lock) {
+            return attach(customerId, loaded);
+        }
+    }
+
+    /**
+     * Returns the customer's live cart, bringing it back from the evicted set if needed. When there
+     * is none, the given cart becomes the live one; a clean cart evicted between lookup and use is
+     * safe to reinstate because the database already holds its state. Caller holds the lock.
+     */
+    private CustomerCart attach(Integer customerId, CustomerCart candidate) {
+        CustomerCart cart = carts.get(customerId);
+        if (cart == null) {
+            cart = evicted.remove(customerId);
+            if (cart == null) {
+                cart = candidate;
+            }
+            if (cart != null) {
+                carts.put(customerId, cart);
+            }
+        }
+        return cart;
+    }
+
+    private CustomerCart load(Integer customerId) {
+        List<Cart> rows = cartRepository.findByCustomerIdWithProduct(customerId);
+        if (rows.isEmpty() && !customerRepository.existsById(customerId)) {
+            throw new EntityNotFoundException("Customer not found with ID: " + customerId);
+        }
+        CustomerCart cart = new CustomerCart();
+        for (Cart row : rows) {
+            Line line = cart.lines.get(row.getProduct().getId());
+            if (line == null) {
+                cart.lines.put(row.getProduct().getId(),
+                        new Line(row.getId(), row.getQuantity(), row.getAddedDate()));
+            } else {
+                // Duplicate rows for one product are folded into the first on the next flush
+                line.quantity += row.getQuantity();
+                line.dirty = true;
+                cart.removedCartIds.add(row.getId());
+                cart.dirty = true;
+            }
+        }
+        return cart;
+    }
+
+    // Caller holds the lock
+    private CartLine apply(Integer customerId, CustomerCart cart, Integer productId, int quantity,
+                           LocalDate addedDate, boolean journaled) {
+        if (journaled) {
+            append("S " + customerId + " " + productId + " " + Math.max(0, quantity) + " " + addedDate);
+        }
+        cart.dirty = true;
+        Line line = cart.lines.get(productId);
+        if (quantity <= 0) {
+            if (line != null) {
+                cart.lines.remove(productId);
+                if (line.cartId != null) {
+                    cart.removedCartIds.add(line.cartId);
+                }
+            }
+            return null;
+        }
+        if (line == null) {
+            line = new Line(null, quantity, addedDate);
+            cart.lines.put(productId, line);
+        } else {
+            line.quantity = quantity;
+        }
+        line.dirty = true;
+        return new CartLine(line.cartId, customerId, productId, quantity, line.addedDate);
+    }
+
+    private void write(Map<Integer, CustomerCart> snapshots) {
+        Map<Integer, Map<Integer, Cart>> inserted;
+        try {
+            inserted = flushTransaction.execute(status -> writeRows(snapshots));
+        } catch (RuntimeException e) {
+            // Keep the changes pending; the journal still covers them
+            synchronized (lock) {
+                snapshots.forEach((customerId, snapshot) -> {
+                    CustomerCart live = carts.get(customerId);
+                    if (live != null) {
+                        live.dirty = true;
+                        live.removedCartIds.addAll(snapshot.removedCartIds);
+                        snapshot.lines.forEach((productId, line) -> {
+                            Line liveLine = live.lines.get(productId);
+                            if (liveLine != null) {
+                                liveLine.dirty = true;
+                            }
+                        });
+                    } else {
+                        evicted.putIfAbsent(customerId, snapshot);
+                    }
+                });
+            }
+            logger.error("Failed to flush {} carts", snapshots.size(), e);
+            throw e;
+        }
+
+        // Give new lines their row IDs; rows for lines removed in the meantime are deleted next time
+        synchronized (lock) {
+            inserted.forEach((customerId, rows) -> {
+                CustomerCart live = carts.containsKey(customerId) ? carts.get(customerId) : evicted.get(customerId);
+                if (live == null) {
+                    return;
+                }
+                rows.forEach((productId, row) -> {
+                    Line line = live.lines.get(productId);
+                    if (line != null && line.cartId == null) {
+                        line.cartId = row.getId();
+                    } else {
+                        live.removedCartIds.add(row.getId());
+                        live.dirty = true;
+                    }
+                });
+            });
+        }
+    }
+
+    private Map<Integer, Map<Integer, Cart>> writeRows(Map<Integer, CustomerCart> snapshots) {
+        Set<Integer> deletes = new HashSet<>();
+        Map<Integer, Line> updates = new HashMap<>();
+        List<Cart> inserts = new ArrayList<>();
+        Map<Integer, Map<Integer, Cart>> inserted = new HashMap<>();
+
+        snapshots.forEach((customerId, snapshot) -> {
+            deletes.addAll(snapshot.removedCartIds);
+            snapshot.lines.forEach((productId, line) -> {
+                if (!line.dirty) {
+                    return;
+                }
+                if (line.cartId != null) {
+                    updates.put(line.cartId, line);
+                } else {
+                    Cart row = new Cart();
+                    row.setCustomer(customerRepository.getReferenceById(customerId));
+                    row.setProduct(productRepository.getReferenceById(productId));
+                    row.setQuantity(line.quantity);
+                    row.setAddedDate(line.addedDate);
+                    inserts.add(row);
+                    inserted.computeIfAbsent(customerId, id -> new HashMap<>()).put(productId, row);
+                }
+            });
+        });
+
+        if (!deletes.isEmpty()) {
+            cartRepository.deleteAllByIdInBatch(deletes);
+        }
+        if (!updates.isEmpty()) {
+            for (Cart row : cartRepository.findAllById(updates.keySet())) {
+                row.setQuantity(updates.get(row.getId()).quantity);
+            }
+        }
+        if (!inserts.isEmpty()) {
+            cartRepository.saveAll(inserts);
+        }
+        cartRepository.flush();
+        return inserted;
+    }
+
+    private int replay(Path path) throws IOException {
+        int records = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String record;
+            while ((record = reader.readLine()) != null) {
+                String[] fields = record.trim().split(" ");
+                try {
+                    Integer customerId = Integer.valueOf(fields[1]);
+                    if ("S".equals(fields[0]) && fields.length == 5) {
+                        CustomerCart cart = get(customerId);
+                        synchronized (lock) {
+                            apply(customerId, attach(customerId, cart), Integer.valueOf(fields[2]), Integer.parseInt(fields[3]),
+                                    LocalDate.parse(fields[4]), false);
+                        }
+                    } else if ("C".equals(fields[0])) {
+                        synchronized (lock) {
+                            carts.remove(customerId);
+                            evicted.remove(customerId);
+                        }
+                    } else {
+                        continue;
+                    }
+                    records++;
+                } catch (RuntimeException e) {
+                    // A torn last record from a crash, or a customer that no longer exists
+                    logger.warn("Skipping cart journal record '{}' in {}: {}", record, path, e.getMessage());
+                }
+            }
+        }
+        return records;
+    }
+
+    // Caller holds the lock
+    private void append(String record) {
+        try {
+            journal.write(record);
+            journal.write('\n');
+            journal.flush();
+            if (journalFsync) {
+                journalStream.getFD().sync();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write the cart journal", e);
+        }
+    }
+
+    // Caller holds the lock
+    private void rollSegment() throws IOException {
+        journal.close();
+        segment++;
+        openSegment();
+    }
+
+    private void openSegment() throws IOException {
+        journalStream = new FileOutputStream(journalPath.resolve(SEGMENT_PREFIX + segment + SEGMENT_SUFFIX).toFile(), true);
+        journal = new OutputStreamWriter(journalStream, StandardCharsets.UTF_8);
+    }
+
+    private void deleteSegmentsBefore(long limit) throws IOException {
+        for (Map.Entry<Long, Path> entry : listSegments().entrySet()) {
+            if (entry.getKey() < limit) {
+                Files.deleteIfExists(entry.getValue());
+            }
+        }
+    }
+
+    private TreeMap<Long, Path> listSegments() throws IOException {
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(journalPath, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    segments.put(Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())), file);
+                } catch (NumberFormatException e) {
+                    logger.warn("Ignoring unexpected file in the cart journal directory: {}", name);
+                }
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Line of a cart as seen by callers; the cart ID is null until the line has been flushed
+     */
+    public static class CartLine {
+        private final Integer cartId;
+        private final Integer customerId;
+        private final Integer productId;
+        private final int quantity;
+        private final LocalDate addedDate;
+
+        private CartLine(Integer cartId, Integer customerId, Integer productId, int quantity, LocalDate addedDate) {
+            this.cartId = cartId;
+            this.customerId = customerId;
+            this.productId = productId;
+            this.quantity = quantity;
+            this.addedDate = addedDate;
+        }
+
+        public Integer getCartId() {
+            return cartId;
+        }
+
+        public Integer getCustomerId() {
+            return customerId;
+        }
+
+        public Integer getProductId() {
+            return productId;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public LocalDate getAddedDate() {
+            return addedDate;
+        }
+    }
+
+    private static class CustomerCart {
+        private final Map<Integer, Line> lines = new LinkedHashMap<>();
+        private final Set<Integer> removedCartIds = new HashSet<>();
+        private boolean dirty;
+
+        // Copies the pending state for writing and marks the live cart clean
+        private CustomerCart takeSnapshot() {
+            CustomerCart snapshot = new CustomerCart();
+            lines.forEach((productId, line) -> {
+                Line copy = new Line(line.cartId, line.quantity, line.addedDate);
+                copy.dirty = line.dirty;
+                snapshot.lines.put(productId, copy);
+                line.dirty = false;
+            });
+            snapshot.removedCartIds.addAll(removedCartIds);
+            snapshot.dirty = true;
+            removedCartIds.clear();
+            dirty = false;
+            return snapshot;
+        }
+    }
+
+    private static class Line {
+        private Integer cartId;
+        private int quantity;
+        private final LocalDate addedDate;
+        private boolean dirty;
+
+        private Line(Integer cartId, int quantity, LocalDate addedDate) {
+            this.cartId = cartId;
+            this.quantity = quantity;
+            this.addedDate = addedDate;
+        }
+    }
+}
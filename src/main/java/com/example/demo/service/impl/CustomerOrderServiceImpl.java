@@ -1,9 +1,16 @@
 package com.example.demo.service.impl;
 
 import com.example.demo.entities.*;
+import com.example.demo.exception.BusinessException;
 import com.example.demo.repositories.CustomerOrderRepository;
+import com.example.demo.dto.OrderSummaryDTO;
 import com.example.demo.service.CustomerOrderService;
+import com.example.demo.service.DistinctCountService;
+import com.example.demo.service.OrderSummaryService;
+import com.example.demo.service.SalesRollupService;
+import com.example.demo.service.SalesRollupService.Dimension;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,10 +22,19 @@ import java.util.*;
 public class CustomerOrderServiceImpl implements CustomerOrderService {
 
     private final CustomerOrderRepository customerOrderRepository;
+    private final SalesRollupService salesRollupService;
+    private final OrderSummaryService orderSummaryService;
+    private final DistinctCountService distinctCountService;
 
     @Autowired
-    public CustomerOrderServiceImpl(CustomerOrderRepository customerOrderRepository) {
+    public CustomerOrderServiceImpl(CustomerOrderRepository customerOrderRepository,
+                                    SalesRollupService salesRollupService,
+                                    OrderSummaryService orderSummaryService,
+                                    DistinctCountService distinctCountService) {
         this.customerOrderRepository = customerOrderRepository;
+        this.salesRollupService = salesRollupService;
+        this.orderSummaryService = orderSummaryService;
+        this.distinctCountService = distinctCountService;
     }
 
     @Override
@@ -39,17 +55,21 @@ public class CustomerOrderServiceImpl implements CustomerOrderService {
         order.setReturnFields(new HashSet<>());
         order.setShippings(new HashSet<>());
         
-        return customerOrderRepository.save(order);
+        CustomerOrder saved = customerOrderRepository.save(order);
+        salesRollupService.recordOrderCreated(saved, List.of());
+        distinctCountService.recordOrderCreated(saved, List.of());
+        orderSummaryService.markChanged(saved.getId());
+        return saved;
     }
 
     @Override
     public Optional<CustomerOrder> findOrderById(Integer id) {
-        return customerOrderRepository.findById(id);
+        return customerOrderRepository.findOrderById(id);
     }
 
     @Override
     public List<CustomerOrder> getAllOrders() {
-        return customerOrderRepository.findAll();
+        return customerOrderRepository.findOrders(null, null, null, null);
     }
 
     @Override
@@ -57,7 +77,7 @@ public class CustomerOrderServiceImpl implements CustomerOrderService {
         if (customer == null) {
             throw new IllegalArgumentException("Customer cannot be null");
         }
-        return customerOrderRepository.findByCustomer(customer);
+        return customerOrderRepository.findOrders(customer.getId(), null, null, null);
     }
 
     @Override
@@ -89,7 +109,7 @@ public class CustomerOrderServiceImpl implements CustomerOrderService {
         if (status == null || status.trim().isEmpty()) {
             throw new IllegalArgumentException("Status cannot be null or empty");
         }
-        return customerOrderRepository.findByStatus(status);
+        return customerOrderRepository.findOrders(null, status, null, null);
     }
 
     @Override
@@ -97,7 +117,7 @@ public class CustomerOrderServiceImpl implements CustomerOrderService {
         if (date == null) {
             throw new IllegalArgumentException("Date cannot be null");
         }
-        return customerOrderRepository.findByPurchaseDate(date);
+        return customerOrderRepository.findOrders(null, null, date, date);
     }
 
     @Override
@@ -108,7 +128,7 @@ public class CustomerOrderServiceImpl implements CustomerOrderService {
         if (startDate.isAfter(endDate)) {
             throw new IllegalArgumentException("Start date cannot be after end date");
         }
-        return customerOrderRepository.findByPurchaseDateBetween(startDate, endDate);
+        return customerOrderRepository.findOrders(null, null, startDate, endDate);
     }
 
     @Override
@@ -135,7 +155,7 @@ public class CustomerOrderServiceImpl implements CustomerOrderService {
         if (status == null || status.trim().isEmpty()) {
             throw new IllegalArgumentException("Status cannot be null or empty");
         }
-        return customerOrderRepository.findByCustomerAndStatus(customer, status);
+        return customerOrderRepository.findOrders(customer.getId(), status, null, null);
     }
 
     @Override
@@ -144,7 +164,7 @@ public class CustomerOrderServiceImpl implements CustomerOrderService {
             throw new IllegalArgumentException("Days back cannot be negative");
         }
         LocalDate date = LocalDate.now().minusDays(daysBack);
-        return customerOrderRepository.findRecentOrders(date);
+        return customerOrderRepository.findOrders(null, null, date, null);
     }
 
     @Override
@@ -161,8 +181,7 @@ public class CustomerOrderServiceImpl implements CustomerOrderService {
             throw new IllegalArgumentException("Start date cannot be after end date");
         }
         
-        BigDecimal revenue = customerOrderRepository.calculateTotalRevenue(startDate, endDate);
-        return revenue != null ? revenue : BigDecimal.ZERO;
+        return salesRollupService.getRevenue(Dimension.ALL, null, startDate, endDate, false).getRevenue();
     }
 
     @Override
@@ -171,8 +190,7 @@ public class CustomerOrderServiceImpl implements CustomerOrderService {
             throw new IllegalArgumentException("Customer cannot be null");
         }
         
-        BigDecimal revenue = customerOrderRepository.calculateTotalRevenueByCustomer(customer);
-        return revenue != null ? revenue : BigDecimal.ZERO;
+        return salesRollupService.getRevenue(Dimension.CUSTOMER, customer.getId(), null, null, false).getRevenue();
     }
 
     @Override
@@ -181,8 +199,7 @@ public class CustomerOrderServiceImpl implements CustomerOrderService {
             throw new IllegalArgumentException("Employee cannot be null");
         }
         
-        BigDecimal revenue = customerOrderRepository.calculateTotalRevenueByEmployee(employee);
-        return revenue != null ? revenue : BigDecimal.ZERO;
+        return salesRollupService.getRevenue(Dimension.EMPLOYEE, employee.getId(), null, null, false).getRevenue();
     }
 
     @Override
@@ -246,11 +263,14 @@ public class CustomerOrderServiceImpl implements CustomerOrderService {
             throw new IllegalArgumentException("Order cannot be null");
         }
         
-        if (!customerOrderRepository.existsById(order.getId())) {
-            throw new IllegalArgumentException("Order not found with ID: " + order.getId());
-        }
+        // The caller may pass the managed order, already carrying the new status
+        String previousStatus = customerOrderRepository.findStoredStatusById(order.getId())
+                .orElseThrow(() -> orderNotFound(order.getId()));
         
-        return customerOrderRepository.save(order);
+        CustomerOrder saved = customerOrderRepository.save(order);
+        salesRollupService.recordStatusChange(saved, previousStatus);
+        orderSummaryService.markChanged(saved.getId());
+        return saved;
     }
 
     @Override
@@ -267,11 +287,15 @@ public class CustomerOrderServiceImpl implements CustomerOrderService {
         
         if (optionalOrder.isPresent()) {
             CustomerOrder order = optionalOrder.get();
+            String previousStatus = order.getStatus();
             order.setStatus(status);
-            return customerOrderRepository.save(order);
+            CustomerOrder saved = customerOrderRepository.save(order);
+            salesRollupService.recordStatusChange(saved, previousStatus);
+            orderSummaryService.markChanged(saved.getId());
+            return saved;
         }
         
-        throw new IllegalArgumentException("Order not found with ID: " + orderId);
+        throw orderNotFound(orderId);
     }
 
     @Override
@@ -280,7 +304,7 @@ public class CustomerOrderServiceImpl implements CustomerOrderService {
             throw new IllegalArgumentException("Order ID cannot be null");
         }
         
-        Optional<CustomerOrder> optionalOrder = customerOrderRepository.findById(orderId);
+        Optional<CustomerOrder> optionalOrder = customerOrderRepository.findOrderById(orderId);
         
         if (optionalOrder.isPresent()) {
             return optionalOrder.get().getOrderDetails();
@@ -295,7 +319,7 @@ public class CustomerOrderServiceImpl implements CustomerOrderService {
             throw new IllegalArgumentException("Order ID cannot be null");
         }
         
-        Optional<CustomerOrder> optionalOrder = customerOrderRepository.findById(orderId);
+        Optional<CustomerOrder> optionalOrder = customerOrderRepository.findOrderById(orderId);
         
         if (optionalOrder.isPresent()) {
             return optionalOrder.get().getReturnFields();
@@ -310,7 +334,7 @@ public class CustomerOrderServiceImpl implements CustomerOrderService {
             throw new IllegalArgumentException("Order ID cannot be null");
         }
         
-        Optional<CustomerOrder> optionalOrder = customerOrderRepository.findById(orderId);
+        Optional<CustomerOrder> optionalOrder = customerOrderRepository.findOrderById(orderId);
         
         if (optionalOrder.isPresent()) {
             return optionalOrder.get().getShippings();
@@ -325,33 +349,10 @@ public class CustomerOrderServiceImpl implements CustomerOrderService {
             throw new IllegalArgumentException("Order ID cannot be null");
         }
         
-        Optional<CustomerOrder> optionalOrder = customerOrderRepository.findById(orderId);
-        
-        if (optionalOrder.isPresent()) {
-            CustomerOrder order = optionalOrder.get();
-            
-            // If there are no order details, return the stored total price
-            if (order.getOrderDetails() == null || order.getOrderDetails().isEmpty()) {
-                return order.getTotalPrice();
-            }
-            
-            // Calculate total from order details
-            BigDecimal total = BigDecimal.ZERO;
-            for (OrderDetail detail : order.getOrderDetails()) {
-                BigDecimal lineTotal = detail.getPrice().multiply(new BigDecimal(detail.getQuantity()));
-                total = total.add(lineTotal);
-            }
-            
-            // Apply promotion discount if applicable
-            if (order.getPromotion() != null && order.getPromotion().getDiscountRate() != null) {
-                BigDecimal discount = total.multiply(order.getPromotion().getDiscountRate());
-                total = total.subtract(discount);
-            }
-            
-            return total;
-        }
-        
-        throw new IllegalArgumentException("Order not found with ID: " + orderId);
+        // Line final prices already include the promotion discount, so the summary total is the order total
+        return orderSummaryService.getSummary(orderId)
+                .map(OrderSummaryDTO::getTotal)
+                .orElseThrow(() -> new IllegalArgumentException("Order not found with ID: " + orderId));
     }
 
     @Override
@@ -361,10 +362,20 @@ public class CustomerOrderServiceImpl implements CustomerOrderService {
             throw new IllegalArgumentException("Order ID cannot be null");
         }
         
-        if (!customerOrderRepository.existsById(orderId)) {
-            throw new IllegalArgumentException("Order not found with ID: " + orderId);
-        }
+        CustomerOrder order = customerOrderRepository.findById(orderId)
+                .orElseThrow(() -> orderNotFound(orderId));
         
-        customerOrderRepository.deleteById(orderId);
+        salesRollupService.recordOrderDeleted(order);
+        customerOrderRepository.delete(order);
+        orderSummaryService.markChanged(orderId);
+    }
+
+    // Archived orders are still readable but are closed for good, so changes to them are refused
+    private RuntimeException orderNotFound(Integer orderId) {
+        if (customerOrderRepository.isArchived(orderId)) {
+            return new BusinessException("Order " + orderId + " is archived and can no longer be changed",
+                    HttpStatus.CONFLICT);
+        }
+        return new IllegalArgumentException("Order not found with ID: " + orderId);
     }
 }
\ No newline at end of file
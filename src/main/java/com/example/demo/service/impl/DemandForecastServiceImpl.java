@@ -0,0 +1,391 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.dto.DemandForecastDTO;
+import com.example.demo.entities.DemandForecast;
+import com.example.demo.entities.DemandForecastId;
+import com.example.demo.entities.OrderArchiveState;
+import com.example.demo.repositories.DemandForecastRepository;
+import com.example.demo.repositories.OrderArchiveStateRepository;
+import com.example.demo.repositories.OrderDetailRepository;
+import com.example.demo.service.DemandForecastService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Nightly per-product, per-store demand forecasting.
+ *
+ * Daily units sold are aggregated by the database and streamed ordered by (product, store, day),
+ * so each series arrives contiguously and is written straight into a dense day array. Series are
+ * collected into batches that always hold whole products; a full batch is fitted on a fork/join
+ * pool by {@link DemandForecaster} while streaming continues, and a single writer thread replaces
+ * the batch's products' forecasts in its own transaction. A fixed set of batches is recycled
+ * between the reader, the pool and the writer, which bounds memory however many series there are.
+ *
+ * Series that sold nothing in the history window lose their forecast at the end of the run. The
+ * window never reaches into archived days, whose orders are no longer in the hot tables.
+ */
+@Service
+public class DemandForecastServiceImpl implements DemandForecastService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DemandForecastServiceImpl.class);
+    private static final Integer ARCHIVE_STATE_ID = 1;
+    private static final int LEAF_SIZE = 64;
+
+    @Value("${app.forecast.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.forecast.history-days:168}")
+    private int historyDays;
+
+    // Threads fitting series; 0 uses all available processors
+    @Value("${app.forecast.parallelism:0}")
+    private int parallelism;
+
+    // Series per batch, rounded up to whole products
+    @Value("${app.forecast.batch-size:2000}")
+    private int batchSize;
+
+    // Batches being filled, fitted or written at once
+    @Value("${app.forecast.batches-in-flight:4}")
+    private int batchesInFlight;
+
+    private final OrderDetailRepository orderDetailRepository;
+    private final DemandForecastRepository forecastRepository;
+    private final OrderArchiveStateRepository archiveStateRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate writeTransaction;
+
+    private final DemandForecaster forecaster = new DemandForecaster();
+    private final ReentrantLock runLock = new ReentrantLock();
+
+    @Autowired
+    public DemandForecastServiceImpl(OrderDetailRepository orderDetailRepository,
+                                     DemandForecastRepository forecastRepository,
+                                     OrderArchiveStateRepository archiveStateRepository,
+                                     PlatformTransactionManager transactionManager) {
+        this.orderDetailRepository = orderDetailRepository;
+        this.forecastRepository = forecastRepository;
+        this.archiveStateRepository = archiveStateRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${app.forecast.cron:0 0 4 * * *}")
+    public void forecastNightly() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            runForecast();
+        } catch (IllegalStateException e) {
+            logger.warn("Nightly demand forecast did not complete: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public int runForecast() {
+        if (!runLock.tryLock()) {
+            throw new IllegalStateException("A demand forecast run is already in progress");
+        }
+        long startedAt = System.nanoTime();
+        Run run = null;
+        try {
+            LocalDate until = LocalDate.now();
+            LocalDate since = until.minusDays(historyDays);
+            Optional<LocalDate> archivedBefore = archiveStateRepository.findById(ARCHIVE_STATE_ID)
+                    .map(OrderArchiveState::getArchivedBefore);
+            if (archivedBefore.isPresent() && since.isBefore(archivedBefore.get())) {
+                logger.warn("Forecast history window starts at {} instead of {}, earlier orders are archived",
+                        archivedBefore.get(), since);
+                since = archivedBefore.get();
+            }
+            if (!since.isBefore(until)) {
+                return 0;
+            }
+
+            run = new Run(since, until);
+            Run current = run;
+            Integer series = readOnlyTransaction.execute(status -> current.streamAndDispatch());
+            for (Future<?> write : run.writes) {
+                write.get();
+            }
+            writeTransaction.executeWithoutResult(status -> forecastRepository.deleteGeneratedBefore(current.generatedAt));
+
+            int fitted = series == null ? 0 : series;
+            logger.info("Forecast {} series ({} intermittent) over {} days in {} ms", fitted, run.intermittent.get(),
+                    run.length, (System.nanoTime() - startedAt) / 1_000_000);
+            return fitted;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Demand forecast run was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Demand forecast run failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            if (run != null) {
+                run.close();
+            }
+            runLock.unlock();
+        }
+    }
+
+    @Override
+    public List<DemandForecastDTO> getForecasts(Integer productId) {
+        if (productId == null) {
+            throw new IllegalArgumentException("Product ID cannot be null");
+        }
+        return forecastRepository.findByProductIdOrderByStoreId(productId).stream()
+                .map(DemandForecastDTO::fromEntity)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Optional<DemandForecastDTO> getForecast(Integer productId, Integer storeId) {
+        if (productId == null || storeId == null) {
+            throw new IllegalArgumentException("Product ID and store ID cannot be null");
+        }
+        return forecastRepository.findById(new DemandForecastId(productId, storeId))
+                .map(DemandForecastDTO::fromEntity);
+    }
+
+    // Replaces the forecasts of the batch's products
+    private void persist(SeriesBatch batch, Instant generatedAt, AtomicInteger intermittent) {
+        writeTransaction.executeWithoutResult(status -> {
+            Set<Integer> productIds = new HashSet<>();
+            List<DemandForecast> forecasts = new ArrayList<>(batch.count);
+            for (int i = 0; i < batch.count; i++) {
+                DemandForecaster.Fit fit = batch.fits[i];
+                productIds.add(batch.productIds[i]);
+                if (fit.getModel() == DemandForecaster.Model.CROSTON) {
+                    intermittent.incrementAndGet();
+                }
+                DemandForecast forecast = new DemandForecast();
+                forecast.setProductId(batch.productIds[i]);
+                forecast.setStoreId(batch.storeIds[i]);
+                forecast.setModel(fit.getModel().name());
+                forecast.setAlpha(decimal(fit.getAlpha()));
+                forecast.setDailyForecast(decimal(fit.getForecast()));
+                forecast.setMae(decimal(fit.getMae()));
+                forecast.setRmse(decimal(fit.getRmse()));
+                forecast.setBias(decimal(fit.getBias()));
+                forecast.setDemandDays(fit.getDemandDays());
+                forecast.setObservedDays(fit.getObservedDays());
+                forecast.setGeneratedAt(generatedAt);
+                forecasts.add(forecast);
+            }
+            forecastRepository.deleteByProductIds(productIds);
+            forecastRepository.insertAll(forecasts);
+        });
+    }
+
+    private static BigDecimal decimal(double value) {
+        return BigDecimal.valueOf(value).setScale(4, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * State of one forecast run: the pools, the recycled batches and the pending writes.
+     */
+    private class Run {
+        private final LocalDate since;
+        private final LocalDate until;
+        private final int length;
+        private final Instant generatedAt = Instant.now();
+        private final ForkJoinPool pool;
+        private final ExecutorService writer = Executors.newSingleThreadExecutor();
+        private final BlockingQueue<SeriesBatch> free;
+        private final List<Future<?>> writes = new ArrayList<>();
+        private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        private final AtomicInteger intermittent = new AtomicInteger();
+
+        Run(LocalDate since, LocalDate until) {
+            this.since = since;
+            this.until = until;
+            this.length = (int) (until.toEpochDay() - since.toEpochDay());
+            this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+            int batches = Math.max(2, batchesInFlight);
+            this.free = new ArrayBlockingQueue<>(batches);
+            for (int i = 0; i < batches; i++) {
+                free.add(new SeriesBatch(Math.max(1, batchSize), length));
+            }
+        }
+
+        int streamAndDispatch() {
+            long firstDay = since.toEpochDay();
+            SeriesBatch batch = acquire();
+            int series = 0;
+            int currentProduct = -1;
+            int currentStore = -1;
+            int offset = 0;
+            try (Stream<Object[]> stream = orderDetailRepository.streamDailyDemand(since, until)) {
+                Iterator<Object[]> rows = stream.iterator();
+                while (rows.hasNext()) {
+                    Object[] row = rows.next();
+                    int productId = ((Number) row[0]).intValue();
+                    int storeId = ((Number) row[1]).intValue();
+                    if (productId != currentProduct) {
+                        if (batch.count >= batchSize) {
+                            dispatch(batch);
+                            batch = acquire();
+                        }
+                        currentProduct = productId;
+                        currentStore = -1;
+                    }
+                    if (storeId != currentStore) {
+                        offset = batch.add(productId, storeId) * length;
+                        currentStore = storeId;
+                        series++;
+                    }
+                    long units = ((Number) row[3]).longValue();
+                    int day = (int) (((LocalDate) row[2]).toEpochDay() - firstDay);
+                    batch.demand[offset + day] = (int) Math.min(units, Integer.MAX_VALUE);
+                }
+            }
+            if (batch.count > 0) {
+                dispatch(batch);
+            } else {
+                free.add(batch);
+            }
+            return series;
+        }
+
+        // Fits the batch on the pool; the writer waits for the fit, persists and recycles the batch
+        private void dispatch(SeriesBatch batch) {
+            ForkJoinTask<Void> fit = pool.submit(new FitTask(batch, 0, batch.count));
+            writes.add(writer.submit(() -> {
+                try {
+                    fit.join();
+                    persist(batch, generatedAt, intermittent);
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                    throw e;
+                } finally {
+                    batch.clear();
+                    free.add(batch);
+                }
+            }));
+        }
+
+        private SeriesBatch acquire() {
+            try {
+                SeriesBatch batch = free.take();
+                RuntimeException failed = failure.get();
+                if (failed != null) {
+                    free.add(batch);
+                    throw failed;
+                }
+                return batch;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Demand forecast run was interrupted", e);
+            }
+        }
+
+        void close() {
+            writer.shutdownNow();
+            pool.shutdownNow();
+        }
+    }
+
+    private class FitTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final SeriesBatch batch;
+        private final int from;
+        private final int to;
+
+        FitTask(SeriesBatch batch, int from, int to) {
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_SIZE) {
+                for (int i = from; i < to; i++) {
+                    forecaster.fit(batch.demand, i * batch.length, batch.length, batch.fits[i]);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new FitTask(batch, from, mid), new FitTask(batch, mid, to));
+        }
+    }
+
+    /**
+     * A batch of series laid out back to back in one day array. Grows when a product's stores do not
+     * fit in the remaining capacity.
+     */
+    private static class SeriesBatch {
+        private final int length;
+        private int count;
+        private int[] productIds;
+        private int[] storeIds;
+        private int[] demand;
+        private DemandForecaster.Fit[] fits;
+
+        SeriesBatch(int capacity, int length) {
+            this.length = length;
+            this.productIds = new int[capacity];
+            this.storeIds = new int[capacity];
+            this.demand = new int[capacity * length];
+            this.fits = new DemandForecaster.Fit[capacity];
+            for (int i = 0; i < capacity; i++) {
+                fits[i] = new DemandForecaster.Fit();
+            }
+        }
+
+        int add(int productId, int storeId) {
+            if (count == productIds.length) {
+                int capacity = count * 2;
+                productIds = Arrays.copyOf(productIds, capacity);
+                storeIds = Arrays.copyOf(storeIds, capacity);
+                demand = Arrays.copyOf(demand, capacity * length);
+                fits = Arrays.copyOf(fits, capacity);
+                for (int i = count; i < capacity; i++) {
+                    fits[i] = new DemandForecaster.Fit();
+                }
+            }
+            productIds[count] = productId;
+            storeIds[count] = storeId;
+            return count++;
+        }
+
+        void clear() {
+            Arrays.fill(demand, 0, count * length, 0);
+            count = 0;
+        }
+    }
+}
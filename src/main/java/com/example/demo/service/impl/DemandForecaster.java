@@ -0,0 +1,201 @@
+package com.example.demo.service.impl;
+
+/**
+ * Fits a flat daily demand forecast to a single demand series.
+ *
+ * Series are read from a flat int array (one day per element) so that a whole batch of series can
+ * share one allocation. Leading days before the first sale are ignored, since a product that was
+ * not yet listed in a store has no demand to learn from.
+ *
+ * Smooth series are fitted with simple exponential smoothing. Intermittent series, whose average
+ * interval between demand days exceeds {@link #INTERMITTENT_INTERVAL}, are fitted with Croston's
+ * method using the Syntetos-Boylan bias correction. The smoothing constant is picked from a small
+ * grid by minimizing the in-sample one-step-ahead squared error, and the error metrics reported are
+ * those one-step-ahead errors.
+ */
+public class DemandForecaster {
+
+    public static final double INTERMITTENT_INTERVAL = 1.32;
+
+    private static final double[] DEFAULT_ALPHAS = {0.05, 0.1, 0.2, 0.3, 0.5};
+
+    public enum Model {
+        SES,
+        CROSTON
+    }
+
+    private final double[] alphas;
+
+    public DemandForecaster() {
+        this(DEFAULT_ALPHAS);
+    }
+
+    /**
+     * @param alphas candidate smoothing constants, each in (0, 1]
+     */
+    public DemandForecaster(double[] alphas) {
+        if (alphas.length == 0) {
+            throw new IllegalArgumentException("At least one smoothing constant is required");
+        }
+        for (double alpha : alphas) {
+            if (!(alpha > 0 && alpha <= 1)) {
+                throw new IllegalArgumentException("Smoothing constants must be in (0, 1]: " + alpha);
+            }
+        }
+        this.alphas = alphas.clone();
+    }
+
+    /**
+     * Fits the series demand[offset, offset + length) into the given result, which is overwritten.
+     * Does not allocate, so one Fit can be reused across series.
+     */
+    public void fit(int[] demand, int offset, int length, Fit out) {
+        int end = offset + length;
+        int start = offset;
+        while (start < end && demand[start] == 0) {
+            start++;
+        }
+        int demandDays = 0;
+        for (int t = start; t < end; t++) {
+            if (demand[t] != 0) {
+                demandDays++;
+            }
+        }
+        out.demandDays = demandDays;
+        out.observedDays = end - start;
+        if (demandDays == 0) {
+            out.model = Model.SES;
+            out.alpha = alphas[0];
+            out.forecast = 0;
+            out.mae = 0;
+            out.rmse = 0;
+            out.bias = 0;
+            return;
+        }
+
+        boolean intermittent = (double) (end - start) / demandDays > INTERMITTENT_INTERVAL;
+        double bestSse = Double.POSITIVE_INFINITY;
+        double bestAlpha = alphas[0];
+        for (double alpha : alphas) {
+            double sse = intermittent
+                    ? croston(demand, start, end, alpha, null)
+                    : ses(demand, start, end, alpha, null);
+            if (sse < bestSse) {
+                bestSse = sse;
+                bestAlpha = alpha;
+            }
+        }
+        out.model = intermittent ? Model.CROSTON : Model.SES;
+        out.alpha = bestAlpha;
+        if (intermittent) {
+            croston(demand, start, end, bestAlpha, out);
+        } else {
+            ses(demand, start, end, bestAlpha, out);
+        }
+    }
+
+    // Returns the one-step-ahead SSE; when out is given also records the forecast and error metrics
+    private static double ses(int[] demand, int start, int end, double alpha, Fit out) {
+        double level = demand[start];
+        double sse = 0;
+        double sae = 0;
+        double sum = 0;
+        for (int t = start + 1; t < end; t++) {
+            double error = demand[t] - level;
+            sse += error * error;
+            sae += Math.abs(error);
+            sum += error;
+            level += alpha * error;
+        }
+        if (out != null) {
+            record(out, level, sse, sae, sum, end - start - 1);
+        }
+        return sse;
+    }
+
+    // Smooths demand sizes and inter-demand intervals separately, updating only on demand days
+    private static double croston(int[] demand, int start, int end, double alpha, Fit out) {
+        double correction = 1 - alpha / 2;
+        double size = demand[start];
+        double interval = 1;
+        int sinceDemand = 1;
+        double forecast = correction * size / interval;
+        double sse = 0;
+        double sae = 0;
+        double sum = 0;
+        for (int t = start + 1; t < end; t++) {
+            double error = demand[t] - forecast;
+            sse += error * error;
+            sae += Math.abs(error);
+            sum += error;
+            if (demand[t] != 0) {
+                size += alpha * (demand[t] - size);
+                interval += alpha * (sinceDemand - interval);
+                sinceDemand = 1;
+                forecast = correction * size / interval;
+            } else {
+                sinceDemand++;
+            }
+        }
+        if (out != null) {
+            record(out, forecast, sse, sae, sum, end - start - 1);
+        }
+        return sse;
+    }
+
+    private static void record(Fit out, double forecast, double sse, double sae, double sum, int errors) {
+        out.forecast = forecast;
+        out.mae = errors > 0 ? sae / errors : 0;
+        out.rmse = errors > 0 ? Math.sqrt(sse / errors) : 0;
+        out.bias = errors > 0 ? sum / errors : 0;
+    }
+
+    /**
+     * Result of fitting one series. Errors are actual - forecast, so a positive bias means the
+     * model under-forecasts.
+     */
+    public static class Fit {
+        private Model model;
+        private double alpha;
+        private double forecast;
+        private double mae;
+        private double rmse;
+        private double bias;
+        private int demandDays;
+        private int observedDays;
+
+        public Model getModel() {
+            return model;
+        }
+
+        public double getAlpha() {
+            return alpha;
+        }
+
+        // Expected units per day
+        public double getForecast() {
+            return forecast;
+        }
+
+        public double getMae() {
+            return mae;
+        }
+
+        public double getRmse() {
+            return rmse;
+        }
+
+        public double getBias() {
+            return bias;
+        }
+
+        public int getDemandDays() {
+            return demandDays;
+        }
+
+        // Days from the first sale to the end of the series
+        public int getObservedDays() {
+            return observedDays;
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.dto.DistinctCountDTO;
+import com.example.demo.entities.CustomerOrder;
+import com.example.demo.entities.DistinctCountSketch;
+import com.example.demo.entities.DistinctCountSketchId;
+import com.example.demo.entities.OrderArchiveState;
+import com.example.demo.entities.OrderDetail;
+import com.example.demo.repositories.CustomerOrderRepository;
+import com.example.demo.repositories.DistinctCountSketchRepository;
+import com.example.demo.repositories.OrderArchiveStateRepository;
+import com.example.demo.repositories.OrderDetailRepository;
+import com.example.demo.repositories.ProductRepository;
+import com.example.demo.service.DistinctCountService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Distinct-customer counts per product, store and category per day, kept as HyperLogLog sketches.
+ *
+ * Committed orders add their customer to in-memory sketches, which are merged into the stored ones
+ * every app.distinct-count.flush-interval-ms. Category sketches are derived at flush time as the
+ * union of their products' sketches. Since adding a customer twice changes nothing, a flush that
+ * fails is simply merged back and retried.
+ *
+ * Sketches cannot forget a customer, so cancellations are only reflected by a rebuild from raw
+ * orders; a nightly job rebuilds yesterday, which also repairs additions lost in a restart.
+ * Queries union any set of products, stores and categories over any range, unflushed additions
+ * included, and report the estimate with its standard error.
+ */
+@Service
+public class DistinctCountServiceImpl implements DistinctCountService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DistinctCountServiceImpl.class);
+    private static final Integer ARCHIVE_STATE_ID = 1;
+    private static final double Z_95 = 1.96;
+
+    @Value("${app.distinct-count.enabled:true}")
+    private boolean enabled;
+
+    // 2^precision registers per dense sketch; 14 gives a standard error of 0.81%
+    @Value("${app.distinct-count.precision:14}")
+    private int precision;
+
+    private final DistinctCountSketchRepository sketchRepository;
+    private final OrderDetailRepository orderDetailRepository;
+    private final CustomerOrderRepository customerOrderRepository;
+    private final ProductRepository productRepository;
+    private final OrderArchiveStateRepository archiveStateRepository;
+    private final TransactionTemplate writeTransaction;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Map<DistinctCountSketchId, HyperLogLog> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    @Autowired
+    public DistinctCountServiceImpl(DistinctCountSketchRepository sketchRepository,
+                                    OrderDetailRepository orderDetailRepository,
+                                    CustomerOrderRepository customerOrderRepository,
+                                    ProductRepository productRepository,
+                                    OrderArchiveStateRepository archiveStateRepository,
+                                    PlatformTransactionManager transactionManager) {
+        this.sketchRepository = sketchRepository;
+        this.orderDetailRepository = orderDetailRepository;
+        this.customerOrderRepository = customerOrderRepository;
+        this.productRepository = productRepository;
+        this.archiveStateRepository = archiveStateRepository;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public void recordOrderCreated(CustomerOrder order, Collection<OrderDetail> details) {
+        if (!enabled || order.getPurchaseDate() == null || order.getCustomer() == null
+                || "CANCELLED".equalsIgnoreCase(order.getStatus())) {
+            return;
+        }
+        LocalDate date = order.getPurchaseDate();
+        long customerId = order.getCustomer().getId();
+        List<DistinctCountSketchId> ids = new ArrayList<>();
+        if (order.getEmployeeSeller() != null && order.getEmployeeSeller().getStore() != null) {
+            ids.add(new DistinctCountSketchId(Dimension.STORE.name(), order.getEmployeeSeller().getStore().getId(), date));
+        }
+        if (details != null) {
+            for (OrderDetail detail : details) {
+                ids.add(new DistinctCountSketchId(Dimension.PRODUCT.name(), detail.getProduct().getId(), date));
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        Runnable apply = () -> ids.forEach(id -> pending.compute(id, (key, sketch) -> {
+            HyperLogLog target = sketch != null ? sketch : new HyperLogLog(precision);
+            target.add(customerId);
+            return target;
+        }));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.distinct-count.flush-interval-ms:5000}")
+    public void flushPending() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            Map<DistinctCountSketchId, HyperLogLog> batch = new HashMap<>();
+            for (DistinctCountSketchId id : pending.keySet()) {
+                HyperLogLog sketch = pending.remove(id);
+                if (sketch != null) {
+                    batch.put(id, sketch);
+                }
+            }
+            try {
+                writeTransaction.executeWithoutResult(status -> {
+                    addCategorySketches(batch, categoriesOf(batch.keySet()));
+                    Instant now = Instant.now();
+                    Map<DistinctCountSketchId, HyperLogLog> created = new HashMap<>(batch);
+                    for (DistinctCountSketch stored : sketchRepository.findAllById(batch.keySet())) {
+                        HyperLogLog merged = HyperLogLog.fromBytes(stored.getSketch());
+                        merged.merge(batch.get(stored.getId()));
+                        stored.setSketch(merged.toBytes());
+                        stored.setUpdatedAt(now);
+                        created.remove(stored.getId());
+                    }
+                    sketchRepository.insertAll(toEntities(created, now));
+                });
+            } catch (RuntimeException e) {
+                // Merging is idempotent, so re-adding sketches that were partly written is harmless
+                batch.forEach((id, sketch) -> pending.merge(id, sketch, (current, failed) -> {
+                    current.merge(failed);
+                    return current;
+                }));
+                logger.error("Failed to write {} distinct-count sketches, will retry", batch.size(), e);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Scheduled(cron = "${app.distinct-count.rebuild-cron:0 20 0 * * *}")
+    public void rebuildYesterday() {
+        if (!enabled) {
+            return;
+        }
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        try {
+            int sketches = rebuild(yesterday, yesterday);
+            logger.info("Rebuilt {} distinct-count sketches for {}", sketches, yesterday);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Skipping the nightly distinct-count rebuild: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public DistinctCountDTO countDistinctCustomers(Collection<Integer> productIds, Collection<Integer> storeIds,
+                                                   Collection<Integer> categoryIds, LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Start date and end date cannot be null");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Start date cannot be after end date");
+        }
+        Map<Dimension, Set<Integer>> members = new HashMap<>();
+        members.put(Dimension.PRODUCT, productIds != null ? new HashSet<>(productIds) : Set.of());
+        members.put(Dimension.STORE, storeIds != null ? new HashSet<>(storeIds) : Set.of());
+        members.put(Dimension.CATEGORY, categoryIds != null ? new HashSet<>(categoryIds) : Set.of());
+        if (members.values().stream().allMatch(Set::isEmpty)) {
+            throw new IllegalArgumentException("At least one product, store or category is required");
+        }
+
+        HyperLogLog union = new HyperLogLog(precision);
+        int merged = 0;
+        List<DistinctCountSketch> stored = readOnlyTransaction.execute(status -> {
+            List<DistinctCountSketch> sketches = new ArrayList<>();
+            members.forEach((dimension, ids) -> {
+                if (!ids.isEmpty()) {
+                    sketches.addAll(sketchRepository.findSketches(dimension.name(), ids, from, to));
+                }
+            });
+            return sketches;
+        });
+        for (DistinctCountSketch sketch : stored) {
+            union.merge(HyperLogLog.fromBytes(sketch.getSketch()));
+            merged++;
+        }
+        merged += mergePending(union, members, from, to);
+
+        long estimate = union.estimate();
+        double standardError = union.standardError();
+        return DistinctCountDTO.builder()
+                .productIds(members.get(Dimension.PRODUCT).isEmpty() ? null : new ArrayList<>(members.get(Dimension.PRODUCT)))
+                .storeIds(members.get(Dimension.STORE).isEmpty() ? null : new ArrayList<>(members.get(Dimension.STORE)))
+                .categoryIds(members.get(Dimension.CATEGORY).isEmpty() ? null : new ArrayList<>(members.get(Dimension.CATEGORY)))
+                .from(from)
+                .to(to)
+                .estimate(estimate)
+                .standardError(standardError)
+                .lowerBound(Math.max(0, Math.round(estimate * (1 - Z_95 * standardError))))
+                .upperBound(Math.round(estimate * (1 + Z_95 * standardError)))
+                .sketchesMerged(merged)
+                .build();
+    }
+
+    @Override
+    public int rebuild(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Start date and end date cannot be null");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Start date cannot be after end date");
+        }
+        // Sketches are rebuilt from the hot order tables only; archived days keep the sketches they have
+        Optional<LocalDate> archivedBefore = archiveStateRepository.findById(ARCHIVE_STATE_ID)
+                .map(OrderArchiveState::getArchivedBefore);
+        if (archivedBefore.isPresent() && from.isBefore(archivedBefore.get())) {
+            throw new IllegalArgumentException("Orders purchased before " + archivedBefore.get()
+                    + " are archived, rebuild from that date on");
+        }
+
+        writeLock.lock();
+        try {
+            // Pending additions are part of the days about to be recomputed
+            flushPending();
+            Map<Integer, List<Integer>> categories = new HashMap<>();
+            for (Object[] pair : productRepository.findAllCategoryIds()) {
+                categories.computeIfAbsent(((Number) pair[0]).intValue(), id -> new ArrayList<>())
+                        .add(((Number) pair[1]).intValue());
+            }
+            int written = 0;
+            for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+                LocalDate current = day;
+                Integer sketches = writeTransaction.execute(status -> rebuildDay(current, categories));
+                written += sketches == null ? 0 : sketches;
+            }
+            return written;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private int rebuildDay(LocalDate day, Map<Integer, List<Integer>> categories) {
+        Map<DistinctCountSketchId, HyperLogLog> sketches = new HashMap<>();
+        try (Stream<Object[]> rows = orderDetailRepository.streamProductBuyers(day)) {
+            addAll(sketches, rows, Dimension.PRODUCT, day);
+        }
+        try (Stream<Object[]> rows = customerOrderRepository.streamStoreBuyers(day)) {
+            addAll(sketches, rows, Dimension.STORE, day);
+        }
+        addCategorySketches(sketches, categories);
+        sketchRepository.deleteBySalesDate(day);
+        sketchRepository.insertAll(toEntities(sketches, Instant.now()));
+        return sketches.size();
+    }
+
+    private void addAll(Map<DistinctCountSketchId, HyperLogLog> sketches, Stream<Object[]> rows,
+                        Dimension dimension, LocalDate day) {
+        Iterator<Object[]> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            Object[] row = iterator.next();
+            if (row[0] == null) {
+                continue;
+            }
+            sketches.computeIfAbsent(new DistinctCountSketchId(dimension.name(), ((Number) row[0]).intValue(), day),
+                    id -> new HyperLogLog(precision)).add(((Number) row[1]).longValue());
+        }
+    }
+
+    // A category's sketch is the union of its products' sketches of the same day
+    private void addCategorySketches(Map<DistinctCountSketchId, HyperLogLog> sketches, Map<Integer, List<Integer>> categories) {
+        Map<DistinctCountSketchId, HyperLogLog> categorySketches = new HashMap<>();
+        sketches.forEach((id, sketch) -> {
+            if (!Dimension.PRODUCT.name().equals(id.getDimension())) {
+                return;
+            }
+            for (Integer categoryId : categories.getOrDefault(id.getDimensionId(), List.of())) {
+                categorySketches.computeIfAbsent(new DistinctCountSketchId(Dimension.CATEGORY.name(), categoryId, id.getSalesDate()),
+                        key -> sketches.getOrDefault(key, new HyperLogLog(precision))).merge(sketch);
+            }
+        });
+        sketches.putAll(categorySketches);
+    }
+
+    private Map<Integer, List<Integer>> categoriesOf(Collection<DistinctCountSketchId> ids) {
+        Set<Integer> productIds = new HashSet<>();
+        for (DistinctCountSketchId id : ids) {
+            if (Dimension.PRODUCT.name().equals(id.getDimension())) {
+                productIds.add(id.getDimensionId());
+            }
+        }
+        Map<Integer, List<Integer>> categories = new HashMap<>();
+        if (productIds.isEmpty()) {
+            return categories;
+        }
+        for (Object[] pair : productRepository.findCategoryIdsByProductIds(productIds)) {
+            categories.computeIfAbsent(((Number) pair[0]).intValue(), id -> new ArrayList<>())
+                    .add(((Number) pair[1]).intValue());
+        }
+        return categories;
+    }
+
+    // Unions the matching unflushed sketches; categories are matched through their pending products
+    private int mergePending(HyperLogLog union, Map<Dimension, Set<Integer>> members, LocalDate from, LocalDate to) {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        Set<Integer> categoryIds = members.get(Dimension.CATEGORY);
+        Map<Integer, List<Integer>> categories = categoryIds.isEmpty() ? Map.of() : categoriesOf(pending.keySet());
+        int merged = 0;
+        for (DistinctCountSketchId id : pending.keySet()) {
+            if (id.getSalesDate().isBefore(from) || id.getSalesDate().isAfter(to)) {
+                continue;
+            }
+            Dimension dimension = Dimension.valueOf(id.getDimension());
+            boolean matches = members.get(dimension).contains(id.getDimensionId())
+                    || (dimension == Dimension.PRODUCT && categories.getOrDefault(id.getDimensionId(), List.of())
+                    .stream().anyMatch(categoryIds::contains));
+            // Sketches are only read under their map entry's lock, as writers update them in place
+            if (matches && pending.computeIfPresent(id, (key, sketch) -> {
+                union.merge(sketch);
+                return sketch;
+            }) != null) {
+                merged++;
+            }
+        }
+        return merged;
+    }
+
+    private List<DistinctCountSketch> toEntities(Map<DistinctCountSketchId, HyperLogLog> sketches, Instant now) {
+        List<DistinctCountSketch> entities = new ArrayList<>(sketches.size());
+        sketches.forEach((id, sketch) -> {
+            DistinctCountSketch entity = new DistinctCountSketch();
+            entity.setId(id);
+            entity.setSketch(sketch.toBytes());
+            entity.setUpdatedAt(now);
+            entities.add(entity);
+        });
+        return entities;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.entities.Review;
+import com.example.demo.repositories.ReviewRepository;
+import com.example.demo.service.ReviewCheck;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Holds reviews whose text is a near-copy of one of the last app.reviews.moderation.duplicates.window
+ * reviews, whoever wrote it and whatever product it is for. Seeded from the most recent reviews at
+ * startup.
+ */
+@Component
+public class DuplicateReviewCheck implements ReviewCheck {
+
+    private static final Logger logger = LoggerFactory.getLogger(DuplicateReviewCheck.class);
+
+    private final ReviewRepository reviewRepository;
+    private final int window;
+    private final NearDuplicateIndex index;
+
+    public DuplicateReviewCheck(ReviewRepository reviewRepository,
+                                @Value("${app.reviews.moderation.duplicates.window:50000}") int window,
+                                @Value("${app.reviews.moderation.duplicates.min-words:8}") int minWords,
+                                @Value("${app.reviews.moderation.duplicates.similarity:0.8}") double similarity) {
+        this.reviewRepository = reviewRepository;
+        this.window = window;
+        this.index = new NearDuplicateIndex(window, minWords, similarity);
+    }
+
+    @PostConstruct
+    public void seed() {
+        try {
+            List<Object[]> recent = reviewRepository.findRecentComments(PageRequest.of(0, window));
+            // Oldest first, so that they are also evicted first
+            for (int i = recent.size() - 1; i >= 0; i--) {
+                index.add((Integer) recent.get(i)[0], (String) recent.get(i)[1]);
+            }
+            logger.info("Seeded duplicate review detection with {} reviews", index.size());
+        } catch (RuntimeException e) {
+            logger.warn("Could not seed duplicate review detection, starting empty", e);
+        }
+    }
+
+    @Override
+    public String check(Review review) {
+        int duplicate = index.add(review.getId(), review.getComment());
+        return duplicate >= 0 ? "Near-duplicate of review " + duplicate : null;
+    }
+}
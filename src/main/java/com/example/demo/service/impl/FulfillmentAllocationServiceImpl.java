@@ -0,0 +1,207 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.dto.FulfillmentAllocationDTO;
+import com.example.demo.entities.ReservedStock;
+import com.example.demo.entities.StoreInventory;
+import com.example.demo.repositories.ProductRepository;
+import com.example.demo.repositories.ReservedStockRepository;
+import com.example.demo.repositories.StoreInventoryRepository;
+import com.example.demo.repositories.StoreRepository;
+import com.example.demo.service.FulfillmentAllocationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+public class FulfillmentAllocationServiceImpl implements FulfillmentAllocationService {
+
+    @Value("${app.fulfillment.solver-budget-ms:50}")
+    private long solverBudgetMs;
+
+    private final StoreInventoryRepository storeInventoryRepository;
+    private final ReservedStockRepository reservedStockRepository;
+    private final StoreRepository storeRepository;
+    private final ProductRepository productRepository;
+
+    @Autowired
+    public FulfillmentAllocationServiceImpl(StoreInventoryRepository storeInventoryRepository,
+                                            ReservedStockRepository reservedStockRepository,
+                                            StoreRepository storeRepository,
+                                            ProductRepository productRepository) {
+        this.storeInventoryRepository = storeInventoryRepository;
+        this.reservedStockRepository = reservedStockRepository;
+        this.storeRepository = storeRepository;
+        this.productRepository = productRepository;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public FulfillmentAllocationDTO allocate(Map<Integer, Integer> orderLines) {
+        validate(orderLines);
+        StockMatrix matrix = new StockMatrix(orderLines);
+        for (Object[] row : storeInventoryRepository.findStockMatrixRows(orderLines.keySet())) {
+            matrix.add((Integer) row[0], (Integer) row[1], (Integer) row[2]);
+        }
+        matrix.subtractReservations(reservedStockRepository.sumActiveReservationsByStoreAndProduct(orderLines.keySet()));
+
+        return toDTO(matrix, matrix.solve(solverBudgetMs), null, null);
+    }
+
+    @Override
+    @Transactional
+    public FulfillmentAllocationDTO allocateAndReserve(Map<Integer, Integer> orderLines, Instant expiresAt) {
+        validate(orderLines);
+        if (expiresAt == null || !expiresAt.isAfter(Instant.now())) {
+            throw new IllegalArgumentException("Reservation expiry must be in the future");
+        }
+
+        // Locking the candidate rows keeps competing allocations from claiming the same units
+        StockMatrix matrix = new StockMatrix(orderLines);
+        for (StoreInventory inventory : storeInventoryRepository.lockByProductIds(orderLines.keySet())) {
+            matrix.add(inventory.getStore().getId(), inventory.getProduct().getId(), inventory.getQuantity());
+        }
+        matrix.subtractReservations(reservedStockRepository.sumActiveReservationsByStoreAndProduct(orderLines.keySet()));
+
+        FulfillmentSolver.Result result = matrix.solve(solverBudgetMs);
+        if (!result.isComplete()) {
+            throw new IllegalStateException("Insufficient stock across stores to fulfil the order");
+        }
+
+        Instant now = Instant.now();
+        Map<Integer, List<ReservedStock>> reservationsByStore = new LinkedHashMap<>();
+        List<ReservedStock> reservations = new ArrayList<>();
+        int[][] allocation = result.getAllocation();
+        for (int s = 0; s < allocation.length; s++) {
+            for (int p = 0; p < allocation[s].length; p++) {
+                if (allocation[s][p] == 0) {
+                    continue;
+                }
+                ReservedStock reservation = new ReservedStock();
+                reservation.setStore(storeRepository.getReferenceById(matrix.storeIds.get(s)));
+                reservation.setProduct(productRepository.getReferenceById(matrix.productIds[p]));
+                reservation.setQuantity(allocation[s][p]);
+                reservation.setReservedAt(now);
+                reservation.setExpiresAt(expiresAt);
+                reservations.add(reservation);
+                reservationsByStore.computeIfAbsent(matrix.storeIds.get(s), id -> new ArrayList<>()).add(reservation);
+            }
+        }
+        reservedStockRepository.saveAll(reservations);
+
+        return toDTO(matrix, result, reservationsByStore, expiresAt);
+    }
+
+    private void validate(Map<Integer, Integer> orderLines) {
+        if (orderLines == null || orderLines.isEmpty()) {
+            throw new IllegalArgumentException("Order lines cannot be empty");
+        }
+        orderLines.forEach((productId, quantity) -> {
+            if (productId == null || quantity == null || quantity <= 0) {
+                throw new IllegalArgumentException("Invalid order line for product ID: " + productId);
+            }
+        });
+    }
+
+    private FulfillmentAllocationDTO toDTO(StockMatrix matrix, FulfillmentSolver.Result result,
+                                           Map<Integer, List<ReservedStock>> reservationsByStore,
+                                           Instant reservedUntil) {
+        int[][] allocation = result.getAllocation();
+        int[] allocated = new int[matrix.productIds.length];
+        List<FulfillmentAllocationDTO.Shipment> shipments = new ArrayList<>();
+        for (int s = 0; s < allocation.length; s++) {
+            Map<Integer, Integer> lines = new TreeMap<>();
+            for (int p = 0; p < allocation[s].length; p++) {
+                if (allocation[s][p] > 0) {
+                    lines.put(matrix.productIds[p], allocation[s][p]);
+                    allocated[p] += allocation[s][p];
+                }
+            }
+            if (lines.isEmpty()) {
+                continue;
+            }
+            Integer storeId = matrix.storeIds.get(s);
+            List<Integer> reservationIds = null;
+            if (reservationsByStore != null) {
+                reservationIds = reservationsByStore.getOrDefault(storeId, List.of()).stream()
+                        .map(ReservedStock::getId)
+                        .toList();
+            }
+            shipments.add(FulfillmentAllocationDTO.Shipment.builder()
+                    .storeId(storeId)
+                    .lines(lines)
+                    .reservationIds(reservationIds)
+                    .build());
+        }
+
+        Map<Integer, Integer> unallocated = new TreeMap<>();
+        for (int p = 0; p < matrix.productIds.length; p++) {
+            if (allocated[p] < matrix.demand[p]) {
+                unallocated.put(matrix.productIds[p], matrix.demand[p] - allocated[p]);
+            }
+        }
+
+        return FulfillmentAllocationDTO.builder()
+                .shipmentCount(result.getShipments())
+                .optimal(result.isOptimal())
+                .fullyAllocated(result.isComplete())
+                .shipments(shipments)
+                .unallocated(unallocated.isEmpty() ? null : unallocated)
+                .reservedUntil(reservedUntil)
+                .build();
+    }
+
+    /**
+     * Dense store x product availability matrix over the stores that carry any of the ordered products
+     */
+    private static class StockMatrix {
+        private final Integer[] productIds;
+        private final int[] demand;
+        private final Map<Integer, Integer> productIndex = new HashMap<>();
+        private final List<Integer> storeIds = new ArrayList<>();
+        private final Map<Integer, Integer> storeIndex = new HashMap<>();
+        private final List<int[]> rows = new ArrayList<>();
+
+        private StockMatrix(Map<Integer, Integer> orderLines) {
+            Map<Integer, Integer> sorted = new TreeMap<>(orderLines);
+            productIds = sorted.keySet().toArray(new Integer[0]);
+            demand = new int[productIds.length];
+            for (int p = 0; p < productIds.length; p++) {
+                productIndex.put(productIds[p], p);
+                demand[p] = sorted.get(productIds[p]);
+            }
+        }
+
+        private void add(Integer storeId, Integer productId, int quantity) {
+            int s = storeIndex.computeIfAbsent(storeId, id -> {
+                storeIds.add(id);
+                rows.add(new int[productIds.length]);
+                return storeIds.size() - 1;
+            });
+            rows.get(s)[productIndex.get(productId)] += quantity;
+        }
+
+        private void subtractReservations(List<Object[]> reserved) {
+            for (Object[] row : reserved) {
+                Integer s = storeIndex.get((Integer) row[0]);
+                Integer p = productIndex.get((Integer) row[1]);
+                if (s != null && p != null) {
+                    int[] cells = rows.get(s);
+                    cells[p] = Math.max(0, cells[p] - ((Number) row[2]).intValue());
+                }
+            }
+        }
+
+        private FulfillmentSolver.Result solve(long budgetMillis) {
+            return new FulfillmentSolver(rows.toArray(new int[0][]), demand, budgetMillis).solve();
+        }
+    }
+}
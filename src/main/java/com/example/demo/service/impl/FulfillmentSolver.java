@@ -0,0 +1,259 @@
+package com.example.demo.service.impl;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Splits an order across stores.
+ *
+ * Works on a dense store x product availability matrix. The primary objective is the number of
+ * shipping stores; the secondary one is stock balance, measured as the sum over allocated cells of
+ * allocated / available (drawing from deep stock scores lower than emptying a shelf).
+ *
+ * A greedy set cover gives the initial solution and upper bound. Branch and bound then looks for
+ * store subsets with fewer stores, and for better-balanced subsets of the same size, until the
+ * search space is exhausted or the time budget runs out. The best solution found so far is
+ * always returned; {@link Result#isOptimal()} tells whether the search completed.
+ */
+public class FulfillmentSolver {
+
+    private final int[][] available;
+    private final int[] demand;
+    private final int storeCount;
+    private final int productCount;
+    private final long deadlineNanos;
+
+    private int[] order;
+    private int[] coverage;
+    private int bestSize;
+    private double bestScore;
+    private int[] bestStores;
+    private boolean exhausted;
+
+    /**
+     * @param available    availability per [store][product], already net of reservations
+     * @param demand       requested quantity per product
+     * @param budgetMillis time budget for the branch and bound phase
+     */
+    public FulfillmentSolver(int[][] available, int[] demand, long budgetMillis) {
+        this.available = available;
+        this.demand = demand;
+        this.storeCount = available.length;
+        this.productCount = demand.length;
+        this.deadlineNanos = System.nanoTime() + budgetMillis * 1_000_000L;
+    }
+
+    public Result solve() {
+        // Products no store set can satisfy are capped at what is available in total
+        int[] target = new int[productCount];
+        boolean fullyAllocatable = true;
+        for (int p = 0; p < productCount; p++) {
+            long total = 0;
+            for (int s = 0; s < storeCount; s++) {
+                total += available[s][p];
+            }
+            target[p] = (int) Math.min(demand[p], total);
+            if (target[p] < demand[p]) {
+                fullyAllocatable = false;
+            }
+        }
+
+        coverage = new int[storeCount];
+        for (int s = 0; s < storeCount; s++) {
+            for (int p = 0; p < productCount; p++) {
+                coverage[s] += Math.min(available[s][p], target[p]);
+            }
+        }
+        order = new int[storeCount];
+        Integer[] boxed = new Integer[storeCount];
+        for (int s = 0; s < storeCount; s++) {
+            boxed[s] = s;
+        }
+        Arrays.sort(boxed, Comparator.comparingInt((Integer s) -> coverage[s]).reversed());
+        for (int s = 0; s < storeCount; s++) {
+            order[s] = boxed[s];
+        }
+
+        bestStores = greedy(target);
+        bestSize = bestStores.length;
+        bestScore = score(bestStores, target);
+        exhausted = true;
+
+        int[] chosen = new int[bestSize];
+        for (int size = 1; size <= bestSize && exhausted; size++) {
+            search(chosen, 0, 0, size, target, remainingUnits(target));
+        }
+
+        int[][] allocation = allocate(bestStores, target);
+        int shipments = 0;
+        for (int s : bestStores) {
+            if (remainingUnits(allocation[s]) > 0) {
+                shipments++;
+            }
+        }
+        return new Result(allocation, shipments, exhausted, fullyAllocatable);
+    }
+
+    private int[] greedy(int[] target) {
+        int[] remaining = target.clone();
+        int[] picked = new int[storeCount];
+        boolean[] used = new boolean[storeCount];
+        int count = 0;
+        while (remainingUnits(remaining) > 0) {
+            int best = -1;
+            long bestGain = 0;
+            for (int s = 0; s < storeCount; s++) {
+                if (used[s]) {
+                    continue;
+                }
+                long gain = 0;
+                for (int p = 0; p < productCount; p++) {
+                    gain += Math.min(available[s][p], remaining[p]);
+                }
+                if (gain > bestGain) {
+                    bestGain = gain;
+                    best = s;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            used[best] = true;
+            picked[count++] = best;
+            for (int p = 0; p < productCount; p++) {
+                remaining[p] -= Math.min(available[best][p], remaining[p]);
+            }
+        }
+        return Arrays.copyOf(picked, count);
+    }
+
+    private void search(int[] chosen, int depth, int from, int size, int[] target, long deficit) {
+        if (timedOut()) {
+            exhausted = false;
+            return;
+        }
+        if (depth == size) {
+            if (deficit == 0) {
+                int[] stores = Arrays.copyOf(chosen, size);
+                double candidateScore = score(stores, target);
+                if (size < bestSize || candidateScore < bestScore) {
+                    bestSize = size;
+                    bestScore = candidateScore;
+                    bestStores = stores;
+                }
+            }
+            return;
+        }
+        for (int i = from; i < storeCount; i++) {
+            // Stores are sorted by coverage, so the remaining slots cover at most this much
+            if ((long) coverage[order[i]] * (size - depth) < deficit) {
+                return;
+            }
+            chosen[depth] = order[i];
+            search(chosen, depth + 1, i + 1, size, target, deficit(chosen, depth + 1, target));
+        }
+    }
+
+    private long deficit(int[] chosen, int length, int[] target) {
+        long missing = 0;
+        for (int p = 0; p < productCount; p++) {
+            long covered = 0;
+            for (int i = 0; i < length && covered < target[p]; i++) {
+                covered += available[chosen[i]][p];
+            }
+            missing += Math.max(0, target[p] - covered);
+        }
+        return missing;
+    }
+
+    private double score(int[] stores, int[] target) {
+        int[][] allocation = allocate(stores, target);
+        double total = 0;
+        for (int s = 0; s < storeCount; s++) {
+            for (int p = 0; p < productCount; p++) {
+                if (allocation[s][p] > 0) {
+                    total += (double) allocation[s][p] / available[s][p];
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Distributes each product over the given stores by water-filling: units are taken from
+     * whichever store currently has the most left, which levels the remaining stock.
+     */
+    private int[][] allocate(int[] stores, int[] target) {
+        int[][] allocation = new int[storeCount][productCount];
+        for (int p = 0; p < productCount; p++) {
+            int left = target[p];
+            while (left > 0) {
+                int richest = -1;
+                int richestLevel = 0;
+                int secondLevel = 0;
+                for (int s : stores) {
+                    int level = available[s][p] - allocation[s][p];
+                    if (level > richestLevel) {
+                        secondLevel = richestLevel;
+                        richestLevel = level;
+                        richest = s;
+                    } else if (level > secondLevel) {
+                        secondLevel = level;
+                    }
+                }
+                if (richest < 0) {
+                    break;
+                }
+                int take = Math.min(left, Math.max(1, richestLevel - secondLevel));
+                allocation[richest][p] += take;
+                left -= take;
+            }
+        }
+        return allocation;
+    }
+
+    private long remainingUnits(int[] quantities) {
+        long total = 0;
+        for (int quantity : quantities) {
+            total += quantity;
+        }
+        return total;
+    }
+
+    private boolean timedOut() {
+        return System.nanoTime() > deadlineNanos;
+    }
+
+    public static class Result {
+        private final int[][] allocation;
+        private final int shipments;
+        private final boolean optimal;
+        private final boolean complete;
+
+        private Result(int[][] allocation, int shipments, boolean optimal, boolean complete) {
+            this.allocation = allocation;
+            this.shipments = shipments;
+            this.optimal = optimal;
+            this.complete = complete;
+        }
+
+        // Units allocated per [store][product]
+        public int[][] getAllocation() {
+            return allocation;
+        }
+
+        public int getShipments() {
+            return shipments;
+        }
+
+        // True when the search finished within the time budget
+        public boolean isOptimal() {
+            return optimal;
+        }
+
+        // True when every requested unit could be allocated
+        public boolean isComplete() {
+            return complete;
+        }
+    }
+}
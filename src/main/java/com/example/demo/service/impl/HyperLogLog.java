@@ -0,0 +1,281 @@
+package com.example.demo.service.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog distinct-count sketch over integer IDs.
+ *
+ * A sketch with precision p has m = 2^p registers and a relative standard error of about
+ * 1.04 / sqrt(m), e.g. 0.81% at p = 14. Most daily sketches see only a handful of customers, so a
+ * sketch starts sparse, as a sorted list of (register, rank) entries, and switches to a dense
+ * register array once the list would be larger. Small cardinalities are estimated by linear
+ * counting, which is close to exact while most registers are still empty.
+ *
+ * Sketches are merged by taking the maximum rank per register, so merging is idempotent and
+ * order-independent. Sketches of different precisions are merged at the lower precision.
+ * Not thread-safe.
+ */
+public class HyperLogLog {
+
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 18;
+
+    private static final byte SPARSE = 0;
+    private static final byte DENSE = 1;
+    private static final int RANK_BITS = 6;
+    private static final int RANK_MASK = (1 << RANK_BITS) - 1;
+
+    private int precision;
+    // Sorted by register: register << RANK_BITS | rank
+    private int[] sparse;
+    private int sparseSize;
+    private byte[] registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Precision must be between " + MIN_PRECISION + " and " + MAX_PRECISION);
+        }
+        this.precision = precision;
+        this.sparse = new int[4];
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    // Relative standard error of estimates from a sketch of this precision
+    public double standardError() {
+        return 1.04 / Math.sqrt(1 << precision);
+    }
+
+    public void add(long value) {
+        long hash = mix(value);
+        int register = (int) (hash >>> (64 - precision));
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        set(register, rank);
+    }
+
+    public void merge(HyperLogLog other) {
+        if (other.precision < precision) {
+            fold(other.precision);
+        }
+        HyperLogLog source = other.precision > precision ? other.copy() : other;
+        if (source != other) {
+            source.fold(precision);
+        }
+        if (source.registers != null) {
+            for (int i = 0; i < source.registers.length; i++) {
+                if (source.registers[i] != 0) {
+                    set(i, source.registers[i]);
+                }
+            }
+        } else {
+            for (int i = 0; i < source.sparseSize; i++) {
+                set(source.sparse[i] >>> RANK_BITS, source.sparse[i] & RANK_MASK);
+            }
+        }
+    }
+
+    public long estimate() {
+        int m = 1 << precision;
+        double sum = 0;
+        int zeros = 0;
+        if (registers != null) {
+            for (byte rank : registers) {
+                if (rank == 0) {
+                    zeros++;
+                }
+                sum += Math.scalb(1.0, -rank);
+            }
+        } else {
+            zeros = m - sparseSize;
+            sum = zeros;
+            for (int i = 0; i < sparseSize; i++) {
+                sum += Math.scalb(1.0, -(sparse[i] & RANK_MASK));
+            }
+        }
+        double alpha = m == 16 ? 0.673 : m == 32 ? 0.697 : m == 64 ? 0.709 : 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public boolean isEmpty() {
+        if (registers == null) {
+            return sparseSize == 0;
+        }
+        for (byte rank : registers) {
+            if (rank != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public HyperLogLog copy() {
+        HyperLogLog copy = new HyperLogLog(precision);
+        copy.sparse = sparse.clone();
+        copy.sparseSize = sparseSize;
+        copy.registers = registers != null ? registers.clone() : null;
+        return copy;
+    }
+
+    /**
+     * Serialized form: a format byte and the precision, then either the raw registers or the
+     * entry count followed by delta-encoded entries as varints.
+     */
+    public byte[] toBytes() {
+        if (registers != null) {
+            byte[] bytes = new byte[2 + registers.length];
+            bytes[0] = DENSE;
+            bytes[1] = (byte) precision;
+            System.arraycopy(registers, 0, bytes, 2, registers.length);
+            return bytes;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4 + sparseSize * 3);
+        out.write(SPARSE);
+        out.write(precision);
+        writeVarint(out, sparseSize);
+        int previous = 0;
+        for (int i = 0; i < sparseSize; i++) {
+            writeVarint(out, sparse[i] - previous);
+            previous = sparse[i];
+        }
+        return out.toByteArray();
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length < 2) {
+            throw new IllegalArgumentException("Invalid HyperLogLog sketch");
+        }
+        HyperLogLog sketch = new HyperLogLog(bytes[1]);
+        if (bytes[0] == DENSE) {
+            if (bytes.length != 2 + (1 << sketch.precision)) {
+                throw new IllegalArgumentException("Invalid HyperLogLog sketch");
+            }
+            sketch.registers = Arrays.copyOfRange(bytes, 2, bytes.length);
+            return sketch;
+        }
+        if (bytes[0] != SPARSE) {
+            throw new IllegalArgumentException("Invalid HyperLogLog sketch");
+        }
+        int[] position = {2};
+        int size = readVarint(bytes, position);
+        sketch.sparse = new int[Math.max(4, size)];
+        int value = 0;
+        for (int i = 0; i < size; i++) {
+            value += readVarint(bytes, position);
+            sketch.sparse[i] = value;
+        }
+        sketch.sparseSize = size;
+        return sketch;
+    }
+
+    private void set(int register, int rank) {
+        if (registers != null) {
+            if (registers[register] < rank) {
+                registers[register] = (byte) rank;
+            }
+            return;
+        }
+        int low = 0;
+        int high = sparseSize - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midRegister = sparse[mid] >>> RANK_BITS;
+            if (midRegister < register) {
+                low = mid + 1;
+            } else if (midRegister > register) {
+                high = mid - 1;
+            } else {
+                if ((sparse[mid] & RANK_MASK) < rank) {
+                    sparse[mid] = register << RANK_BITS | rank;
+                }
+                return;
+            }
+        }
+        // Past a quarter of the registers the sparse list takes more room than the dense array
+        if (sparseSize + 1 > (1 << precision) / 4) {
+            toDense();
+            registers[register] = (byte) rank;
+            return;
+        }
+        if (sparseSize == sparse.length) {
+            sparse = Arrays.copyOf(sparse, sparse.length * 2);
+        }
+        System.arraycopy(sparse, low, sparse, low + 1, sparseSize - low);
+        sparse[low] = register << RANK_BITS | rank;
+        sparseSize++;
+    }
+
+    private void toDense() {
+        registers = new byte[1 << precision];
+        for (int i = 0; i < sparseSize; i++) {
+            registers[sparse[i] >>> RANK_BITS] = (byte) (sparse[i] & RANK_MASK);
+        }
+        sparse = new int[0];
+        sparseSize = 0;
+    }
+
+    // Re-buckets the sketch at a lower precision: the dropped register bits become the leading hash bits
+    private void fold(int target) {
+        int shift = precision - target;
+        int droppedMask = (1 << shift) - 1;
+        HyperLogLog folded = new HyperLogLog(target);
+        if (registers != null) {
+            for (int i = 0; i < registers.length; i++) {
+                if (registers[i] != 0) {
+                    folded.set(i >>> shift, foldedRank(i & droppedMask, registers[i], shift));
+                }
+            }
+        } else {
+            for (int i = 0; i < sparseSize; i++) {
+                int register = sparse[i] >>> RANK_BITS;
+                folded.set(register >>> shift, foldedRank(register & droppedMask, sparse[i] & RANK_MASK, shift));
+            }
+        }
+        precision = target;
+        sparse = folded.sparse;
+        sparseSize = folded.sparseSize;
+        registers = folded.registers;
+    }
+
+    private static int foldedRank(int dropped, int rank, int shift) {
+        return dropped != 0 ? Integer.numberOfLeadingZeros(dropped) - (32 - shift) + 1 : rank + shift;
+    }
+
+    // SplitMix64 finalizer: sequential IDs need a well-mixed hash
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(byte[] bytes, int[] position) {
+        int value = 0;
+        int shift = 0;
+        while (true) {
+            if (position[0] >= bytes.length || shift > 28) {
+                throw new IllegalArgumentException("Invalid HyperLogLog sketch");
+            }
+            byte b = bytes[position[0]++];
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.entities.IdempotencyRecord;
+import com.example.demo.exception.BusinessException;
+import com.example.demo.repositories.IdempotencyRecordRepository;
+import com.example.demo.service.IdempotencyService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key handling.
+ *
+ * Keys live in a bounded in-memory LRU cache holding a future per key, backed by the
+ * {@code Idempotency_Key} table. The first request for a key claims it by inserting an
+ * IN_PROGRESS row, which also guards against a duplicate arriving at another instance, then runs
+ * the action and stores the serialized response in one transaction, so the key completes exactly
+ * when the action commits. Duplicates on the same instance wait on the future; later repeats are
+ * answered from the cache or the table without running the action. Failed executions are not
+ * remembered, so the client can retry them with the same key. A claim left IN_PROGRESS by a
+ * crashed instance can be taken over once its lease runs out; the crashed action never committed.
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyServiceImpl.class);
+    private static final String IN_PROGRESS = "IN_PROGRESS";
+    private static final String COMPLETED = "COMPLETED";
+    private static final int MAX_KEY_LENGTH = 100;
+
+    @Value("${app.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${app.idempotency.max-cached-keys:10000}")
+    private int maxCachedKeys;
+
+    // How long a duplicate waits for the first execution before giving up with 409
+    @Value("${app.idempotency.wait-timeout-ms:30000}")
+    private long waitTimeoutMs;
+
+    // How long an IN_PROGRESS claim holds the key before another request may take it over
+    @Value("${app.idempotency.lease-seconds:300}")
+    private long leaseSeconds;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate actionTransaction;
+
+    private final Map<String, Entry> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxCachedKeys;
+        }
+    };
+
+    @Autowired
+    public IdempotencyServiceImpl(IdempotencyRecordRepository idempotencyRecordRepository,
+                                  ObjectMapper objectMapper,
+                                  PlatformTransactionManager transactionManager) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.actionTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public <T> T execute(String scope, String key, Object request, Class<T> responseType, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new BusinessException("Idempotency-Key cannot exceed " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String id = scope + ":" + key;
+        String requestHash = hash(request);
+        // Millisecond precision so the stored claim time compares equal when completing it
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        Entry mine = new Entry(requestHash, now, now.plus(Duration.ofHours(ttlHours)));
+        Entry existing;
+        synchronized (cache) {
+            existing = cache.get(id);
+            if (existing != null && existing.expiresAt.isBefore(now)) {
+                existing = null;
+            }
+            if (existing == null) {
+                cache.put(id, mine);
+            }
+        }
+        if (existing != null) {
+            return await(existing, requestHash, responseType);
+        }
+
+        boolean claimed = false;
+        try {
+            Optional<String> stored = claim(id, requestHash, now, mine.expiresAt);
+            if (stored.isPresent()) {
+                mine.response.complete(stored.get());
+                return deserialize(stored.get(), responseType);
+            }
+            claimed = true;
+
+            // The action joins this transaction, so it commits together with the stored response
+            T result = actionTransaction.execute(status -> {
+                T value = action.get();
+                if (idempotencyRecordRepository.markCompleted(id, now, serialize(value)) == 0) {
+                    // Our lease ran out and another request took the key over; roll the action back
+                    throw inProgress();
+                }
+                return value;
+            });
+            mine.response.complete(serialize(result));
+            return result;
+        } catch (RuntimeException e) {
+            forget(id, mine, claimed);
+            mine.response.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:3600000}")
+    public int purgeExpired() {
+        Instant now = Instant.now();
+        synchronized (cache) {
+            cache.values().removeIf(entry -> entry.expiresAt.isBefore(now));
+        }
+        Integer deleted = transaction.execute(status -> idempotencyRecordRepository.deleteExpired(now));
+        if (deleted != null && deleted > 0) {
+            logger.info("Purged {} expired idempotency keys", deleted);
+        }
+        return deleted == null ? 0 : deleted;
+    }
+
+    /**
+     * Claims the key in the table. Returns the stored response when the key already completed,
+     * empty when this request now owns it.
+     */
+    private Optional<String> claim(String id, String requestHash, Instant now, Instant expiresAt) {
+        try {
+            return transaction.execute(status -> {
+                Optional<IdempotencyRecord> found = idempotencyRecordRepository.findById(id);
+                if (found.isPresent() && !found.get().getExpiresAt().isBefore(now)) {
+                    IdempotencyRecord record = found.get();
+                    if (!record.getRequestHash().equals(requestHash)) {
+                        throw keyReused();
+                    }
+                    if (COMPLETED.equals(record.getStatus())) {
+                        return Optional.of(record.getResponseBody());
+                    }
+                    // Conditional delete, so two requests cannot both take over the same stale claim
+                    Instant leaseStart = now.minusSeconds(leaseSeconds);
+                    if (record.getCreatedAt().isAfter(leaseStart)
+                            || idempotencyRecordRepository.deleteClaim(id, leaseStart) == 0) {
+                        throw inProgress();
+                    }
+                    logger.warn("Taking over idempotency key {} claimed at {}", id, record.getCreatedAt());
+                } else {
+                    found.ifPresent(idempotencyRecordRepository::delete);
+                }
+                idempotencyRecordRepository.flush();
+
+                IdempotencyRecord record = new IdempotencyRecord();
+                record.setId(id);
+                record.setRequestHash(requestHash);
+                record.setStatus(IN_PROGRESS);
+                record.setCreatedAt(now);
+                record.setExpiresAt(expiresAt);
+                idempotencyRecordRepository.saveAndFlush(record);
+                return Optional.empty();
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another instance claimed the key between our read and insert
+            throw inProgress();
+        }
+    }
+
+    private <T> T await(Entry existing, String requestHash, Class<T> responseType) {
+        if (!existing.requestHash.equals(requestHash)) {
+            throw keyReused();
+        }
+        try {
+            return deserialize(existing.response.get(waitTimeoutMs, TimeUnit.MILLISECONDS), responseType);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw inProgress();
+        } catch (TimeoutException e) {
+            throw inProgress();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void forget(String id, Entry entry, boolean claimed) {
+        synchronized (cache) {
+            cache.remove(id, entry);
+        }
+        // Only drop our own claim; without one the row belongs to another request
+        if (!claimed) {
+            return;
+        }
+        try {
+            transaction.executeWithoutResult(status -> idempotencyRecordRepository.deleteClaim(id, entry.claimedAt));
+        } catch (RuntimeException e) {
+            logger.warn("Failed to release idempotency key {}", id, e);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(serialize(request).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize idempotent response", e);
+        }
+    }
+
+    private <T> T deserialize(String body, Class<T> responseType) {
+        try {
+            return objectMapper.readValue(body, responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read stored idempotent response", e);
+        }
+    }
+
+    private BusinessException keyReused() {
+        return new BusinessException("Idempotency-Key was already used for a different request",
+                HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    private BusinessException inProgress() {
+        return new BusinessException("A request with this Idempotency-Key is still being processed",
+                HttpStatus.CONFLICT);
+    }
+
+    private static class Entry {
+        private final CompletableFuture<String> response = new CompletableFuture<>();
+        private final String requestHash;
+        private final Instant claimedAt;
+        private final Instant expiresAt;
+
+        private Entry(String requestHash, Instant claimedAt, Instant expiresAt) {
+            this.requestHash = requestHash;
+            this.claimedAt = claimedAt;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
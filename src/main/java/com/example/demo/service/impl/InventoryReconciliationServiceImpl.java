@@ -0,0 +1,417 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.dto.InventoryDriftDTO;
+import com.example.demo.dto.ReconciliationStatusDTO;
+import com.example.demo.entities.InventoryDrift;
+import com.example.demo.entities.InventoryReconciliationRun;
+import com.example.demo.entities.StoreInventory;
+import com.example.demo.repositories.ArchivedOrderDetailRepository;
+import com.example.demo.repositories.InventoryDriftRepository;
+import com.example.demo.repositories.InventoryReconciliationRunRepository;
+import com.example.demo.repositories.OrderDetailRepository;
+import com.example.demo.repositories.ReservedStockRepository;
+import com.example.demo.repositories.ReturnRepository;
+import com.example.demo.repositories.StoreInventoryRepository;
+import com.example.demo.repositories.StoreRepository;
+import com.example.demo.repositories.SupplyOrderRepository;
+import com.example.demo.service.BackInStockService;
+import com.example.demo.service.InventoryReconciliationService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Inventory reconciliation job.
+ *
+ * The (store, product) key space is partitioned by store and reconciled on a fork/join pool.
+ * For each store the expected quantity of every product is recomputed from its sources by
+ * streaming pre-aggregated rows:
+ *
+ *   expected = units received (supply orders handled by the store's employees)
+ *            - units sold (non-cancelled orders sold by the store's employees, hot and archived)
+ *            + units returned (returns against those orders)
+ *
+ * and compared with Store_Inventory. Keys whose quantity differs, or whose active reservations
+ * exceed the quantity on hand, are written to the drift report. When corrections are enabled,
+ * drifting rows are set to the expected quantity in batched updates, skipping rows that changed
+ * while the run was in progress.
+ */
+@Service
+public class InventoryReconciliationServiceImpl implements InventoryReconciliationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryReconciliationServiceImpl.class);
+
+    @Value("${app.reconciliation.enabled:true}")
+    private boolean scheduledEnabled;
+
+    @Value("${app.reconciliation.apply-corrections:false}")
+    private boolean scheduledApplyCorrections;
+
+    @Value("${app.reconciliation.parallelism:0}")
+    private int parallelism;
+
+    @Value("${app.reconciliation.batch-size:500}")
+    private int batchSize;
+
+    private final StoreRepository storeRepository;
+    private final StoreInventoryRepository storeInventoryRepository;
+    private final OrderDetailRepository orderDetailRepository;
+    private final ArchivedOrderDetailRepository archivedOrderDetailRepository;
+    private final ReturnRepository returnRepository;
+    private final SupplyOrderRepository supplyOrderRepository;
+    private final ReservedStockRepository reservedStockRepository;
+    private final InventoryReconciliationRunRepository runRepository;
+    private final InventoryDriftRepository driftRepository;
+    private final BackInStockService backInStockService;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate writeTransaction;
+
+    private final ExecutorService launcher = Executors.newSingleThreadExecutor();
+    private final AtomicReference<Progress> current = new AtomicReference<>();
+
+    @Autowired
+    public InventoryReconciliationServiceImpl(StoreRepository storeRepository,
+                                              StoreInventoryRepository storeInventoryRepository,
+                                              OrderDetailRepository orderDetailRepository,
+                                              ArchivedOrderDetailRepository archivedOrderDetailRepository,
+                                              ReturnRepository returnRepository,
+                                              SupplyOrderRepository supplyOrderRepository,
+                                              ReservedStockRepository reservedStockRepository,
+                                              InventoryReconciliationRunRepository runRepository,
+                                              InventoryDriftRepository driftRepository,
+                                              BackInStockService backInStockService,
+                                              PlatformTransactionManager transactionManager) {
+        this.storeRepository = storeRepository;
+        this.storeInventoryRepository = storeInventoryRepository;
+        this.orderDetailRepository = orderDetailRepository;
+        this.archivedOrderDetailRepository = archivedOrderDetailRepository;
+        this.returnRepository = returnRepository;
+        this.supplyOrderRepository = supplyOrderRepository;
+        this.reservedStockRepository = reservedStockRepository;
+        this.runRepository = runRepository;
+        this.driftRepository = driftRepository;
+        this.backInStockService = backInStockService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public synchronized Integer startReconciliation(boolean applyCorrections) {
+        Progress active = current.get();
+        if (active != null && active.finishedAt == null) {
+            throw new IllegalStateException("Reconciliation run " + active.runId + " is already in progress");
+        }
+
+        InventoryReconciliationRun run = new InventoryReconciliationRun();
+        run.setStartedAt(Instant.now());
+        run.setStatus("RUNNING");
+        run.setApplyCorrections(applyCorrections);
+        run = runRepository.save(run);
+
+        Progress progress = new Progress(run.getId(), applyCorrections, run.getStartedAt());
+        current.set(progress);
+        launcher.execute(() -> execute(progress));
+        return run.getId();
+    }
+
+    @Scheduled(cron = "${app.reconciliation.cron:0 30 2 * * *}")
+    public void scheduledReconciliation() {
+        if (!scheduledEnabled) {
+            return;
+        }
+        try {
+            Integer runId = startReconciliation(scheduledApplyCorrections);
+            logger.info("Started scheduled inventory reconciliation run {}", runId);
+        } catch (IllegalStateException e) {
+            logger.warn("Skipping scheduled inventory reconciliation: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public Optional<ReconciliationStatusDTO> getCurrentStatus() {
+        Progress progress = current.get();
+        if (progress != null) {
+            return Optional.of(progress.toDTO());
+        }
+        return runRepository.findTop20ByOrderByStartedAtDesc().stream()
+                .findFirst()
+                .map(ReconciliationStatusDTO::fromEntity);
+    }
+
+    @Override
+    public Optional<ReconciliationStatusDTO> getRun(Integer runId) {
+        Progress progress = current.get();
+        if (progress != null && progress.runId.equals(runId) && progress.finishedAt == null) {
+            return Optional.of(progress.toDTO());
+        }
+        return runRepository.findById(runId).map(ReconciliationStatusDTO::fromEntity);
+    }
+
+    @Override
+    public List<ReconciliationStatusDTO> getRecentRuns() {
+        return runRepository.findTop20ByOrderByStartedAtDesc().stream()
+                .map(ReconciliationStatusDTO::fromEntity)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Page<InventoryDriftDTO> getDriftReport(Integer runId, Integer storeId, Pageable pageable) {
+        Page<InventoryDrift> drifts = storeId != null
+                ? driftRepository.findByRunIdAndStoreId(runId, storeId, pageable)
+                : driftRepository.findByRunId(runId, pageable);
+        return drifts.map(InventoryDriftDTO::fromEntity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        launcher.shutdownNow();
+    }
+
+    private void execute(Progress progress) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        String status = "COMPLETED";
+        String errorMessage = null;
+        try {
+            List<Integer> storeIds = storeRepository.findAllIds();
+            progress.totalStores = storeIds.size();
+            pool.invoke(new StorePartition(progress, storeIds, 0, storeIds.size()));
+        } catch (RuntimeException e) {
+            logger.error("Inventory reconciliation run {} failed", progress.runId, e);
+            status = "FAILED";
+            errorMessage = e.getMessage() != null && e.getMessage().length() > 500
+                    ? e.getMessage().substring(0, 500)
+                    : e.getMessage();
+        } finally {
+            pool.shutdown();
+        }
+
+        progress.finishedAt = Instant.now();
+        progress.status = status;
+        progress.errorMessage = errorMessage;
+        InventoryReconciliationRun run = runRepository.findById(progress.runId).orElseThrow();
+        run.setFinishedAt(progress.finishedAt);
+        run.setStatus(status);
+        run.setStoresChecked(progress.storesChecked.get());
+        run.setKeysChecked(progress.keysChecked.get());
+        run.setDriftCount(progress.driftCount.get());
+        run.setCorrectionsApplied(progress.correctionsApplied.get());
+        run.setErrorMessage(errorMessage);
+        runRepository.save(run);
+        logger.info("Inventory reconciliation run {} {}: {} keys, {} drifts, {} corrections",
+                progress.runId, status.toLowerCase(), progress.keysChecked.get(),
+                progress.driftCount.get(), progress.correctionsApplied.get());
+    }
+
+    /**
+     * Splits the store list in halves until a single store remains, which is reconciled directly
+     */
+    private class StorePartition extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Progress progress;
+        private final List<Integer> storeIds;
+        private final int from;
+        private final int to;
+
+        private StorePartition(Progress progress, List<Integer> storeIds, int from, int to) {
+            this.progress = progress;
+            this.storeIds = storeIds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (from < to) {
+                    reconcileStore(progress, storeIds.get(from));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new StorePartition(progress, storeIds, from, middle),
+                    new StorePartition(progress, storeIds, middle, to));
+        }
+    }
+
+    private void reconcileStore(Progress progress, Integer storeId) {
+        List<InventoryDrift> drifts = readOnlyTransaction.execute(status -> computeDrifts(progress, storeId));
+        if (drifts != null && !drifts.isEmpty()) {
+            if (progress.applyCorrections) {
+                applyCorrections(progress, storeId, drifts);
+            }
+            InventoryReconciliationRun run = runRepository.getReferenceById(progress.runId);
+            for (int i = 0; i < drifts.size(); i += batchSize) {
+                List<InventoryDrift> batch = drifts.subList(i, Math.min(drifts.size(), i + batchSize));
+                batch.forEach(drift -> drift.setRun(run));
+                // IDs come from the pooled sequence, so the inserts go out as one JDBC batch
+                writeTransaction.executeWithoutResult(status -> driftRepository.saveAll(batch));
+            }
+            progress.driftCount.addAndGet(drifts.size());
+        }
+        progress.storesChecked.incrementAndGet();
+    }
+
+    private List<InventoryDrift> computeDrifts(Progress progress, Integer storeId) {
+        Map<Integer, Long> expected = new HashMap<>();
+        try (Stream<Object[]> rows = supplyOrderRepository.streamUnitsReceivedByStore(storeId)) {
+            rows.forEach(row -> expected.merge((Integer) row[0], ((Number) row[1]).longValue(), Long::sum));
+        }
+        try (Stream<Object[]> rows = orderDetailRepository.streamUnitsSoldByStore(storeId)) {
+            rows.forEach(row -> expected.merge((Integer) row[0], -((Number) row[1]).longValue(), Long::sum));
+        }
+        // Sales the order archive moved out of the hot tables still took their stock
+        try (Stream<Object[]> rows = archivedOrderDetailRepository.streamUnitsSoldByStore(storeId)) {
+            rows.forEach(row -> expected.merge((Integer) row[0], -((Number) row[1]).longValue(), Long::sum));
+        }
+        try (Stream<Object[]> rows = returnRepository.streamUnitsReturnedByStore(storeId)) {
+            rows.forEach(row -> expected.merge((Integer) row[0], ((Number) row[1]).longValue(), Long::sum));
+        }
+        Map<Integer, Long> reserved = new HashMap<>();
+        for (Object[] row : reservedStockRepository.sumActiveReservationsByProductForStore(storeId)) {
+            reserved.put((Integer) row[0], ((Number) row[1]).longValue());
+        }
+
+        List<InventoryDrift> drifts = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+        try (Stream<Object[]> rows = storeInventoryRepository.streamQuantitiesByStore(storeId)) {
+            rows.forEach(row -> {
+                Integer productId = (Integer) row[0];
+                seen.add(productId);
+                addIfDrifting(drifts, storeId, productId, (Integer) row[1],
+                        expected.getOrDefault(productId, 0L), reserved.getOrDefault(productId, 0L));
+                progress.keysChecked.incrementAndGet();
+            });
+        }
+        // Products with movements but no inventory row at all
+        expected.forEach((productId, quantity) -> {
+            if (!seen.contains(productId)) {
+                addIfDrifting(drifts, storeId, productId, 0, quantity, reserved.getOrDefault(productId, 0L));
+                progress.keysChecked.incrementAndGet();
+            }
+        });
+        return drifts;
+    }
+
+    private void addIfDrifting(List<InventoryDrift> drifts, Integer storeId, Integer productId,
+                               int actual, long expected, long reserved) {
+        boolean overReserved = reserved > actual;
+        if (actual == expected && !overReserved) {
+            return;
+        }
+        InventoryDrift drift = new InventoryDrift();
+        drift.setStoreId(storeId);
+        drift.setProductId(productId);
+        drift.setActualQuantity(actual);
+        drift.setExpectedQuantity((int) expected);
+        drift.setReservedQuantity((int) reserved);
+        drift.setDrift((int) (actual - expected));
+        drift.setOverReserved(overReserved);
+        drift.setCorrected(false);
+        drifts.add(drift);
+    }
+
+    private void applyCorrections(Progress progress, Integer storeId, List<InventoryDrift> drifts) {
+        // A negative expectation means the sources themselves are inconsistent; leave those for review
+        Map<Integer, InventoryDrift> correctable = new HashMap<>();
+        for (InventoryDrift drift : drifts) {
+            if (drift.getDrift() != 0 && drift.getExpectedQuantity() >= 0) {
+                correctable.put(drift.getProductId(), drift);
+            }
+        }
+
+        List<Integer> productIds = new ArrayList<>(correctable.keySet());
+        for (int i = 0; i < productIds.size(); i += batchSize) {
+            List<Integer> chunk = productIds.subList(i, Math.min(productIds.size(), i + batchSize));
+            int corrected = writeTransaction.execute(status -> {
+                int count = 0;
+                for (StoreInventory inventory : storeInventoryRepository.findByStoreIdAndProductIdIn(storeId, chunk)) {
+                    InventoryDrift drift = correctable.get(inventory.getProduct().getId());
+                    // Skip rows that moved since they were read
+                    if (inventory.getQuantity().equals(drift.getActualQuantity())) {
+                        inventory.setQuantity(drift.getExpectedQuantity());
+                        drift.setCorrected(true);
+                        backInStockService.stockChanged(storeId, drift.getProductId(),
+                                drift.getActualQuantity(), drift.getExpectedQuantity());
+                        count++;
+                    }
+                }
+                // Dirty entities are flushed as one JDBC batch on commit
+                return count;
+            });
+            progress.correctionsApplied.addAndGet(corrected);
+        }
+    }
+
+    /**
+     * Live counters of a run, readable while the fork/join workers update them
+     */
+    private static class Progress {
+        private final Integer runId;
+        private final boolean applyCorrections;
+        private final Instant startedAt;
+        private final AtomicInteger storesChecked = new AtomicInteger();
+        private final AtomicLong keysChecked = new AtomicLong();
+        private final AtomicInteger driftCount = new AtomicInteger();
+        private final AtomicInteger correctionsApplied = new AtomicInteger();
+        private volatile int totalStores;
+        private volatile Instant finishedAt;
+        private volatile String status = "RUNNING";
+        private volatile String errorMessage;
+
+        private Progress(Integer runId, boolean applyCorrections, Instant startedAt) {
+            this.runId = runId;
+            this.applyCorrections = applyCorrections;
+            this.startedAt = startedAt;
+        }
+
+        private ReconciliationStatusDTO toDTO() {
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            long elapsedMs = end.toEpochMilli() - startedAt.toEpochMilli();
+            long keys = keysChecked.get();
+            return ReconciliationStatusDTO.builder()
+                    .runId(runId)
+                    .status(status)
+                    .applyCorrections(applyCorrections)
+                    .totalStores(totalStores)
+                    .storesChecked(storesChecked.get())
+                    .keysChecked(keys)
+                    .driftCount(driftCount.get())
+                    .correctionsApplied(correctionsApplied.get())
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .elapsedMs(elapsedMs)
+                    .keysPerSecond(elapsedMs > 0 ? keys * 1000.0 / elapsedMs : 0.0)
+                    .errorMessage(errorMessage)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.demo.service.impl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Finds texts that are near-copies of recently added ones.
+ *
+ * Each text is cut into overlapping word shingles and summarized by a MinHash signature, whose
+ * share of equal values estimates the Jaccard similarity of two shingle sets. Signatures are split
+ * into bands that are hashed into buckets, so only texts sharing a whole band are compared: with
+ * 8 bands of 4 rows a pair at 0.8 similarity is a candidate 96% of the time, one at 0.3 under 7%.
+ * Texts with fewer than minWords words are ignored, since short reviews like "Great product" are
+ * legitimately the same.
+ *
+ * Holds the last capacity texts, evicting the oldest. Thread-safe.
+ */
+public class NearDuplicateIndex {
+
+    private static final int SHINGLE_WORDS = 3;
+    private static final int BANDS = 8;
+    private static final int ROWS = 4;
+    private static final int SIGNATURE_SIZE = BANDS * ROWS;
+
+    private final int capacity;
+    private final int minWords;
+    private final double threshold;
+
+    private final Map<Integer, int[]> signatures = new HashMap<>();
+    private final Map<Long, List<Integer>> buckets = new HashMap<>();
+    private final ArrayDeque<Integer> order = new ArrayDeque<>();
+
+    /**
+     * @param capacity  number of texts remembered
+     * @param minWords  shorter texts are neither added nor reported
+     * @param threshold estimated similarity from which a text is a duplicate
+     */
+    public NearDuplicateIndex(int capacity, int minWords, double threshold) {
+        if (capacity < 1 || minWords < SHINGLE_WORDS) {
+            throw new IllegalArgumentException("Capacity must be positive and at least " + SHINGLE_WORDS + " words required");
+        }
+        if (!(threshold > 0 && threshold <= 1)) {
+            throw new IllegalArgumentException("Threshold must be between 0 and 1");
+        }
+        this.capacity = capacity;
+        this.minWords = minWords;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Adds or replaces the text of an ID, returning the ID of a remembered near-copy or -1.
+     */
+    public synchronized int add(int id, String text) {
+        remove(id);
+        int[] signature = signature(text);
+        if (signature == null) {
+            return -1;
+        }
+
+        int duplicate = -1;
+        double best = threshold;
+        for (int band = 0; band < BANDS && duplicate < 0; band++) {
+            List<Integer> bucket = buckets.get(bandKey(signature, band));
+            if (bucket == null) {
+                continue;
+            }
+            for (int candidate : bucket) {
+                double similarity = similarity(signature, signatures.get(candidate));
+                if (similarity >= best) {
+                    best = similarity;
+                    duplicate = candidate;
+                }
+            }
+        }
+
+        signatures.put(id, signature);
+        order.addLast(id);
+        for (int band = 0; band < BANDS; band++) {
+            buckets.computeIfAbsent(bandKey(signature, band), key -> new ArrayList<>(1)).add(id);
+        }
+        while (signatures.size() > capacity) {
+            remove(order.peekFirst());
+        }
+        return duplicate;
+    }
+
+    public synchronized void remove(int id) {
+        int[] signature = signatures.remove(id);
+        if (signature == null) {
+            return;
+        }
+        order.remove(id);
+        for (int band = 0; band < BANDS; band++) {
+            long key = bandKey(signature, band);
+            List<Integer> bucket = buckets.get(key);
+            bucket.remove(Integer.valueOf(id));
+            if (bucket.isEmpty()) {
+                buckets.remove(key);
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return signatures.size();
+    }
+
+    // Minimum over the shingles of each of SIGNATURE_SIZE hash functions, or null for a short text
+    private int[] signature(String text) {
+        if (text == null) {
+            return null;
+        }
+        String[] words = text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+");
+        List<String> tokens = new ArrayList<>(words.length);
+        for (String word : words) {
+            if (!word.isEmpty()) {
+                tokens.add(word);
+            }
+        }
+        if (tokens.size() < minWords) {
+            return null;
+        }
+
+        int[] signature = new int[SIGNATURE_SIZE];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (int start = 0; start + SHINGLE_WORDS <= tokens.size(); start++) {
+            long shingle = 0xCBF29CE484222325L;
+            for (int i = start; i < start + SHINGLE_WORDS; i++) {
+                String token = tokens.get(i);
+                for (int c = 0; c < token.length(); c++) {
+                    shingle = (shingle ^ token.charAt(c)) * 0x100000001B3L;
+                }
+                shingle = (shingle ^ ' ') * 0x100000001B3L;
+            }
+            for (int row = 0; row < SIGNATURE_SIZE; row++) {
+                int value = (int) (mix(shingle + row * 0x9E3779B97F4A7C15L) >>> 33);
+                if (value < signature[row]) {
+                    signature[row] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    private static long bandKey(int[] signature, int band) {
+        long key = band;
+        for (int row = band * ROWS; row < (band + 1) * ROWS; row++) {
+            key = mix(key * 31 + signature[row]);
+        }
+        return key;
+    }
+
+    private static double similarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / SIGNATURE_SIZE;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
@@ -4,22 +4,56 @@ import com.example.demo.entities.*;
 import com.example.demo.repositories.*;
 import com.example.demo.service.NotificationService;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Notification management.
+ *
+ * Messages are searched through a {@link TextIndex} kept in memory the same way as review
+ * comments: built at startup, rebuilt every app.notifications.search.rebuild-interval-ms and
+ * updated after each created or deleted notification commits.
+ */
 @Service
 @RequiredArgsConstructor
 public class NotificationServiceImpl implements NotificationService {
 
+    private static final Logger logger = LoggerFactory.getLogger(NotificationServiceImpl.class);
+
     private final NotificationRepository notificationRepository;
     private final CustomerRepository customerRepository;
     private final StoreRepository storeRepository;
     private final ProductRepository productRepository;
     private final EmployeeRepository employeeRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final Object searchLock = new Object();
+    // Null until the first build
+    private volatile TextIndex searchIndex;
+    // Changes committed while a rebuild runs, replayed onto the new index; guarded by searchLock
+    private List<SearchUpdate> pendingUpdates;
 
     @Override
     @Transactional
@@ -47,7 +81,23 @@ public class NotificationServiceImpl implements NotificationService {
             return null;
         }
 
-        return notificationRepository.save(notification);
+        Notification saved = notificationRepository.save(notification);
+        updateAfterCommit(List.of(SearchUpdate.of(saved)));
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public List<Notification> createNotifications(List<Notification> notifications) {
+        for (Notification notification : notifications) {
+            if (notification.getSentDate() == null) {
+                notification.setSentDate(LocalDate.now());
+            }
+        }
+        // Relationships are the caller's to check, a per-row lookup would defeat the batch
+        notificationRepository.insertAll(notifications);
+        updateAfterCommit(notifications.stream().map(SearchUpdate::of).toList());
+        return notifications;
     }
 
     @Override
@@ -108,11 +158,110 @@ public class NotificationServiceImpl implements NotificationService {
     @Transactional
     public void deleteNotification(Integer notificationId) {
         notificationRepository.deleteById(notificationId);
+        updateAfterCommit(List.of(new SearchUpdate(notificationId, 0, null)));
     }
 
     @Override
     public List<Notification> searchNotifications(String searchTerm) {
-        return notificationRepository.searchByMessage(searchTerm);
+        return searchNotifications(searchTerm, null, Pageable.unpaged()).getContent();
+    }
+
+    @Override
+    public Page<Notification> searchNotifications(String query, Integer customerId, Pageable pageable) {
+        // Customer ID, or 0 for notifications without a customer
+        LongPredicate filter = attributes -> customerId == null || attributes == customerId;
+
+        TextIndex index = searchIndex;
+        if (index == null) {
+            List<Notification> matches = notificationRepository.searchByMessage(query).stream()
+                    .filter(notification -> customerId == null || (notification.getCustomer() != null
+                            && customerId.equals(notification.getCustomer().getId())))
+                    .toList();
+            int from = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), matches.size()) : 0;
+            int to = pageable.isPaged() ? Math.min(from + pageable.getPageSize(), matches.size()) : matches.size();
+            return new PageImpl<>(matches.subList(from, to), pageable, matches.size());
+        }
+
+        TextIndex.Result result = pageable.isPaged()
+                ? index.search(query, filter, (int) pageable.getOffset(), pageable.getPageSize())
+                : index.search(query, filter, 0, Integer.MAX_VALUE);
+        List<Integer> ids = Arrays.stream(result.ids()).boxed().toList();
+        Map<Integer, Notification> notifications = ids.isEmpty() ? Map.of()
+                : notificationRepository.findAllById(ids).stream()
+                        .collect(Collectors.toMap(Notification::getId, Function.identity()));
+        List<Notification> content = ids.stream().map(notifications::get).filter(Objects::nonNull).toList();
+        return new PageImpl<>(content, pageable, result.total());
+    }
+
+    @Scheduled(fixedDelayString = "${app.notifications.search.rebuild-interval-ms:21600000}")
+    public void rebuildSearchIndex() {
+        synchronized (searchLock) {
+            pendingUpdates = new ArrayList<>();
+        }
+        try {
+            long started = System.currentTimeMillis();
+            TextIndex index = new TextIndex();
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            readOnly.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = notificationRepository.streamSearchRows()) {
+                    rows.forEach(row -> index.put((Integer) row[0], (String) row[2],
+                            row[1] != null ? (Integer) row[1] : 0));
+                }
+            });
+            synchronized (searchLock) {
+                pendingUpdates.forEach(update -> update.applyTo(index));
+                searchIndex = index;
+            }
+            logger.info("Indexed {} notifications for search in {} ms", index.size(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            logger.error("Failed to build the notification search index", e);
+        } finally {
+            synchronized (searchLock) {
+                pendingUpdates = null;
+            }
+        }
+    }
+
+    private void updateAfterCommit(List<SearchUpdate> updates) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyUpdates(updates);
+                }
+            });
+        } else {
+            applyUpdates(updates);
+        }
+    }
+
+    private void applyUpdates(List<SearchUpdate> updates) {
+        synchronized (searchLock) {
+            if (pendingUpdates != null) {
+                pendingUpdates.addAll(updates);
+            }
+            TextIndex index = searchIndex;
+            if (index != null) {
+                updates.forEach(update -> update.applyTo(index));
+            }
+        }
+    }
+
+    // A notification to index under its customer ID, or to remove when text is null
+    private record SearchUpdate(int id, long attributes, String text) {
+        private static SearchUpdate of(Notification notification) {
+            return new SearchUpdate(notification.getId(),
+                    notification.getCustomer() != null ? notification.getCustomer().getId() : 0, notification.getMessage());
+        }
+
+        private void applyTo(TextIndex index) {
+            if (text != null) {
+                index.put(id, text, attributes);
+            } else {
+                index.remove(id);
+            }
+        }
     }
 
     @Override
@@ -0,0 +1,183 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.dto.OrderHistoryDTO;
+import com.example.demo.entities.OrderArchiveState;
+import com.example.demo.repositories.ArchivedCustomerOrderRepository;
+import com.example.demo.repositories.ArchivedOrderDetailRepository;
+import com.example.demo.repositories.ArchivedShippingRepository;
+import com.example.demo.repositories.CustomerOrderRepository;
+import com.example.demo.repositories.OrderArchiveStateRepository;
+import com.example.demo.repositories.OrderDetailRepository;
+import com.example.demo.repositories.ShippingRepository;
+import com.example.demo.service.OrderArchiveService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves closed orders older than app.order-archive.horizon-days, with their details and shipments,
+ * into the archive tables.
+ *
+ * Each chunk is copied with INSERT ... SELECT and deleted from the hot tables in its own short
+ * transaction, with a pause between chunks so the run yields to live traffic. The archive boundary
+ * is advanced before anything moves, so a history query never skips the archive for a range that
+ * may already be there. Orders with returns stay hot, since returns reference them.
+ */
+@Service
+public class OrderArchiveServiceImpl implements OrderArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderArchiveServiceImpl.class);
+    private static final Integer STATE_ID = 1;
+
+    @Value("${app.order-archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.order-archive.horizon-days:180}")
+    private int horizonDays;
+
+    @Value("${app.order-archive.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.order-archive.chunk-pause-ms:50}")
+    private long chunkPauseMs;
+
+    @Value("${app.order-archive.closed-statuses:COMPLETED,DELIVERED,CANCELLED}")
+    private List<String> closedStatuses;
+
+    private final CustomerOrderRepository customerOrderRepository;
+    private final OrderDetailRepository orderDetailRepository;
+    private final ShippingRepository shippingRepository;
+    private final ArchivedCustomerOrderRepository archivedOrderRepository;
+    private final ArchivedOrderDetailRepository archivedOrderDetailRepository;
+    private final ArchivedShippingRepository archivedShippingRepository;
+    private final OrderArchiveStateRepository stateRepository;
+    private final TransactionTemplate writeTransaction;
+
+    private final ReentrantLock runLock = new ReentrantLock();
+
+    @Autowired
+    public OrderArchiveServiceImpl(CustomerOrderRepository customerOrderRepository,
+                                   OrderDetailRepository orderDetailRepository,
+                                   ShippingRepository shippingRepository,
+                                   ArchivedCustomerOrderRepository archivedOrderRepository,
+                                   ArchivedOrderDetailRepository archivedOrderDetailRepository,
+                                   ArchivedShippingRepository archivedShippingRepository,
+                                   OrderArchiveStateRepository stateRepository,
+                                   PlatformTransactionManager transactionManager) {
+        this.customerOrderRepository = customerOrderRepository;
+        this.orderDetailRepository = orderDetailRepository;
+        this.shippingRepository = shippingRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.archivedOrderDetailRepository = archivedOrderDetailRepository;
+        this.archivedShippingRepository = archivedShippingRepository;
+        this.stateRepository = stateRepository;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${app.order-archive.cron:0 0 3 * * *}")
+    public void archiveNightly() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            archiveClosedOrders();
+        } catch (IllegalStateException e) {
+            logger.info("Skipping the nightly order archive: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public int archiveClosedOrders() {
+        if (!runLock.tryLock()) {
+            throw new IllegalStateException("An order archive run is already in progress");
+        }
+        try {
+            LocalDate cutoff = LocalDate.now().minusDays(horizonDays);
+            writeTransaction.executeWithoutResult(status -> {
+                OrderArchiveState state = stateRepository.findById(STATE_ID).orElseGet(() -> {
+                    OrderArchiveState created = new OrderArchiveState();
+                    created.setId(STATE_ID);
+                    created.setArchivedBefore(cutoff);
+                    return created;
+                });
+                if (cutoff.isAfter(state.getArchivedBefore())) {
+                    state.setArchivedBefore(cutoff);
+                }
+                stateRepository.save(state);
+            });
+
+            int total = 0;
+            int moved;
+            do {
+                Integer chunk = writeTransaction.execute(status -> moveChunk(cutoff));
+                moved = chunk == null ? 0 : chunk;
+                total += moved;
+                if (moved == chunkSize && chunkPauseMs > 0) {
+                    Thread.sleep(chunkPauseMs);
+                }
+            } while (moved == chunkSize);
+
+            logger.info("Archived {} orders purchased before {}", total, cutoff);
+            return total;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Order archive run was interrupted", e);
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderHistoryDTO> getOrderHistory(Integer customerId, String status, LocalDate from, LocalDate to) {
+        if (customerId == null && from == null) {
+            throw new IllegalArgumentException("A customer ID or a start date is required");
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("Start date cannot be after end date");
+        }
+        return customerOrderRepository.findHistory(customerId, status, from, to);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<OrderHistoryDTO> findOrder(Integer orderId) {
+        if (orderId == null) {
+            throw new IllegalArgumentException("Order ID cannot be null");
+        }
+        return customerOrderRepository.findHistoryById(orderId);
+    }
+
+    private int moveChunk(LocalDate cutoff) {
+        List<Integer> orderIds = customerOrderRepository.findArchivableIds(cutoff, closedStatuses,
+                PageRequest.of(0, chunkSize));
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        archivedOrderRepository.copyFromHot(orderIds);
+        archivedOrderDetailRepository.copyFromHot(orderIds);
+        archivedShippingRepository.copyFromHot(orderIds);
+        shippingRepository.deleteAllByOrderIds(orderIds);
+        orderDetailRepository.deleteAllByOrderIds(orderIds);
+        int deleted = customerOrderRepository.deleteByIds(orderIds);
+
+        stateRepository.findById(STATE_ID).ifPresent(state -> {
+            state.setOrdersArchived(state.getOrdersArchived() + deleted);
+            state.setLastRunAt(Instant.now());
+        });
+        return orderIds.size();
+    }
+}
@@ -3,6 +3,8 @@ package com.example.demo.service.impl;
 import com.example.demo.entities.*;
 import com.example.demo.repositories.*;
 import com.example.demo.service.OrderDetailService;
+import com.example.demo.service.OrderSummaryService;
+import com.example.demo.service.SalesRollupService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -18,12 +20,15 @@ public class OrderDetailServiceImpl implements OrderDetailService {
     private final OrderDetailRepository orderDetailRepository;
     private final CustomerOrderRepository orderRepository;
     private final ProductRepository productRepository;
+    private final SalesRollupService salesRollupService;
+    private final OrderSummaryService orderSummaryService;
 
     @Override
     @Transactional
     public OrderDetail saveOrderDetail(OrderDetail orderDetail) {
         // Validate order exists
-        if (!orderRepository.existsById(orderDetail.getOrder().getId())) {
+        Optional<CustomerOrder> order = orderRepository.findById(orderDetail.getOrder().getId());
+        if (order.isEmpty()) {
             return null;
         }
 
@@ -56,7 +61,11 @@ public class OrderDetailServiceImpl implements OrderDetailService {
         id.setProductId(orderDetail.getProduct().getId());
         orderDetail.setId(id);
 
-        return orderDetailRepository.save(orderDetail);
+        // Saving over an existing line replaces it
+        OrderDetail previous = orderDetailRepository.findById(id).map(OrderDetailServiceImpl::copyOf).orElse(null);
+        OrderDetail saved = orderDetailRepository.save(orderDetail);
+        lineChanged(order.get(), previous, saved);
+        return saved;
     }
 
     @Override
@@ -88,23 +97,40 @@ public class OrderDetailServiceImpl implements OrderDetailService {
             return null;
         }
 
-        orderDetailRepository.updateQuantity(orderId, productId, quantity);
-        
-        // Refresh the entity to get updated values
-        return orderDetailRepository.findByOrderIdAndProductId(orderId, productId).orElse(null);
+        // Update the managed line so the line total follows the quantity and the change can be recorded
+        OrderDetail orderDetail = orderDetailOpt.get();
+        OrderDetail previous = copyOf(orderDetail);
+        BigDecimal discount = orderDetail.getDiscountAmount() != null
+                ? orderDetail.getDiscountAmount() : BigDecimal.ZERO;
+        orderDetail.setQuantity(quantity);
+        orderDetail.setFinalPrice(orderDetail.getOriginalPrice()
+                .subtract(discount)
+                .multiply(BigDecimal.valueOf(quantity)));
+        lineChanged(orderDetail.getOrder(), previous, orderDetail);
+        return orderDetail;
     }
 
     @Override
     @Transactional
     public void deleteOrderDetail(Integer orderId, Integer productId) {
+        Optional<OrderDetail> orderDetail = orderDetailRepository.findByOrderIdAndProductId(orderId, productId);
+        if (orderDetail.isEmpty()) {
+            return;
+        }
+        lineChanged(orderDetail.get().getOrder(), copyOf(orderDetail.get()), null);
         orderDetailRepository.deleteByOrderIdAndProductId(orderId, productId);
     }
 
     @Override
     @Transactional
     public void deleteAllOrderDetailsForOrder(Integer orderId) {
-        if (orderRepository.existsById(orderId)) {
+        Optional<CustomerOrder> order = orderRepository.findById(orderId);
+        if (order.isPresent()) {
+            for (OrderDetail orderDetail : orderDetailRepository.findByOrderId(orderId)) {
+                salesRollupService.recordLineChange(order.get(), copyOf(orderDetail), null);
+            }
             orderDetailRepository.deleteAllByOrderId(orderId);
+            orderSummaryService.markChanged(orderId);
         }
     }
 
@@ -123,4 +149,22 @@ public class OrderDetailServiceImpl implements OrderDetailService {
         }
         return orderDetailRepository.getTotalRevenueForProduct(productId);
     }
+
+    // Line changes reach the product rollups and the order's summary document once the transaction commits
+    private void lineChanged(CustomerOrder order, OrderDetail previous, OrderDetail current) {
+        salesRollupService.recordLineChange(order, previous, current);
+        orderSummaryService.markChanged(order.getId());
+    }
+
+    // The values a line had before a change; the managed entity is updated in place
+    private static OrderDetail copyOf(OrderDetail orderDetail) {
+        OrderDetail copy = new OrderDetail();
+        copy.setId(orderDetail.getId());
+        copy.setProduct(orderDetail.getProduct());
+        copy.setQuantity(orderDetail.getQuantity());
+        copy.setOriginalPrice(orderDetail.getOriginalPrice());
+        copy.setDiscountAmount(orderDetail.getDiscountAmount());
+        copy.setFinalPrice(orderDetail.getFinalPrice());
+        return copy;
+    }
 }
\ No newline at end of file
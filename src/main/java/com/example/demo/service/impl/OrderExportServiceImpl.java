@@ -0,0 +1,284 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.entities.OrderArchiveState;
+import com.example.demo.repositories.ArchivedCustomerOrderRepository;
+import com.example.demo.repositories.CustomerOrderRepository;
+import com.example.demo.repositories.OrderArchiveStateRepository;
+import com.example.demo.service.OrderExportService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Streams orders and their lines for accounting exports.
+ *
+ * Rows are read through forward-only cursors as flat projections, so no entity enters the
+ * persistence context, and are written to a buffered writer as they arrive; memory use does not
+ * depend on the size of the range. Archived orders are streamed first when the range reaches
+ * before the archive boundary. Both reads share one read-only transaction so an archive run
+ * cannot move orders between them.
+ */
+@Service
+public class OrderExportServiceImpl implements OrderExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderExportServiceImpl.class);
+    private static final Integer ARCHIVE_STATE_ID = 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String[] CSV_HEADER = {
+            "order_id", "purchase_date", "status", "customer_id", "employee_seller_id", "store_id",
+            "payment_method_id", "address_id", "promotion_code", "order_total", "product_id", "quantity",
+            "unit_price", "unit_discount", "line_total"
+    };
+
+    private final CustomerOrderRepository customerOrderRepository;
+    private final ArchivedCustomerOrderRepository archivedOrderRepository;
+    private final OrderArchiveStateRepository archiveStateRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Autowired
+    public OrderExportServiceImpl(CustomerOrderRepository customerOrderRepository,
+                                  ArchivedCustomerOrderRepository archivedOrderRepository,
+                                  OrderArchiveStateRepository archiveStateRepository,
+                                  ObjectMapper objectMapper,
+                                  PlatformTransactionManager transactionManager) {
+        this.customerOrderRepository = customerOrderRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.archiveStateRepository = archiveStateRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public int exportOrders(LocalDate from, LocalDate to, Format format, OutputStream out) throws IOException {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Start date and end date cannot be null");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Start date cannot be after end date");
+        }
+        if (format == null) {
+            throw new IllegalArgumentException("Format cannot be null");
+        }
+
+        long startedAt = System.nanoTime();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        RowWriter rows = format == Format.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+        try {
+            Integer orders = readOnlyTransaction.execute(status -> {
+                try {
+                    rows.begin();
+                    Optional<LocalDate> archivedBefore = archiveStateRepository.findById(ARCHIVE_STATE_ID)
+                            .map(OrderArchiveState::getArchivedBefore);
+                    if (archivedBefore.isPresent() && from.isBefore(archivedBefore.get())) {
+                        try (Stream<Object[]> stream = archivedOrderRepository.streamExportRows(from, to)) {
+                            write(stream, rows);
+                        }
+                    }
+                    try (Stream<Object[]> stream = customerOrderRepository.streamExportRows(from, to)) {
+                        write(stream, rows);
+                    }
+                    rows.end();
+                    return rows.orders;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+            logger.info("Exported {} orders from {} to {} as {} in {} ms", orders, from, to, format,
+                    (System.nanoTime() - startedAt) / 1_000_000);
+            return orders == null ? 0 : orders;
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; the cursor is closed with the transaction
+            throw e.getCause();
+        }
+    }
+
+    private void write(Stream<Object[]> stream, RowWriter rows) throws IOException {
+        Iterator<Object[]> iterator = stream.iterator();
+        while (iterator.hasNext()) {
+            rows.write(iterator.next());
+        }
+    }
+
+    /**
+     * Receives the rows of one or more streams, each ordered by order ID, and counts orders.
+     */
+    private abstract static class RowWriter {
+        protected final Writer writer;
+        protected Object currentOrderId;
+        protected int orders;
+
+        RowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        void write(Object[] row) throws IOException {
+            boolean newOrder = !Objects.equals(row[0], currentOrderId);
+            if (newOrder) {
+                currentOrderId = row[0];
+                orders++;
+            }
+            write(row, newOrder);
+        }
+
+        abstract void begin() throws IOException;
+
+        abstract void write(Object[] row, boolean newOrder) throws IOException;
+
+        abstract void end() throws IOException;
+    }
+
+    private static class CsvRowWriter extends RowWriter {
+
+        CsvRowWriter(Writer writer) {
+            super(writer);
+        }
+
+        @Override
+        void begin() throws IOException {
+            writer.write(String.join(",", CSV_HEADER));
+            writer.write("\r\n");
+        }
+
+        @Override
+        void write(Object[] row, boolean newOrder) throws IOException {
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeValue(row[i]);
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        void end() {
+        }
+
+        private void writeValue(Object value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            if (value instanceof BigDecimal decimal) {
+                writer.write(decimal.toPlainString());
+                return;
+            }
+            String text = value.toString();
+            if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+                writer.write(text);
+                return;
+            }
+            writer.write('"');
+            writer.write(text.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    private class NdjsonRowWriter extends RowWriter {
+        private JsonGenerator generator;
+        private boolean open;
+
+        NdjsonRowWriter(Writer writer) {
+            super(writer);
+        }
+
+        @Override
+        void begin() throws IOException {
+            generator = objectMapper.getFactory().createGenerator(writer);
+            // Orders are separated by newlines written here, and flushing stops at the buffered writer
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        void write(Object[] row, boolean newOrder) throws IOException {
+            if (newOrder) {
+                closeOrder();
+                generator.writeStartObject();
+                generator.writeNumberField("orderId", ((Number) row[0]).intValue());
+                writeStringField("purchaseDate", row[1]);
+                writeStringField("status", row[2]);
+                writeIntField("customerId", row[3]);
+                writeIntField("employeeSellerId", row[4]);
+                writeIntField("storeId", row[5]);
+                writeIntField("paymentMethodId", row[6]);
+                writeIntField("addressId", row[7]);
+                writeStringField("promotionCode", row[8]);
+                writeDecimalField("total", row[9]);
+                generator.writeArrayFieldStart("lines");
+                open = true;
+            }
+            if (row[10] != null) {
+                generator.writeStartObject();
+                writeIntField("productId", row[10]);
+                writeIntField("quantity", row[11]);
+                writeDecimalField("unitPrice", row[12]);
+                writeDecimalField("unitDiscount", row[13]);
+                writeDecimalField("lineTotal", row[14]);
+                generator.writeEndObject();
+            }
+        }
+
+        @Override
+        void end() throws IOException {
+            closeOrder();
+            generator.flush();
+        }
+
+        private void closeOrder() throws IOException {
+            if (open) {
+                generator.writeEndArray();
+                generator.writeEndObject();
+                generator.flush();
+                writer.write('\n');
+                open = false;
+            }
+        }
+
+        private void writeStringField(String name, Object value) throws IOException {
+            if (value == null) {
+                generator.writeNullField(name);
+            } else {
+                generator.writeStringField(name, value.toString());
+            }
+        }
+
+        private void writeIntField(String name, Object value) throws IOException {
+            if (value == null) {
+                generator.writeNullField(name);
+            } else {
+                generator.writeNumberField(name, ((Number) value).intValue());
+            }
+        }
+
+        private void writeDecimalField(String name, Object value) throws IOException {
+            if (value == null) {
+                generator.writeNullField(name);
+            } else {
+                generator.writeNumberField(name, (BigDecimal) value);
+            }
+        }
+    }
+}
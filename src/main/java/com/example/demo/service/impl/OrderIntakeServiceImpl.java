@@ -0,0 +1,497 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.dto.OrderIntakeRequestDTO;
+import com.example.demo.dto.OrderIntakeStatusDTO;
+import com.example.demo.entities.CustomerOrder;
+import com.example.demo.entities.Employee;
+import com.example.demo.entities.OrderDetail;
+import com.example.demo.entities.OrderDetailId;
+import com.example.demo.entities.Product;
+import com.example.demo.entities.Promotion;
+import com.example.demo.exception.BusinessException;
+import com.example.demo.repositories.AddressRepository;
+import com.example.demo.repositories.CustomerOrderRepository;
+import com.example.demo.repositories.CustomerRepository;
+import com.example.demo.repositories.OrderDetailRepository;
+import com.example.demo.repositories.PaymentMethodRepository;
+import com.example.demo.repositories.ProductRepository;
+import com.example.demo.repositories.StoreInventoryRepository;
+import com.example.demo.repositories.StoreRepository;
+import com.example.demo.service.OrderIntakeService;
+import com.example.demo.service.PromotionRuleService;
+import com.example.demo.service.PromotionService;
+import com.example.demo.service.DistinctCountService;
+import com.example.demo.service.OrderSummaryService;
+import com.example.demo.service.PurchaseIndexService;
+import com.example.demo.service.SalesRollupService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Asynchronous order intake.
+ *
+ * Accepted orders wait in a bounded queue; when it is full, submit fails with 429 so the API sheds
+ * load instead of tying up request threads on inventory locks. Worker threads drain the queue in
+ * micro-batches. Reference data (products, seller stores, promotions) is resolved once per batch,
+ * and the orders of a batch are grouped by the seller's store so that each group decrements its
+ * stock with one UPDATE over the summed quantity per SKU and inserts its orders and details in one
+ * transaction. When a group runs short of stock, its orders are retried one by one so only the
+ * orders that cannot be filled are rejected.
+ *
+ * Outcomes are kept in memory for polling until app.order-intake.retention-minutes after they finish.
+ * On shutdown, intake stops accepting orders and the queue is drained before the context closes,
+ * for up to app.order-intake.shutdown-timeout-seconds, so acknowledged orders are still placed.
+ */
+@Service
+public class OrderIntakeServiceImpl implements OrderIntakeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderIntakeServiceImpl.class);
+    private static final long MAX_WAIT_MS = 30_000;
+
+    @Value("${app.order-intake.capacity:10000}")
+    private int capacity;
+
+    @Value("${app.order-intake.workers:4}")
+    private int workers;
+
+    @Value("${app.order-intake.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.order-intake.retention-minutes:60}")
+    private long retentionMinutes;
+
+    @Value("${app.order-intake.shutdown-timeout-seconds:30}")
+    private long shutdownTimeoutSeconds;
+
+    // Seller online orders are booked on when the request does not name one
+    @Value("${app.checkout.online-seller-id:#{null}}")
+    private Integer onlineSellerId;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ProductRepository productRepository;
+    private final CustomerRepository customerRepository;
+    private final CustomerOrderRepository orderRepository;
+    private final OrderDetailRepository orderDetailRepository;
+    private final StoreInventoryRepository storeInventoryRepository;
+    private final StoreRepository storeRepository;
+    private final PaymentMethodRepository paymentMethodRepository;
+    private final AddressRepository addressRepository;
+    private final PromotionService promotionService;
+    private final PromotionRuleService promotionRuleService;
+    private final SalesRollupService salesRollupService;
+    private final OrderSummaryService orderSummaryService;
+    private final DistinctCountService distinctCountService;
+    private final PurchaseIndexService purchaseIndexService;
+    private final TransactionTemplate writeTransaction;
+
+    private final Map<String, Intake> intakes = new ConcurrentHashMap<>();
+    private BlockingQueue<Intake> queue;
+    private ExecutorService workerPool;
+    private volatile boolean accepting;
+
+    @Autowired
+    public OrderIntakeServiceImpl(ProductRepository productRepository,
+                                  CustomerRepository customerRepository,
+                                  CustomerOrderRepository orderRepository,
+                                  OrderDetailRepository orderDetailRepository,
+                                  StoreInventoryRepository storeInventoryRepository,
+                                  StoreRepository storeRepository,
+                                  PaymentMethodRepository paymentMethodRepository,
+                                  AddressRepository addressRepository,
+                                  PromotionService promotionService,
+                                  PromotionRuleService promotionRuleService,
+                                  SalesRollupService salesRollupService,
+                                  OrderSummaryService orderSummaryService,
+                                  DistinctCountService distinctCountService,
+                                  PurchaseIndexService purchaseIndexService,
+                                  PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.customerRepository = customerRepository;
+        this.orderRepository = orderRepository;
+        this.orderDetailRepository = orderDetailRepository;
+        this.storeInventoryRepository = storeInventoryRepository;
+        this.storeRepository = storeRepository;
+        this.paymentMethodRepository = paymentMethodRepository;
+        this.addressRepository = addressRepository;
+        this.promotionService = promotionService;
+        this.promotionRuleService = promotionRuleService;
+        this.salesRollupService = salesRollupService;
+        this.orderSummaryService = orderSummaryService;
+        this.distinctCountService = distinctCountService;
+        this.purchaseIndexService = purchaseIndexService;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(capacity);
+        workerPool = Executors.newFixedThreadPool(workers);
+        accepting = true;
+        for (int i = 0; i < workers; i++) {
+            workerPool.submit(this::work);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        // Workers keep going until the queue is empty once intake is closed
+        accepting = false;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(shutdownTimeoutSeconds);
+        workerPool.shutdown();
+        if (!workerPool.awaitTermination(shutdownTimeoutSeconds, TimeUnit.SECONDS)) {
+            workerPool.shutdownNow();
+            workerPool.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        // Orders that were offered after the workers' last poll
+        while (!queue.isEmpty() && System.nanoTime() < deadline) {
+            List<Intake> batch = new ArrayList<>(batchSize);
+            queue.drainTo(batch, batchSize);
+            runBatch(batch);
+        }
+        if (!queue.isEmpty()) {
+            List<Intake> left = new ArrayList<>();
+            queue.drainTo(left);
+            logger.error("Shutdown timed out with {} accepted orders not placed", left.size());
+            left.forEach(intake -> intake.reject("Order intake shut down before the order was placed"));
+        }
+    }
+
+    @Override
+    public String submit(OrderIntakeRequestDTO request) {
+        if (request.getLines() == null || request.getLines().isEmpty()) {
+            throw new IllegalArgumentException("Order lines cannot be empty");
+        }
+        request.getLines().forEach((productId, quantity) -> {
+            if (productId == null || quantity == null || quantity <= 0) {
+                throw new IllegalArgumentException("Invalid order line for product ID: " + productId);
+            }
+        });
+
+        if (!accepting) {
+            throw new BusinessException("Order intake is shutting down, retry later", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        Intake intake = new Intake(UUID.randomUUID().toString(), request);
+        intakes.put(intake.id, intake);
+        if (!queue.offer(intake)) {
+            intakes.remove(intake.id);
+            throw new BusinessException("Order intake queue is full, retry later", HttpStatus.TOO_MANY_REQUESTS);
+        }
+        return intake.id;
+    }
+
+    @Override
+    public Optional<OrderIntakeStatusDTO> getStatus(String intakeId, long waitMillis) {
+        Intake intake = intakes.get(intakeId);
+        if (intake == null) {
+            return Optional.empty();
+        }
+        if (waitMillis > 0) {
+            try {
+                intake.done.get(Math.min(waitMillis, MAX_WAIT_MS), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (TimeoutException | ExecutionException e) {
+                // Report whatever state the intake is in
+            }
+        }
+        return Optional.of(intake.toDTO());
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.order-intake.cleanup-interval-ms:60000}")
+    public void evictFinished() {
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(retentionMinutes));
+        intakes.values().removeIf(intake -> intake.completedAt != null && intake.completedAt.isBefore(cutoff));
+    }
+
+    private void work() {
+        while (true) {
+            Intake first;
+            try {
+                first = queue.poll(500, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (first == null) {
+                if (!accepting) {
+                    return;
+                }
+                continue;
+            }
+            List<Intake> batch = new ArrayList<>(batchSize);
+            batch.add(first);
+            queue.drainTo(batch, batchSize - 1);
+            runBatch(batch);
+        }
+    }
+
+    private void runBatch(List<Intake> batch) {
+        try {
+            processBatch(batch);
+        } catch (RuntimeException e) {
+            logger.error("Order intake batch of {} failed", batch.size(), e);
+            batch.forEach(intake -> intake.reject("Order processing failed: " + e.getMessage()));
+        }
+    }
+
+    private void processBatch(List<Intake> batch) {
+        batch.forEach(intake -> intake.status = "PROCESSING");
+
+        Set<Integer> productIds = new HashSet<>();
+        batch.forEach(intake -> productIds.addAll(intake.request.getLines().keySet()));
+        Map<Integer, Product> products = new HashMap<>();
+        productRepository.findAllById(productIds).forEach(product -> products.put(product.getId(), product));
+
+        Map<Integer, Optional<Integer>> sellerStores = new HashMap<>();
+        Map<String, Optional<Promotion>> promotions = new HashMap<>();
+        Map<Integer, List<PreparedOrder>> byStore = new LinkedHashMap<>();
+        for (Intake intake : batch) {
+            OrderIntakeRequestDTO request = intake.request;
+            Integer sellerId = request.getEmployeeSellerId() != null ? request.getEmployeeSellerId() : onlineSellerId;
+            if (sellerId == null) {
+                intake.reject("No seller given and no online seller configured");
+                continue;
+            }
+            Optional<Integer> storeId = sellerStores.computeIfAbsent(sellerId, storeRepository::findStoreIdByEmployeeId);
+            if (storeId.isEmpty()) {
+                intake.reject("Employee not found with ID: " + sellerId);
+                continue;
+            }
+
+            Promotion promotion = null;
+            if (request.getPromotionCode() != null && !request.getPromotionCode().isBlank()) {
+                promotion = promotions.computeIfAbsent(request.getPromotionCode(), promotionService::findValidPromotion)
+                        .orElse(null);
+                if (promotion == null) {
+                    intake.reject("Promotion code is not valid: " + request.getPromotionCode());
+                    continue;
+                }
+            }
+
+            Map<Integer, Product> orderProducts = new LinkedHashMap<>();
+            for (Integer productId : request.getLines().keySet()) {
+                Product product = products.get(productId);
+                if (product == null) {
+                    break;
+                }
+                orderProducts.put(productId, product);
+            }
+            if (orderProducts.size() < request.getLines().size()) {
+                intake.reject("One or more products were not found");
+                continue;
+            }
+
+            try {
+                // Priced here to reject bad orders before they reach a group transaction
+                promotionRuleService.priceOrder(orderProducts, request.getLines(), promotion);
+            } catch (IllegalStateException e) {
+                intake.reject(e.getMessage());
+                continue;
+            }
+            byStore.computeIfAbsent(storeId.get(), id -> new ArrayList<>())
+                    .add(new PreparedOrder(intake, sellerId, promotion, orderProducts));
+        }
+
+        byStore.forEach((storeId, orders) -> {
+            if (orders.size() > 1 && place(storeId, orders)) {
+                return;
+            }
+            // Short on stock as a group, or a single order: place each on its own
+            for (PreparedOrder order : orders) {
+                if (!place(storeId, List.of(order))) {
+                    order.intake.reject("Insufficient stock at store " + storeId + " for one or more items");
+                }
+            }
+        });
+    }
+
+    /**
+     * Places a group of orders in one transaction. Returns false, having rolled back, when the store
+     * cannot cover the summed quantities; other failures reject a single order or fail the group.
+     */
+    private boolean place(Integer storeId, List<PreparedOrder> orders) {
+        Map<Integer, Integer> quantities = new HashMap<>();
+        orders.forEach(order -> order.intake.request.getLines().forEach((productId, quantity) ->
+                quantities.merge(productId, quantity, Integer::sum)));
+
+        List<CustomerOrder> saved;
+        try {
+            saved = writeTransaction.execute(status -> {
+                if (storeInventoryRepository.decrementStock(storeId, quantities) < quantities.size()) {
+                    status.setRollbackOnly();
+                    return null;
+                }
+                return insertOrders(orders);
+            });
+        } catch (RuntimeException e) {
+            if (orders.size() > 1) {
+                logger.warn("Order group for store {} failed, placing its {} orders one by one", storeId, orders.size(), e);
+                return false;
+            }
+            orders.get(0).intake.reject("Order could not be placed: " + e.getMessage());
+            return true;
+        }
+        if (saved == null) {
+            return false;
+        }
+        for (int i = 0; i < orders.size(); i++) {
+            orders.get(i).intake.complete(saved.get(i).getId());
+        }
+        return true;
+    }
+
+    private List<CustomerOrder> insertOrders(List<PreparedOrder> orders) {
+        LocalDate today = LocalDate.now();
+        List<CustomerOrder> customerOrders = new ArrayList<>(orders.size());
+        List<List<OrderDetail>> detailsPerOrder = new ArrayList<>(orders.size());
+        for (PreparedOrder prepared : orders) {
+            OrderIntakeRequestDTO request = prepared.intake.request;
+            if (prepared.promotion != null && !promotionService.reserveUse(prepared.promotion)) {
+                throw new IllegalStateException("Promotion code has reached its usage limit: " + request.getPromotionCode());
+            }
+            if (prepared.promotion != null && !promotionService.redeemCode(request.getPromotionCode())) {
+                throw new IllegalStateException("Promotion code has already been used: " + request.getPromotionCode());
+            }
+            List<OrderDetail> details = promotionRuleService.priceOrder(prepared.products, request.getLines(), prepared.promotion);
+
+            CustomerOrder order = new CustomerOrder();
+            order.setCustomer(customerRepository.getReferenceById(request.getCustomerId()));
+            order.setEmployeeSeller(entityManager.getReference(Employee.class, prepared.sellerId));
+            order.setPaymentMethod(paymentMethodRepository.getReferenceById(request.getPaymentMethodId()));
+            if (request.getAddressId() != null) {
+                order.setAddress(addressRepository.getReferenceById(request.getAddressId()));
+            }
+            order.setPromotion(prepared.promotion);
+            order.setPurchaseDate(today);
+            order.setTotalPrice(details.stream()
+                    .map(OrderDetail::getFinalPrice)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add));
+            order.setStatus("PENDING");
+            customerOrders.add(order);
+            detailsPerOrder.add(details);
+        }
+        List<CustomerOrder> saved = orderRepository.saveAll(customerOrders);
+        orderRepository.flush();
+
+        List<OrderDetail> allDetails = new ArrayList<>();
+        for (int i = 0; i < saved.size(); i++) {
+            for (OrderDetail detail : detailsPerOrder.get(i)) {
+                OrderDetailId id = new OrderDetailId();
+                id.setOrderId(saved.get(i).getId());
+                id.setProductId(detail.getProduct().getId());
+                detail.setId(id);
+                detail.setOrder(saved.get(i));
+                allDetails.add(detail);
+            }
+        }
+        orderDetailRepository.insertAll(allDetails);
+        for (int i = 0; i < saved.size(); i++) {
+            salesRollupService.recordOrderCreated(saved.get(i), detailsPerOrder.get(i));
+            distinctCountService.recordOrderCreated(saved.get(i), detailsPerOrder.get(i));
+            purchaseIndexService.recordOrderCreated(saved.get(i), detailsPerOrder.get(i));
+            orderSummaryService.markChanged(saved.get(i).getId());
+        }
+        return saved;
+    }
+
+    private static class PreparedOrder {
+        private final Intake intake;
+        private final Integer sellerId;
+        private final Promotion promotion;
+        private final Map<Integer, Product> products;
+
+        private PreparedOrder(Intake intake, Integer sellerId, Promotion promotion, Map<Integer, Product> products) {
+            this.intake = intake;
+            this.sellerId = sellerId;
+            this.promotion = promotion;
+            this.products = products;
+        }
+    }
+
+    private static class Intake {
+        private final String id;
+        private final OrderIntakeRequestDTO request;
+        private final Instant acceptedAt = Instant.now();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private volatile String status = "QUEUED";
+        private volatile Integer orderId;
+        private volatile String error;
+        private volatile Instant completedAt;
+
+        private Intake(String id, OrderIntakeRequestDTO request) {
+            this.id = id;
+            this.request = request;
+        }
+
+        private void complete(Integer orderId) {
+            finish("COMPLETED", orderId, null);
+        }
+
+        private void reject(String error) {
+            finish("REJECTED", null, error);
+        }
+
+        private synchronized void finish(String finalStatus, Integer orderId, String error) {
+            if (done.isDone()) {
+                return;
+            }
+            this.orderId = orderId;
+            this.error = error;
+            completedAt = Instant.now();
+            status = finalStatus;
+            done.complete(null);
+        }
+
+        private OrderIntakeStatusDTO toDTO() {
+            return OrderIntakeStatusDTO.builder()
+                    .intakeId(id)
+                    .status(status)
+                    .orderId(orderId)
+                    .error(error)
+                    .acceptedAt(acceptedAt)
+                    .completedAt(completedAt)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.entities.OrderDetail;
+import com.example.demo.entities.Product;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Order line pricing shared by checkout and the async order intake
+ */
+final class OrderPricing {
+
+    private OrderPricing() {
+    }
+
+    /**
+     * Lays the order lines out for promotion evaluation, in the iteration order of quantities.
+     *
+     * @param categories category IDs by product, or an empty map when no rule targets categories
+     */
+    static PromotionRuleIndex.Cart cart(Map<Integer, Product> products, Map<Integer, Integer> quantities,
+                                        Map<Integer, List<Integer>> categories) {
+        PromotionRuleIndex.Cart cart = new PromotionRuleIndex.Cart();
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            Product product = products.get(entry.getKey());
+            cart.addLine(product.getId(), entry.getValue(), toCents(product.getPrice()), product.getBrand());
+            for (Integer categoryId : categories.getOrDefault(product.getId(), List.of())) {
+                cart.addCategory(categoryId);
+            }
+        }
+        return cart;
+    }
+
+    /**
+     * Prices the order lines from an evaluation of the cart built by {@link #cart}. A line's
+     * discount is stored per unit, as in {@code OrderDetailServiceImpl}, rounded to the cent and
+     * never above the unit price. The returned details still need their order and ID.
+     */
+    static List<OrderDetail> price(Map<Integer, Product> products, Map<Integer, Integer> quantities,
+                                   PromotionRuleIndex.Evaluation evaluation) {
+        List<OrderDetail> orderDetails = new ArrayList<>(quantities.size());
+        int line = 0;
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            Product product = products.get(entry.getKey());
+            int quantity = entry.getValue();
+            long unitPrice = toCents(product.getPrice());
+            long unitDiscount = Math.min((evaluation.getDiscount(line++) + quantity / 2) / quantity, unitPrice);
+
+            OrderDetail orderDetail = new OrderDetail();
+            orderDetail.setProduct(product);
+            orderDetail.setQuantity(quantity);
+            orderDetail.setOriginalPrice(fromCents(unitPrice));
+            orderDetail.setDiscountAmount(fromCents(unitDiscount));
+            orderDetail.setFinalPrice(fromCents((unitPrice - unitDiscount) * quantity));
+            orderDetails.add(orderDetail);
+        }
+        return orderDetails;
+    }
+
+    static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+    }
+
+    static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
@@ -0,0 +1,348 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.dto.OrderSummaryDTO;
+import com.example.demo.entities.CustomerOrder;
+import com.example.demo.entities.OrderDetail;
+import com.example.demo.entities.OrderSummaryDocument;
+import com.example.demo.entities.Return;
+import com.example.demo.entities.Shipping;
+import com.example.demo.repositories.CustomerOrderRepository;
+import com.example.demo.repositories.OrderSummaryDocumentRepository;
+import com.example.demo.repositories.ReturnRepository;
+import com.example.demo.repositories.ShippingRepository;
+import com.example.demo.service.OrderSummaryService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the denormalized order summary documents.
+ *
+ * Order, shipping and return writes mark the order as changed; after their transaction commits the
+ * order ID is queued and the documents are rebuilt in batches every
+ * app.order-summary.flush-interval-ms, loading orders, shipments and returns with one query each.
+ * Reading a single order that is still queued rebuilds it first, so a tracking page never shows a
+ * state older than the customer's own last action. Orders without a document yet, such as orders
+ * from before the documents existed, are backfilled once at startup, so a customer's list is a
+ * single indexed query. Queued IDs are flushed on shutdown.
+ */
+@Service
+public class OrderSummaryServiceImpl implements OrderSummaryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderSummaryServiceImpl.class);
+    private static final String PENDING = "PENDING";
+    private static final String IN_TRANSIT = "IN_TRANSIT";
+    private static final String DELIVERED = "DELIVERED";
+
+    @Value("${app.order-summary.batch-size:200}")
+    private int batchSize;
+
+    private final CustomerOrderRepository customerOrderRepository;
+    private final ShippingRepository shippingRepository;
+    private final ReturnRepository returnRepository;
+    private final OrderSummaryDocumentRepository documentRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate writeTransaction;
+
+    private final Set<Integer> pending = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public OrderSummaryServiceImpl(CustomerOrderRepository customerOrderRepository,
+                                   ShippingRepository shippingRepository,
+                                   ReturnRepository returnRepository,
+                                   OrderSummaryDocumentRepository documentRepository,
+                                   ObjectMapper objectMapper,
+                                   PlatformTransactionManager transactionManager) {
+        this.customerOrderRepository = customerOrderRepository;
+        this.shippingRepository = shippingRepository;
+        this.returnRepository = returnRepository;
+        this.documentRepository = documentRepository;
+        this.objectMapper = objectMapper;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public void markChanged(Integer orderId) {
+        if (orderId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pending.add(orderId);
+                }
+            });
+        } else {
+            pending.add(orderId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.order-summary.flush-interval-ms:1000}")
+    public void flushPending() {
+        while (!pending.isEmpty()) {
+            List<Integer> batch = new ArrayList<>(batchSize);
+            Iterator<Integer> ids = pending.iterator();
+            while (ids.hasNext() && batch.size() < batchSize) {
+                Integer id = ids.next();
+                ids.remove();
+                batch.add(id);
+            }
+            try {
+                writeTransaction.executeWithoutResult(status -> rebuild(batch));
+            } catch (RuntimeException e) {
+                pending.addAll(batch);
+                logger.error("Failed to rebuild {} order summaries, will retry", batch.size(), e);
+                return;
+            }
+        }
+    }
+
+    // Queued IDs only live in memory
+    @PreDestroy
+    public void shutdown() {
+        flushPending();
+        if (!pending.isEmpty()) {
+            logger.warn("Shutting down with {} order summaries not rebuilt", pending.size());
+        }
+    }
+
+    @Override
+    public Optional<OrderSummaryDTO> getSummary(Integer orderId) {
+        if (orderId == null) {
+            throw new IllegalArgumentException("Order ID cannot be null");
+        }
+        boolean stale = pending.remove(orderId);
+        Optional<OrderSummaryDocument> document = stale ? Optional.empty() : documentRepository.findById(orderId);
+        if (document.isEmpty()) {
+            try {
+                writeTransaction.executeWithoutResult(status -> rebuild(List.of(orderId)));
+            } catch (RuntimeException e) {
+                if (stale) {
+                    pending.add(orderId);
+                }
+                throw e;
+            }
+            document = documentRepository.findById(orderId);
+        }
+        return document.map(this::read);
+    }
+
+    @Override
+    public Page<OrderSummaryDTO> getCustomerSummaries(Integer customerId, Pageable pageable) {
+        if (customerId == null) {
+            throw new IllegalArgumentException("Customer ID cannot be null");
+        }
+        return documentRepository.findByCustomerIdOrderByPurchaseDateDescOrderIdDesc(customerId, pageable)
+                .map(this::read);
+    }
+
+    /**
+     * Builds the documents of orders that have none, such as orders from before the documents
+     * existed. Returns the number of documents built.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public int backfillMissing() {
+        int built = 0;
+        Integer afterId = 0;
+        while (true) {
+            List<Integer> ids = customerOrderRepository.findIdsWithoutSummaryAfter(afterId,
+                    PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            writeTransaction.executeWithoutResult(status -> rebuild(ids));
+            built += ids.size();
+            afterId = ids.get(ids.size() - 1);
+        }
+        if (built > 0) {
+            logger.info("Backfilled {} missing order summaries", built);
+        }
+        return built;
+    }
+
+    @Override
+    public int rebuildAll() {
+        int processed = 0;
+        Integer afterId = 0;
+        while (true) {
+            List<Integer> ids = customerOrderRepository.findIdsAfter(afterId, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            writeTransaction.executeWithoutResult(status -> rebuild(ids));
+            processed += ids.size();
+            afterId = ids.get(ids.size() - 1);
+        }
+        logger.info("Rebuilt {} order summaries", processed);
+        return processed;
+    }
+
+    private void rebuild(Collection<Integer> orderIds) {
+        Map<Integer, CustomerOrder> orders = customerOrderRepository.findWithDetailsByIdIn(orderIds).stream()
+                .collect(Collectors.toMap(CustomerOrder::getId, Function.identity()));
+        Map<Integer, List<Shipping>> shipments = shippingRepository.findByOrderIdIn(orderIds).stream()
+                .collect(Collectors.groupingBy(shipping -> shipping.getOrder().getId()));
+        Map<Integer, List<Return>> returns = returnRepository.findByOrderIdIn(orderIds).stream()
+                .collect(Collectors.groupingBy(returnField -> returnField.getOrder().getId()));
+        Map<Integer, OrderSummaryDocument> existing = new HashMap<>();
+        documentRepository.findAllById(orderIds).forEach(document -> existing.put(document.getOrderId(), document));
+
+        Instant now = Instant.now();
+        List<OrderSummaryDocument> created = new ArrayList<>();
+        for (Integer orderId : orderIds) {
+            CustomerOrder order = orders.get(orderId);
+            OrderSummaryDocument document = existing.get(orderId);
+            if (order == null) {
+                // Deleted orders lose their document; archived orders never pass through here and keep it
+                if (document != null) {
+                    documentRepository.delete(document);
+                }
+                continue;
+            }
+            OrderSummaryDTO summary = summarize(order, shipments.getOrDefault(orderId, List.of()),
+                    returns.getOrDefault(orderId, List.of()), now);
+            if (document == null) {
+                document = new OrderSummaryDocument();
+                document.setOrderId(orderId);
+                created.add(document);
+            }
+            document.setCustomerId(summary.getCustomerId());
+            document.setPurchaseDate(summary.getPurchaseDate());
+            document.setStatus(summary.getStatus());
+            document.setDocument(write(summary));
+            document.setUpdatedAt(now);
+        }
+        documentRepository.insertAll(created);
+    }
+
+    private OrderSummaryDTO summarize(CustomerOrder order, List<Shipping> shipments, List<Return> returns, Instant now) {
+        BigDecimal subtotal = BigDecimal.ZERO;
+        BigDecimal discountTotal = BigDecimal.ZERO;
+        BigDecimal total = BigDecimal.ZERO;
+        List<OrderSummaryDTO.Line> lines = new ArrayList<>();
+        List<OrderDetail> details = new ArrayList<>(order.getOrderDetails());
+        details.sort(Comparator.comparing(detail -> detail.getProduct().getId()));
+        for (OrderDetail detail : details) {
+            BigDecimal quantity = BigDecimal.valueOf(detail.getQuantity());
+            BigDecimal unitDiscount = detail.getDiscountAmount() != null ? detail.getDiscountAmount() : BigDecimal.ZERO;
+            subtotal = subtotal.add(detail.getOriginalPrice().multiply(quantity));
+            discountTotal = discountTotal.add(unitDiscount.multiply(quantity));
+            total = total.add(detail.getFinalPrice());
+            lines.add(OrderSummaryDTO.Line.builder()
+                    .productId(detail.getProduct().getId())
+                    .productName(detail.getProduct().getProductName())
+                    .quantity(detail.getQuantity())
+                    .unitPrice(detail.getOriginalPrice())
+                    .unitDiscount(unitDiscount)
+                    .lineTotal(detail.getFinalPrice())
+                    .build());
+        }
+        // Orders created without lines only carry their stored total
+        if (details.isEmpty()) {
+            total = order.getTotalPrice();
+            subtotal = order.getTotalPrice();
+        }
+
+        BigDecimal refundedTotal = BigDecimal.ZERO;
+        List<OrderSummaryDTO.ReturnLine> returnLines = new ArrayList<>();
+        for (Return returnField : returns) {
+            if (returnField.getRefundedAmount() != null) {
+                refundedTotal = refundedTotal.add(returnField.getRefundedAmount());
+            }
+            returnLines.add(OrderSummaryDTO.ReturnLine.builder()
+                    .returnId(returnField.getId())
+                    .productId(returnField.getProduct().getId())
+                    .quantityReturned(returnField.getQuantityReturned())
+                    .refundedAmount(returnField.getRefundedAmount())
+                    .reason(returnField.getReason())
+                    .returnDate(returnField.getReturnDate())
+                    .build());
+        }
+
+        List<OrderSummaryDTO.Shipment> shipmentLines = new ArrayList<>();
+        boolean anyShipped = false;
+        boolean allDelivered = !shipments.isEmpty();
+        for (Shipping shipping : shipments) {
+            anyShipped |= shipping.getShippedDate() != null || shipping.getDeliveredDate() != null;
+            allDelivered &= shipping.getDeliveredDate() != null;
+            shipmentLines.add(OrderSummaryDTO.Shipment.builder()
+                    .shippingId(shipping.getId())
+                    .trackingNumber(shipping.getTrackingNumber())
+                    .shippingProvider(shipping.getShippingProvider())
+                    .shippedDate(shipping.getShippedDate())
+                    .deliveredDate(shipping.getDeliveredDate())
+                    .build());
+        }
+
+        return OrderSummaryDTO.builder()
+                .orderId(order.getId())
+                .customerId(order.getCustomer().getId())
+                .employeeSellerId(order.getEmployeeSeller().getId())
+                .storeId(order.getEmployeeSeller().getStore() != null ? order.getEmployeeSeller().getStore().getId() : null)
+                .paymentMethodId(order.getPaymentMethod().getId())
+                .addressId(order.getAddress() != null ? order.getAddress().getId() : null)
+                .promotionCode(order.getPromotion() != null ? order.getPromotion().getCode() : null)
+                .purchaseDate(order.getPurchaseDate())
+                .status(order.getStatus())
+                .lines(lines)
+                .subtotal(subtotal)
+                .discountTotal(discountTotal)
+                .total(total)
+                .refundedTotal(refundedTotal)
+                .netTotal(total.subtract(refundedTotal))
+                .shipmentStatus(allDelivered ? DELIVERED : anyShipped ? IN_TRANSIT : PENDING)
+                .shipments(shipmentLines)
+                .returns(returnLines)
+                .updatedAt(now)
+                .build();
+    }
+
+    private String write(OrderSummaryDTO summary) {
+        try {
+            return objectMapper.writeValueAsString(summary);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize order summary " + summary.getOrderId(), e);
+        }
+    }
+
+    private OrderSummaryDTO read(OrderSummaryDocument document) {
+        try {
+            return objectMapper.readValue(document.getDocument(), OrderSummaryDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read order summary " + document.getOrderId(), e);
+        }
+    }
+}
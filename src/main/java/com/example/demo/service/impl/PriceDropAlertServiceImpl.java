@@ -0,0 +1,231 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.entities.Customer;
+import com.example.demo.entities.Notification;
+import com.example.demo.entities.Product;
+import com.example.demo.repositories.NotificationRepository;
+import com.example.demo.repositories.WishlistRepository;
+import com.example.demo.service.NotificationService;
+import com.example.demo.service.PriceDropAlertService;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Price-drop alerts to customers with the product on their wishlist.
+ *
+ * A drop is handed to a background thread once the price change commits, so the price update
+ * never waits for the alerts. The thread walks the product's wishers in pages of customer IDs,
+ * keyset-paged so no page rereads the ones before it, and writes each page's notifications in its
+ * own transaction as one JDBC batch. Customers already alerted about the product that day are left
+ * out, so a product dropping several times a day alerts each wisher once.
+ *
+ * Drops run one at a time. A product that drops again while its alerts are still queued is
+ * announced once, at the newer price; one whose price goes back up is announced at that price if
+ * it is still a drop worth announcing, and not at all otherwise. A fan-out that fails is queued
+ * again after app.wishlist.price-drop.retry-delay-ms, up to app.wishlist.price-drop.max-attempts
+ * times; the rerun starts over and skips the wishers already alerted that day.
+ */
+@Service
+public class PriceDropAlertServiceImpl implements PriceDropAlertService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceDropAlertServiceImpl.class);
+
+    static final String TYPE = "PRICE_DROP";
+    private static final int MAX_MESSAGE_LENGTH = 255;
+
+    @Value("${app.wishlist.price-drop.page-size:1000}")
+    private int pageSize;
+
+    // Drops of less than this share of the price are not announced
+    @Value("${app.wishlist.price-drop.min-percent:1}")
+    private double minPercent;
+
+    @Value("${app.wishlist.price-drop.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.wishlist.price-drop.retry-delay-ms:60000}")
+    private long retryDelayMs;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final WishlistRepository wishlistRepository;
+    private final NotificationRepository notificationRepository;
+    private final NotificationService notificationService;
+    private final TransactionTemplate writeTransaction;
+
+    private final ScheduledExecutorService sender = Executors.newSingleThreadScheduledExecutor();
+    // Latest drop of each product whose alerts have not started yet
+    private final Map<Integer, PriceDrop> queued = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PriceDropAlertServiceImpl(WishlistRepository wishlistRepository,
+                                     NotificationRepository notificationRepository,
+                                     NotificationService notificationService,
+                                     PlatformTransactionManager transactionManager) {
+        this.wishlistRepository = wishlistRepository;
+        this.notificationRepository = notificationRepository;
+        this.notificationService = notificationService;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void priceChanged(Product product, BigDecimal previousPrice) {
+        BigDecimal price = product.getPrice();
+        if (previousPrice == null || price == null || previousPrice.signum() <= 0) {
+            return;
+        }
+        if (price.compareTo(previousPrice) > 0) {
+            // The sender skips a product whose queued drop is gone
+            afterCommit(() -> queued.computeIfPresent(product.getId(),
+                    (id, drop) -> isAnnounced(drop.previousPrice, price) ? drop.at(price) : null));
+            return;
+        }
+        if (!isAnnounced(previousPrice, price)) {
+            return;
+        }
+        PriceDrop drop = new PriceDrop(product.getId(), product.getProductName(), previousPrice, price, 1);
+        afterCommit(() -> {
+            if (queued.put(drop.productId, drop) == null) {
+                sender.execute(() -> send(drop.productId));
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    private void send(Integer productId) {
+        PriceDrop drop = queued.remove(productId);
+        if (drop == null) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        LocalDate today = LocalDate.now();
+        int after = 0;
+        int wishers = 0;
+        int sent = 0;
+        try {
+            while (true) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new IllegalStateException("Interrupted by shutdown");
+                }
+                List<Integer> customerIds = wishlistRepository.findCustomerIdsByProductAfter(
+                        productId, after, PageRequest.of(0, pageSize));
+                if (customerIds.isEmpty()) {
+                    break;
+                }
+                Integer written = writeTransaction.execute(status -> sendPage(drop, today, customerIds));
+                sent += written != null ? written : 0;
+                wishers += customerIds.size();
+                after = customerIds.get(customerIds.size() - 1);
+                if (customerIds.size() < pageSize) {
+                    break;
+                }
+            }
+            logger.info("Sent {} price-drop alerts for product {} to {} wishers in {} ms",
+                    sent, productId, wishers, System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            logger.error("Price-drop alerts for product {} failed after {} of its wishers", productId, wishers, e);
+            retry(drop);
+        }
+    }
+
+    // A newer drop queued meanwhile is sent instead, by the run already scheduled for it
+    private void retry(PriceDrop drop) {
+        if (drop.attempt >= maxAttempts || sender.isShutdown()) {
+            logger.error("Giving up on price-drop alerts for product {} after {} attempts",
+                    drop.productId, drop.attempt);
+            return;
+        }
+        if (queued.putIfAbsent(drop.productId, drop.retried()) == null) {
+            sender.schedule(() -> send(drop.productId), retryDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private boolean isAnnounced(BigDecimal previousPrice, BigDecimal price) {
+        if (price.compareTo(previousPrice) >= 0) {
+            return false;
+        }
+        double percent = previousPrice.subtract(price).doubleValue() * 100 / previousPrice.doubleValue();
+        return percent >= minPercent;
+    }
+
+    private int sendPage(PriceDrop drop, LocalDate today, List<Integer> customerIds) {
+        Set<Integer> alerted = new HashSet<>(
+                notificationRepository.findNotifiedCustomerIds(drop.productId, TYPE, today, customerIds));
+        Product product = entityManager.getReference(Product.class, drop.productId);
+        String message = drop.message();
+        List<Notification> notifications = new ArrayList<>(customerIds.size() - alerted.size());
+        for (Integer customerId : customerIds) {
+            if (alerted.contains(customerId)) {
+                continue;
+            }
+            Notification notification = new Notification();
+            notification.setCustomer(entityManager.getReference(Customer.class, customerId));
+            notification.setProduct(product);
+            notification.setType(TYPE);
+            notification.setMessage(message);
+            notification.setSentDate(today);
+            notifications.add(notification);
+        }
+        notificationService.createNotifications(notifications);
+        return notifications.size();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record PriceDrop(Integer productId, String productName, BigDecimal previousPrice, BigDecimal price,
+                             int attempt) {
+        private PriceDrop at(BigDecimal newPrice) {
+            return new PriceDrop(productId, productName, previousPrice, newPrice, attempt);
+        }
+
+        private PriceDrop retried() {
+            return new PriceDrop(productId, productName, previousPrice, price, attempt + 1);
+        }
+
+        private String message() {
+            String message = "Price drop on your wishlist: " + productName + " is now "
+                    + price.setScale(2, RoundingMode.HALF_UP) + ", down from " + previousPrice.setScale(2, RoundingMode.HALF_UP);
+            return message.length() > MAX_MESSAGE_LENGTH ? message.substring(0, MAX_MESSAGE_LENGTH) : message;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.example.demo.service.impl;
 
 import com.example.demo.entities.*;
 import com.example.demo.repositories.ProductRepository;
+import com.example.demo.service.PriceDropAlertService;
 import com.example.demo.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -18,10 +19,12 @@ import java.util.*;
 public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository productRepository;
+    private final PriceDropAlertService priceDropAlertService;
 
     @Autowired
-    public ProductServiceImpl(ProductRepository productRepository) {
+    public ProductServiceImpl(ProductRepository productRepository, PriceDropAlertService priceDropAlertService) {
         this.productRepository = productRepository;
+        this.priceDropAlertService = priceDropAlertService;
     }
 
     @Override
@@ -192,11 +195,12 @@ public class ProductServiceImpl implements ProductService {
     @Override
     @Transactional
     public Product updateProduct(Product product) {
-        // Make sure the product exists
-        if (!productRepository.existsById(product.getId())) {
-            throw new IllegalArgumentException("Product not found with ID: " + product.getId());
-        }
-        return productRepository.save(product);
+        // Make sure the product exists; the caller may pass the managed product, already carrying the new price
+        BigDecimal previousPrice = productRepository.findStoredPriceById(product.getId())
+                .orElseThrow(() -> new IllegalArgumentException("Product not found with ID: " + product.getId()));
+        Product saved = productRepository.save(product);
+        priceDropAlertService.priceChanged(saved, previousPrice);
+        return saved;
     }
 
     @Override
@@ -206,9 +210,12 @@ public class ProductServiceImpl implements ProductService {
         
         if (optionalProduct.isPresent()) {
             Product product = optionalProduct.get();
-            // Simply update the price
+            BigDecimal previousPrice = product.getPrice();
             product.setPrice(newPrice);
-            return productRepository.save(product);
+            Product saved = productRepository.save(product);
+            // Wishers are alerted in the background once the new price commits
+            priceDropAlertService.priceChanged(saved, previousPrice);
+            return saved;
         }
         
         throw new IllegalArgumentException("Product not found with ID: " + productId);
@@ -0,0 +1,303 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.dto.PromotionCodeBatchRequestDTO;
+import com.example.demo.dto.PromotionCodeBatchStatusDTO;
+import com.example.demo.entities.Promotion;
+import com.example.demo.entities.PromotionCode;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.repositories.PromotionCodeRepository;
+import com.example.demo.repositories.PromotionRepository;
+import com.example.demo.service.PromotionCodeService;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Bulk generation of one-time promotion codes.
+ *
+ * A batch first loads every code in use (promotion codes and one-time codes) into a
+ * {@link BloomFilter} sized for those plus the batch. Random candidates the filter has never seen
+ * are unique without a database round trip; only the few it flags as possibly taken are checked
+ * against the database, in one query per chunk. Accepted codes are added to the filter, so the
+ * batch never repeats itself, and inserted chunk by chunk in their own transactions with JDBC
+ * batching, so progress is visible and a failure keeps the chunks already written.
+ *
+ * Batches run one at a time on a background thread; a code inserted elsewhere while a batch runs
+ * is still caught by the primary key.
+ */
+@Service
+public class PromotionCodeServiceImpl implements PromotionCodeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromotionCodeServiceImpl.class);
+
+    private static final String DEFAULT_ALPHABET = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789";
+    private static final int DEFAULT_LENGTH = 10;
+    private static final int MAX_CODE_LENGTH = 20;
+    // Candidates per code the space must offer, so that collisions stay rare until the batch ends
+    private static final int MIN_SPACE_FACTOR = 100;
+
+    @Value("${app.promotions.codes.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${app.promotions.codes.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    @Value("${app.promotions.codes.retention-minutes:1440}")
+    private long retentionMinutes;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final PromotionRepository promotionRepository;
+    private final PromotionCodeRepository codeRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate writeTransaction;
+
+    private final ExecutorService launcher = Executors.newSingleThreadExecutor();
+    private final Map<String, Batch> batches = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+
+    @Autowired
+    public PromotionCodeServiceImpl(PromotionRepository promotionRepository,
+                                    PromotionCodeRepository codeRepository,
+                                    PlatformTransactionManager transactionManager) {
+        this.promotionRepository = promotionRepository;
+        this.codeRepository = codeRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public String startBatch(Integer promotionId, PromotionCodeBatchRequestDTO request) {
+        if (!promotionRepository.existsById(promotionId)) {
+            throw new ResourceNotFoundException("Promotion", "id", promotionId);
+        }
+        String alphabet = request.getAlphabet() != null ? request.getAlphabet() : DEFAULT_ALPHABET;
+        int length = request.getLength() != null ? request.getLength() : DEFAULT_LENGTH;
+        String prefix = request.getPrefix() != null ? request.getPrefix() : "";
+        if (!alphabet.matches("[A-Za-z0-9-]+") || alphabet.chars().distinct().count() != alphabet.length()) {
+            throw new IllegalArgumentException("Alphabet must be distinct letters, digits or dashes");
+        }
+        if (prefix.length() + length > MAX_CODE_LENGTH) {
+            throw new IllegalArgumentException("Prefix and length cannot exceed " + MAX_CODE_LENGTH + " characters");
+        }
+        if (length * Math.log(alphabet.length()) < Math.log((double) request.getCount() * MIN_SPACE_FACTOR)) {
+            throw new IllegalArgumentException("Alphabet and length allow too few codes for " + request.getCount()
+                    + " unique codes; use a longer length or a larger alphabet");
+        }
+
+        Batch batch = new Batch(UUID.randomUUID().toString(), promotionId, request.getCount(),
+                alphabet.toCharArray(), length, prefix);
+        batches.put(batch.id, batch);
+        launcher.execute(() -> execute(batch));
+        return batch.id;
+    }
+
+    @Override
+    public Optional<PromotionCodeBatchStatusDTO> getBatch(String batchId) {
+        return Optional.ofNullable(batches.get(batchId)).map(Batch::toDTO);
+    }
+
+    @Override
+    public Page<String> getCodes(Integer promotionId, Pageable pageable) {
+        if (!promotionRepository.existsById(promotionId)) {
+            throw new ResourceNotFoundException("Promotion", "id", promotionId);
+        }
+        return codeRepository.findCodesByPromotionId(promotionId, pageable);
+    }
+
+    @Scheduled(fixedDelayString = "${app.promotions.codes.cleanup-interval-ms:600000}")
+    public void evictFinished() {
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(retentionMinutes));
+        batches.values().removeIf(batch -> batch.finishedAt != null && batch.finishedAt.isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        launcher.shutdownNow();
+    }
+
+    private void execute(Batch batch) {
+        batch.startedAt = Instant.now();
+        try {
+            batch.status = "SEEDING";
+            BloomFilter seen = seed(batch);
+            batch.status = "GENERATING";
+            while (batch.generated.get() < batch.requested) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new IllegalStateException("Interrupted by shutdown");
+                }
+                int size = (int) Math.min(chunkSize, batch.requested - batch.generated.get());
+                List<String> codes = nextChunk(batch, seen, size);
+                writeTransaction.executeWithoutResult(status -> insert(batch.promotionId, codes));
+                batch.generated.addAndGet(codes.size());
+                logger.debug("Code batch {}: {} of {} codes", batch.id, batch.generated.get(), batch.requested);
+            }
+            batch.status = "COMPLETED";
+        } catch (RuntimeException e) {
+            logger.error("Code batch {} for promotion {} failed after {} codes",
+                    batch.id, batch.promotionId, batch.generated.get(), e);
+            batch.errorMessage = e.getMessage();
+            batch.status = "FAILED";
+        }
+        batch.finishedAt = Instant.now();
+        logger.info("Code batch {} for promotion {} {}: {} codes, {} probable and {} confirmed collisions",
+                batch.id, batch.promotionId, batch.status.toLowerCase(), batch.generated.get(),
+                batch.probableCollisions.get(), batch.confirmedCollisions.get());
+    }
+
+    private BloomFilter seed(Batch batch) {
+        long existing = codeRepository.count() + promotionRepository.count();
+        BloomFilter seen = new BloomFilter(existing + batch.requested, falsePositiveRate);
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<String> codes = codeRepository.streamAllPromotionCodes()) {
+                codes.forEach(code -> {
+                    seen.put(code);
+                    batch.existingCodes.incrementAndGet();
+                });
+            }
+            try (Stream<String> codes = codeRepository.streamAllCodes()) {
+                codes.forEach(code -> {
+                    seen.put(code);
+                    batch.existingCodes.incrementAndGet();
+                });
+            }
+        });
+        return seen;
+    }
+
+    // Draws codes until size of them are known to be unused, checking only the filter's suspects in the database
+    private List<String> nextChunk(Batch batch, BloomFilter seen, int size) {
+        Set<String> accepted = new LinkedHashSet<>(size * 2);
+        while (accepted.size() < size) {
+            Set<String> suspects = new HashSet<>();
+            while (accepted.size() + suspects.size() < size) {
+                String code = batch.nextCode(random);
+                if (!seen.mightContain(code)) {
+                    seen.put(code);
+                    accepted.add(code);
+                } else {
+                    batch.probableCollisions.incrementAndGet();
+                    suspects.add(code);
+                }
+            }
+            if (suspects.isEmpty()) {
+                break;
+            }
+            // Taken by this batch or, if the database has them, by earlier ones
+            Set<String> taken = new HashSet<>();
+            suspects.stream().filter(accepted::contains).forEach(taken::add);
+            taken.addAll(codeRepository.findExistingCodes(suspects));
+            taken.addAll(codeRepository.findExistingPromotionCodes(suspects));
+            for (String code : suspects) {
+                if (taken.contains(code)) {
+                    batch.confirmedCollisions.incrementAndGet();
+                } else {
+                    seen.put(code);
+                    accepted.add(code);
+                }
+            }
+            if (batch.confirmedCollisions.get() > batch.requested) {
+                throw new IllegalStateException("Too many collisions, the code space is nearly exhausted");
+            }
+        }
+        return new ArrayList<>(accepted);
+    }
+
+    private void insert(Integer promotionId, List<String> codes) {
+        Promotion promotion = entityManager.getReference(Promotion.class, promotionId);
+        for (String value : codes) {
+            PromotionCode code = new PromotionCode();
+            code.setCode(value);
+            code.setPromotion(promotion);
+            entityManager.persist(code);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static class Batch {
+        private final String id;
+        private final Integer promotionId;
+        private final int requested;
+        private final char[] alphabet;
+        private final char[] buffer;
+        private final int prefixLength;
+        private final AtomicLong generated = new AtomicLong();
+        private final AtomicLong existingCodes = new AtomicLong();
+        private final AtomicLong probableCollisions = new AtomicLong();
+        private final AtomicLong confirmedCollisions = new AtomicLong();
+        private volatile String status = "QUEUED";
+        private volatile String errorMessage;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+
+        private Batch(String id, Integer promotionId, int requested, char[] alphabet, int length, String prefix) {
+            this.id = id;
+            this.promotionId = promotionId;
+            this.requested = requested;
+            this.alphabet = alphabet;
+            this.buffer = new char[prefix.length() + length];
+            this.prefixLength = prefix.length();
+            prefix.getChars(0, prefixLength, buffer, 0);
+        }
+
+        private String nextCode(SecureRandom random) {
+            for (int i = prefixLength; i < buffer.length; i++) {
+                buffer[i] = alphabet[random.nextInt(alphabet.length)];
+            }
+            return new String(buffer);
+        }
+
+        private PromotionCodeBatchStatusDTO toDTO() {
+            Instant started = startedAt;
+            Instant finished = finishedAt;
+            Long elapsedMs = started != null
+                    ? (finished != null ? finished : Instant.now()).toEpochMilli() - started.toEpochMilli()
+                    : null;
+            return PromotionCodeBatchStatusDTO.builder()
+                    .batchId(id)
+                    .promotionId(promotionId)
+                    .status(status)
+                    .requested(requested)
+                    .generated(generated.get())
+                    .existingCodes(existingCodes.get())
+                    .probableCollisions(probableCollisions.get())
+                    .confirmedCollisions(confirmedCollisions.get())
+                    .startedAt(started)
+                    .finishedAt(finished)
+                    .elapsedMs(elapsedMs)
+                    .codesPerSecond(elapsedMs != null && elapsedMs > 0 ? generated.get() * 1000.0 / elapsedMs : null)
+                    .errorMessage(errorMessage)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,625 @@
+package com.example.demo.service.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Promotion rules compiled into lookup tables for cart evaluation.
+ *
+ * Rules target a product, a category, a brand or the whole cart, and are indexed by that target, so
+ * evaluating a cart only looks at the rules reachable from its lines plus the whole-cart rules. A
+ * rule qualifies when the lines it targets reach its minimum quantity and minimum spend; several
+ * rules of one promotion act as tiers, of which the one giving the largest discount applies.
+ *
+ * Stacking is resolved deterministically. Rules are ranked by priority (highest first), then
+ * promotion ID, then rule ID. Non-exclusive promotions stack in rank order, each discounting what
+ * the previous ones left of a line. An exclusive promotion applies alone, and is chosen over the
+ * stack when it gives a larger discount; equal discounts go to the outcome holding the
+ * higher-ranked rule.
+ *
+ * Amounts are in cents. An index is immutable and can be shared between threads; evaluations
+ * allocate nothing once their {@link Evaluation} and {@link Cart} have grown to the cart size, so
+ * callers pricing many carts should reuse one of each per thread.
+ */
+public class PromotionRuleIndex {
+
+    public enum Target {
+        PRODUCT,
+        CATEGORY,
+        BRAND,
+        CART
+    }
+
+    private static final int[] NONE = new int[0];
+    private static final int ALL_LINES = -1;
+
+    // Rule attributes, indexed by rank
+    private final int[] ruleIds;
+    private final int[] promotionIds;
+    private final int[] promotionSlots;
+    private final long[] minSpend;
+    private final int[] minQuantity;
+    private final int[] percentOff;
+    private final long[] amountOff;
+    private final boolean[] exclusive;
+    private final boolean[] automatic;
+    private final int[] startDay;
+    private final int[] endDay;
+
+    // Sorted promotion IDs; the position of an ID is its slot
+    private final int[] promotionIdsBySlot;
+
+    // Ranks of the rules for each target, each list in rank order
+    private final int[] productKeys;
+    private final int[][] productRules;
+    private final int[] categoryKeys;
+    private final int[][] categoryRules;
+    private final Map<String, int[]> brandRules;
+    // Whole-cart rules are reached by every cart, so those needing a code are kept apart by promotion
+    private final int[] automaticCartRules;
+    private final int[] codedCartKeys;
+    private final int[][] codedCartRules;
+
+    private PromotionRuleIndex(List<Rule> ranked) {
+        int size = ranked.size();
+        ruleIds = new int[size];
+        promotionIds = new int[size];
+        promotionSlots = new int[size];
+        minSpend = new long[size];
+        minQuantity = new int[size];
+        percentOff = new int[size];
+        amountOff = new long[size];
+        exclusive = new boolean[size];
+        automatic = new boolean[size];
+        startDay = new int[size];
+        endDay = new int[size];
+
+        promotionIdsBySlot = ranked.stream().mapToInt(rule -> rule.promotionId).distinct().sorted().toArray();
+        Map<Integer, List<Integer>> byProduct = new TreeMap<>();
+        Map<Integer, List<Integer>> byCategory = new TreeMap<>();
+        Map<String, List<Integer>> byBrand = new HashMap<>();
+        List<Integer> automaticByCart = new ArrayList<>();
+        Map<Integer, List<Integer>> codedByCart = new TreeMap<>();
+        for (int r = 0; r < size; r++) {
+            Rule rule = ranked.get(r);
+            ruleIds[r] = rule.ruleId;
+            promotionIds[r] = rule.promotionId;
+            promotionSlots[r] = Arrays.binarySearch(promotionIdsBySlot, rule.promotionId);
+            minSpend[r] = rule.minSpend;
+            minQuantity[r] = rule.minQuantity;
+            percentOff[r] = rule.percentOff;
+            amountOff[r] = rule.amountOff;
+            exclusive[r] = rule.exclusive;
+            automatic[r] = rule.automatic;
+            startDay[r] = rule.startDay;
+            endDay[r] = rule.endDay;
+            switch (rule.target) {
+                case PRODUCT -> byProduct.computeIfAbsent(rule.targetId, id -> new ArrayList<>()).add(r);
+                case CATEGORY -> byCategory.computeIfAbsent(rule.targetId, id -> new ArrayList<>()).add(r);
+                case BRAND -> byBrand.computeIfAbsent(rule.brand, brand -> new ArrayList<>()).add(r);
+                case CART -> {
+                    if (rule.automatic) {
+                        automaticByCart.add(r);
+                    } else {
+                        codedByCart.computeIfAbsent(rule.promotionId, id -> new ArrayList<>()).add(r);
+                    }
+                }
+            }
+        }
+        productKeys = byProduct.keySet().stream().mapToInt(Integer::intValue).toArray();
+        productRules = byProduct.values().stream().map(PromotionRuleIndex::toArray).toArray(int[][]::new);
+        categoryKeys = byCategory.keySet().stream().mapToInt(Integer::intValue).toArray();
+        categoryRules = byCategory.values().stream().map(PromotionRuleIndex::toArray).toArray(int[][]::new);
+        brandRules = new HashMap<>();
+        byBrand.forEach((brand, rules) -> brandRules.put(brand, toArray(rules)));
+        automaticCartRules = toArray(automaticByCart);
+        codedCartKeys = codedByCart.keySet().stream().mapToInt(Integer::intValue).toArray();
+        codedCartRules = codedByCart.values().stream().map(PromotionRuleIndex::toArray).toArray(int[][]::new);
+    }
+
+    /**
+     * Ranks and indexes the rules.
+     */
+    public static PromotionRuleIndex compile(Collection<Rule> rules) {
+        for (Rule rule : rules) {
+            rule.validate();
+        }
+        List<Rule> ranked = new ArrayList<>(rules);
+        ranked.sort(Comparator.comparingInt((Rule rule) -> -rule.priority)
+                .thenComparingInt(rule -> rule.promotionId)
+                .thenComparingInt(rule -> rule.ruleId));
+        return new PromotionRuleIndex(ranked);
+    }
+
+    public int size() {
+        return ruleIds.length;
+    }
+
+    public boolean containsPromotion(int promotionId) {
+        return Arrays.binarySearch(promotionIdsBySlot, promotionId) >= 0;
+    }
+
+    // Whether evaluating needs the categories of the cart lines
+    public boolean hasCategoryRules() {
+        return categoryKeys.length > 0;
+    }
+
+    public Evaluation newEvaluation() {
+        return new Evaluation(this);
+    }
+
+    /**
+     * Evaluates the cart into the given evaluation, which is overwritten.
+     *
+     * @param codedPromotionId promotion whose code the customer entered, or 0; rules that are not
+     *                         automatic only apply for their own promotion's code
+     * @param today            epoch day used for the promotions' date windows
+     */
+    public void evaluate(Cart cart, int codedPromotionId, int today, Evaluation out) {
+        if (out.index != this) {
+            throw new IllegalArgumentException("Evaluation belongs to another index");
+        }
+        out.reset(cart.size);
+        int stamp = out.nextStamp();
+
+        // Candidate rules reachable from the cart, each once, with the lines reaching them and their spend and units
+        long cartSpend = 0;
+        long cartQuantity = 0;
+        for (int l = 0; l < cart.size; l++) {
+            cartSpend += cart.unitPrices[l] * cart.quantities[l];
+            cartQuantity += cart.quantities[l];
+        }
+        int candidates = 0;
+        candidates = collect(automaticCartRules, ALL_LINES, cart, cartSpend, cartQuantity, codedPromotionId, today, stamp, out, candidates);
+        candidates = collect(lookup(codedCartKeys, codedCartRules, codedPromotionId), ALL_LINES, cart, cartSpend, cartQuantity,
+                codedPromotionId, today, stamp, out, candidates);
+        for (int l = 0; l < cart.size; l++) {
+            long spend = cart.unitPrices[l] * cart.quantities[l];
+            int quantity = cart.quantities[l];
+            candidates = collect(lookup(productKeys, productRules, cart.productIds[l]), l, cart, spend, quantity,
+                    codedPromotionId, today, stamp, out, candidates);
+            for (int c = cart.categoryStart(l); c < cart.categoryEnds[l]; c++) {
+                candidates = collect(lookup(categoryKeys, categoryRules, cart.categoryIds[c]), l, cart, spend, quantity,
+                        codedPromotionId, today, stamp, out, candidates);
+            }
+            if (cart.brands[l] != null) {
+                candidates = collect(brandRules.getOrDefault(cart.brands[l], NONE), l, cart, spend, quantity,
+                        codedPromotionId, today, stamp, out, candidates);
+            }
+        }
+        Arrays.sort(out.candidates, 0, candidates);
+
+        // Best qualifying tier per promotion
+        int promotions = 0;
+        for (int i = 0; i < candidates; i++) {
+            int r = out.candidates[i];
+            long spend = out.ruleSpend[r];
+            long quantity = out.ruleQuantity[r];
+            if (quantity == 0 || quantity < minQuantity[r] || spend < minSpend[r]) {
+                continue;
+            }
+            long value;
+            if (percentOff[r] > 0) {
+                value = spend * percentOff[r] / 10_000;
+            } else if (amountOff[r] < spend) {
+                value = amountOff[r];
+            } else {
+                // A fixed amount must leave something to pay
+                continue;
+            }
+            int slot = promotionSlots[r];
+            if (out.promotionStamps[slot] != stamp) {
+                out.promotionStamps[slot] = stamp;
+                out.bestRules[slot] = r;
+                out.bestValues[slot] = value;
+                out.chosen[promotions++] = slot;
+            } else if (value > out.bestValues[slot]) {
+                out.bestRules[slot] = r;
+                out.bestValues[slot] = value;
+            }
+        }
+        for (int i = 0; i < promotions; i++) {
+            out.chosen[i] = out.bestRules[out.chosen[i]];
+        }
+        Arrays.sort(out.chosen, 0, promotions);
+
+        // The stack of non-exclusive promotions
+        int firstStacked = Integer.MAX_VALUE;
+        for (int l = 0; l < cart.size; l++) {
+            out.remaining[l] = cart.unitPrices[l] * cart.quantities[l];
+        }
+        for (int i = 0; i < promotions; i++) {
+            int r = out.chosen[i];
+            if (!exclusive[r]) {
+                firstStacked = Math.min(firstStacked, r);
+                out.totalDiscount += apply(r, out, out.remaining, out.discounts);
+                out.applied[out.appliedCount++] = r;
+            }
+        }
+
+        // Each exclusive promotion on its own, replacing the result when it does better
+        int bestFirst = firstStacked;
+        for (int i = 0; i < promotions; i++) {
+            int r = out.chosen[i];
+            if (!exclusive[r]) {
+                continue;
+            }
+            for (int l = 0; l < cart.size; l++) {
+                out.remaining[l] = cart.unitPrices[l] * cart.quantities[l];
+                out.alternative[l] = 0;
+            }
+            long total = apply(r, out, out.remaining, out.alternative);
+            if (total > 0 && (total > out.totalDiscount || total == out.totalDiscount && r < bestFirst)) {
+                long[] swap = out.discounts;
+                out.discounts = out.alternative;
+                out.alternative = swap;
+                out.totalDiscount = total;
+                out.applied[0] = r;
+                out.appliedCount = 1;
+                bestFirst = r;
+            }
+        }
+    }
+
+    // A line reaches a rule at most once, through its product, one of its categories or its brand
+    private int collect(int[] rules, int line, Cart cart, long spend, long quantity, int codedPromotionId, int today,
+                        int stamp, Evaluation out, int count) {
+        for (int r : rules) {
+            if (out.ruleStamps[r] == stamp) {
+                out.ruleSpend[r] += spend;
+                out.ruleQuantity[r] += quantity;
+                out.firstReach[r] = out.reach(line, out.firstReach[r]);
+                continue;
+            }
+            out.ruleStamps[r] = stamp;
+            out.ruleSpend[r] = spend;
+            out.ruleQuantity[r] = quantity;
+            if (line == ALL_LINES) {
+                int first = -1;
+                for (int l = cart.size - 1; l >= 0; l--) {
+                    first = out.reach(l, first);
+                }
+                out.firstReach[r] = first;
+            } else {
+                out.firstReach[r] = out.reach(line, -1);
+            }
+            if ((automatic[r] || promotionIds[r] == codedPromotionId) && today >= startDay[r] && today <= endDay[r]) {
+                out.candidates[count++] = r;
+            }
+        }
+        return count;
+    }
+
+    // Discounts the remaining amounts of the lines that reached the rule; returns the discount given
+    private long apply(int r, Evaluation out, long[] remaining, long[] discounts) {
+        long given = 0;
+        if (percentOff[r] > 0) {
+            for (int k = out.firstReach[r]; k >= 0; k = out.nextReach[k]) {
+                int l = out.reachLines[k];
+                if (remaining[l] > 0) {
+                    long discount = (remaining[l] * percentOff[r] + 5_000) / 10_000;
+                    remaining[l] -= discount;
+                    discounts[l] += discount;
+                    given += discount;
+                }
+            }
+            return given;
+        }
+        // A fixed amount is spread over the lines in proportion to what is left of them, the rounding remainder on the last one visited
+        long base = 0;
+        int last = -1;
+        for (int k = out.firstReach[r]; k >= 0; k = out.nextReach[k]) {
+            int l = out.reachLines[k];
+            if (remaining[l] > 0) {
+                base += remaining[l];
+                last = l;
+            }
+        }
+        if (base <= 0) {
+            return 0;
+        }
+        long amount = Math.min(amountOff[r], base);
+        for (int k = out.firstReach[r]; k >= 0; k = out.nextReach[k]) {
+            int l = out.reachLines[k];
+            if (remaining[l] > 0) {
+                long discount = l == last ? amount - given : amount * remaining[l] / base;
+                discount = Math.min(discount, remaining[l]);
+                remaining[l] -= discount;
+                discounts[l] += discount;
+                given += discount;
+            }
+        }
+        return given;
+    }
+
+    private static int[] lookup(int[] keys, int[][] values, int key) {
+        int position = Arrays.binarySearch(keys, key);
+        return position >= 0 ? values[position] : NONE;
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        return values.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * A promotion rule to compile. Targets the whole cart unless given a target.
+     */
+    public static class Rule {
+        private final int ruleId;
+        private final int promotionId;
+        private Target target = Target.CART;
+        private int targetId;
+        private String brand;
+        private long minSpend;
+        private int minQuantity;
+        private int percentOff;
+        private long amountOff;
+        private int priority;
+        private boolean exclusive;
+        private boolean automatic;
+        private int startDay = Integer.MIN_VALUE;
+        private int endDay = Integer.MAX_VALUE;
+
+        public Rule(int ruleId, int promotionId) {
+            this.ruleId = ruleId;
+            this.promotionId = promotionId;
+        }
+
+        public Rule product(int productId) {
+            this.target = Target.PRODUCT;
+            this.targetId = productId;
+            return this;
+        }
+
+        public Rule category(int categoryId) {
+            this.target = Target.CATEGORY;
+            this.targetId = categoryId;
+            return this;
+        }
+
+        public Rule brand(String brand) {
+            this.target = Target.BRAND;
+            this.brand = brand;
+            return this;
+        }
+
+        public Rule minSpend(long cents) {
+            this.minSpend = cents;
+            return this;
+        }
+
+        public Rule minQuantity(int quantity) {
+            this.minQuantity = quantity;
+            return this;
+        }
+
+        // In hundredths of a percent, so 1500 is 15%
+        public Rule percentOff(int basisPoints) {
+            this.percentOff = basisPoints;
+            return this;
+        }
+
+        public Rule amountOff(long cents) {
+            this.amountOff = cents;
+            return this;
+        }
+
+        public Rule priority(int priority) {
+            this.priority = priority;
+            return this;
+        }
+
+        public Rule exclusive(boolean exclusive) {
+            this.exclusive = exclusive;
+            return this;
+        }
+
+        // Applies without a code being entered
+        public Rule automatic(boolean automatic) {
+            this.automatic = automatic;
+            return this;
+        }
+
+        // Inclusive epoch days
+        public Rule activeBetween(int startDay, int endDay) {
+            this.startDay = startDay;
+            this.endDay = endDay;
+            return this;
+        }
+
+        private void validate() {
+            if ((percentOff > 0) == (amountOff > 0)) {
+                throw new IllegalArgumentException("Rule " + ruleId + " needs either a percentage or an amount off");
+            }
+            if (percentOff > 10_000) {
+                throw new IllegalArgumentException("Rule " + ruleId + " takes more than 100% off");
+            }
+            if (target == Target.BRAND && brand == null) {
+                throw new IllegalArgumentException("Rule " + ruleId + " targets a brand but names none");
+            }
+            if (minSpend < 0 || minQuantity < 0) {
+                throw new IllegalArgumentException("Rule " + ruleId + " has a negative minimum");
+            }
+        }
+    }
+
+    /**
+     * Cart lines in a reusable, flat layout. Categories of a line are added right after the line.
+     */
+    public static class Cart {
+        private int size;
+        private int[] productIds = new int[8];
+        private int[] quantities = new int[8];
+        private long[] unitPrices = new long[8];
+        private String[] brands = new String[8];
+        // End of each line's categories in categoryIds; a line's categories start where the previous line's end
+        private int[] categoryEnds = new int[8];
+        private int[] categoryIds = new int[16];
+        private int categoryCount;
+
+        public void clear() {
+            size = 0;
+            categoryCount = 0;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public void addLine(int productId, int quantity, long unitPrice, String brand) {
+            if (quantity <= 0 || unitPrice < 0) {
+                throw new IllegalArgumentException("Invalid quantity or price for product " + productId);
+            }
+            if (size == productIds.length) {
+                int capacity = size * 2;
+                productIds = Arrays.copyOf(productIds, capacity);
+                quantities = Arrays.copyOf(quantities, capacity);
+                unitPrices = Arrays.copyOf(unitPrices, capacity);
+                brands = Arrays.copyOf(brands, capacity);
+                categoryEnds = Arrays.copyOf(categoryEnds, capacity);
+            }
+            productIds[size] = productId;
+            quantities[size] = quantity;
+            unitPrices[size] = unitPrice;
+            brands[size] = brand;
+            categoryEnds[size] = categoryCount;
+            size++;
+        }
+
+        // Adds a category to the last line added; a line's categories must be distinct
+        public void addCategory(int categoryId) {
+            if (size == 0) {
+                throw new IllegalStateException("No line to add the category to");
+            }
+            if (categoryCount == categoryIds.length) {
+                categoryIds = Arrays.copyOf(categoryIds, categoryCount * 2);
+            }
+            categoryIds[categoryCount++] = categoryId;
+            categoryEnds[size - 1] = categoryCount;
+        }
+
+        private int categoryStart(int line) {
+            return line == 0 ? 0 : categoryEnds[line - 1];
+        }
+    }
+
+    /**
+     * Scratch space and result of evaluating carts against one index. Not thread-safe.
+     */
+    public static class Evaluation {
+        private final PromotionRuleIndex index;
+        private final int[] ruleStamps;
+        private final long[] ruleSpend;
+        private final long[] ruleQuantity;
+        // Lines reaching each rule, as linked lists through reachLines and nextReach
+        private final int[] firstReach;
+        private int[] reachLines = new int[64];
+        private int[] nextReach = new int[64];
+        private int reaches;
+        private final int[] candidates;
+        private final int[] promotionStamps;
+        private final int[] bestRules;
+        private final long[] bestValues;
+        private final int[] chosen;
+        private final int[] applied;
+        private int stamp;
+        private int appliedCount;
+        private long totalDiscount;
+        private long[] discounts = new long[8];
+        private long[] alternative = new long[8];
+        private long[] remaining = new long[8];
+
+        private Evaluation(PromotionRuleIndex index) {
+            int rules = index.size();
+            int promotions = index.promotionIdsBySlot.length;
+            this.index = index;
+            this.ruleStamps = new int[rules];
+            this.ruleSpend = new long[rules];
+            this.ruleQuantity = new long[rules];
+            this.firstReach = new int[rules];
+            this.candidates = new int[rules];
+            this.promotionStamps = new int[promotions];
+            this.bestRules = new int[promotions];
+            this.bestValues = new long[promotions];
+            this.chosen = new int[promotions];
+            this.applied = new int[promotions];
+        }
+
+        private void reset(int lines) {
+            if (discounts.length < lines) {
+                int capacity = Math.max(lines, discounts.length * 2);
+                discounts = new long[capacity];
+                alternative = new long[capacity];
+                remaining = new long[capacity];
+            } else {
+                Arrays.fill(discounts, 0, lines, 0);
+            }
+            appliedCount = 0;
+            totalDiscount = 0;
+            reaches = 0;
+        }
+
+        // Adds a line in front of a reach list, returning the new head
+        private int reach(int line, int next) {
+            if (reaches == reachLines.length) {
+                reachLines = Arrays.copyOf(reachLines, reaches * 2);
+                nextReach = Arrays.copyOf(nextReach, reaches * 2);
+            }
+            reachLines[reaches] = line;
+            nextReach[reaches] = next;
+            return reaches++;
+        }
+
+        // Stamps mark what was seen in this evaluation without clearing the arrays between evaluations
+        private int nextStamp() {
+            if (stamp == Integer.MAX_VALUE) {
+                Arrays.fill(ruleStamps, 0);
+                Arrays.fill(promotionStamps, 0);
+                stamp = 0;
+            }
+            return ++stamp;
+        }
+
+        // Discount on a cart line, in cents, in the order the lines were added
+        public long getDiscount(int line) {
+            return discounts[line];
+        }
+
+        public long getTotalDiscount() {
+            return totalDiscount;
+        }
+
+        public int getAppliedCount() {
+            return appliedCount;
+        }
+
+        public int getAppliedRuleId(int i) {
+            return index.ruleIds[applied[i]];
+        }
+
+        public int getAppliedPromotionId(int i) {
+            return index.promotionIds[applied[i]];
+        }
+
+        public boolean isApplied(int promotionId) {
+            for (int i = 0; i < appliedCount; i++) {
+                if (index.promotionIds[applied[i]] == promotionId) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Whether one of the promotion's rules qualified, whether or not it lost out to an exclusive promotion
+        public boolean isQualified(int promotionId) {
+            int slot = Arrays.binarySearch(index.promotionIdsBySlot, promotionId);
+            return slot >= 0 && promotionStamps[slot] == stamp;
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.dto.CartEvaluationDTO;
+import com.example.demo.dto.PromotionRuleDTO;
+import com.example.demo.entities.OrderDetail;
+import com.example.demo.entities.Product;
+import com.example.demo.entities.Promotion;
+import com.example.demo.entities.PromotionRule;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.repositories.ProductRepository;
+import com.example.demo.repositories.PromotionRepository;
+import com.example.demo.repositories.PromotionRuleRepository;
+import com.example.demo.service.PromotionRuleService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Evaluates promotion rules for checkout, order intake and cart previews.
+ *
+ * The rules of all active, unexpired promotions are compiled into a {@link PromotionRuleIndex}.
+ * Promotions without a code apply automatically; rules of a promotion with a code only apply when
+ * the code is entered. A promotion with a code but no rules keeps its flat discount as a single
+ * whole-cart rule. The index is recompiled after rule or promotion changes commit, and every
+ * app.promotions.rules-refresh-interval-ms so that promotions come and go with their dates.
+ */
+@Service
+public class PromotionRuleServiceImpl implements PromotionRuleService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromotionRuleServiceImpl.class);
+    // Rule ID reported for the flat discount of a promotion without rules
+    private static final int FLAT_RULE_ID = 0;
+
+    private final PromotionRuleRepository ruleRepository;
+    private final PromotionRepository promotionRepository;
+    private final ProductRepository productRepository;
+
+    private final ReentrantLock compileLock = new ReentrantLock();
+    private volatile PromotionRuleIndex index = PromotionRuleIndex.compile(List.of());
+    private volatile boolean stale = true;
+
+    @Autowired
+    public PromotionRuleServiceImpl(PromotionRuleRepository ruleRepository,
+                                    PromotionRepository promotionRepository,
+                                    ProductRepository productRepository) {
+        this.ruleRepository = ruleRepository;
+        this.promotionRepository = promotionRepository;
+        this.productRepository = productRepository;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<PromotionRuleDTO> getRules(Integer promotionId) {
+        if (!promotionRepository.existsById(promotionId)) {
+            throw new ResourceNotFoundException("Promotion", "id", promotionId);
+        }
+        return ruleRepository.findByPromotionId(promotionId).stream()
+                .map(PromotionRuleDTO::fromEntity)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional
+    public PromotionRuleDTO addRule(Integer promotionId, PromotionRuleDTO dto) {
+        Promotion promotion = promotionRepository.findById(promotionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Promotion", "id", promotionId));
+        PromotionRule rule = new PromotionRule();
+        rule.setPromotion(promotion);
+        rule.setTargetType(dto.getTargetType());
+        rule.setTargetId(dto.getTargetId());
+        rule.setBrand(dto.getBrand());
+        rule.setMinSpend(dto.getMinSpend());
+        rule.setMinQuantity(dto.getMinQuantity());
+        rule.setDiscountPercentage(dto.getDiscountPercentage());
+        rule.setDiscountAmount(dto.getDiscountAmount());
+        rule.setPriority(dto.getPriority() != null ? dto.getPriority() : 0);
+        rule.setExclusive(Boolean.TRUE.equals(dto.getExclusive()));
+        // Fails on a rule the index would reject, before it is stored
+        PromotionRuleIndex.compile(List.of(toRule(rule, promotion)));
+
+        PromotionRule saved = ruleRepository.save(rule);
+        markStale();
+        return PromotionRuleDTO.fromEntity(saved);
+    }
+
+    @Override
+    @Transactional
+    public void deleteRule(Integer promotionId, Integer ruleId) {
+        PromotionRule rule = ruleRepository.findByIdAndPromotionId(ruleId, promotionId)
+                .orElseThrow(() -> new ResourceNotFoundException("PromotionRule", "id", ruleId));
+        ruleRepository.delete(rule);
+        markStale();
+    }
+
+    @Override
+    public List<OrderDetail> priceOrder(Map<Integer, Product> products, Map<Integer, Integer> quantities, Promotion promotion) {
+        return OrderPricing.price(products, quantities, evaluate(products, quantities, promotion));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CartEvaluationDTO evaluateCart(Map<Integer, Integer> lines, Promotion promotion) {
+        Map<Integer, Product> products = new LinkedHashMap<>();
+        productRepository.findAllById(lines.keySet()).forEach(product -> products.put(product.getId(), product));
+        for (Integer productId : lines.keySet()) {
+            if (!products.containsKey(productId)) {
+                throw new ResourceNotFoundException("Product", "id", productId);
+            }
+        }
+
+        PromotionRuleIndex.Evaluation evaluation = evaluate(products, lines, promotion);
+        BigDecimal subtotal = BigDecimal.ZERO;
+        BigDecimal total = BigDecimal.ZERO;
+        Map<Integer, BigDecimal> lineDiscounts = new LinkedHashMap<>();
+        for (OrderDetail detail : OrderPricing.price(products, lines, evaluation)) {
+            BigDecimal quantity = BigDecimal.valueOf(detail.getQuantity());
+            subtotal = subtotal.add(detail.getOriginalPrice().multiply(quantity));
+            total = total.add(detail.getFinalPrice());
+            lineDiscounts.put(detail.getProduct().getId(), detail.getDiscountAmount().multiply(quantity));
+        }
+        List<Integer> promotionIds = new ArrayList<>();
+        List<Integer> ruleIds = new ArrayList<>();
+        for (int i = 0; i < evaluation.getAppliedCount(); i++) {
+            promotionIds.add(evaluation.getAppliedPromotionId(i));
+            ruleIds.add(evaluation.getAppliedRuleId(i));
+        }
+
+        return CartEvaluationDTO.builder()
+                .subtotal(subtotal)
+                .discount(subtotal.subtract(total))
+                .total(total)
+                .appliedPromotionIds(promotionIds)
+                .appliedRuleIds(ruleIds)
+                .lineDiscounts(lineDiscounts)
+                .build();
+    }
+
+    private PromotionRuleIndex.Evaluation evaluate(Map<Integer, Product> products, Map<Integer, Integer> quantities,
+                                                   Promotion promotion) {
+        PromotionRuleIndex current = currentIndex();
+        if (promotion != null && !current.containsPromotion(promotion.getId())) {
+            // Created or reactivated since the last compile
+            stale = true;
+            current = currentIndex();
+        }
+        Map<Integer, List<Integer>> categories = current.hasCategoryRules()
+                ? categoryIds(quantities.keySet())
+                : Map.of();
+        PromotionRuleIndex.Evaluation evaluation = current.newEvaluation();
+        current.evaluate(OrderPricing.cart(products, quantities, categories),
+                promotion != null ? promotion.getId() : 0, (int) LocalDate.now().toEpochDay(), evaluation);
+        if (promotion != null && !evaluation.isApplied(promotion.getId())) {
+            throw new IllegalStateException(evaluation.isQualified(promotion.getId())
+                    ? "Promotion code cannot be combined with the promotions already applied to this order"
+                    : "Promotion code does not apply to this order");
+        }
+        return evaluation;
+    }
+
+    @Override
+    public void markStale() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    stale = true;
+                }
+            });
+        } else {
+            stale = true;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.promotions.rules-refresh-interval-ms:300000}")
+    public void refreshIndex() {
+        stale = true;
+        try {
+            currentIndex();
+        } catch (RuntimeException e) {
+            logger.error("Failed to compile promotion rules, keeping the previous index", e);
+        }
+    }
+
+    private PromotionRuleIndex currentIndex() {
+        if (!stale) {
+            return index;
+        }
+        compileLock.lock();
+        try {
+            if (stale) {
+                // Cleared first, so that a change committing during the compile triggers another
+                stale = false;
+                try {
+                    index = compile();
+                } catch (RuntimeException e) {
+                    stale = true;
+                    throw e;
+                }
+            }
+            return index;
+        } finally {
+            compileLock.unlock();
+        }
+    }
+
+    private PromotionRuleIndex compile() {
+        LocalDate today = LocalDate.now();
+        List<Promotion> promotions = promotionRepository.findByIsActiveTrue().stream()
+                .filter(promotion -> !promotion.getEndDate().isBefore(today))
+                .collect(Collectors.toList());
+        Map<Integer, List<PromotionRule>> rulesByPromotion = promotions.isEmpty()
+                ? Map.of()
+                : ruleRepository.findByPromotionIds(promotions.stream().map(Promotion::getId).collect(Collectors.toList()))
+                        .stream()
+                        .collect(Collectors.groupingBy(rule -> rule.getPromotion().getId()));
+
+        List<PromotionRuleIndex.Rule> rules = new ArrayList<>();
+        for (Promotion promotion : promotions) {
+            List<PromotionRule> promotionRules = rulesByPromotion.getOrDefault(promotion.getId(), List.of());
+            if (!promotionRules.isEmpty()) {
+                promotionRules.forEach(rule -> rules.add(toRule(rule, promotion)));
+            } else if (promotion.getCode() != null) {
+                PromotionRuleIndex.Rule flat = flatRule(promotion);
+                if (flat != null) {
+                    rules.add(flat);
+                }
+            }
+        }
+        PromotionRuleIndex compiled = PromotionRuleIndex.compile(rules);
+        logger.debug("Compiled {} promotion rules of {} promotions", compiled.size(), promotions.size());
+        return compiled;
+    }
+
+    private static PromotionRuleIndex.Rule toRule(PromotionRule rule, Promotion promotion) {
+        PromotionRuleIndex.Rule compiled = newRule(rule.getId() != null ? rule.getId() : FLAT_RULE_ID, promotion);
+        switch (rule.getTargetType()) {
+            case "PRODUCT" -> compiled.product(requireTargetId(rule));
+            case "CATEGORY" -> compiled.category(requireTargetId(rule));
+            case "BRAND" -> compiled.brand(rule.getBrand());
+            case "CART" -> { }
+            default -> throw new IllegalArgumentException("Unknown rule target type: " + rule.getTargetType());
+        }
+        if (rule.getMinSpend() != null) {
+            compiled.minSpend(OrderPricing.toCents(rule.getMinSpend()));
+        }
+        if (rule.getMinQuantity() != null) {
+            compiled.minQuantity(rule.getMinQuantity());
+        }
+        if (rule.getDiscountPercentage() != null) {
+            compiled.percentOff(rule.getDiscountPercentage().movePointRight(2).intValue());
+        }
+        if (rule.getDiscountAmount() != null) {
+            compiled.amountOff(OrderPricing.toCents(rule.getDiscountAmount()));
+        }
+        return compiled
+                .priority(rule.getPriority() != null ? rule.getPriority() : 0)
+                .exclusive(Boolean.TRUE.equals(rule.getExclusive()));
+    }
+
+    // The promotion's own percentage or amount on the whole cart, or null when it has neither
+    private static PromotionRuleIndex.Rule flatRule(Promotion promotion) {
+        PromotionRuleIndex.Rule flat = newRule(FLAT_RULE_ID, promotion);
+        if (promotion.getDiscountPercentage() != null && promotion.getDiscountPercentage().signum() > 0) {
+            return flat.percentOff(promotion.getDiscountPercentage().movePointRight(2).intValue());
+        }
+        if (promotion.getDiscountAmount() != null && promotion.getDiscountAmount().signum() > 0) {
+            return flat.amountOff(OrderPricing.toCents(promotion.getDiscountAmount()));
+        }
+        return null;
+    }
+
+    private static PromotionRuleIndex.Rule newRule(int ruleId, Promotion promotion) {
+        return new PromotionRuleIndex.Rule(ruleId, promotion.getId())
+                .automatic(promotion.getCode() == null)
+                .activeBetween((int) promotion.getStartDate().toEpochDay(), (int) promotion.getEndDate().toEpochDay());
+    }
+
+    private static int requireTargetId(PromotionRule rule) {
+        if (rule.getTargetId() == null) {
+            throw new IllegalArgumentException(rule.getTargetType() + " rules need a target ID");
+        }
+        return rule.getTargetId();
+    }
+
+    private Map<Integer, List<Integer>> categoryIds(Iterable<Integer> productIds) {
+        List<Integer> ids = new ArrayList<>();
+        productIds.forEach(ids::add);
+        Map<Integer, List<Integer>> categories = new HashMap<>();
+        for (Object[] row : productRepository.findCategoryIdsByProductIds(ids)) {
+            categories.computeIfAbsent((Integer) row[0], id -> new ArrayList<>()).add((Integer) row[1]);
+        }
+        return categories;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.demo.service.impl;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Start and end instants of promotions, ordered by time.
+ *
+ * Each scheduled promotion has a start and an end boundary in a priority queue, so finding the
+ * next boundary and taking the ones that are due costs O(log n) per boundary however many
+ * promotions are scheduled. Rescheduling or cancelling a promotion does not search the queue: it
+ * bumps the promotion's version, and boundaries of older versions are dropped when they reach
+ * the head.
+ *
+ * Thread-safe; callers act on the returned transitions outside the lock.
+ */
+public class PromotionSchedule {
+
+    public record Transition(int promotionId, boolean start, long at) {
+    }
+
+    private record Boundary(long at, int promotionId, boolean start, long version) {
+    }
+
+    // Ends before starts at the same instant, so a promotion replacing another never overlaps it
+    private static final Comparator<Boundary> ORDER = Comparator.comparingLong(Boundary::at)
+            .thenComparing(Boundary::start)
+            .thenComparingInt(Boundary::promotionId);
+
+    private final PriorityQueue<Boundary> queue = new PriorityQueue<>(ORDER);
+    private final Map<Integer, Long> versions = new HashMap<>();
+    private long nextVersion;
+
+    /**
+     * Schedules a promotion that is live from startMillis (inclusive) to endMillis (exclusive),
+     * replacing any earlier schedule for it. Boundaries already in the past are due immediately.
+     */
+    public synchronized void schedule(int promotionId, long startMillis, long endMillis) {
+        if (endMillis < startMillis) {
+            throw new IllegalArgumentException("Promotion cannot end before it starts");
+        }
+        long version = ++nextVersion;
+        versions.put(promotionId, version);
+        queue.add(new Boundary(startMillis, promotionId, true, version));
+        queue.add(new Boundary(endMillis, promotionId, false, version));
+    }
+
+    // Drops the promotion's pending boundaries
+    public synchronized void cancel(int promotionId) {
+        versions.remove(promotionId);
+    }
+
+    public synchronized boolean isScheduled(int promotionId) {
+        return versions.containsKey(promotionId);
+    }
+
+    // Instant of the next boundary, or Long.MAX_VALUE when nothing is scheduled
+    public synchronized long nextDue() {
+        Boundary head = skipStale();
+        return head != null ? head.at() : Long.MAX_VALUE;
+    }
+
+    /**
+     * Removes and returns the boundaries due at nowMillis, in time order. A promotion is no longer
+     * scheduled once its end has been returned.
+     */
+    public synchronized List<Transition> poll(long nowMillis) {
+        List<Transition> due = new ArrayList<>();
+        Boundary head;
+        while ((head = skipStale()) != null && head.at() <= nowMillis) {
+            queue.poll();
+            if (!head.start()) {
+                versions.remove(head.promotionId());
+            }
+            due.add(new Transition(head.promotionId(), head.start(), head.at()));
+        }
+        return due;
+    }
+
+    public synchronized int size() {
+        return versions.size();
+    }
+
+    private Boundary skipStale() {
+        Boundary head;
+        while ((head = queue.peek()) != null && !Long.valueOf(head.version()).equals(versions.get(head.promotionId()))) {
+            queue.poll();
+        }
+        return head;
+    }
+}
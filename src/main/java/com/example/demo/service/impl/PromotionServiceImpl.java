@@ -1,29 +1,151 @@
 package com.example.demo.service.impl;
 
 import com.example.demo.entities.Promotion;
+import com.example.demo.entities.PromotionUsageLease;
+import com.example.demo.repositories.PromotionCodeRepository;
 import com.example.demo.repositories.PromotionRepository;
+import com.example.demo.repositories.PromotionUsageLeaseRepository;
+import com.example.demo.service.PromotionRuleService;
 import com.example.demo.service.PromotionService;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Promotion management and validation.
+ *
+ * Promotions are cached by code on first validation and evicted after any change to them commits.
+ * Uses of promotions with a maxUses limit are counted in memory by a {@link StripedUsageCounter}
+ * per promotion: checkout reserves a use inside its transaction, and the use is confirmed on commit
+ * or handed back on rollback, so a popular code does not hit the database on every validation.
+ * The counter only holds uses leased from the database, up to app.promotions.lease-size at a time:
+ * under a lock on the promotion's row, a lease is granted out of maxUses less the recorded uses and
+ * the uses other instances hold, so instances sharing a code never use it more often than allowed
+ * together. Each instance records what it holds in a {@link PromotionUsageLease}, renews it every
+ * app.promotions.lease-renew-interval-ms and drops it on shutdown; the lease of an instance that
+ * stopped without doing so stops counting after app.promotions.lease-ttl-ms. Changes also mark the
+ * compiled promotion rules stale.
+ *
+ * Active promotions are tracked in a {@link PromotionSchedule} and a single timer thread wakes at
+ * the next start or end date, so the current promotions are an in-memory set that changes only at
+ * those boundaries instead of a query per request. At its end a promotion is switched inactive,
+ * and each boundary drops the promotion from the code cache and marks the rules stale.
+ *
+ * A promotion may also be entered with one of its one-time codes; those are looked up in the
+ * database rather than cached, and redeemed in the checkout transaction.
+ */
 @Service
-@RequiredArgsConstructor
 public class PromotionServiceImpl implements PromotionService {
 
+    private static final Logger logger = LoggerFactory.getLogger(PromotionServiceImpl.class);
+
+    @Value("${app.promotions.usage-stripes:16}")
+    private int usageStripes;
+
+    @Value("${app.promotions.lease-size:64}")
+    private int leaseSize;
+
+    @Value("${app.promotions.lease-ttl-ms:300000}")
+    private long leaseTtlMs;
+
+    // How long a promotion found used up is not asked about again
+    @Value("${app.promotions.lease-retry-ms:5000}")
+    private long leaseRetryMs;
+
     private final PromotionRepository promotionRepository;
+    private final PromotionCodeRepository promotionCodeRepository;
+    private final PromotionRuleService promotionRuleService;
+    private final PromotionUsageLeaseRepository leaseRepository;
+    private final TransactionTemplate leaseTransaction;
+
+    // Identifies this instance's leases; a restarted instance starts over with none
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<String, Promotion> byCode = new ConcurrentHashMap<>();
+    // Kept across cache evictions so that in-flight reservations stay counted; replaced when maxUses changes
+    private final Map<Integer, StripedUsageCounter> usage = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> leaseRetryAt = new ConcurrentHashMap<>();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private final PromotionSchedule schedule = new PromotionSchedule();
+    // Active promotions with their dates, and the ones currently live; touched only on the timer thread
+    private final Map<Integer, Promotion> tracked = new HashMap<>();
+    private final Map<Integer, Promotion> live = new TreeMap<>();
+    // Rebuilt at every boundary; null until the schedule has been loaded
+    private volatile List<Promotion> current;
+    private ScheduledExecutorService boundaryTimer;
+    private ScheduledFuture<?> wakeUp;
+
+    @Autowired
+    public PromotionServiceImpl(PromotionRepository promotionRepository,
+                                PromotionCodeRepository promotionCodeRepository,
+                                PromotionRuleService promotionRuleService,
+                                PromotionUsageLeaseRepository leaseRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.promotionRepository = promotionRepository;
+        this.promotionCodeRepository = promotionCodeRepository;
+        this.promotionRuleService = promotionRuleService;
+        this.leaseRepository = leaseRepository;
+        // Leases commit on their own, so that the row lock is not held for the rest of a checkout
+        this.leaseTransaction = new TransactionTemplate(transactionManager);
+        this.leaseTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void start() {
+        boundaryTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "promotion-boundaries");
+            thread.setDaemon(true);
+            return thread;
+        });
+        boundaryTimer.execute(this::loadSchedule);
+    }
+
+    @PreDestroy
+    public void stop() {
+        boundaryTimer.shutdownNow();
+        // Hands the uses this instance holds back to the others
+        try {
+            leaseTransaction.executeWithoutResult(status -> leaseRepository.deleteByInstance(instanceId));
+        } catch (RuntimeException e) {
+            logger.warn("Failed to drop the promotion usage leases of this instance", e);
+        }
+    }
 
     @Override
     @Transactional
     public Promotion createPromotion(Promotion promotion) {
         // Validate code uniqueness
         if (promotion.getCode() != null && 
-            promotionRepository.findByCode(promotion.getCode()).isPresent()) {
+            (promotionRepository.findByCode(promotion.getCode()).isPresent() ||
+             promotionCodeRepository.existsById(promotion.getCode()))) {
             return null;
         }
 
@@ -32,7 +154,9 @@ public class PromotionServiceImpl implements PromotionService {
             promotion.setIsActive(true);
         }
 
-        return promotionRepository.save(promotion);
+        Promotion saved = promotionRepository.save(promotion);
+        changedAfterCommit(saved.getId(), saved.getCode());
+        return saved;
     }
 
     @Override
@@ -66,21 +190,38 @@ public class PromotionServiceImpl implements PromotionService {
         }
 
         // Handle code update
+        String previousCode = existing.getCode();
         if (promotion.getCode() != null && 
             !promotion.getCode().equals(existing.getCode())) {
-            if (promotionRepository.findByCode(promotion.getCode()).isPresent()) {
+            if (promotionRepository.findByCode(promotion.getCode()).isPresent() ||
+                promotionCodeRepository.existsById(promotion.getCode())) {
                 return null; // Code already exists
             }
             existing.setCode(promotion.getCode());
         }
 
-        return promotionRepository.save(existing);
+        Promotion saved = promotionRepository.save(existing);
+        changedAfterCommit(saved.getId(), previousCode, saved.getCode());
+        return saved;
     }
 
     @Override
     @Transactional
     public void deletePromotion(Integer id) {
+        promotionRepository.findById(id).ifPresent(promotion -> changedAfterCommit(id, promotion.getCode()));
         promotionRepository.deleteById(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    usage.remove(id);
+                    leaseRetryAt.remove(id);
+                }
+            });
+        } else {
+            usage.remove(id);
+            leaseRetryAt.remove(id);
+        }
     }
 
     @Override
@@ -105,31 +246,337 @@ public class PromotionServiceImpl implements PromotionService {
 
     @Override
     public List<Promotion> getCurrentPromotions() {
-        return promotionRepository.findCurrentlyActivePromotions();
+        List<Promotion> snapshot = current;
+        return snapshot != null ? snapshot : promotionRepository.findCurrentlyActivePromotions();
     }
 
     @Override
     public List<Promotion> getPromotionsExpiringSoon(int days) {
         LocalDate now = LocalDate.now();
         LocalDate endDate = now.plusDays(days);
+        List<Promotion> snapshot = current;
+        if (snapshot != null) {
+            return snapshot.stream()
+                    .filter(promotion -> !promotion.getEndDate().isAfter(endDate))
+                    .toList();
+        }
         return promotionRepository.findByEndDateBetween(now, endDate);
     }
 
     @Override
     public boolean isPromotionValid(String code) {
-        Optional<Promotion> promotionOpt = promotionRepository.findByCode(code);
-        if (promotionOpt.isEmpty()) {
-            return false;
+        return findValidPromotion(code).isPresent();
+    }
+
+    @Override
+    public Optional<Promotion> findValidPromotion(String code) {
+        if (code == null) {
+            return Optional.empty();
         }
+        Optional<Promotion> found = cachedPromotion(code);
+        if (found.isEmpty()) {
+            found = promotionCodeRepository.findPromotionByUnusedCode(code);
+        }
+        return found.filter(promotion -> {
+            LocalDate today = LocalDate.now();
+            return promotion.getIsActive() &&
+                   !today.isBefore(promotion.getStartDate()) &&
+                   !today.isAfter(promotion.getEndDate()) &&
+                   (promotion.getMaxUses() == null || hasUses(promotion));
+        });
+    }
 
-        Promotion promotion = promotionOpt.get();
-        LocalDate today = LocalDate.now();
+    @Override
+    public boolean reserveUse(Promotion promotion) {
+        if (promotion.getMaxUses() == null) {
+            return true;
+        }
+        StripedUsageCounter counter = counter(promotion);
+        while (!counter.tryReserve()) {
+            if (!lease(promotion, counter)) {
+                return false;
+            }
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        counter.confirm();
+                    } else {
+                        counter.release();
+                    }
+                }
+            });
+        } else {
+            // Nothing to roll back with; if the caller fails to record the use, it stays taken
+            counter.confirm();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean redeemCode(String code) {
+        if (cachedPromotion(code).isPresent()) {
+            return true;
+        }
+        return promotionCodeRepository.redeem(code, Instant.now()) == 1;
+    }
 
-        return promotion.getIsActive() &&
-               !today.isBefore(promotion.getStartDate()) &&
-               !today.isAfter(promotion.getEndDate()) &&
-               (promotion.getMaxUses() == null || 
-                promotionRepository.countPromotionUses(promotion.getId()) < promotion.getMaxUses());
+    @Scheduled(fixedDelayString = "${app.promotions.lease-renew-interval-ms:60000}")
+    public void renewLeases() {
+        Instant now = Instant.now();
+        usage.forEach((id, counter) -> {
+            try {
+                // What an instance holds only shrinks between leases, so renewing needs no lock on the promotion
+                synchronized (counter) {
+                    long held = counter.remaining() + counter.inFlight();
+                    leaseTransaction.executeWithoutResult(status -> saveLease(id, held, now));
+                }
+            } catch (RuntimeException e) {
+                logger.error("Failed to renew the usage lease of promotion {}", id, e);
+            }
+        });
+        try {
+            leaseTransaction.executeWithoutResult(status ->
+                    leaseRepository.deleteExpired(now.minusMillis(leaseTtlMs)));
+        } catch (RuntimeException e) {
+            logger.error("Failed to delete expired promotion usage leases", e);
+        }
+    }
+
+    private Optional<Promotion> cachedPromotion(String code) {
+        Promotion cached = byCode.get(code);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long generation = evictions.get();
+        Optional<Promotion> loaded = promotionRepository.findByCode(code);
+        loaded.ifPresent(promotion -> {
+            byCode.put(code, promotion);
+            // An eviction that raced with the load may have missed this entry, so drop it rather than serve it stale
+            if (evictions.get() != generation) {
+                byCode.remove(code, promotion);
+            }
+        });
+        return loaded;
+    }
+
+    // Builds the counter on first use, and again when maxUses has changed; it holds no uses until it leases some
+    private StripedUsageCounter counter(Promotion promotion) {
+        long limit = promotion.getMaxUses();
+        StripedUsageCounter counter = usage.get(promotion.getId());
+        if (counter != null && counter.getLimit() == limit) {
+            return counter;
+        }
+        return usage.compute(promotion.getId(), (id, current) -> {
+            if (current != null && current.getLimit() == limit) {
+                return current;
+            }
+            leaseRetryAt.remove(id);
+            return new StripedUsageCounter(limit, limit, usageStripes);
+        });
+    }
+
+    private boolean hasUses(Promotion promotion) {
+        StripedUsageCounter counter = counter(promotion);
+        return counter.hasRemaining() || lease(promotion, counter);
+    }
+
+    /**
+     * Leases more uses into the counter: at most half of what maxUses leaves after the recorded uses and
+     * the uses every instance holds, so that one instance never takes all of the last uses. A promotion
+     * found used up is not asked about again for app.promotions.lease-retry-ms.
+     */
+    private boolean lease(Promotion promotion, StripedUsageCounter counter) {
+        Integer id = promotion.getId();
+        synchronized (counter) {
+            // Another thread may have leased while this one waited
+            if (counter.hasRemaining()) {
+                return true;
+            }
+            Long retryAt = leaseRetryAt.get(id);
+            if (retryAt != null && System.currentTimeMillis() < retryAt) {
+                return false;
+            }
+            long granted;
+            try {
+                granted = leaseTransaction.execute(status -> {
+                    if (promotionRepository.lockById(id).isEmpty()) {
+                        return 0L;
+                    }
+                    Instant now = Instant.now();
+                    // Reservations in flight are not recorded yet, so they still count as held
+                    long held = counter.remaining() + counter.inFlight();
+                    long available = counter.getLimit() - promotionRepository.countPromotionUses(id)
+                            - leaseRepository.sumHeldByOthers(id, instanceId, now.minusMillis(leaseTtlMs)) - held;
+                    long count = Math.max(0, Math.min(leaseSize, (available + 1) / 2));
+                    // Written even when nothing is granted: uses recorded since the last write count twice until then
+                    saveLease(id, held + count, now);
+                    return count;
+                });
+            } catch (RuntimeException e) {
+                logger.error("Failed to lease uses of promotion {}", id, e);
+                return false;
+            }
+            if (granted == 0) {
+                leaseRetryAt.put(id, System.currentTimeMillis() + leaseRetryMs);
+                return false;
+            }
+            leaseRetryAt.remove(id);
+            counter.grant(granted);
+            return true;
+        }
+    }
+
+    private void saveLease(Integer promotionId, long held, Instant now) {
+        PromotionUsageLease lease = new PromotionUsageLease();
+        lease.setPromotionId(promotionId);
+        lease.setInstanceId(instanceId);
+        lease.setHeld(held);
+        lease.setRenewedAt(now);
+        leaseRepository.save(lease);
+    }
+
+    private void changedAfterCommit(Integer id, String... codes) {
+        promotionRuleService.markStale();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(codes);
+                    reschedule(id);
+                }
+            });
+        } else {
+            evict(codes);
+            reschedule(id);
+        }
+    }
+
+    private void loadSchedule() {
+        try {
+            promotionRepository.findByIsActiveTrue().forEach(this::track);
+            logger.info("Scheduled {} active promotions", schedule.size());
+            // Promotions that ended while the application was down are expired by the first fire
+            publish();
+            fire();
+        } catch (RuntimeException e) {
+            logger.error("Failed to load the promotion schedule, retrying in a minute", e);
+            boundaryTimer.schedule(this::loadSchedule, 1, TimeUnit.MINUTES);
+        }
+    }
+
+    // Picks up a committed change on the timer thread, reloading the promotion as it now stands
+    private void reschedule(Integer id) {
+        if (boundaryTimer == null) {
+            return;
+        }
+        boundaryTimer.execute(() -> {
+            try {
+                promotionRepository.findById(id).ifPresentOrElse(this::track, () -> untrack(id));
+            } catch (RuntimeException e) {
+                logger.error("Failed to reschedule promotion {}", id, e);
+            }
+            fire();
+        });
+    }
+
+    private void track(Promotion promotion) {
+        if (!Boolean.TRUE.equals(promotion.getIsActive())
+                || promotion.getStartDate() == null || promotion.getEndDate() == null) {
+            untrack(promotion.getId());
+            return;
+        }
+        ZoneId zone = ZoneId.systemDefault();
+        tracked.put(promotion.getId(), promotion);
+        if (live.containsKey(promotion.getId())) {
+            live.put(promotion.getId(), promotion);
+        }
+        // Dates are inclusive, so a promotion ends at the start of the day after its end date
+        schedule.schedule(promotion.getId(),
+                promotion.getStartDate().atStartOfDay(zone).toInstant().toEpochMilli(),
+                promotion.getEndDate().plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli());
+    }
+
+    private void untrack(Integer id) {
+        schedule.cancel(id);
+        tracked.remove(id);
+        if (live.remove(id) != null) {
+            publish();
+        }
+    }
+
+    // Applies the boundaries that are due and sleeps until the next one
+    private void fire() {
+        try {
+            for (PromotionSchedule.Transition transition : schedule.poll(System.currentTimeMillis())) {
+                if (transition.start()) {
+                    begin(transition.promotionId());
+                } else {
+                    expire(transition.promotionId());
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("Failed to apply promotion boundaries", e);
+        }
+        if (wakeUp != null) {
+            wakeUp.cancel(false);
+        }
+        long next = schedule.nextDue();
+        if (next != Long.MAX_VALUE) {
+            wakeUp = boundaryTimer.schedule(this::fire,
+                    Math.max(0, next - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void begin(int id) {
+        Promotion promotion = tracked.get(id);
+        if (promotion == null) {
+            return;
+        }
+        live.put(id, promotion);
+        publish();
+        evict(promotion.getCode());
+        promotionRuleService.markStale();
+        logger.info("Promotion {} started", id);
+    }
+
+    private void expire(int id) {
+        Promotion promotion = tracked.remove(id);
+        live.remove(id);
+        publish();
+        if (promotion == null) {
+            return;
+        }
+        try {
+            promotionRepository.findById(id).ifPresent(stored -> {
+                // Only if its dates were not extended in the meantime; that change reschedules it
+                if (Boolean.TRUE.equals(stored.getIsActive()) && stored.getEndDate().isBefore(LocalDate.now())) {
+                    stored.setIsActive(false);
+                    promotionRepository.save(stored);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Validation still checks the dates, so the promotion cannot be used meanwhile
+            logger.error("Failed to deactivate expired promotion {}", id, e);
+        }
+        evict(promotion.getCode());
+        promotionRuleService.markStale();
+        logger.info("Promotion {} ended", id);
+    }
+
+    private void publish() {
+        current = List.copyOf(live.values());
+    }
+
+    private void evict(String... codes) {
+        evictions.incrementAndGet();
+        for (String code : codes) {
+            if (code != null) {
+                byCode.remove(code);
+            }
+        }
     }
 
     @Override
@@ -157,6 +604,7 @@ public class PromotionServiceImpl implements PromotionService {
         promotionRepository.findById(id).ifPresent(promotion -> {
             promotion.setIsActive(true);
             promotionRepository.save(promotion);
+            changedAfterCommit(id, promotion.getCode());
         });
     }
 
@@ -166,6 +614,7 @@ public class PromotionServiceImpl implements PromotionService {
         promotionRepository.findById(id).ifPresent(promotion -> {
             promotion.setIsActive(false);
             promotionRepository.save(promotion);
+            changedAfterCommit(id, promotion.getCode());
         });
     }
 
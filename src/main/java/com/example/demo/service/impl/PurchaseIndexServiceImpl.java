@@ -0,0 +1,198 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.entities.CustomerOrder;
+import com.example.demo.entities.OrderDetail;
+import com.example.demo.repositories.ArchivedOrderDetailRepository;
+import com.example.demo.repositories.OrderDetailRepository;
+import com.example.demo.repositories.ReviewRepository;
+import com.example.demo.service.PurchaseIndexService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Products each customer has ordered and reviewed, so that review submission can be verified
+ * without querying order details.
+ *
+ * A customer's entry is loaded with two queries on first use and kept in an LRU map of
+ * app.reviews.purchase-index.max-customers entries. Committed orders and reviews are added to the
+ * entry; changes committed while it loads are recorded on the unloaded entry and merged into what
+ * the queries return, so they are never lost. A product missing from the purchases is checked
+ * against the database before the answer is trusted, which covers orders written by other
+ * instances. Both the load and that check include orders moved to the archive. Purchases are not
+ * removed when orders are deleted, as the customer did buy.
+ */
+@Service
+public class PurchaseIndexServiceImpl implements PurchaseIndexService {
+
+    private static final int[] NONE = new int[0];
+
+    @Value("${app.reviews.purchase-index.max-customers:100000}")
+    private int maxCustomers;
+
+    private final OrderDetailRepository orderDetailRepository;
+    private final ArchivedOrderDetailRepository archivedOrderDetailRepository;
+    private final ReviewRepository reviewRepository;
+
+    private final Map<Integer, Products> customers = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Products> eldest) {
+            return size() > maxCustomers;
+        }
+    };
+
+    @Autowired
+    public PurchaseIndexServiceImpl(OrderDetailRepository orderDetailRepository,
+                                    ArchivedOrderDetailRepository archivedOrderDetailRepository,
+                                    ReviewRepository reviewRepository) {
+        this.orderDetailRepository = orderDetailRepository;
+        this.archivedOrderDetailRepository = archivedOrderDetailRepository;
+        this.reviewRepository = reviewRepository;
+    }
+
+    @Override
+    public void recordOrderCreated(CustomerOrder order, Collection<OrderDetail> details) {
+        if (order.getCustomer() == null || details == null || details.isEmpty()) {
+            return;
+        }
+        Integer customerId = order.getCustomer().getId();
+        int[] productIds = details.stream().mapToInt(detail -> detail.getProduct().getId()).toArray();
+        afterCommit(() -> {
+            Products products = cached(customerId);
+            if (products != null) {
+                products.addPurchases(productIds);
+            }
+        });
+    }
+
+    @Override
+    public boolean hasPurchased(Integer customerId, Integer productId) {
+        Products products = products(customerId);
+        if (products.hasPurchased(productId)) {
+            return true;
+        }
+        if (!orderDetailRepository.existsByOrderCustomerIdAndProductId(customerId, productId)
+                && !archivedOrderDetailRepository.existsPurchase(customerId, productId)) {
+            return false;
+        }
+        products.addPurchases(new int[] {productId});
+        return true;
+    }
+
+    @Override
+    public boolean hasReviewed(Integer customerId, Integer productId) {
+        return products(customerId).hasReviewed(productId);
+    }
+
+    @Override
+    public void recordReviewCreated(Integer customerId, Integer productId) {
+        afterCommit(() -> {
+            Products products = cached(customerId);
+            if (products != null) {
+                products.setReviewed(productId, true);
+            }
+        });
+    }
+
+    @Override
+    public void recordReviewDeleted(Integer customerId, Integer productId) {
+        afterCommit(() -> {
+            Products products = cached(customerId);
+            if (products != null) {
+                products.setReviewed(productId, false);
+            }
+        });
+    }
+
+    private Products cached(Integer customerId) {
+        synchronized (customers) {
+            return customers.get(customerId);
+        }
+    }
+
+    // The customer's loaded entry; the queries run outside the map lock
+    private Products products(Integer customerId) {
+        Products products;
+        synchronized (customers) {
+            products = customers.computeIfAbsent(customerId, id -> new Products());
+        }
+        if (!products.isLoaded()) {
+            List<Integer> purchased = new ArrayList<>(orderDetailRepository.findPurchasedProductIds(customerId));
+            purchased.addAll(archivedOrderDetailRepository.findPurchasedProductIds(customerId));
+            List<Integer> reviewed = reviewRepository.findReviewedProductIds(customerId);
+            products.load(purchased.stream().mapToInt(Integer::intValue).toArray(),
+                    reviewed.stream().mapToInt(Integer::intValue).toArray());
+        }
+        return products;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // Sorted product IDs of one customer
+    private static final class Products {
+        private int[] purchased = NONE;
+        private int[] reviewed = NONE;
+        private boolean loaded;
+
+        private synchronized boolean isLoaded() {
+            return loaded;
+        }
+
+        private synchronized void load(int[] purchasedIds, int[] reviewedIds) {
+            purchased = union(purchased, purchasedIds);
+            reviewed = union(reviewed, reviewedIds);
+            loaded = true;
+        }
+
+        private synchronized boolean hasPurchased(int productId) {
+            return Arrays.binarySearch(purchased, productId) >= 0;
+        }
+
+        private synchronized boolean hasReviewed(int productId) {
+            return Arrays.binarySearch(reviewed, productId) >= 0;
+        }
+
+        private synchronized void addPurchases(int[] productIds) {
+            purchased = union(purchased, productIds);
+        }
+
+        private synchronized void setReviewed(int productId, boolean isReviewed) {
+            int index = Arrays.binarySearch(reviewed, productId);
+            if (isReviewed && index < 0) {
+                reviewed = union(reviewed, new int[] {productId});
+            } else if (!isReviewed && index >= 0) {
+                int[] remaining = new int[reviewed.length - 1];
+                System.arraycopy(reviewed, 0, remaining, 0, index);
+                System.arraycopy(reviewed, index + 1, remaining, index, remaining.length - index);
+                reviewed = remaining;
+            }
+        }
+
+        private static int[] union(int[] sorted, int[] ids) {
+            int[] merged = Arrays.copyOf(sorted, sorted.length + ids.length);
+            System.arraycopy(ids, 0, merged, sorted.length, ids.length);
+            Arrays.sort(merged);
+            return Arrays.stream(merged).distinct().toArray();
+        }
+    }
+}
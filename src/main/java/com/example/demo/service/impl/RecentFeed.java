@@ -0,0 +1,153 @@
+package com.example.demo.service.impl;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free ring of the latest review IDs with their times, newest first by (time, ID).
+ *
+ * Writers claim a sequence number and install their entry in slot sequence % capacity with a
+ * compare-and-set, so neither writers nor readers ever block. Since entries arrive roughly but not
+ * exactly in time order, a slot only ever moves to a newer entry: an entry that finds a newer one
+ * in its slot, e.g. because its writer was lapped, is dropped instead. The ring keeps a floor, the
+ * newest (time, ID) of any entry it has dropped or overwritten. Entries after the floor are
+ * certainly the newest ones overall, and only those are served; a writer raises the floor before
+ * it overwrites a slot, so a reader that no longer sees an entry always sees a floor that accounts
+ * for it. Every entry that loses its slot loses it to a newer one, so the floor never passes the
+ * newest entry held.
+ */
+public class RecentFeed {
+
+    private record Entry(int id, long time) {
+    }
+
+    private final AtomicReferenceArray<Entry> slots;
+    private final AtomicLong sequence = new AtomicLong();
+    // Null while no entry has been lost
+    private final AtomicReference<Entry> floor = new AtomicReference<>();
+
+    public RecentFeed(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    public void add(int id, long time) {
+        Entry entry = new Entry(id, time);
+        int slot = (int) (sequence.getAndIncrement() % slots.length());
+        while (true) {
+            Entry current = slots.get(slot);
+            if (current != null) {
+                int order = compare(entry, current);
+                if (order <= 0) {
+                    // Covered by a newer entry already in the slot; a repeat of that entry changes nothing
+                    if (order < 0) {
+                        raiseFloor(entry);
+                    }
+                    return;
+                }
+                raiseFloor(current);
+            }
+            if (slots.compareAndSet(slot, current, entry)) {
+                return;
+            }
+        }
+    }
+
+    // Drops an ID, e.g. a review that was deleted or is no longer published
+    public void remove(int id) {
+        for (int slot = 0; slot < slots.length(); slot++) {
+            Entry current = slots.get(slot);
+            if (current != null && current.id == id) {
+                slots.compareAndSet(slot, current, null);
+            }
+        }
+    }
+
+    // Entries at or before this time may be missing, e.g. because a warm-up read only the newest ones
+    public void raiseFloor(long time) {
+        raiseFloor(new Entry(Integer.MAX_VALUE, time));
+    }
+
+    // Whether every entry ever added, less removals, is still held
+    public boolean isComplete() {
+        return floor.get() == null;
+    }
+
+    /**
+     * IDs strictly older than the (beforeTime, beforeId) cursor, newest first, skipping offset and
+     * returning at most limit. Null when the ring cannot tell which IDs those are; a complete ring
+     * returns what it has.
+     */
+    public int[] page(long beforeTime, int beforeId, int offset, int limit) {
+        Entry[] entries = snapshot();
+        Entry currentFloor = floor.get();
+        int exact = 0;
+        while (exact < entries.length && (currentFloor == null || compare(entries[exact], currentFloor) > 0)) {
+            exact++;
+        }
+        int from = 0;
+        while (from < exact && !isBefore(entries[from], beforeTime, beforeId)) {
+            from++;
+        }
+        long end = (long) from + offset + limit;
+        if (currentFloor != null && end > exact) {
+            return null;
+        }
+        int start = (int) Math.min((long) from + offset, exact);
+        int[] ids = new int[(int) Math.min(end, exact) - start];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = entries[start + i].id;
+        }
+        return ids;
+    }
+
+    // Number of distinct IDs held
+    public int size() {
+        return snapshot().length;
+    }
+
+    private void raiseFloor(Entry lost) {
+        floor.accumulateAndGet(lost, (current, candidate) ->
+                current == null || compare(candidate, current) > 0 ? candidate : current);
+    }
+
+    // Entries newest first, each ID once
+    private Entry[] snapshot() {
+        Entry[] entries = new Entry[slots.length()];
+        int count = 0;
+        for (int slot = 0; slot < slots.length(); slot++) {
+            Entry entry = slots.get(slot);
+            if (entry != null) {
+                entries[count++] = entry;
+            }
+        }
+        entries = Arrays.copyOf(entries, count);
+        Arrays.sort(entries, (a, b) -> compare(b, a));
+        Set<Integer> seen = new HashSet<>();
+        int distinct = 0;
+        for (Entry entry : entries) {
+            if (seen.add(entry.id)) {
+                entries[distinct++] = entry;
+            }
+        }
+        return Arrays.copyOf(entries, distinct);
+    }
+
+    private static int compare(Entry a, Entry b) {
+        return a.time != b.time ? Long.compare(a.time, b.time) : Integer.compare(a.id, b.id);
+    }
+
+    private static boolean isBefore(Entry entry, long time, int id) {
+        return entry.time < time || (entry.time == time && entry.id < id);
+    }
+}
@@ -0,0 +1,309 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.dto.ReplenishmentPlanDTO;
+import com.example.demo.entities.SupplyOrder;
+import com.example.demo.repositories.OrderDetailRepository;
+import com.example.demo.repositories.ProductRepository;
+import com.example.demo.repositories.StorageRepository;
+import com.example.demo.repositories.StoreInventoryRepository;
+import com.example.demo.repositories.SupplierRepository;
+import com.example.demo.repositories.SupplyOrderRepository;
+import com.example.demo.service.ReplenishmentService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Replenishment planner.
+ *
+ * For every store that has storage areas configured, sales velocity per product is aggregated
+ * from order details over a trailing window and compared with on-hand stock. A product is
+ * reordered when it is at or below the store's reorder level, or when its days of cover fall
+ * below the supplier lead time; the planned quantity tops the store back up to max stock.
+ * Stores are processed in parallel, each streaming its own rows in a read-only transaction,
+ * and the per-store lines are merged per product and grouped by supplier.
+ *
+ * Created supply orders have no employee assigned: they are drafts until a buyer picks them up
+ * through {@code SupplyOrderService.assignEmployeeToOrder}.
+ */
+@Service
+public class ReplenishmentServiceImpl implements ReplenishmentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplenishmentServiceImpl.class);
+
+    @Value("${app.replenishment.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.replenishment.velocity-window-days:28}")
+    private int velocityWindowDays;
+
+    @Value("${app.replenishment.lead-time-days:7}")
+    private int leadTimeDays;
+
+    @Value("${app.replenishment.parallelism:0}")
+    private int parallelism;
+
+    @Value("${app.replenishment.batch-size:500}")
+    private int batchSize;
+
+    private final StorageRepository storageRepository;
+    private final StoreInventoryRepository storeInventoryRepository;
+    private final OrderDetailRepository orderDetailRepository;
+    private final SupplyOrderRepository supplyOrderRepository;
+    private final SupplierRepository supplierRepository;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate writeTransaction;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Autowired
+    public ReplenishmentServiceImpl(StorageRepository storageRepository,
+                                    StoreInventoryRepository storeInventoryRepository,
+                                    OrderDetailRepository orderDetailRepository,
+                                    SupplyOrderRepository supplyOrderRepository,
+                                    SupplierRepository supplierRepository,
+                                    ProductRepository productRepository,
+                                    PlatformTransactionManager transactionManager) {
+        this.storageRepository = storageRepository;
+        this.storeInventoryRepository = storeInventoryRepository;
+        this.orderDetailRepository = orderDetailRepository;
+        this.supplyOrderRepository = supplyOrderRepository;
+        this.supplierRepository = supplierRepository;
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public ReplenishmentPlanDTO planReplenishment() {
+        return execute(false);
+    }
+
+    @Override
+    public ReplenishmentPlanDTO runReplenishment() {
+        return execute(true);
+    }
+
+    @Scheduled(cron = "${app.replenishment.cron:0 0 3 * * *}")
+    public void scheduledReplenishment() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            ReplenishmentPlanDTO plan = runReplenishment();
+            logger.info("Scheduled replenishment created {} supply orders for {} stores in {} ms",
+                    plan.getSupplyOrdersCreated(), plan.getStoresProcessed(), plan.getDurationMs());
+        } catch (IllegalStateException e) {
+            logger.warn("Skipping scheduled replenishment: {}", e.getMessage());
+        }
+    }
+
+    private ReplenishmentPlanDTO execute(boolean apply) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A replenishment run is already in progress");
+        }
+        try {
+            long start = System.currentTimeMillis();
+            LocalDate today = LocalDate.now();
+
+            List<Object[]> thresholds = storageRepository.findReplenishmentThresholdsByStore();
+            // Products with a supply order still within its lead time are already on the way
+            Set<Integer> inTransit = new HashSet<>(
+                    supplyOrderRepository.findProductIdsOrderedSince(today.minusDays(leadTimeDays)));
+
+            List<StorePlan> storePlans = planStores(thresholds, today.minusDays(velocityWindowDays), inTransit);
+
+            Map<Integer, MergedLine> merged = new HashMap<>();
+            long skusEvaluated = 0;
+            for (StorePlan storePlan : storePlans) {
+                skusEvaluated += storePlan.skusEvaluated;
+                for (PlannedLine line : storePlan.lines) {
+                    merged.computeIfAbsent(line.productId, id -> new MergedLine(line.supplierId, line.unitPrice))
+                            .add(line.quantity);
+                }
+            }
+
+            Map<Integer, List<ReplenishmentPlanDTO.Line>> bySupplier = new TreeMap<>();
+            new TreeMap<>(merged).forEach((productId, line) -> bySupplier
+                    .computeIfAbsent(line.supplierId, id -> new ArrayList<>())
+                    .add(ReplenishmentPlanDTO.Line.builder()
+                            .productId(productId)
+                            .quantity((int) Math.min(Integer.MAX_VALUE, line.quantity))
+                            .unitPrice(line.unitPrice)
+                            .storesBelowReorderPoint(line.stores)
+                            .build()));
+
+            int created = apply ? createSupplyOrders(bySupplier, today) : 0;
+
+            List<ReplenishmentPlanDTO.SupplierDraft> drafts = new ArrayList<>(bySupplier.size());
+            bySupplier.forEach((supplierId, lines) -> drafts.add(ReplenishmentPlanDTO.SupplierDraft.builder()
+                    .supplierId(supplierId)
+                    .lines(lines)
+                    .build()));
+
+            return ReplenishmentPlanDTO.builder()
+                    .planDate(today)
+                    .applied(apply)
+                    .storesProcessed(storePlans.size())
+                    .skusEvaluated(skusEvaluated)
+                    .linesPlanned(merged.size())
+                    .supplyOrdersCreated(created)
+                    .durationMs(System.currentTimeMillis() - start)
+                    .drafts(drafts)
+                    .build();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private List<StorePlan> planStores(List<Object[]> thresholds, LocalDate salesSince, Set<Integer> inTransit) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, thresholds.size())));
+        try {
+            List<Future<StorePlan>> futures = new ArrayList<>(thresholds.size());
+            for (Object[] row : thresholds) {
+                Integer storeId = (Integer) row[0];
+                int reorderLevel = ((Number) row[1]).intValue();
+                int maxStock = ((Number) row[2]).intValue();
+                futures.add(pool.submit(() -> readOnlyTransaction.execute(status ->
+                        planStore(storeId, reorderLevel, maxStock, salesSince, inTransit))));
+            }
+
+            List<StorePlan> plans = new ArrayList<>(futures.size());
+            for (Future<StorePlan> future : futures) {
+                plans.add(future.get());
+            }
+            return plans;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Replenishment run was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Replenishment planning failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private StorePlan planStore(Integer storeId, int reorderLevel, int maxStock,
+                                LocalDate salesSince, Set<Integer> inTransit) {
+        Map<Integer, Long> unitsSold = new HashMap<>();
+        try (Stream<Object[]> rows = orderDetailRepository.streamUnitsSoldByStoreSince(storeId, salesSince)) {
+            rows.forEach(row -> unitsSold.put((Integer) row[0], ((Number) row[1]).longValue()));
+        }
+
+        StorePlan plan = new StorePlan();
+        try (Stream<Object[]> rows = storeInventoryRepository.streamReplenishableStockByStore(storeId)) {
+            rows.forEach(row -> {
+                plan.skusEvaluated++;
+                Integer productId = (Integer) row[0];
+                if (inTransit.contains(productId)) {
+                    return;
+                }
+                int onHand = (Integer) row[1];
+                double dailyVelocity = unitsSold.getOrDefault(productId, 0L) / (double) velocityWindowDays;
+                double daysOfCover = dailyVelocity > 0 ? onHand / dailyVelocity : Double.POSITIVE_INFINITY;
+
+                if (onHand <= reorderLevel || daysOfCover < leadTimeDays) {
+                    int quantity = maxStock - onHand;
+                    if (quantity > 0) {
+                        plan.lines.add(new PlannedLine(productId, (Integer) row[2], (BigDecimal) row[3], quantity));
+                    }
+                }
+            });
+        }
+        return plan;
+    }
+
+    private int createSupplyOrders(Map<Integer, List<ReplenishmentPlanDTO.Line>> bySupplier, LocalDate orderDate) {
+        List<SupplyOrder> batch = new ArrayList<>(batchSize);
+        int created = 0;
+        for (Map.Entry<Integer, List<ReplenishmentPlanDTO.Line>> entry : bySupplier.entrySet()) {
+            for (ReplenishmentPlanDTO.Line line : entry.getValue()) {
+                SupplyOrder supplyOrder = new SupplyOrder();
+                supplyOrder.setSupplier(supplierRepository.getReferenceById(entry.getKey()));
+                supplyOrder.setProduct(productRepository.getReferenceById(line.getProductId()));
+                supplyOrder.setQuantityOrdered(line.getQuantity());
+                // List price as a placeholder; the buyer confirms the cost when taking the draft
+                supplyOrder.setPrice(line.getUnitPrice());
+                supplyOrder.setOrderDate(orderDate);
+                batch.add(supplyOrder);
+
+                if (batch.size() >= batchSize) {
+                    created += saveBatch(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            created += saveBatch(batch);
+        }
+        return created;
+    }
+
+    private int saveBatch(List<SupplyOrder> batch) {
+        writeTransaction.executeWithoutResult(status -> {
+            supplyOrderRepository.saveAll(batch);
+            supplyOrderRepository.flush();
+        });
+        return batch.size();
+    }
+
+    private static class StorePlan {
+        private final List<PlannedLine> lines = new ArrayList<>();
+        private long skusEvaluated;
+    }
+
+    private static class PlannedLine {
+        private final Integer productId;
+        private final Integer supplierId;
+        private final BigDecimal unitPrice;
+        private final int quantity;
+
+        private PlannedLine(Integer productId, Integer supplierId, BigDecimal unitPrice, int quantity) {
+            this.productId = productId;
+            this.supplierId = supplierId;
+            this.unitPrice = unitPrice;
+            this.quantity = quantity;
+        }
+    }
+
+    private static class MergedLine {
+        private final Integer supplierId;
+        private final BigDecimal unitPrice;
+        private long quantity;
+        private int stores;
+
+        private MergedLine(Integer supplierId, BigDecimal unitPrice) {
+            this.supplierId = supplierId;
+            this.unitPrice = unitPrice;
+        }
+
+        private void add(int storeQuantity) {
+            quantity += storeQuantity;
+            stores++;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.example.demo.service.impl;
 
 import com.example.demo.entities.*;
 import com.example.demo.repositories.*;
+import com.example.demo.service.OrderSummaryService;
 import com.example.demo.service.ReturnService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -20,6 +21,7 @@ public class ReturnServiceImpl implements ReturnService {
     private final CustomerOrderRepository orderRepository;
     private final ProductRepository productRepository;
     private final OrderDetailRepository orderDetailRepository;
+    private final OrderSummaryService orderSummaryService;
 
     @Override
     @Transactional
@@ -64,7 +66,9 @@ public class ReturnServiceImpl implements ReturnService {
             );
         }
 
-        return returnRepository.save(returnRequest);
+        Return saved = returnRepository.save(returnRequest);
+        orderSummaryService.markChanged(saved.getOrder().getId());
+        return saved;
     }
 
     @Override
@@ -122,6 +126,8 @@ public class ReturnServiceImpl implements ReturnService {
     @Override
     @Transactional
     public void deleteReturn(Integer id) {
+        returnRepository.findById(id)
+                .ifPresent(returnField -> orderSummaryService.markChanged(returnField.getOrder().getId()));
         returnRepository.deleteById(id);
     }
 }
\ No newline at end of file
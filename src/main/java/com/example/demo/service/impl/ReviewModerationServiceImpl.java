@@ -0,0 +1,327 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.dto.ReviewModerationRequestDTO;
+import com.example.demo.dto.ReviewModerationStatsDTO;
+import com.example.demo.entities.Review;
+import com.example.demo.exception.ResourceNotFoundException;
+import com.example.demo.repositories.ReviewRepository;
+import com.example.demo.service.ReviewCheck;
+import com.example.demo.service.ReviewModerationService;
+import com.example.demo.service.ReviewService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Review moderation pipeline.
+ *
+ * New and edited reviews are stored as PENDING, so the Reviews table itself is the durable queue
+ * and nothing is lost in a restart. Every app.reviews.moderation.poll-interval-ms the pending IDs
+ * are moved into a bounded in-memory queue, which worker threads drain in batches. Each review of
+ * a batch goes through every ReviewCheck bean; reviews that pass are approved and the others are
+ * FLAGGED with the first check's reason, each group with one UPDATE guarded on the PENDING status
+ * so that a moderator's decision made meanwhile is kept.
+ *
+ * Moderators decide single reviews, or every review matching a filter with one set-based UPDATE.
+ * Latency and throughput are measured over the last LATENCY_SAMPLES decisions of the checks.
+ */
+@Service
+public class ReviewModerationServiceImpl implements ReviewModerationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReviewModerationServiceImpl.class);
+    private static final List<String> PENDING = List.of("PENDING");
+    private static final List<String> OPEN = List.of("PENDING", "FLAGGED");
+    private static final Set<String> STATUSES = Set.of("PENDING", "FLAGGED", "APPROVED", "REJECTED");
+    private static final int LATENCY_SAMPLES = 1024;
+
+    @Value("${app.reviews.moderation.capacity:10000}")
+    private int capacity;
+
+    @Value("${app.reviews.moderation.workers:2}")
+    private int workers;
+
+    @Value("${app.reviews.moderation.batch-size:100}")
+    private int batchSize;
+
+    private final ReviewRepository reviewRepository;
+    private final ReviewService reviewService;
+    private final List<ReviewCheck> checks;
+    private final TransactionTemplate writeTransaction;
+
+    // IDs in the queue or in a worker's batch, so that a poll does not queue them twice
+    private final Set<Integer> queued = ConcurrentHashMap.newKeySet();
+    private BlockingQueue<Integer> queue;
+    private ExecutorService workerPool;
+    private volatile boolean running;
+
+    private final AtomicLong checked = new AtomicLong();
+    private final AtomicLong approved = new AtomicLong();
+    private final AtomicLong held = new AtomicLong();
+    // Ring of the latest decisions' submission-to-decision latency and time; guarded by itself
+    private final long[] latencies = new long[LATENCY_SAMPLES];
+    private final long[] decidedAt = new long[LATENCY_SAMPLES];
+    private int samples;
+    private int nextSample;
+
+    @Autowired
+    public ReviewModerationServiceImpl(ReviewRepository reviewRepository,
+                                       ReviewService reviewService,
+                                       List<ReviewCheck> checks,
+                                       PlatformTransactionManager transactionManager) {
+        this.reviewRepository = reviewRepository;
+        this.reviewService = reviewService;
+        this.checks = checks;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(capacity);
+        workerPool = Executors.newFixedThreadPool(workers);
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            workerPool.submit(this::work);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        workerPool.shutdown();
+        if (!workerPool.awaitTermination(10, TimeUnit.SECONDS)) {
+            workerPool.shutdownNow();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.reviews.moderation.poll-interval-ms:1000}")
+    public void enqueuePending() {
+        int room = queue.remainingCapacity();
+        if (room == 0) {
+            return;
+        }
+        // Queued reviews are still pending, so enough are read to also find room new ones
+        List<Integer> pendingIds = reviewRepository.findPendingIds(PageRequest.of(0, room + queued.size()));
+        for (Integer id : pendingIds) {
+            if (queued.add(id) && !queue.offer(id)) {
+                queued.remove(id);
+                break;
+            }
+        }
+    }
+
+    @Override
+    @Transactional
+    public Review approveReview(Integer reviewId) {
+        return decide(reviewId, "APPROVED", null);
+    }
+
+    @Override
+    @Transactional
+    public Review rejectReview(Integer reviewId, String reason) {
+        return decide(reviewId, "REJECTED", reason);
+    }
+
+    @Override
+    @Transactional
+    public int moderate(ReviewModerationRequestDTO request) {
+        if (request.getMinRating() != null && request.getMaxRating() != null
+                && request.getMinRating() > request.getMaxRating()) {
+            throw new IllegalArgumentException("Minimum rating cannot exceed maximum rating");
+        }
+        if (request.getSubmittedFrom() != null && request.getSubmittedTo() != null
+                && !request.getSubmittedFrom().isBefore(request.getSubmittedTo())) {
+            throw new IllegalArgumentException("Submission range start must be before its end");
+        }
+        List<String> statuses = request.getStatuses() == null || request.getStatuses().isEmpty()
+                ? OPEN : request.getStatuses();
+        String status = "APPROVE".equals(request.getAction()) ? "APPROVED" : "REJECTED";
+
+        int changed = reviewRepository.moderateMatching(statuses, request.getProductId(), request.getCustomerId(),
+                request.getMinRating(), request.getMaxRating(), request.getSubmittedFrom(), request.getSubmittedTo(),
+                request.getNoteContains(), status, request.getReason(), Instant.now());
+        logger.info("Moderation set {} reviews to {}", changed, status);
+        if (changed > 0) {
+            // Which products changed is not known, so every ranking is rebuilt
+            afterCommit(reviewService::refreshRankings);
+        }
+        return changed;
+    }
+
+    @Override
+    public Page<Review> getReviewsByStatus(String status, Pageable pageable) {
+        if (!STATUSES.contains(status)) {
+            throw new IllegalArgumentException("Unknown review status: " + status);
+        }
+        return reviewRepository.findByStatus(status, pageable);
+    }
+
+    @Override
+    public ReviewModerationStatsDTO getStats() {
+        long now = System.currentTimeMillis();
+        long[] window;
+        long oldest;
+        int inLastMinute = 0;
+        synchronized (latencies) {
+            window = Arrays.copyOf(latencies, samples);
+            oldest = Long.MAX_VALUE;
+            for (int i = 0; i < samples; i++) {
+                oldest = Math.min(oldest, decidedAt[i]);
+                if (decidedAt[i] > now - 60_000) {
+                    inLastMinute++;
+                }
+            }
+        }
+        ReviewModerationStatsDTO.ReviewModerationStatsDTOBuilder stats = ReviewModerationStatsDTO.builder()
+                .queueDepth(queue.size())
+                .pending(reviewRepository.countByStatus("PENDING"))
+                .flagged(reviewRepository.countByStatus("FLAGGED"))
+                .checked(checked.get())
+                .approved(approved.get())
+                .held(held.get());
+        if (window.length > 0) {
+            Arrays.sort(window);
+            // With a full ring inside the last minute, the rate comes from the span the ring covers
+            double perMinute = window.length == LATENCY_SAMPLES && oldest > now - 60_000
+                    ? window.length * 60_000.0 / Math.max(1, now - oldest)
+                    : inLastMinute;
+            stats.reviewsPerMinute(perMinute)
+                    .medianLatencyMs(window[window.length / 2])
+                    .p95LatencyMs(window[Math.min(window.length - 1, (int) (window.length * 0.95))])
+                    .maxLatencyMs(window[window.length - 1]);
+        }
+        return stats.build();
+    }
+
+    private Review decide(Integer reviewId, String status, String note) {
+        Review review = reviewRepository.findById(reviewId)
+                .orElseThrow(() -> new ResourceNotFoundException("Review", "id", reviewId));
+        review.setStatus(status);
+        review.setModerationNote(note);
+        review.setModeratedAt(Instant.now());
+        reviewService.recordModerated(List.of(review));
+        return review;
+    }
+
+    private void work() {
+        while (running) {
+            List<Integer> batch = new ArrayList<>(batchSize);
+            try {
+                Integer first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                check(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // The reviews stay PENDING and are queued again by the next poll
+                logger.error("Review moderation batch of {} failed", batch.size(), e);
+            } finally {
+                batch.forEach(queued::remove);
+            }
+        }
+    }
+
+    private void check(List<Integer> ids) {
+        List<Review> checkedReviews = new ArrayList<>();
+        List<Review> passed = new ArrayList<>();
+        Map<String, List<Integer>> heldByNote = new LinkedHashMap<>();
+        for (Review review : reviewRepository.findAllById(ids)) {
+            if (!"PENDING".equals(review.getStatus())) {
+                continue;
+            }
+            checkedReviews.add(review);
+            // Every check sees every review, so that the stateful ones keep count
+            String note = null;
+            for (ReviewCheck check : checks) {
+                String reason = check.check(review);
+                if (note == null) {
+                    note = reason;
+                }
+            }
+            if (note == null) {
+                passed.add(review);
+            } else {
+                heldByNote.computeIfAbsent(note, key -> new ArrayList<>()).add(review.getId());
+            }
+        }
+        if (checkedReviews.isEmpty()) {
+            return;
+        }
+
+        Instant now = Instant.now();
+        List<Integer> passedIds = passed.stream().map(Review::getId).toList();
+        Integer approvedCount = writeTransaction.execute(status -> {
+            heldByNote.forEach((note, heldIds) -> reviewRepository.moderate(heldIds, PENDING, "FLAGGED", note, now));
+            return passedIds.isEmpty() ? 0 : reviewRepository.moderate(passedIds, PENDING, "APPROVED", null, now);
+        });
+
+        List<Review> published = passed;
+        if (approvedCount != null && approvedCount < passed.size()) {
+            // Some were decided or edited meanwhile; publish only what is approved now
+            published = reviewRepository.findAllById(passedIds).stream()
+                    .filter(review -> "APPROVED".equals(review.getStatus()))
+                    .toList();
+        } else {
+            passed.forEach(review -> review.setStatus("APPROVED"));
+        }
+        reviewService.recordModerated(published);
+
+        checked.addAndGet(checkedReviews.size());
+        approved.addAndGet(passed.size());
+        held.addAndGet(checkedReviews.size() - passed.size());
+        long decided = now.toEpochMilli();
+        synchronized (latencies) {
+            for (Review review : checkedReviews) {
+                latencies[nextSample] = Math.max(0, decided - review.getReviewDate().toEpochMilli());
+                decidedAt[nextSample] = decided;
+                nextSample = (nextSample + 1) % LATENCY_SAMPLES;
+                samples = Math.min(samples + 1, LATENCY_SAMPLES);
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.demo.service.impl;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Pre-sorted "most helpful" review list of one product.
+ *
+ * Helpfulness is the Wilson lower bound of the helpful share of votes, with one prior vote each
+ * way so that unvoted reviews are not all zero, decayed by age with a half-life. The decay is
+ * applied in log space relative to a fixed epoch,
+ *
+ *   score = ln(wilson) + ln(2) * postedDay / halfLifeDays
+ *
+ * which orders reviews exactly as wilson * 2^(-age / halfLife) does at any moment, so a score only
+ * changes when the review's votes do and sorted lists never go stale as time passes.
+ *
+ * The list holds the top entries of the product by key. When it holds fewer than all of the
+ * product's reviews it also tracks a floor that no review outside it exceeds, so that it knows
+ * how many of its leading entries are certainly the true top ones while keys change under it.
+ */
+public class ReviewRanking {
+
+    private static final double Z = 1.96;
+
+    private final TopList helpful;
+
+    public ReviewRanking(TopList helpful) {
+        this.helpful = helpful;
+    }
+
+    public TopList getHelpful() {
+        return helpful;
+    }
+
+    public static double helpfulnessScore(int helpfulVotes, int unhelpfulVotes, Instant postedAt, double halfLifeDays) {
+        double n = helpfulVotes + unhelpfulVotes + 2;
+        double p = (helpfulVotes + 1) / n;
+        double wilson = (p + Z * Z / (2 * n) - Z * Math.sqrt((p * (1 - p) + Z * Z / (4 * n)) / n)) / (1 + Z * Z / n);
+        double postedDay = postedAt.getEpochSecond() / 86_400.0;
+        return Math.log(Math.max(wilson, 1e-12)) + Math.log(2) * postedDay / halfLifeDays;
+    }
+
+    /**
+     * Review IDs sorted by descending key, ties going to the higher ID.
+     */
+    public static final class TopList {
+        private final int capacity;
+        private final int[] ids;
+        private final double[] keys;
+        private int size;
+        // No review outside the list has a higher key; -Infinity while the list holds every review
+        private double floor;
+
+        /**
+         * @param ids      IDs by descending key, at most capacity + 1 of them; the one past capacity
+         *                 only sets the floor
+         * @param keys     keys of the IDs
+         */
+        public TopList(int capacity, int[] ids, double[] keys) {
+            if (capacity < 1 || ids.length != keys.length || ids.length > capacity + 1) {
+                throw new IllegalArgumentException("Invalid top list of " + ids.length + " for capacity " + capacity);
+            }
+            this.capacity = capacity;
+            this.ids = new int[capacity + 1];
+            this.keys = new double[capacity + 1];
+            this.size = Math.min(ids.length, capacity);
+            System.arraycopy(ids, 0, this.ids, 0, size);
+            System.arraycopy(keys, 0, this.keys, 0, size);
+            this.floor = ids.length > capacity ? keys[capacity] : Double.NEGATIVE_INFINITY;
+        }
+
+        // Records a review's new key, or a new review
+        public synchronized void update(int id, double key) {
+            int index = indexOf(id);
+            if (index >= 0) {
+                removeAt(index);
+                insert(id, key);
+            } else if (key > floor) {
+                insert(id, key);
+                if (size > capacity) {
+                    size--;
+                    floor = Math.max(floor, keys[size]);
+                }
+            }
+        }
+
+        public synchronized void remove(int id) {
+            int index = indexOf(id);
+            if (index >= 0) {
+                removeAt(index);
+            }
+        }
+
+        // Leading entries known to be the product's top ones
+        public synchronized int trusted() {
+            int trusted = 0;
+            while (trusted < size && keys[trusted] > floor) {
+                trusted++;
+            }
+            return trusted;
+        }
+
+        public synchronized int size() {
+            return size;
+        }
+
+        public synchronized boolean isComplete() {
+            return floor == Double.NEGATIVE_INFINITY;
+        }
+
+        /**
+         * IDs from offset to offset + limit, or null when the list cannot tell which reviews those
+         * are; a complete list returns whatever part of the range it has.
+         */
+        public synchronized int[] page(int offset, int limit) {
+            int available = trusted();
+            if (!isComplete() && (long) offset + limit > available) {
+                return null;
+            }
+            int from = Math.min(offset, available);
+            int to = (int) Math.min((long) offset + limit, available);
+            return Arrays.copyOfRange(ids, from, to);
+        }
+
+        private int indexOf(int id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void removeAt(int index) {
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            size--;
+        }
+
+        // Room for one past capacity is always left
+        private void insert(int id, double key) {
+            int index = 0;
+            while (index < size && (keys[index] > key || (keys[index] == key && ids[index] > id))) {
+                index++;
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            System.arraycopy(keys, index, keys, index + 1, size - index);
+            ids[index] = id;
+            keys[index] = key;
+            size++;
+        }
+    }
+}
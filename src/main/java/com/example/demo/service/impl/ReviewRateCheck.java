@@ -0,0 +1,53 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.entities.Review;
+import com.example.demo.service.ReviewCheck;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Holds reviews past the app.reviews.moderation.rate.max-reviews a customer may submit within
+ * app.reviews.moderation.rate.window-minutes. Submission times are remembered for the most recently
+ * active app.reviews.moderation.rate.max-customers customers.
+ */
+@Component
+public class ReviewRateCheck implements ReviewCheck {
+
+    @Value("${app.reviews.moderation.rate.max-reviews:5}")
+    private int maxReviews;
+
+    @Value("${app.reviews.moderation.rate.window-minutes:60}")
+    private long windowMinutes;
+
+    @Value("${app.reviews.moderation.rate.max-customers:100000}")
+    private int maxCustomers;
+
+    // Submission times in epoch millis by customer
+    private final Map<Integer, ArrayDeque<Long>> submissions = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, ArrayDeque<Long>> eldest) {
+            return size() > maxCustomers;
+        }
+    };
+
+    @Override
+    public String check(Review review) {
+        long submittedAt = review.getReviewDate().toEpochMilli();
+        long windowStart = submittedAt - windowMinutes * 60_000;
+        synchronized (submissions) {
+            ArrayDeque<Long> times = submissions.computeIfAbsent(review.getCustomer().getId(), id -> new ArrayDeque<>());
+            while (!times.isEmpty() && times.peekFirst() <= windowStart) {
+                times.pollFirst();
+            }
+            times.addLast(submittedAt);
+            if (times.size() > maxReviews) {
+                return "More than " + maxReviews + " reviews within " + windowMinutes + " minutes";
+            }
+        }
+        return null;
+    }
+}
@@ -1,46 +1,109 @@
 package com.example.demo.service.impl;
 
 import com.example.demo.entities.*;
+import com.example.demo.exception.ResourceNotFoundException;
 import com.example.demo.repositories.*;
+import com.example.demo.service.PurchaseIndexService;
 import com.example.demo.service.ReviewService;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.LongPredicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Review management.
+ *
+ * Comments are searched through a {@link TextIndex} held in memory. It is built at startup from a
+ * streamed scan of all reviews and rebuilt every app.reviews.search.rebuild-interval-ms to pick up
+ * changes made elsewhere; saving or deleting a review updates it once the transaction commits.
+ * Until the first build completes, searches fall back to a comment scan in the database.
+ */
 @Service
 @RequiredArgsConstructor
 public class ReviewServiceImpl implements ReviewService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ReviewServiceImpl.class);
+    // Cursor of the first page of a feed
+    private static final Instant FEED_START = Instant.parse("9999-12-31T00:00:00Z");
+
     private final ReviewRepository reviewRepository;
     private final ProductRepository productRepository;
     private final CustomerRepository customerRepository;
-    private final OrderDetailRepository orderDetailRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ReviewVoteRepository reviewVoteRepository;
+    private final PurchaseIndexService purchaseIndexService;
+
+    @Value("${app.reviews.ranking.size:100}")
+    private int rankingSize;
+
+    @Value("${app.reviews.helpfulness.half-life-days:180}")
+    private double helpfulnessHalfLifeDays;
+
+    // Most helpful lists by product, loaded on first read
+    private final Map<Integer, ReviewRanking> rankings = new ConcurrentHashMap<>();
+
+    @Value("${app.reviews.feed.size:1000}")
+    private int feedSize;
+
+    @Value("${app.reviews.feed.product-size:100}")
+    private int productFeedSize;
+
+    @Value("${app.reviews.feed.max-products:10000}")
+    private int maxProductFeeds;
+
+    // Latest published reviews overall, fed from startup and read once filled from the database
+    private volatile RecentFeed recentFeed;
+    private volatile boolean recentFeedFilled;
+    // Latest published reviews by product, loaded on first read
+    private final Map<Integer, ProductFeed> productFeeds = new ConcurrentHashMap<>();
+
+    private final Object searchLock = new Object();
+    // Null until the first build
+    private volatile TextIndex searchIndex;
+    // Changes committed while a rebuild runs, replayed onto the new index; guarded by searchLock
+    private List<SearchUpdate> pendingUpdates;
 
     @Override
     @Transactional
     public Review saveReview(Review review) {
-        // Validate product exists
-        if (!productRepository.existsById(review.getProduct().getId())) {
-            return null;
-        }
-
-        // Validate customer exists
-        if (!customerRepository.existsById(review.getCustomer().getId())) {
-            return null;
-        }
+        Integer productId = review.getProduct().getId();
+        Integer customerId = review.getCustomer().getId();
 
-        // Validate customer has purchased the product
-        if (!hasPurchasedProduct(review.getCustomer().getId(), review.getProduct().getId())) {
+        // Validate rating
+        if (review.getRating() == null || review.getRating() < 1 || review.getRating() > 5) {
             return null;
         }
 
-        // Validate rating
-        if (review.getRating() == null || review.getRating() < 1 || review.getRating() > 5) {
+        // Validate customer has purchased the product, which also means both exist
+        if (!purchaseIndexService.hasPurchased(customerId, productId)) {
             return null;
         }
 
@@ -49,30 +112,37 @@ public class ReviewServiceImpl implements ReviewService {
             review.setReviewDate(Instant.now());
         }
 
-        // Check if review already exists
-        Optional<Review> existingReview = reviewRepository
-            .findByProductIdAndCustomerId(
-                review.getProduct().getId(),
-                review.getCustomer().getId()
-            );
+        // Check if review already exists, only read when the customer is known to have one
+        Optional<Review> existingReview = purchaseIndexService.hasReviewed(customerId, productId)
+            ? reviewRepository.findByProductIdAndCustomerId(productId, customerId)
+            : Optional.empty();
 
         if (existingReview.isPresent()) {
             // Update existing review
             Review existing = existingReview.get();
             existing.setRating(review.getRating());
             existing.setComment(review.getComment());
-            return reviewRepository.save(existing);
+            // Edited reviews are checked again and hidden until then
+            existing.setStatus("PENDING");
+            existing.setModerationNote(null);
+            existing.setModeratedAt(null);
+            Review saved = reviewRepository.save(existing);
+            indexAfterCommit(saved);
+            recordModerated(List.of(saved));
+            return saved;
         } else {
-            // Create new review
-            return reviewRepository.save(review);
+            // Create new review, published once the moderation checks pass
+            review.setStatus("PENDING");
+            review.setHelpfulVotes(0);
+            review.setUnhelpfulVotes(0);
+            review.setHelpfulnessScore(helpfulnessScore(review));
+            Review saved = reviewRepository.save(review);
+            indexAfterCommit(saved);
+            purchaseIndexService.recordReviewCreated(customerId, productId);
+            return saved;
         }
     }
 
-    private boolean hasPurchasedProduct(Integer customerId, Integer productId) {
-        // Check if customer has any orders containing this product
-        return orderDetailRepository.existsByOrderCustomerIdAndProductId(customerId, productId);
-    }
-
     @Override
     public Optional<Review> getReviewById(Integer id) {
         return reviewRepository.findById(id);
@@ -83,7 +153,7 @@ public class ReviewServiceImpl implements ReviewService {
         if (!productRepository.existsById(productId)) {
             return List.of();
         }
-        return reviewRepository.findByProductId(productId);
+        return reviewRepository.findPublishedByProductId(productId);
     }
 
     @Override
@@ -107,7 +177,7 @@ public class ReviewServiceImpl implements ReviewService {
         if (minRating < 1 || maxRating > 5 || minRating > maxRating) {
             return List.of();
         }
-        return reviewRepository.findByRatingBetween(minRating, maxRating);
+        return reviewRepository.findPublishedByRatingBetween(minRating, maxRating);
     }
 
     @Override
@@ -123,26 +193,435 @@ public class ReviewServiceImpl implements ReviewService {
         if (!productRepository.existsById(productId)) {
             return 0L;
         }
-        return reviewRepository.countByProductId(productId);
+        return reviewRepository.countPublishedByProductId(productId);
     }
 
     @Override
     public List<Review> getRecentReviews(int limit) {
-        return reviewRepository.findTop5ByOrderByReviewDateDesc()
-            .stream()
-            .limit(limit)
-            .collect(Collectors.toList());
+        return getRecentReviews(null, null, null, limit);
+    }
+
+    @Override
+    public List<Review> getRecentReviews(Integer productId, Instant before, Integer beforeId, int limit) {
+        if (limit < 1) {
+            return List.of();
+        }
+        Instant cursor = before != null ? before : FEED_START;
+        int cursorId = before != null && beforeId != null ? beforeId : Integer.MAX_VALUE;
+
+        RecentFeed feed = productId == null ? (recentFeedFilled ? recentFeed : null) : productFeed(productId);
+        int[] ids = feed != null && limit <= feed.capacity()
+                ? feed.page(feedTime(cursor), cursorId, 0, limit)
+                : null;
+        if (ids != null) {
+            List<Review> reviews = publishedInOrder(ids);
+            // Otherwise a fed review has been unpublished since and the database has the exact page
+            if (reviews.size() == ids.length) {
+                return reviews;
+            }
+        }
+        PageRequest page = PageRequest.of(0, limit);
+        return productId == null
+                ? reviewRepository.findPublishedBefore(cursor, cursorId, page)
+                : reviewRepository.findPublishedByProductBefore(productId, cursor, cursorId, page);
     }
 
     @Override
     public List<Review> searchReviews(String searchTerm) {
-        return reviewRepository.searchByComment(searchTerm);
+        return searchReviews(searchTerm, null, null, null, Pageable.unpaged()).getContent();
+    }
+
+    @Override
+    public Page<Review> searchReviews(String query, Integer productId, Integer minRating, Integer maxRating,
+                                      Pageable pageable) {
+        int min = minRating != null ? minRating : 1;
+        int max = maxRating != null ? maxRating : 5;
+        if (min > max) {
+            throw new IllegalArgumentException("Minimum rating cannot exceed maximum rating");
+        }
+        LongPredicate filter = attributes -> {
+            long rating = attributes & 0xFF;
+            return rating >= min && rating <= max && (productId == null || attributes >>> 8 == productId);
+        };
+
+        TextIndex index = searchIndex;
+        if (index == null) {
+            List<Review> matches = reviewRepository.searchByComment(query).stream()
+                    .filter(review -> filter.test(searchAttributes(review)))
+                    .toList();
+            int from = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), matches.size()) : 0;
+            int to = pageable.isPaged() ? Math.min(from + pageable.getPageSize(), matches.size()) : matches.size();
+            return new PageImpl<>(matches.subList(from, to), pageable, matches.size());
+        }
+
+        TextIndex.Result result = pageable.isPaged()
+                ? index.search(query, filter, (int) pageable.getOffset(), pageable.getPageSize())
+                : index.search(query, filter, 0, Integer.MAX_VALUE);
+        List<Integer> ids = Arrays.stream(result.ids()).boxed().toList();
+        Map<Integer, Review> reviews = ids.isEmpty() ? Map.of()
+                : reviewRepository.findWithProductAndCustomerByIdIn(ids).stream()
+                        .collect(Collectors.toMap(Review::getId, Function.identity()));
+        // A review deleted since the search is left out of the page
+        List<Review> content = ids.stream().map(reviews::get).filter(Objects::nonNull).toList();
+        return new PageImpl<>(content, pageable, result.total());
     }
 
     @Override
     @Transactional
     public void deleteReview(Integer id) {
+        Optional<Review> review = reviewRepository.findById(id);
         reviewRepository.deleteById(id);
+        updateAfterCommit(new SearchUpdate(id, 0, null));
+        review.ifPresent(deleted -> {
+            Integer productId = deleted.getProduct().getId();
+            purchaseIndexService.recordReviewDeleted(deleted.getCustomer().getId(), productId);
+            afterCommit(() -> {
+                ReviewRanking ranking = rankings.get(productId);
+                if (ranking != null) {
+                    ranking.getHelpful().remove(id);
+                }
+                unfeed(productId, id);
+            });
+        });
+    }
+
+    @Override
+    @Transactional
+    public Review voteOnReview(Integer reviewId, Integer customerId, boolean helpful) {
+        Review review = reviewRepository.findById(reviewId)
+                .orElseThrow(() -> new ResourceNotFoundException("Review", "id", reviewId));
+        if (review.getCustomer().getId().equals(customerId)) {
+            throw new IllegalArgumentException("Customers cannot vote on their own reviews");
+        }
+        Customer customer = customerRepository.findById(customerId)
+                .orElseThrow(() -> new ResourceNotFoundException("Customer", "id", customerId));
+
+        int helpfulDelta;
+        int unhelpfulDelta;
+        Optional<ReviewVote> existingVote = reviewVoteRepository.findByReviewIdAndCustomerId(reviewId, customerId);
+        if (existingVote.isPresent()) {
+            ReviewVote vote = existingVote.get();
+            if (vote.getHelpful() == helpful) {
+                return review;
+            }
+            vote.setHelpful(helpful);
+            vote.setVotedAt(Instant.now());
+            helpfulDelta = helpful ? 1 : -1;
+            unhelpfulDelta = -helpfulDelta;
+        } else {
+            ReviewVote vote = new ReviewVote();
+            vote.setReview(review);
+            vote.setCustomer(customer);
+            vote.setHelpful(helpful);
+            vote.setVotedAt(Instant.now());
+            reviewVoteRepository.save(vote);
+            helpfulDelta = helpful ? 1 : 0;
+            unhelpfulDelta = helpful ? 0 : 1;
+        }
+
+        // Counted in place so that concurrent votes are not lost, then re-read under the row lock
+        reviewRepository.addVotes(reviewId, helpfulDelta, unhelpfulDelta);
+        Review voted = reviewRepository.findById(reviewId)
+                .orElseThrow(() -> new ResourceNotFoundException("Review", "id", reviewId));
+        double score = helpfulnessScore(voted);
+        voted.setHelpfulnessScore(score);
+        if (!"APPROVED".equals(voted.getStatus())) {
+            return voted;
+        }
+        Integer productId = voted.getProduct().getId();
+        afterCommit(() -> {
+            ReviewRanking ranking = rankings.get(productId);
+            if (ranking != null) {
+                ranking.getHelpful().update(reviewId, score);
+            }
+        });
+        return voted;
+    }
+
+    @Override
+    public Page<Review> getMostHelpfulReviews(Integer productId, Pageable pageable) {
+        ReviewRanking ranking = ranking(productId);
+        return rankedPage(ranking.getHelpful(), pageable,
+                () -> reviewRepository.findByProductIdOrderByHelpfulness(productId, pageable), productId);
+    }
+
+    @Override
+    public List<Review> getMostHelpfulReviews(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        // Ordered by the same stored score as the per-product rankings
+        return reviewRepository.findMostHelpful(PageRequest.of(0, limit));
+    }
+
+    @Override
+    public Page<Review> getMostRecentReviews(Integer productId, Pageable pageable) {
+        RecentFeed feed = pageable.isPaged() ? productFeed(productId) : null;
+        int[] ids = feed != null
+                ? feed.page(Long.MAX_VALUE, Integer.MAX_VALUE, (int) pageable.getOffset(), pageable.getPageSize())
+                : null;
+        if (ids != null) {
+            List<Review> content = publishedInOrder(ids);
+            if (content.size() == ids.length) {
+                long total = feed.isComplete() ? feed.size() : reviewRepository.countByProductIdAndStatus(productId, "APPROVED");
+                return new PageImpl<>(content, pageable, total);
+            }
+        }
+        return reviewRepository.findByProductIdOrderByRecency(productId, pageable);
+    }
+
+    @Override
+    public void recordModerated(Collection<Review> reviews) {
+        List<Review> moderated = List.copyOf(reviews);
+        afterCommit(() -> moderated.forEach(review -> {
+            Integer productId = review.getProduct().getId();
+            ReviewRanking ranking = rankings.get(productId);
+            if ("APPROVED".equals(review.getStatus())) {
+                if (ranking != null) {
+                    double score = review.getHelpfulnessScore() != null ? review.getHelpfulnessScore() : helpfulnessScore(review);
+                    ranking.getHelpful().update(review.getId(), score);
+                }
+                feed(productId, review.getId(), feedTime(review.getReviewDate()));
+            } else {
+                if (ranking != null) {
+                    ranking.getHelpful().remove(review.getId());
+                }
+                unfeed(productId, review.getId());
+            }
+        }));
+    }
+
+    // Drops every loaded ranking so that lists that have drifted from the database are rebuilt
+    @Override
+    @Scheduled(fixedDelayString = "${app.reviews.ranking.refresh-interval-ms:3600000}")
+    public void refreshRankings() {
+        rankings.clear();
+    }
+
+    private Page<Review> rankedPage(ReviewRanking.TopList list, Pageable pageable,
+                                    Supplier<Page<Review>> fromDatabase, Integer productId) {
+        int[] page = pageable.isPaged() ? list.page((int) pageable.getOffset(), pageable.getPageSize()) : null;
+        if (page == null) {
+            return fromDatabase.get();
+        }
+        List<Review> content = publishedInOrder(page);
+        long total = list.isComplete() ? list.size() : reviewRepository.countByProductIdAndStatus(productId, "APPROVED");
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    // The reviews of the IDs in order, leaving out any that are no longer published
+    private List<Review> publishedInOrder(int[] page) {
+        List<Integer> ids = Arrays.stream(page).boxed().toList();
+        Map<Integer, Review> reviews = ids.isEmpty() ? Map.of()
+                : reviewRepository.findWithProductAndCustomerByIdIn(ids).stream()
+                        .filter(review -> "APPROVED".equals(review.getStatus()))
+                        .collect(Collectors.toMap(Review::getId, Function.identity()));
+        return ids.stream().map(reviews::get).filter(Objects::nonNull).toList();
+    }
+
+    @PostConstruct
+    public void fillRecentFeed() {
+        RecentFeed feed = new RecentFeed(feedSize);
+        recentFeed = feed;
+        try {
+            fill(feed, reviewRepository.findRecentFeed(PageRequest.of(0, feedSize + 1)));
+            recentFeedFilled = true;
+        } catch (RuntimeException e) {
+            logger.warn("Could not fill the recent reviews feed, serving it from the database", e);
+        }
+    }
+
+    // The product's feed once filled, registered before it is filled so that no review published meanwhile is missed
+    private RecentFeed productFeed(Integer productId) {
+        ProductFeed existing = productFeeds.get(productId);
+        if (existing != null) {
+            return existing.filled ? existing.feed : null;
+        }
+        ProductFeed created = new ProductFeed(new RecentFeed(productFeedSize));
+        if (productFeeds.putIfAbsent(productId, created) != null) {
+            return null;
+        }
+        // Bounded by dropping arbitrary other products, which are loaded again when read
+        Iterator<Integer> others = productFeeds.keySet().iterator();
+        while (productFeeds.size() > maxProductFeeds && others.hasNext()) {
+            Integer other = others.next();
+            if (!other.equals(productId)) {
+                productFeeds.remove(other);
+            }
+        }
+        try {
+            fill(created.feed, reviewRepository.findRecentFeedByProduct(productId, PageRequest.of(0, productFeedSize + 1)));
+        } catch (RuntimeException e) {
+            productFeeds.remove(productId, created);
+            throw e;
+        }
+        created.filled = true;
+        return created.feed;
+    }
+
+    private void feed(Integer productId, int reviewId, long time) {
+        RecentFeed feed = recentFeed;
+        if (feed != null) {
+            feed.add(reviewId, time);
+        }
+        ProductFeed productFeed = productFeeds.get(productId);
+        if (productFeed != null) {
+            productFeed.feed.add(reviewId, time);
+        }
+    }
+
+    private void unfeed(Integer productId, int reviewId) {
+        RecentFeed feed = recentFeed;
+        if (feed != null) {
+            feed.remove(reviewId);
+        }
+        ProductFeed productFeed = productFeeds.get(productId);
+        if (productFeed != null) {
+            productFeed.feed.remove(reviewId);
+        }
+    }
+
+    // Rows are [reviewId, reviewDate] newest first, one past the feed's capacity when there are more
+    private static void fill(RecentFeed feed, List<Object[]> rows) {
+        int held = Math.min(rows.size(), feed.capacity());
+        for (int i = held - 1; i >= 0; i--) {
+            feed.add((Integer) rows.get(i)[0], feedTime((Instant) rows.get(i)[1]));
+        }
+        if (rows.size() > feed.capacity()) {
+            feed.raiseFloor(feedTime((Instant) rows.get(feed.capacity())[1]));
+        }
+    }
+
+    // Microseconds, the precision review dates are stored with
+    private static long feedTime(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000 + instant.getNano() / 1_000;
+    }
+
+    private static final class ProductFeed {
+        private final RecentFeed feed;
+        private volatile boolean filled;
+
+        private ProductFeed(RecentFeed feed) {
+            this.feed = feed;
+        }
+    }
+
+    // The product's ranking, reloaded once updates have left too little of it certain
+    private ReviewRanking ranking(Integer productId) {
+        ReviewRanking ranking = rankings.get(productId);
+        if (ranking != null && usable(ranking.getHelpful())) {
+            return ranking;
+        }
+        ranking = loadRanking(productId);
+        rankings.put(productId, ranking);
+        return ranking;
+    }
+
+    private boolean usable(ReviewRanking.TopList list) {
+        return list.isComplete() || list.trusted() >= rankingSize / 2;
+    }
+
+    private ReviewRanking loadRanking(Integer productId) {
+        List<Review> unscored = reviewRepository.findByProductIdAndHelpfulnessScoreIsNull(productId);
+        if (!unscored.isEmpty()) {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                unscored.forEach(review -> review.setHelpfulnessScore(helpfulnessScore(review)));
+                reviewRepository.saveAll(unscored);
+            });
+        }
+        PageRequest top = PageRequest.of(0, rankingSize + 1);
+        List<Object[]> helpful = reviewRepository.findHelpfulnessRanking(productId, top);
+        return new ReviewRanking(new ReviewRanking.TopList(rankingSize,
+                helpful.stream().mapToInt(row -> (Integer) row[0]).toArray(),
+                helpful.stream().mapToDouble(row -> (Double) row[1]).toArray()));
+    }
+
+    private double helpfulnessScore(Review review) {
+        return ReviewRanking.helpfulnessScore(review.getHelpfulVotes(), review.getUnhelpfulVotes(),
+                review.getReviewDate(), helpfulnessHalfLifeDays);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.reviews.search.rebuild-interval-ms:21600000}")
+    public void rebuildSearchIndex() {
+        synchronized (searchLock) {
+            pendingUpdates = new ArrayList<>();
+        }
+        try {
+            long started = System.currentTimeMillis();
+            TextIndex index = new TextIndex();
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            readOnly.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = reviewRepository.streamSearchRows()) {
+                    rows.forEach(row -> index.put((Integer) row[0], (String) row[3],
+                            searchAttributes((Integer) row[1], (Integer) row[2])));
+                }
+            });
+            synchronized (searchLock) {
+                pendingUpdates.forEach(update -> update.applyTo(index));
+                searchIndex = index;
+            }
+            logger.info("Indexed {} reviews for search in {} ms", index.size(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            logger.error("Failed to build the review search index", e);
+        } finally {
+            synchronized (searchLock) {
+                pendingUpdates = null;
+            }
+        }
+    }
+
+    private void indexAfterCommit(Review review) {
+        updateAfterCommit(new SearchUpdate(review.getId(), searchAttributes(review), review.getComment()));
+    }
+
+    private void updateAfterCommit(SearchUpdate update) {
+        afterCommit(() -> applyUpdate(update));
+    }
+
+    private void applyUpdate(SearchUpdate update) {
+        synchronized (searchLock) {
+            if (pendingUpdates != null) {
+                pendingUpdates.add(update);
+            }
+            TextIndex index = searchIndex;
+            if (index != null) {
+                update.applyTo(index);
+            }
+        }
+    }
+
+    private static long searchAttributes(Review review) {
+        return searchAttributes(review.getProduct().getId(), review.getRating());
+    }
+
+    // Product ID above the rating, so that both can be filtered on without a lookup
+    private static long searchAttributes(Integer productId, Integer rating) {
+        return ((long) productId << 8) | rating;
+    }
+
+    // A review to index, or to remove when text is null
+    private record SearchUpdate(int id, long attributes, String text) {
+        private void applyTo(TextIndex index) {
+            if (text != null) {
+                index.put(id, text, attributes);
+            } else {
+                index.remove(id);
+            }
+        }
     }
 
     @Override
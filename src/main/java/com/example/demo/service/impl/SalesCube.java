@@ -0,0 +1,531 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.dto.SalesCubeQueryDTO;
+import com.example.demo.dto.SalesCubeResultDTO;
+import com.example.demo.service.SalesCubeService.Dimension;
+import com.example.demo.service.SalesCubeService.Measure;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Append-only columnar store of sale lines behind the sales cube.
+ *
+ * Every line is one row across primitive column arrays, split in fixed-size chunks that are
+ * scanned in parallel. Product, store, employee and category IDs are dictionary-encoded to dense
+ * codes, so filters become array lookups and a group key packs into a single long; the day is kept
+ * as its epoch day. A product can belong to several categories, so categories hang off the product
+ * code instead of being a column, and grouping by category counts a line under each of them.
+ *
+ * There is a single writer. Appended rows only become visible on {@link #publish()}, which sets
+ * the volatile chunk sizes after the arrays are filled, so queries run alongside appends.
+ * Dictionaries only grow, which lets a query read their sizes after the chunk sizes and be sure
+ * every code in its snapshot is covered.
+ */
+final class SalesCube {
+
+    static final int CHUNK_SIZE = 1 << 14;
+    private static final int[] NO_CATEGORIES = new int[0];
+
+    private final Dictionary products = new Dictionary();
+    private final Dictionary stores = new Dictionary();
+    private final Dictionary employees = new Dictionary();
+    private final Dictionary categories = new Dictionary();
+    // Category codes per product code
+    private volatile int[][] productCategories = new int[64][];
+
+    private final List<Chunk> chunks = new ArrayList<>();
+    private volatile Chunk[] published = new Chunk[0];
+    private volatile int minDay = Integer.MAX_VALUE;
+    private volatile int maxDay = Integer.MIN_VALUE;
+    private volatile int lastOrderId;
+
+    private int pendingMinDay = Integer.MAX_VALUE;
+    private int pendingMaxDay = Integer.MIN_VALUE;
+    private int pendingLastOrderId;
+
+    boolean hasProduct(int productId) {
+        return products.code(productId) >= 0;
+    }
+
+    void addProduct(int productId, Collection<Integer> categoryIds) {
+        int code = products.encode(productId);
+        int[] codes = categoryIds.isEmpty() ? NO_CATEGORIES : new int[categoryIds.size()];
+        int i = 0;
+        for (Integer categoryId : categoryIds) {
+            codes[i++] = categories.encode(categoryId);
+        }
+        int[][] current = productCategories;
+        if (code >= current.length) {
+            current = Arrays.copyOf(current, Math.max(code + 1, current.length * 2));
+        }
+        current[code] = codes;
+        productCategories = current;
+    }
+
+    void append(int orderId, int productId, int storeId, int employeeId, LocalDate date, int units, long revenueCents) {
+        if (!hasProduct(productId)) {
+            addProduct(productId, List.of());
+        }
+        Chunk chunk = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+        if (chunk == null || chunk.pending == CHUNK_SIZE) {
+            chunk = new Chunk();
+            chunks.add(chunk);
+        }
+        int row = chunk.pending++;
+        int day = (int) date.toEpochDay();
+        chunk.product[row] = products.code(productId);
+        chunk.store[row] = stores.encode(storeId);
+        chunk.employee[row] = employees.encode(employeeId);
+        chunk.day[row] = day;
+        chunk.units[row] = units;
+        chunk.revenueCents[row] = revenueCents;
+        pendingMinDay = Math.min(pendingMinDay, day);
+        pendingMaxDay = Math.max(pendingMaxDay, day);
+        pendingLastOrderId = Math.max(pendingLastOrderId, orderId);
+    }
+
+    // Makes appended rows visible to queries
+    void publish() {
+        minDay = pendingMinDay;
+        maxDay = pendingMaxDay;
+        for (int i = chunks.size() - 1; i >= 0 && chunks.get(i).size != chunks.get(i).pending; i--) {
+            chunks.get(i).size = chunks.get(i).pending;
+        }
+        if (published.length != chunks.size()) {
+            published = chunks.toArray(new Chunk[0]);
+        }
+        lastOrderId = pendingLastOrderId;
+    }
+
+    int getLastOrderId() {
+        return lastOrderId;
+    }
+
+    long getRowCount() {
+        long rows = 0;
+        for (Chunk chunk : published) {
+            rows += chunk.size;
+        }
+        return rows;
+    }
+
+    SalesCubeResultDTO query(ForkJoinPool pool, SalesCubeQueryDTO query, int limit) {
+        long started = System.nanoTime();
+        Chunk[] snapshot = published;
+        int[] sizes = new int[snapshot.length];
+        long scanned = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            sizes[i] = snapshot[i].size;
+            scanned += sizes[i];
+        }
+        List<Dimension> groupBy = query.getGroupBy() != null ? List.copyOf(query.getGroupBy()) : List.of();
+        Measure measure = query.getMeasure() != null ? query.getMeasure() : Measure.REVENUE;
+        if (groupBy.stream().distinct().count() != groupBy.size()) {
+            throw new IllegalArgumentException("Group-by dimensions cannot repeat");
+        }
+
+        Plan plan = new Plan(query, groupBy);
+        GroupTable table = plan.empty
+                ? new GroupTable(16)
+                : pool.invoke(new ScanTask(plan, snapshot, sizes, 0, snapshot.length));
+
+        List<SalesCubeResultDTO.Row> rows = new ArrayList<>();
+        for (int slot : table.top(limit, measure == Measure.UNITS ? table.units : table.cents)) {
+            rows.add(SalesCubeResultDTO.Row.builder()
+                    .keys(plan.decode(table.keys[slot]))
+                    .lines(table.lines[slot])
+                    .units(table.units[slot])
+                    .revenue(BigDecimal.valueOf(table.cents[slot], 2))
+                    .build());
+        }
+        return SalesCubeResultDTO.builder()
+                .groupBy(groupBy)
+                .measure(measure)
+                .scannedRows(scanned)
+                .matchedRows(table.matchedRows)
+                .units(table.matchedUnits)
+                .revenue(BigDecimal.valueOf(table.matchedCents, 2))
+                .totalGroups(table.size)
+                .loadedThroughOrderId(lastOrderId)
+                .elapsedMillis((System.nanoTime() - started) / 1_000_000)
+                .rows(rows)
+                .build();
+    }
+
+    /**
+     * Filters compiled to masks over dictionary codes, and the mixed-radix layout of the group key
+     */
+    private class Plan {
+        private final boolean[] productMask;
+        private final boolean[] storeMask;
+        private final boolean[] employeeMask;
+        private final boolean[] categoryMask;
+        private final int[][] categoriesByProduct;
+        private final int dayFrom;
+        private final int dayTo;
+        private final boolean empty;
+
+        private final Dimension[] dimensions;
+        private final long[] multipliers;
+        private final long[] radixes;
+        private final int categoryIndex;
+        private final int uncategorized;
+
+        private Plan(SalesCubeQueryDTO query, List<Dimension> groupBy) {
+            int productCount = products.size();
+            int categoryCount = categories.size();
+            categoriesByProduct = productCategories;
+            categoryMask = mask(categories, query.getCategoryIds(), categoryCount);
+            storeMask = mask(stores, query.getStoreIds(), stores.size());
+            employeeMask = mask(employees, query.getEmployeeIds(), employees.size());
+
+            boolean[] selected = mask(products, query.getProductIds(), productCount);
+            if (categoryMask != null) {
+                if (selected == null) {
+                    selected = new boolean[productCount];
+                    Arrays.fill(selected, true);
+                }
+                for (int product = 0; product < productCount; product++) {
+                    selected[product] = selected[product] && inCategories(product);
+                }
+            }
+            productMask = selected;
+
+            int low = minDay;
+            int high = maxDay;
+            dayFrom = query.getFrom() != null ? Math.max(low, (int) query.getFrom().toEpochDay()) : low;
+            dayTo = query.getTo() != null ? Math.min(high, (int) query.getTo().toEpochDay()) : high;
+            empty = dayFrom > dayTo;
+
+            dimensions = groupBy.toArray(new Dimension[0]);
+            multipliers = new long[dimensions.length];
+            radixes = new long[dimensions.length];
+            uncategorized = categoryCount;
+            int category = -1;
+            long multiplier = 1;
+            try {
+                for (int i = dimensions.length - 1; i >= 0; i--) {
+                    radixes[i] = switch (dimensions[i]) {
+                        case PRODUCT -> productCount;
+                        case CATEGORY -> categoryCount + 1;
+                        case STORE -> stores.size();
+                        case EMPLOYEE -> employees.size();
+                        case DAY -> empty ? 1 : dayTo - dayFrom + 1;
+                    };
+                    if (dimensions[i] == Dimension.CATEGORY) {
+                        category = i;
+                    }
+                    multipliers[i] = multiplier;
+                    multiplier = Math.multiplyExact(multiplier, Math.max(1, radixes[i]));
+                }
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Too many groups; narrow the filters or group by fewer dimensions");
+            }
+            categoryIndex = category;
+        }
+
+        private boolean inCategories(int product) {
+            int[] codes = categoriesOf(product);
+            for (int code : codes) {
+                if (categoryMask[code]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private int[] categoriesOf(int product) {
+            int[] codes = product < categoriesByProduct.length ? categoriesByProduct[product] : null;
+            return codes != null ? codes : NO_CATEGORIES;
+        }
+
+        private Map<Dimension, Object> decode(long key) {
+            Map<Dimension, Object> keys = new LinkedHashMap<>();
+            for (int i = 0; i < dimensions.length; i++) {
+                int code = (int) (key / multipliers[i] % Math.max(1, radixes[i]));
+                keys.put(dimensions[i], switch (dimensions[i]) {
+                    case PRODUCT -> products.id(code);
+                    case CATEGORY -> code == uncategorized ? null : categories.id(code);
+                    case STORE -> stores.id(code);
+                    case EMPLOYEE -> employees.id(code);
+                    case DAY -> LocalDate.ofEpochDay(dayFrom + code);
+                });
+            }
+            return keys;
+        }
+    }
+
+    private static boolean[] mask(Dictionary dictionary, Set<Integer> ids, int size) {
+        if (ids == null || ids.isEmpty()) {
+            return null;
+        }
+        boolean[] mask = new boolean[size];
+        for (Integer id : ids) {
+            int code = id != null ? dictionary.code(id) : -1;
+            if (code >= 0 && code < size) {
+                mask[code] = true;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Splits the chunk range in halves until a single chunk remains, which is scanned directly
+     */
+    private static class ScanTask extends RecursiveTask<GroupTable> {
+        private static final long serialVersionUID = 1L;
+
+        private final Plan plan;
+        private final Chunk[] chunks;
+        private final int[] sizes;
+        private final int from;
+        private final int to;
+
+        private ScanTask(Plan plan, Chunk[] chunks, int[] sizes, int from, int to) {
+            this.plan = plan;
+            this.chunks = chunks;
+            this.sizes = sizes;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected GroupTable compute() {
+            if (to - from <= 1) {
+                GroupTable table = new GroupTable(1024);
+                if (from < to) {
+                    scan(chunks[from], sizes[from], table);
+                }
+                return table;
+            }
+            int middle = (from + to) >>> 1;
+            ScanTask right = new ScanTask(plan, chunks, sizes, middle, to);
+            right.fork();
+            GroupTable left = new ScanTask(plan, chunks, sizes, from, middle).compute();
+            return left.merge(right.join());
+        }
+
+        private void scan(Chunk chunk, int size, GroupTable table) {
+            Plan plan = this.plan;
+            Dimension[] dimensions = plan.dimensions;
+            long[] multipliers = plan.multipliers;
+            for (int row = 0; row < size; row++) {
+                int product = chunk.product[row];
+                if (plan.productMask != null && !plan.productMask[product]) {
+                    continue;
+                }
+                if (plan.storeMask != null && !plan.storeMask[chunk.store[row]]) {
+                    continue;
+                }
+                if (plan.employeeMask != null && !plan.employeeMask[chunk.employee[row]]) {
+                    continue;
+                }
+                int day = chunk.day[row];
+                if (day < plan.dayFrom || day > plan.dayTo) {
+                    continue;
+                }
+                int units = chunk.units[row];
+                long cents = chunk.revenueCents[row];
+                table.matchedRows++;
+                table.matchedUnits += units;
+                table.matchedCents += cents;
+
+                long key = 0;
+                for (int i = 0; i < dimensions.length; i++) {
+                    key += multipliers[i] * switch (dimensions[i]) {
+                        case PRODUCT -> product;
+                        case STORE -> chunk.store[row];
+                        case EMPLOYEE -> chunk.employee[row];
+                        case DAY -> day - plan.dayFrom;
+                        case CATEGORY -> 0;
+                    };
+                }
+                if (plan.categoryIndex < 0) {
+                    table.add(key, units, cents);
+                    continue;
+                }
+                long categoryMultiplier = multipliers[plan.categoryIndex];
+                int[] codes = plan.categoriesOf(product);
+                if (codes.length == 0) {
+                    if (plan.categoryMask == null) {
+                        table.add(key + categoryMultiplier * plan.uncategorized, units, cents);
+                    }
+                    continue;
+                }
+                for (int code : codes) {
+                    if (plan.categoryMask == null || plan.categoryMask[code]) {
+                        table.add(key + categoryMultiplier * code, units, cents);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Open-addressing hash table from packed group key to line count, units and revenue in cents
+     */
+    private static class GroupTable {
+        private long[] keys;
+        private boolean[] used;
+        private long[] lines;
+        private long[] units;
+        private long[] cents;
+        private int size;
+
+        private long matchedRows;
+        private long matchedUnits;
+        private long matchedCents;
+
+        private GroupTable(int capacity) {
+            allocate(capacity);
+        }
+
+        private void allocate(int capacity) {
+            keys = new long[capacity];
+            used = new boolean[capacity];
+            lines = new long[capacity];
+            units = new long[capacity];
+            cents = new long[capacity];
+        }
+
+        private void add(long key, long addUnits, long addCents) {
+            accumulate(key, 1, addUnits, addCents);
+        }
+
+        private void accumulate(long key, long addLines, long addUnits, long addCents) {
+            int slot = slot(key);
+            if (!used[slot]) {
+                used[slot] = true;
+                keys[slot] = key;
+                size++;
+            }
+            lines[slot] += addLines;
+            units[slot] += addUnits;
+            cents[slot] += addCents;
+            if (size * 2 > keys.length) {
+                grow();
+            }
+        }
+
+        private int slot(long key) {
+            int mask = keys.length - 1;
+            long hash = key * 0x9E3779B97F4A7C15L;
+            int slot = (int) (hash ^ (hash >>> 32)) & mask;
+            while (used[slot] && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            boolean[] oldUsed = used;
+            long[] oldLines = lines;
+            long[] oldUnits = units;
+            long[] oldCents = cents;
+            allocate(oldKeys.length * 2);
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i]) {
+                    accumulate(oldKeys[i], oldLines[i], oldUnits[i], oldCents[i]);
+                }
+            }
+        }
+
+        private GroupTable merge(GroupTable other) {
+            GroupTable into = size >= other.size ? this : other;
+            GroupTable from = into == this ? other : this;
+            for (int i = 0; i < from.keys.length; i++) {
+                if (from.used[i]) {
+                    into.accumulate(from.keys[i], from.lines[i], from.units[i], from.cents[i]);
+                }
+            }
+            into.matchedRows += from.matchedRows;
+            into.matchedUnits += from.matchedUnits;
+            into.matchedCents += from.matchedCents;
+            return into;
+        }
+
+        // Slots of the highest groups by the measure, ties broken by key for a stable order
+        private List<Integer> top(int limit, long[] measure) {
+            Comparator<Integer> ascending = Comparator.<Integer>comparingLong(slot -> measure[slot])
+                    .thenComparing(Comparator.<Integer>comparingLong(slot -> keys[slot]).reversed());
+            PriorityQueue<Integer> heap = new PriorityQueue<>(ascending);
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (!used[slot]) {
+                    continue;
+                }
+                if (heap.size() < limit) {
+                    heap.add(slot);
+                } else if (ascending.compare(slot, heap.peek()) > 0) {
+                    heap.poll();
+                    heap.add(slot);
+                }
+            }
+            List<Integer> top = new ArrayList<>(heap);
+            top.sort(ascending.reversed());
+            return top;
+        }
+    }
+
+    private static class Chunk {
+        private final int[] product = new int[CHUNK_SIZE];
+        private final int[] store = new int[CHUNK_SIZE];
+        private final int[] employee = new int[CHUNK_SIZE];
+        private final int[] day = new int[CHUNK_SIZE];
+        private final int[] units = new int[CHUNK_SIZE];
+        private final long[] revenueCents = new long[CHUNK_SIZE];
+        // Rows written by the writer, and rows visible to queries
+        private int pending;
+        private volatile int size;
+    }
+
+    /**
+     * Maps IDs to dense codes in order of first appearance; written by the single writer only
+     */
+    private static class Dictionary {
+        private final Map<Integer, Integer> codes = new ConcurrentHashMap<>();
+        private volatile int[] ids = new int[64];
+        private volatile int size;
+
+        private int encode(int id) {
+            Integer code = codes.get(id);
+            if (code != null) {
+                return code;
+            }
+            int next = size;
+            if (next == ids.length) {
+                ids = Arrays.copyOf(ids, next * 2);
+            }
+            ids[next] = id;
+            codes.put(id, next);
+            size = next + 1;
+            return next;
+        }
+
+        private int code(int id) {
+            return codes.getOrDefault(id, -1);
+        }
+
+        private int id(int code) {
+            return ids[code];
+        }
+
+        private int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.dto.SalesCubeQueryDTO;
+import com.example.demo.dto.SalesCubeResultDTO;
+import com.example.demo.repositories.ArchivedOrderDetailRepository;
+import com.example.demo.repositories.OrderDetailRepository;
+import com.example.demo.repositories.ProductRepository;
+import com.example.demo.service.SalesCubeService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory sales cube for dashboard slicing by product, category, store, employee and day.
+ *
+ * Sale lines are held in a columnar {@link SalesCube}. New orders are appended every
+ * app.sales-cube.append-interval-ms by streaming the lines of orders past the highest order ID
+ * loaded, and the first append after startup loads everything, archived orders included. Appends
+ * do not see later status changes or orders that commit out of ID order, so a nightly reload
+ * builds a fresh cube off to the side and swaps it in. Queries scan the chunks in parallel on a
+ * dedicated fork/join pool.
+ */
+@Service
+public class SalesCubeServiceImpl implements SalesCubeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesCubeServiceImpl.class);
+    private static final int PUBLISH_BATCH_SIZE = 50000;
+    private static final int DEFAULT_LIMIT = 100;
+
+    @Value("${app.sales-cube.enabled:true}")
+    private boolean enabled;
+
+    // Threads scanning chunks per query; 0 uses all available processors
+    @Value("${app.sales-cube.parallelism:0}")
+    private int parallelism;
+
+    private final OrderDetailRepository orderDetailRepository;
+    private final ArchivedOrderDetailRepository archivedOrderDetailRepository;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private volatile SalesCube cube = new SalesCube();
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private ForkJoinPool pool;
+
+    @Autowired
+    public SalesCubeServiceImpl(OrderDetailRepository orderDetailRepository,
+                                ArchivedOrderDetailRepository archivedOrderDetailRepository,
+                                ProductRepository productRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.orderDetailRepository = orderDetailRepository;
+        this.archivedOrderDetailRepository = archivedOrderDetailRepository;
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @Override
+    public SalesCubeResultDTO query(SalesCubeQueryDTO query) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+        if (query.getFrom() != null && query.getTo() != null && query.getFrom().isAfter(query.getTo())) {
+            throw new IllegalArgumentException("Start date cannot be after end date");
+        }
+        int limit = query.getLimit() != null ? query.getLimit() : DEFAULT_LIMIT;
+        return cube.query(pool, query, limit);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.sales-cube.append-interval-ms:10000}")
+    public int appendNewOrders() {
+        if (!enabled || !loadLock.tryLock()) {
+            return 0;
+        }
+        try {
+            SalesCube current = cube;
+            boolean initial = current.getLastOrderId() == 0;
+            int lines = initial ? loadAll(current) : loadNew(current);
+            if (initial) {
+                logger.info("Loaded {} sale lines into the sales cube", lines);
+            }
+            return lines;
+        } catch (RuntimeException e) {
+            logger.error("Failed to append new orders to the sales cube", e);
+            return 0;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    @Override
+    @Scheduled(cron = "${app.sales-cube.reload-cron:0 30 0 * * *}")
+    public int reload() {
+        if (!enabled) {
+            return 0;
+        }
+        loadLock.lock();
+        try {
+            SalesCube fresh = new SalesCube();
+            int lines = loadAll(fresh);
+            cube = fresh;
+            logger.info("Reloaded the sales cube with {} sale lines", lines);
+            return lines;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    // Loads every line, archived ones included. Product categories are read up front since a stream
+    // holds the connection; both streams run in one transaction so an archive run cannot split them.
+    private int loadAll(SalesCube target) {
+        Integer loaded = readOnlyTransaction.execute(status -> {
+            Map<Integer, List<Integer>> categories = groupCategories(productRepository.findAllCategoryIds());
+            int lines;
+            try (Stream<Object[]> stream = archivedOrderDetailRepository.streamSaleLines()) {
+                lines = appendAll(target, stream, categories, 0);
+            }
+            try (Stream<Object[]> stream = orderDetailRepository.streamSaleLinesAfter(0)) {
+                lines = appendAll(target, stream, categories, lines);
+            }
+            target.publish();
+            return lines;
+        });
+        return loaded == null ? 0 : loaded;
+    }
+
+    private int appendAll(SalesCube target, Stream<Object[]> stream, Map<Integer, List<Integer>> categories, int lines) {
+        Iterator<Object[]> rows = stream.iterator();
+        while (rows.hasNext()) {
+            Object[] row = rows.next();
+            int productId = ((Number) row[1]).intValue();
+            if (!target.hasProduct(productId)) {
+                target.addProduct(productId, categories.getOrDefault(productId, List.of()));
+            }
+            append(target, row);
+            if (++lines % PUBLISH_BATCH_SIZE == 0) {
+                target.publish();
+            }
+        }
+        return lines;
+    }
+
+    // Appends are small, so the lines are read first and only the new products' categories looked up
+    private int loadNew(SalesCube target) {
+        Integer loaded = readOnlyTransaction.execute(status -> {
+            List<Object[]> rows;
+            try (Stream<Object[]> stream = orderDetailRepository.streamSaleLinesAfter(target.getLastOrderId())) {
+                rows = stream.toList();
+            }
+            if (rows.isEmpty()) {
+                return 0;
+            }
+            Set<Integer> newProducts = new HashSet<>();
+            for (Object[] row : rows) {
+                int productId = ((Number) row[1]).intValue();
+                if (!target.hasProduct(productId)) {
+                    newProducts.add(productId);
+                }
+            }
+            if (!newProducts.isEmpty()) {
+                Map<Integer, List<Integer>> categories =
+                        groupCategories(productRepository.findCategoryIdsByProductIds(newProducts));
+                for (Integer productId : newProducts) {
+                    target.addProduct(productId, categories.getOrDefault(productId, List.of()));
+                }
+            }
+            for (Object[] row : rows) {
+                append(target, row);
+            }
+            target.publish();
+            return rows.size();
+        });
+        return loaded == null ? 0 : loaded;
+    }
+
+    private void append(SalesCube target, Object[] row) {
+        BigDecimal finalPrice = row[6] != null ? (BigDecimal) row[6] : BigDecimal.ZERO;
+        target.append(((Number) row[0]).intValue(),
+                ((Number) row[1]).intValue(),
+                ((Number) row[2]).intValue(),
+                ((Number) row[3]).intValue(),
+                (LocalDate) row[4],
+                row[5] != null ? ((Number) row[5]).intValue() : 0,
+                finalPrice.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    private Map<Integer, List<Integer>> groupCategories(List<Object[]> pairs) {
+        Map<Integer, List<Integer>> categories = new HashMap<>();
+        for (Object[] pair : pairs) {
+            categories.computeIfAbsent(((Number) pair[0]).intValue(), id -> new ArrayList<>())
+                    .add(((Number) pair[1]).intValue());
+        }
+        return categories;
+    }
+}
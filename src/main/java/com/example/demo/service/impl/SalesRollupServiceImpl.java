@@ -0,0 +1,484 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.dto.SalesRevenueDTO;
+import com.example.demo.entities.CustomerOrder;
+import com.example.demo.entities.OrderArchiveState;
+import com.example.demo.entities.OrderDetail;
+import com.example.demo.entities.SalesDailyRollup;
+import com.example.demo.entities.SalesDailyRollupId;
+import com.example.demo.entities.SalesRollupDirtyDay;
+import com.example.demo.entities.SalesRollupState;
+import com.example.demo.repositories.OrderArchiveStateRepository;
+import com.example.demo.repositories.SalesDailyRollupRepository;
+import com.example.demo.repositories.SalesRollupDirtyDayRepository;
+import com.example.demo.repositories.SalesRollupStateRepository;
+import com.example.demo.service.SalesRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Daily sales rollups per store, employee, customer, product and promotion, plus an ALL total.
+ *
+ * Order writes do not touch the rollup rows themselves: that would make every checkout contend on
+ * the same few store and total rows. Instead the deltas of committed orders are merged in memory
+ * and applied in one batch every app.sales-rollup.flush-interval-ms.
+ *
+ * Rollups are authoritative for the covered range kept in {@link SalesRollupState}, which a rebuild
+ * extends and a nightly job moves forward to yesterday. The nightly job also recomputes yesterday,
+ * repairing deltas lost in a restart. Changes to orders of earlier days additionally leave a
+ * {@link SalesRollupDirtyDay} marker in the order's own transaction; those days are recomputed at
+ * startup and by the nightly job, so their deltas survive a restart too. Revenue queries read whole
+ * covered days from the rollups and aggregate only the days outside that range, typically today,
+ * from raw orders.
+ */
+@Service
+public class SalesRollupServiceImpl implements SalesRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesRollupServiceImpl.class);
+    private static final Integer STATE_ID = 1;
+    private static final Integer ARCHIVE_STATE_ID = 1;
+    private static final LocalDate EARLIEST = LocalDate.of(1970, 1, 1);
+    // Rebuilds commit one window at a time to keep transactions short
+    private static final int REBUILD_WINDOW_DAYS = 31;
+
+    @Value("${app.sales-rollup.enabled:true}")
+    private boolean enabled;
+
+    private final SalesDailyRollupRepository rollupRepository;
+    private final SalesRollupStateRepository stateRepository;
+    private final OrderArchiveStateRepository archiveStateRepository;
+    private final SalesRollupDirtyDayRepository dirtyDayRepository;
+    private final TransactionTemplate writeTransaction;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Map<SalesDailyRollupId, Delta> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    @Autowired
+    public SalesRollupServiceImpl(SalesDailyRollupRepository rollupRepository,
+                                  SalesRollupStateRepository stateRepository,
+                                  OrderArchiveStateRepository archiveStateRepository,
+                                  SalesRollupDirtyDayRepository dirtyDayRepository,
+                                  PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.stateRepository = stateRepository;
+        this.archiveStateRepository = archiveStateRepository;
+        this.dirtyDayRepository = dirtyDayRepository;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public void recordOrderCreated(CustomerOrder order, Collection<OrderDetail> details) {
+        if (isCounted(order.getStatus())) {
+            record(order.getPurchaseDate(), deltas(order, details, 1));
+        }
+    }
+
+    @Override
+    public void recordOrderDeleted(CustomerOrder order) {
+        if (isCounted(order.getStatus())) {
+            record(order.getPurchaseDate(), deltas(order, order.getOrderDetails(), -1));
+        }
+    }
+
+    @Override
+    public void recordLineChange(CustomerOrder order, OrderDetail previous, OrderDetail current) {
+        LocalDate date = order.getPurchaseDate();
+        if (!isCounted(order.getStatus()) || date == null) {
+            return;
+        }
+        Map<SalesDailyRollupId, Delta> deltas = new HashMap<>();
+        if (previous != null) {
+            addLine(deltas, previous, date, -1);
+        }
+        if (current != null) {
+            addLine(deltas, current, date, 1);
+        }
+        record(date, deltas);
+    }
+
+    @Override
+    public void recordStatusChange(CustomerOrder order, String previousStatus) {
+        boolean wasCounted = isCounted(previousStatus);
+        boolean counted = isCounted(order.getStatus());
+        if (wasCounted != counted) {
+            record(order.getPurchaseDate(), deltas(order, order.getOrderDetails(), counted ? 1 : -1));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.sales-rollup.flush-interval-ms:5000}")
+    public void flushPending() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            Map<SalesDailyRollupId, Delta> batch = new HashMap<>();
+            for (SalesDailyRollupId id : pending.keySet()) {
+                Delta delta = pending.remove(id);
+                if (delta != null) {
+                    batch.put(id, delta);
+                }
+            }
+            try {
+                writeTransaction.executeWithoutResult(status -> {
+                    List<SalesDailyRollup> created = new ArrayList<>();
+                    batch.forEach((id, delta) -> {
+                        if (rollupRepository.addToRollup(id, delta.orders, delta.units, delta.revenue) == 0) {
+                            created.add(delta.toRollup(id));
+                        }
+                    });
+                    rollupRepository.insertAll(created);
+                });
+            } catch (RuntimeException e) {
+                batch.forEach((id, delta) -> pending.merge(id, delta, Delta::plus));
+                logger.error("Failed to apply {} sales rollup deltas, will retry", batch.size(), e);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Scheduled(cron = "${app.sales-rollup.seal-cron:0 15 0 * * *}")
+    public void sealYesterday() {
+        if (!enabled) {
+            return;
+        }
+        Optional<SalesRollupState> state = stateRepository.findById(STATE_ID);
+        if (state.isEmpty()) {
+            logger.info("Sales rollups have not been built yet, skipping the nightly seal");
+            return;
+        }
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        LocalDate from = state.get().getCoveredThrough().plusDays(1);
+        int rows = rebuild(from.isBefore(yesterday) ? from : yesterday, yesterday);
+        logger.info("Sealed sales rollups through {} ({} rows)", yesterday, rows);
+        repairDirtyDays();
+    }
+
+    /**
+     * Recomputes the covered days that order changes marked dirty, whose in-memory deltas may have
+     * been lost in a restart. Returns the number of days rebuilt.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public int repairDirtyDays() {
+        if (!enabled) {
+            return 0;
+        }
+        writeLock.lock();
+        try {
+            Integer maxId = dirtyDayRepository.findMaxId();
+            if (maxId == null) {
+                return 0;
+            }
+            // Applied deltas would otherwise be counted twice, once here and once by the rebuild
+            flushPending();
+            Optional<SalesRollupState> state = stateRepository.findById(STATE_ID);
+            Optional<LocalDate> archivedBefore = archiveStateRepository.findById(ARCHIVE_STATE_ID)
+                    .map(OrderArchiveState::getArchivedBefore);
+            int days = 0;
+            for (LocalDate day : dirtyDayRepository.findDatesUpTo(maxId)) {
+                // Days outside the covered range are read from raw orders anyway
+                boolean covered = state.isPresent() && !day.isBefore(state.get().getCoveredFrom())
+                        && !day.isAfter(state.get().getCoveredThrough());
+                if (covered && (archivedBefore.isEmpty() || !day.isBefore(archivedBefore.get()))) {
+                    writeTransaction.executeWithoutResult(status -> rebuildWindow(day, day));
+                    days++;
+                }
+            }
+            writeTransaction.executeWithoutResult(status -> dirtyDayRepository.deleteUpTo(maxId));
+            if (days > 0) {
+                logger.info("Repaired sales rollups of {} changed days", days);
+            }
+            return days;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public int rebuild(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Start date and end date cannot be null");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Start date cannot be after end date");
+        }
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        Optional<SalesRollupState> state = stateRepository.findById(STATE_ID);
+        if (state.isPresent() && (from.isAfter(state.get().getCoveredThrough().plusDays(1))
+                || to.isBefore(state.get().getCoveredFrom().minusDays(1)))) {
+            throw new IllegalArgumentException("Rebuild range would leave a gap next to the covered range "
+                    + state.get().getCoveredFrom() + " to " + state.get().getCoveredThrough());
+        }
+        // Rollups are rebuilt from the hot order tables only; archived days keep the rows they have
+        Optional<LocalDate> archivedBefore = archiveStateRepository.findById(ARCHIVE_STATE_ID)
+                .map(OrderArchiveState::getArchivedBefore);
+        if (archivedBefore.isPresent() && from.isBefore(archivedBefore.get())) {
+            throw new IllegalArgumentException("Orders purchased before " + archivedBefore.get()
+                    + " are archived, rebuild from that date on");
+        }
+
+        writeLock.lock();
+        try {
+            // Pending deltas are part of the rows about to be recomputed
+            flushPending();
+            int rows = 0;
+            for (LocalDate windowStart = from; !windowStart.isAfter(to); windowStart = windowStart.plusDays(REBUILD_WINDOW_DAYS)) {
+                LocalDate windowEnd = windowStart.plusDays(REBUILD_WINDOW_DAYS - 1);
+                LocalDate start = windowStart;
+                LocalDate end = windowEnd.isAfter(to) ? to : windowEnd;
+                Integer written = writeTransaction.execute(status -> rebuildWindow(start, end));
+                rows += written == null ? 0 : written;
+            }
+
+            // Today is never sealed, it keeps changing
+            LocalDate coveredThrough = to.isAfter(yesterday) ? yesterday : to;
+            if (!from.isAfter(coveredThrough)) {
+                writeTransaction.executeWithoutResult(status -> {
+                    SalesRollupState current = stateRepository.findById(STATE_ID).orElseGet(() -> {
+                        SalesRollupState created = new SalesRollupState();
+                        created.setId(STATE_ID);
+                        created.setCoveredFrom(from);
+                        created.setCoveredThrough(coveredThrough);
+                        return created;
+                    });
+                    if (from.isBefore(current.getCoveredFrom())) {
+                        current.setCoveredFrom(from);
+                    }
+                    if (coveredThrough.isAfter(current.getCoveredThrough())) {
+                        current.setCoveredThrough(coveredThrough);
+                    }
+                    stateRepository.save(current);
+                });
+            }
+            return rows;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public SalesRevenueDTO getRevenue(Dimension dimension, Integer dimensionId, LocalDate from, LocalDate to,
+                                      boolean includeDays) {
+        if (dimension == null) {
+            throw new IllegalArgumentException("Dimension cannot be null");
+        }
+        Integer id = dimension == Dimension.ALL ? Integer.valueOf(0) : dimensionId;
+        if (id == null) {
+            throw new IllegalArgumentException("Dimension ID is required for " + dimension);
+        }
+        LocalDate start = from != null ? from : EARLIEST;
+        LocalDate end = to != null ? to : LocalDate.now();
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("Start date cannot be after end date");
+        }
+
+        return readOnlyTransaction.execute(status -> {
+            Map<LocalDate, Delta> byDay = new TreeMap<>();
+            long rollupDays = 0;
+
+            Optional<SalesRollupState> state = stateRepository.findById(STATE_ID);
+            LocalDate rollupStart = null;
+            LocalDate rollupEnd = null;
+            if (state.isPresent()) {
+                rollupStart = start.isBefore(state.get().getCoveredFrom()) ? state.get().getCoveredFrom() : start;
+                rollupEnd = end.isAfter(state.get().getCoveredThrough()) ? state.get().getCoveredThrough() : end;
+            }
+
+            if (rollupStart != null && !rollupStart.isAfter(rollupEnd)) {
+                rollupDays = ChronoUnit.DAYS.between(rollupStart, rollupEnd) + 1;
+                for (SalesDailyRollup rollup : rollupRepository.findSeries(dimension.name(), id, rollupStart, rollupEnd)) {
+                    byDay.merge(rollup.getId().getSalesDate(),
+                            new Delta(rollup.getOrderCount(), rollup.getUnits(), rollup.getRevenue()), Delta::plus);
+                }
+                // Only the edges outside the covered range are aggregated from raw orders
+                if (start.isBefore(rollupStart)) {
+                    addRaw(byDay, dimension, id, start, rollupStart.minusDays(1));
+                }
+                if (end.isAfter(rollupEnd)) {
+                    addRaw(byDay, dimension, id, rollupEnd.plusDays(1), end);
+                }
+            } else {
+                addRaw(byDay, dimension, id, start, end);
+            }
+
+            Delta total = new Delta(0, 0, BigDecimal.ZERO);
+            List<SalesRevenueDTO.Day> days = includeDays ? new ArrayList<>(byDay.size()) : null;
+            for (Map.Entry<LocalDate, Delta> entry : byDay.entrySet()) {
+                total = total.plus(entry.getValue());
+                if (days != null) {
+                    days.add(SalesRevenueDTO.Day.builder()
+                            .date(entry.getKey())
+                            .orderCount(entry.getValue().orders)
+                            .units(entry.getValue().units)
+                            .revenue(entry.getValue().revenue)
+                            .build());
+                }
+            }
+
+            return SalesRevenueDTO.builder()
+                    .dimension(dimension.name())
+                    .dimensionId(dimension == Dimension.ALL ? null : id)
+                    .from(start)
+                    .to(end)
+                    .orderCount(total.orders)
+                    .units(total.units)
+                    .revenue(total.revenue)
+                    .rollupDays(rollupDays)
+                    .rawDays(ChronoUnit.DAYS.between(start, end) + 1 - rollupDays)
+                    .days(days)
+                    .build();
+        });
+    }
+
+    private int rebuildWindow(LocalDate from, LocalDate to) {
+        rollupRepository.deleteByDateRange(from, to);
+        List<SalesDailyRollup> rows = new ArrayList<>();
+        for (Dimension dimension : Dimension.values()) {
+            for (Object[] row : aggregate(dimension, null, from, to)) {
+                SalesDailyRollupId id = new SalesDailyRollupId(dimension.name(), ((Number) row[0]).intValue(), (LocalDate) row[1]);
+                rows.add(toDelta(row).toRollup(id));
+            }
+        }
+        rollupRepository.insertAll(rows);
+        return rows.size();
+    }
+
+    private void addRaw(Map<LocalDate, Delta> byDay, Dimension dimension, Integer id, LocalDate from, LocalDate to) {
+        for (Object[] row : aggregate(dimension, id, from, to)) {
+            byDay.merge((LocalDate) row[1], toDelta(row), Delta::plus);
+        }
+    }
+
+    private List<Object[]> aggregate(Dimension dimension, Integer id, LocalDate from, LocalDate to) {
+        return switch (dimension) {
+            case ALL -> rollupRepository.aggregateAll(from, to);
+            case STORE -> rollupRepository.aggregateByStore(id, from, to);
+            case EMPLOYEE -> rollupRepository.aggregateByEmployee(id, from, to);
+            case CUSTOMER -> rollupRepository.aggregateByCustomer(id, from, to);
+            case PRODUCT -> rollupRepository.aggregateByProduct(id, from, to);
+            case PROMOTION -> rollupRepository.aggregateByPromotion(id, from, to);
+        };
+    }
+
+    private Delta toDelta(Object[] row) {
+        BigDecimal revenue = row[4] != null ? (BigDecimal) row[4] : BigDecimal.ZERO;
+        return new Delta(((Number) row[2]).longValue(), row[3] != null ? ((Number) row[3]).longValue() : 0, revenue);
+    }
+
+    private Map<SalesDailyRollupId, Delta> deltas(CustomerOrder order, Collection<OrderDetail> details, int sign) {
+        Map<SalesDailyRollupId, Delta> deltas = new HashMap<>();
+        LocalDate date = order.getPurchaseDate();
+        if (date == null) {
+            return deltas;
+        }
+        BigDecimal revenue = order.getTotalPrice() != null ? order.getTotalPrice() : BigDecimal.ZERO;
+        Delta orderDelta = new Delta(sign, 0, sign > 0 ? revenue : revenue.negate());
+
+        deltas.put(new SalesDailyRollupId(Dimension.ALL.name(), 0, date), orderDelta);
+        if (order.getEmployeeSeller() != null) {
+            deltas.put(new SalesDailyRollupId(Dimension.EMPLOYEE.name(), order.getEmployeeSeller().getId(), date), orderDelta);
+            if (order.getEmployeeSeller().getStore() != null) {
+                deltas.put(new SalesDailyRollupId(Dimension.STORE.name(), order.getEmployeeSeller().getStore().getId(), date), orderDelta);
+            }
+        }
+        if (order.getCustomer() != null) {
+            deltas.put(new SalesDailyRollupId(Dimension.CUSTOMER.name(), order.getCustomer().getId(), date), orderDelta);
+        }
+        if (order.getPromotion() != null) {
+            deltas.put(new SalesDailyRollupId(Dimension.PROMOTION.name(), order.getPromotion().getId(), date), orderDelta);
+        }
+        if (details != null) {
+            for (OrderDetail detail : details) {
+                addLine(deltas, detail, date, sign);
+            }
+        }
+        return deltas;
+    }
+
+    private void addLine(Map<SalesDailyRollupId, Delta> deltas, OrderDetail detail, LocalDate date, int sign) {
+        BigDecimal finalPrice = detail.getFinalPrice() != null ? detail.getFinalPrice() : BigDecimal.ZERO;
+        deltas.merge(new SalesDailyRollupId(Dimension.PRODUCT.name(), detail.getProduct().getId(), date),
+                new Delta(sign, (long) sign * detail.getQuantity(), sign > 0 ? finalPrice : finalPrice.negate()),
+                Delta::plus);
+    }
+
+    // Deltas only become visible once the order's transaction has committed
+    private void record(LocalDate date, Map<SalesDailyRollupId, Delta> deltas) {
+        if (!enabled || deltas.isEmpty()) {
+            return;
+        }
+        // Today is recomputed by the nightly seal; earlier days need a durable marker
+        if (date.isBefore(LocalDate.now())) {
+            SalesRollupDirtyDay marker = new SalesRollupDirtyDay();
+            marker.setSalesDate(date);
+            dirtyDayRepository.save(marker);
+        }
+        Runnable apply = () -> deltas.forEach((id, delta) -> pending.merge(id, delta, Delta::plus));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private boolean isCounted(String status) {
+        return !"CANCELLED".equalsIgnoreCase(status);
+    }
+
+    private static class Delta {
+        private final long orders;
+        private final long units;
+        private final BigDecimal revenue;
+
+        private Delta(long orders, long units, BigDecimal revenue) {
+            this.orders = orders;
+            this.units = units;
+            this.revenue = revenue;
+        }
+
+        private Delta plus(Delta other) {
+            return new Delta(orders + other.orders, units + other.units, revenue.add(other.revenue));
+        }
+
+        private SalesDailyRollup toRollup(SalesDailyRollupId id) {
+            SalesDailyRollup rollup = new SalesDailyRollup();
+            rollup.setId(id);
+            rollup.setOrderCount(orders);
+            rollup.setUnits(units);
+            rollup.setRevenue(revenue);
+            return rollup;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.example.demo.service.impl;
 import com.example.demo.entities.CustomerOrder;
 import com.example.demo.entities.Shipping;
 import com.example.demo.repositories.ShippingRepository;
+import com.example.demo.service.OrderSummaryService;
 import com.example.demo.service.ShippingService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -16,10 +17,12 @@ import java.util.Optional;
 public class ShippingServiceImpl implements ShippingService {
 
     private final ShippingRepository shippingRepository;
+    private final OrderSummaryService orderSummaryService;
 
     @Autowired
-    public ShippingServiceImpl(ShippingRepository shippingRepository) {
+    public ShippingServiceImpl(ShippingRepository shippingRepository, OrderSummaryService orderSummaryService) {
         this.shippingRepository = shippingRepository;
+        this.orderSummaryService = orderSummaryService;
     }
 
     @Override
@@ -30,7 +33,9 @@ public class ShippingServiceImpl implements ShippingService {
         shipping.setTrackingNumber(trackingNumber);
         shipping.setShippingProvider(shippingProvider);
         
-        return shippingRepository.save(shipping);
+        Shipping saved = shippingRepository.save(shipping);
+        orderSummaryService.markChanged(order.getId());
+        return saved;
     }
 
     @Override
@@ -51,7 +56,9 @@ public class ShippingServiceImpl implements ShippingService {
     @Override
     @Transactional
     public Shipping updateShipping(Shipping shipping) {
-        return shippingRepository.save(shipping);
+        Shipping saved = shippingRepository.save(shipping);
+        orderSummaryService.markChanged(saved.getOrder().getId());
+        return saved;
     }
 
     @Override
@@ -62,6 +69,7 @@ public class ShippingServiceImpl implements ShippingService {
         if (optionalShipping.isPresent()) {
             Shipping shipping = optionalShipping.get();
             shipping.setShippedDate(shippedDate);
+            orderSummaryService.markChanged(shipping.getOrder().getId());
             return shippingRepository.save(shipping);
         }
         
@@ -76,6 +84,7 @@ public class ShippingServiceImpl implements ShippingService {
         if (optionalShipping.isPresent()) {
             Shipping shipping = optionalShipping.get();
             shipping.setDeliveredDate(deliveredDate);
+            orderSummaryService.markChanged(shipping.getOrder().getId());
             return shippingRepository.save(shipping);
         }
         
@@ -105,6 +114,8 @@ public class ShippingServiceImpl implements ShippingService {
     @Override
     @Transactional
     public void deleteShipping(Integer shippingId) {
+        shippingRepository.findById(shippingId)
+                .ifPresent(shipping -> orderSummaryService.markChanged(shipping.getOrder().getId()));
         shippingRepository.deleteById(shippingId);
     }
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import com.example.demo.entities.Store;
 import com.example.demo.entities.StoreInventory;
 import com.example.demo.entities.StoreInventoryId;
 import com.example.demo.repositories.StoreInventoryRepository;
+import com.example.demo.service.BackInStockService;
 import com.example.demo.service.StoreInventoryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -17,10 +18,13 @@ import java.util.Optional;
 public class StoreInventoryServiceImpl implements StoreInventoryService {
 
     private final StoreInventoryRepository storeInventoryRepository;
+    private final BackInStockService backInStockService;
 
     @Autowired
-    public StoreInventoryServiceImpl(StoreInventoryRepository storeInventoryRepository) {
+    public StoreInventoryServiceImpl(StoreInventoryRepository storeInventoryRepository,
+                                     BackInStockService backInStockService) {
         this.storeInventoryRepository = storeInventoryRepository;
+        this.backInStockService = backInStockService;
     }
 
     @Override
@@ -40,7 +44,9 @@ public class StoreInventoryServiceImpl implements StoreInventoryService {
         inventory.setProduct(product);
         inventory.setQuantity(quantity);
         
-        return storeInventoryRepository.save(inventory);
+        StoreInventory saved = storeInventoryRepository.save(inventory);
+        backInStockService.stockChanged(store.getId(), product.getId(), null, quantity);
+        return saved;
     }
 
     @Override
@@ -75,8 +81,11 @@ public class StoreInventoryServiceImpl implements StoreInventoryService {
         
         if (optionalInventory.isPresent()) {
             StoreInventory inventory = optionalInventory.get();
+            Integer previousQuantity = inventory.getQuantity();
             inventory.setQuantity(newQuantity);
-            return storeInventoryRepository.save(inventory);
+            StoreInventory saved = storeInventoryRepository.save(inventory);
+            backInStockService.stockChanged(store.getId(), product.getId(), previousQuantity, newQuantity);
+            return saved;
         }
         
         throw new IllegalArgumentException("Inventory not found for store " + store.getId() + 
@@ -90,8 +99,11 @@ public class StoreInventoryServiceImpl implements StoreInventoryService {
         
         if (optionalInventory.isPresent()) {
             StoreInventory inventory = optionalInventory.get();
-            inventory.setQuantity(inventory.getQuantity() + incrementAmount);
-            return storeInventoryRepository.save(inventory);
+            Integer previousQuantity = inventory.getQuantity();
+            inventory.setQuantity(previousQuantity + incrementAmount);
+            StoreInventory saved = storeInventoryRepository.save(inventory);
+            backInStockService.stockChanged(store.getId(), product.getId(), previousQuantity, saved.getQuantity());
+            return saved;
         }
         
         throw new IllegalArgumentException("Inventory not found for store " + store.getId() + 
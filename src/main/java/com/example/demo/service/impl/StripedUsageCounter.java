@@ -0,0 +1,186 @@
+package com.example.demo.service.impl;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Contention-safe usage counter with a hard limit.
+ *
+ * The remaining uses are held as permits split across stripes, each on its own cache line. A
+ * reservation takes a permit from the calling thread's home stripe with a single CAS and only
+ * visits other stripes once its own is empty, so threads hammering the same counter rarely touch
+ * the same memory. A reservation never succeeds without taking a permit, so the limit is never
+ * exceeded however many threads race for the last uses.
+ *
+ * A reservation stays in flight until it is confirmed (the use was recorded) or released (it was
+ * not, and the permit is handed back). {@link #reconcile} corrects the counter against the
+ * recorded uses, which may drift from it when uses are recorded or removed elsewhere. A counter
+ * whose uses are shared with other processes can instead start without permits and be topped up
+ * with {@link #grant} as it obtains them.
+ */
+public class StripedUsageCounter {
+
+    // Longs per stripe, so that neighbouring stripes sit on separate cache lines
+    private static final int PAD = 16;
+
+    private final long limit;
+    private final int mask;
+    // Remaining permits of stripe i at index i * PAD; stripe 0 goes negative while overdrawn
+    private final AtomicLongArray permits;
+    private final LongAdder inFlight = new LongAdder();
+
+    /**
+     * @param limit   maximum number of uses
+     * @param used    uses already recorded
+     * @param stripes number of stripes, rounded up to a power of two
+     */
+    public StripedUsageCounter(long limit, long used, int stripes) {
+        if (limit < 0 || used < 0) {
+            throw new IllegalArgumentException("Limit and used must not be negative");
+        }
+        if (stripes < 1 || stripes > 1 << 16) {
+            throw new IllegalArgumentException("Stripes must be between 1 and 65536");
+        }
+        int size = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.limit = limit;
+        this.mask = size - 1;
+        this.permits = new AtomicLongArray(size * PAD);
+        long remaining = limit - used;
+        if (remaining < 0) {
+            permits.set(0, remaining);
+        } else {
+            for (int i = 0; i < size; i++) {
+                permits.set(i * PAD, remaining / size + (i < remaining % size ? 1 : 0));
+            }
+        }
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    /**
+     * Takes one use if any remain. A successful reservation must be followed by exactly one call to
+     * {@link #confirm} or {@link #release}.
+     */
+    public boolean tryReserve() {
+        int home = home();
+        for (int i = 0; i <= mask; i++) {
+            int index = ((home + i) & mask) * PAD;
+            long current;
+            while ((current = permits.get(index)) > 0) {
+                if (permits.compareAndSet(index, current, current - 1)) {
+                    inFlight.increment();
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // The reserved use was recorded
+    public void confirm() {
+        inFlight.decrement();
+    }
+
+    // The reserved use was not recorded; its permit becomes available again
+    public void release() {
+        inFlight.decrement();
+        give(1);
+    }
+
+    // Whether a reservation would currently succeed; a hint only, as other threads may take the last use
+    public boolean hasRemaining() {
+        for (int i = 0; i <= mask; i++) {
+            if (permits.get(i * PAD) > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Uses recorded or in flight
+    public long used() {
+        long remaining = 0;
+        for (int i = 0; i <= mask; i++) {
+            remaining += permits.get(i * PAD);
+        }
+        return limit - remaining;
+    }
+
+    public long inFlight() {
+        return inFlight.sum();
+    }
+
+    // Permits that a reservation could still take
+    public long remaining() {
+        return limit - used();
+    }
+
+    // Adds permits obtained elsewhere, e.g. uses leased from a budget shared with other processes
+    public void grant(long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count must not be negative");
+        }
+        give(count);
+    }
+
+    /**
+     * Brings the counter in line with the recorded uses. The counter must be quiet while the
+     * recorded uses are read, since a reservation confirmed in between may or may not be included;
+     * returns false, changing nothing, when it was not.
+     */
+    public boolean reconcile(LongSupplier recordedUses) {
+        long usedBefore = used();
+        long inFlightBefore = inFlight();
+        long recorded = recordedUses.getAsLong();
+        if (used() != usedBefore || inFlight() != inFlightBefore) {
+            return false;
+        }
+        long drift = recorded - (usedBefore - inFlightBefore);
+        if (drift > 0) {
+            take(drift);
+        } else if (drift < 0) {
+            give(-drift);
+        }
+        return true;
+    }
+
+    // Removes permits, overdrawing stripe 0 for whatever the stripes cannot cover
+    private void take(long count) {
+        for (int i = 0; i <= mask && count > 0; i++) {
+            int index = i * PAD;
+            long current;
+            while (count > 0 && (current = permits.get(index)) > 0) {
+                long taken = Math.min(current, count);
+                if (permits.compareAndSet(index, current, current - taken)) {
+                    count -= taken;
+                }
+            }
+        }
+        if (count > 0) {
+            permits.addAndGet(0, -count);
+        }
+    }
+
+    // Adds permits, paying off an overdraft before handing any out
+    private void give(long count) {
+        long current;
+        while (count > 0 && (current = permits.get(0)) < 0) {
+            long paid = Math.min(-current, count);
+            if (permits.compareAndSet(0, current, current + paid)) {
+                count -= paid;
+            }
+        }
+        if (count > 0) {
+            permits.addAndGet((home() & mask) * PAD, count);
+        }
+    }
+
+    // Stable per thread, so a thread keeps returning to the same stripe
+    private static int home() {
+        int h = System.identityHashCode(Thread.currentThread());
+        return h ^ (h >>> 16);
+    }
+}
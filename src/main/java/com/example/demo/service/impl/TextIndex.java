@@ -0,0 +1,528 @@
+package com.example.demo.service.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * In-memory inverted index over short texts, ranked with BM25.
+ *
+ * Text is split into lower-case words, stop words are dropped (their positions are kept, so that
+ * phrases still line up) and the rest are reduced by a light English stemmer, so "batteries" finds
+ * "battery" and "charging" finds "charged". Each term keeps a postings list of the documents
+ * containing it, in the order they were added, with the positions of the term in each.
+ *
+ * A query is a list of words and "quoted phrases", all of which must match. The search walks the
+ * shortest postings list and skips ahead in the others, so its cost follows the rarest term, not
+ * the size of the index. Every document carries a long of caller-defined attributes that searches
+ * can filter on without looking anything up.
+ *
+ * Updating a document marks the old version deleted and appends a new one. As in most search
+ * engines, term statistics keep counting deleted versions until the index compacts itself, which
+ * happens once a quarter of the documents are deleted.
+ *
+ * Thread-safe: searches share a read lock, changes take the write lock.
+ */
+public class TextIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MIN_COMPACTION_SIZE = 1024;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "has", "have", "i", "in",
+            "is", "it", "its", "me", "my", "of", "on", "or", "so", "that", "the", "this", "to", "was",
+            "were", "with");
+
+    /**
+     * One page of search results, best first.
+     */
+    public record Result(int total, int[] ids, double[] scores) {
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> terms = new HashMap<>();
+    private final Map<Integer, Integer> ordinals = new HashMap<>();
+    // Per document ordinal
+    private int[] ids = new int[1024];
+    private int[] lengths = new int[1024];
+    private long[] attributes = new long[1024];
+    private final BitSet deleted = new BitSet();
+    private int documents;
+    private int deletedCount;
+    private long liveLength;
+
+    /**
+     * Indexes or re-indexes a document.
+     */
+    public void put(int id, String text, long documentAttributes) {
+        List<Token> tokens = analyze(text);
+        Map<String, List<Integer>> positions = new LinkedHashMap<>();
+        for (Token token : tokens) {
+            positions.computeIfAbsent(token.term(), term -> new ArrayList<>()).add(token.position());
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            int ordinal = documents++;
+            if (ordinal == ids.length) {
+                int capacity = ids.length * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+                attributes = Arrays.copyOf(attributes, capacity);
+            }
+            ids[ordinal] = id;
+            lengths[ordinal] = tokens.size();
+            attributes[ordinal] = documentAttributes;
+            ordinals.put(id, ordinal);
+            liveLength += tokens.size();
+            positions.forEach((term, list) -> terms.computeIfAbsent(term, key -> new Postings()).add(ordinal, list));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents - deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the documents matching every word and phrase of the query whose attributes pass the
+     * filter, and returns limit of them from offset in order of relevance, ties going to the
+     * document indexed last.
+     */
+    public Result search(String query, LongPredicate filter, int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit must not be negative");
+        }
+        List<List<Token>> clauses = parse(query);
+        if (clauses.isEmpty()) {
+            return new Result(0, new int[0], new double[0]);
+        }
+        lock.readLock().lock();
+        try {
+            return searchLocked(clauses, filter, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Result searchLocked(List<List<Token>> clauses, LongPredicate filter, int offset, int limit) {
+        Map<String, Integer> slots = new LinkedHashMap<>();
+        for (List<Token> clause : clauses) {
+            for (Token token : clause) {
+                slots.putIfAbsent(token.term(), slots.size());
+            }
+        }
+        int count = slots.size();
+        Postings[] postings = new Postings[count];
+        for (Map.Entry<String, Integer> slot : slots.entrySet()) {
+            Postings list = terms.get(slot.getKey());
+            if (list == null) {
+                return new Result(0, new int[0], new double[0]);
+            }
+            postings[slot.getValue()] = list;
+        }
+        // Phrases as term slots with their offsets from the first word
+        List<int[]> phraseSlots = new ArrayList<>();
+        List<int[]> phraseOffsets = new ArrayList<>();
+        for (List<Token> clause : clauses) {
+            if (clause.size() > 1) {
+                int[] phraseSlot = new int[clause.size()];
+                int[] phraseOffset = new int[clause.size()];
+                for (int i = 0; i < clause.size(); i++) {
+                    phraseSlot[i] = slots.get(clause.get(i).term());
+                    phraseOffset[i] = clause.get(i).position() - clause.get(0).position();
+                }
+                phraseSlots.add(phraseSlot);
+                phraseOffsets.add(phraseOffset);
+            }
+        }
+
+        int live = Math.max(1, documents - deletedCount);
+        double averageLength = Math.max(1.0, (double) liveLength / live);
+        double[] idf = new double[count];
+        int driver = 0;
+        for (int t = 0; t < count; t++) {
+            int df = Math.min(postings[t].size, live);
+            idf[t] = Math.log(1 + (live - df + 0.5) / (df + 0.5));
+            if (postings[t].size < postings[driver].size) {
+                driver = t;
+            }
+        }
+
+        int wanted = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+        TopHits top = new TopHits(Math.min(wanted, postings[driver].size));
+        int[] cursors = new int[count];
+        int total = 0;
+        Postings driving = postings[driver];
+        for (int i = 0; i < driving.size; i++) {
+            int ordinal = driving.docs[i];
+            if (deleted.get(ordinal)) {
+                continue;
+            }
+            cursors[driver] = i;
+            boolean all = true;
+            for (int t = 0; t < count && all; t++) {
+                if (t != driver) {
+                    cursors[t] = postings[t].advance(cursors[t], ordinal);
+                    all = cursors[t] < postings[t].size && postings[t].docs[cursors[t]] == ordinal;
+                }
+            }
+            if (!all || !filter.test(attributes[ordinal])) {
+                continue;
+            }
+            boolean phrasesMatch = true;
+            for (int p = 0; p < phraseSlots.size() && phrasesMatch; p++) {
+                phrasesMatch = matchesPhrase(postings, cursors, phraseSlots.get(p), phraseOffsets.get(p));
+            }
+            if (!phrasesMatch) {
+                continue;
+            }
+            total++;
+            if (wanted > 0) {
+                double norm = K1 * (1 - B + B * lengths[ordinal] / averageLength);
+                double score = 0;
+                for (int t = 0; t < count; t++) {
+                    int tf = postings[t].freq(cursors[t]);
+                    score += idf[t] * tf * (K1 + 1) / (tf + norm);
+                }
+                top.offer(score, ordinal);
+            }
+        }
+
+        int from = Math.min(offset, top.size);
+        int[] resultIds = new int[top.size - from];
+        double[] resultScores = new double[top.size - from];
+        top.sortDescending();
+        for (int i = from; i < top.size; i++) {
+            resultIds[i - from] = ids[top.ordinals[i]];
+            resultScores[i - from] = top.scores[i];
+        }
+        return new Result(total, resultIds, resultScores);
+    }
+
+    private static boolean matchesPhrase(Postings[] postings, int[] cursors, int[] slots, int[] offsets) {
+        Postings first = postings[slots[0]];
+        int start = first.positionStarts[cursors[slots[0]]];
+        int end = first.positionStarts[cursors[slots[0]] + 1];
+        for (int p = start; p < end; p++) {
+            int position = first.positions[p];
+            boolean match = true;
+            for (int i = 1; i < slots.length && match; i++) {
+                Postings next = postings[slots[i]];
+                int cursor = cursors[slots[i]];
+                match = Arrays.binarySearch(next.positions, next.positionStarts[cursor],
+                        next.positionStarts[cursor + 1], position + offsets[i]) >= 0;
+            }
+            if (match) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void removeLocked(int id) {
+        Integer ordinal = ordinals.remove(id);
+        if (ordinal == null) {
+            return;
+        }
+        deleted.set(ordinal);
+        deletedCount++;
+        liveLength -= lengths[ordinal];
+        if (deletedCount >= MIN_COMPACTION_SIZE && deletedCount * 4 >= documents) {
+            compact();
+        }
+    }
+
+    // Drops deleted documents from every postings list and renumbers the rest, keeping their order
+    private void compact() {
+        int[] renumbered = new int[documents];
+        int next = 0;
+        for (int ordinal = 0; ordinal < documents; ordinal++) {
+            if (deleted.get(ordinal)) {
+                renumbered[ordinal] = -1;
+            } else {
+                renumbered[ordinal] = next;
+                ids[next] = ids[ordinal];
+                lengths[next] = lengths[ordinal];
+                attributes[next] = attributes[ordinal];
+                ordinals.put(ids[next], next);
+                next++;
+            }
+        }
+        Iterator<Postings> lists = terms.values().iterator();
+        while (lists.hasNext()) {
+            Postings list = lists.next();
+            list.retain(renumbered);
+            if (list.size == 0) {
+                lists.remove();
+            }
+        }
+        documents = next;
+        deletedCount = 0;
+        deleted.clear();
+    }
+
+    private record Token(String term, int position) {
+    }
+
+    // Words and "quoted phrases"; an unterminated quote runs to the end of the query
+    private static List<List<Token>> parse(String query) {
+        List<List<Token>> clauses = new ArrayList<>();
+        if (query == null) {
+            return clauses;
+        }
+        String[] parts = query.split("\"", -1);
+        for (int i = 0; i < parts.length; i++) {
+            List<Token> tokens = analyze(parts[i]);
+            if (i % 2 == 1 && tokens.size() > 1) {
+                clauses.add(tokens);
+            } else {
+                tokens.forEach(token -> clauses.add(List.of(token)));
+            }
+        }
+        return clauses;
+    }
+
+    // Stemmed, lower-case terms with their word positions, skipping stop words
+    private static List<Token> analyze(String text) {
+        List<Token> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int position = 0;
+        int length = text.length();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word.append(Character.toLowerCase(c));
+            } else if (c == '\'' && word.length() > 0) {
+                // Apostrophes are dropped within words: "don't" is "dont"
+                continue;
+            } else if (word.length() > 0) {
+                String value = word.toString();
+                if (!STOP_WORDS.contains(value)) {
+                    tokens.add(new Token(stem(value), position));
+                }
+                position++;
+                word.setLength(0);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Light English stemmer: strips plural, -ed, -ing and -ly endings and a final e, so that the
+     * usual inflections of a word share a term. It does not try to be linguistically exact.
+     */
+    public static String stem(String word) {
+        String w = word;
+        if (w.length() <= 3 || !Character.isLetter(w.charAt(w.length() - 1))) {
+            return w;
+        }
+        if (w.endsWith("sses")) {
+            w = w.substring(0, w.length() - 2);
+        } else if (w.endsWith("ies") && w.length() > 4) {
+            w = w.substring(0, w.length() - 3) + "y";
+        } else if (w.endsWith("s") && !w.endsWith("ss") && !w.endsWith("us") && !w.endsWith("is")) {
+            w = w.substring(0, w.length() - 1);
+        }
+        if (w.endsWith("ing") && w.length() > 5 && hasVowel(w, w.length() - 3)) {
+            w = undouble(w.substring(0, w.length() - 3));
+        } else if (w.endsWith("ed") && w.length() > 4 && hasVowel(w, w.length() - 2)) {
+            w = undouble(w.substring(0, w.length() - 2));
+        }
+        if (w.endsWith("ly") && w.length() > 5) {
+            w = w.substring(0, w.length() - 2);
+        }
+        if (w.endsWith("e") && w.length() > 4) {
+            w = w.substring(0, w.length() - 1);
+        }
+        return w;
+    }
+
+    private static boolean hasVowel(String word, int end) {
+        for (int i = 0; i < end; i++) {
+            if ("aeiouy".indexOf(word.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // "stopp" becomes "stop", but "fall", "pass" and "buzz" keep their double letter
+    private static String undouble(String word) {
+        int n = word.length();
+        if (n >= 2 && word.charAt(n - 1) == word.charAt(n - 2) && "aeioulsz".indexOf(word.charAt(n - 1)) < 0) {
+            return word.substring(0, n - 1);
+        }
+        return word;
+    }
+
+    /**
+     * Documents containing a term, by ascending ordinal, with the term's positions in each.
+     */
+    private static final class Postings {
+        private int size;
+        private int[] docs = new int[4];
+        private int[] positionStarts = new int[5];
+        private int[] positions = new int[4];
+
+        private void add(int ordinal, List<Integer> termPositions) {
+            if (size + 1 == positionStarts.length) {
+                docs = Arrays.copyOf(docs, docs.length * 2);
+                positionStarts = Arrays.copyOf(positionStarts, docs.length + 1);
+            }
+            int start = positionStarts[size];
+            if (start + termPositions.size() > positions.length) {
+                positions = Arrays.copyOf(positions, Math.max(positions.length * 2, start + termPositions.size()));
+            }
+            for (int i = 0; i < termPositions.size(); i++) {
+                positions[start + i] = termPositions.get(i);
+            }
+            docs[size] = ordinal;
+            positionStarts[++size] = start + termPositions.size();
+        }
+
+        private int freq(int index) {
+            return positionStarts[index + 1] - positionStarts[index];
+        }
+
+        // First index at or after from whose ordinal is at least target, galloping then bisecting
+        private int advance(int from, int target) {
+            if (from >= size || docs[from] >= target) {
+                return from;
+            }
+            int step = 1;
+            int low = from;
+            int high = from + 1;
+            while (high < size && docs[high] < target) {
+                low = high;
+                step <<= 1;
+                high = from + step;
+            }
+            high = Math.min(high, size);
+            int found = Arrays.binarySearch(docs, low + 1, high, target);
+            return found >= 0 ? found : -found - 1;
+        }
+
+        private void retain(int[] renumbered) {
+            int kept = 0;
+            int written = 0;
+            for (int i = 0; i < size; i++) {
+                int ordinal = renumbered[docs[i]];
+                if (ordinal < 0) {
+                    continue;
+                }
+                int start = positionStarts[i];
+                int end = positionStarts[i + 1];
+                System.arraycopy(positions, start, positions, written, end - start);
+                docs[kept] = ordinal;
+                positionStarts[kept] = written;
+                written += end - start;
+                kept++;
+            }
+            positionStarts[kept] = written;
+            size = kept;
+        }
+    }
+
+    /**
+     * Bounded min-heap of the best scores seen, lowest at the root.
+     */
+    private static final class TopHits {
+        private final double[] scores;
+        private final int[] ordinals;
+        private int size;
+
+        private TopHits(int capacity) {
+            scores = new double[capacity];
+            ordinals = new int[capacity];
+        }
+
+        private void offer(double score, int ordinal) {
+            if (size < scores.length) {
+                scores[size] = score;
+                ordinals[size] = ordinal;
+                siftUp(size++);
+            } else if (size > 0 && ranksAbove(score, ordinal, scores[0], ordinals[0])) {
+                scores[0] = score;
+                ordinals[0] = ordinal;
+                siftDown(0, size);
+            }
+        }
+
+        // Heap sort: the root is repeatedly swapped to the end, leaving the best hits first
+        private void sortDescending() {
+            for (int end = size - 1; end > 0; end--) {
+                swap(0, end);
+                siftDown(0, end);
+            }
+        }
+
+        private static boolean ranksAbove(double score, int ordinal, double otherScore, int otherOrdinal) {
+            return score > otherScore || (score == otherScore && ordinal > otherOrdinal);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!ranksAbove(scores[parent], ordinals[parent], scores[i], ordinals[i])) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i, int end) {
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= end) {
+                    return;
+                }
+                if (child + 1 < end && ranksAbove(scores[child], ordinals[child], scores[child + 1], ordinals[child + 1])) {
+                    child++;
+                }
+                if (!ranksAbove(scores[i], ordinals[i], scores[child], ordinals[child])) {
+                    return;
+                }
+                swap(i, child);
+                i = child;
+            }
+        }
+
+        private void swap(int a, int b) {
+            double score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+            int ordinal = ordinals[a];
+            ordinals[a] = ordinals[b];
+            ordinals[b] = ordinal;
+        }
+    }
+}
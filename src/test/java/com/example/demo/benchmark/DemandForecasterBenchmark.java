@@ -0,0 +1,65 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.service.impl.DemandForecaster;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the per-series fitting kernel on a batch laid out like the forecast job's batches.
+ * Not part of the test suite; run {@link #main} from the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DemandForecasterBenchmark {
+
+    private static final int SERIES = 2000;
+
+    @Param({"168", "365"})
+    public int length;
+
+    // Share of days with a sale; low values exercise Croston, high values SES
+    @Param({"0.1", "0.8"})
+    public double demandRate;
+
+    private int[] demand;
+    private DemandForecaster forecaster;
+    private DemandForecaster.Fit fit;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        demand = new int[SERIES * length];
+        for (int i = 0; i < demand.length; i++) {
+            if (random.nextDouble() < demandRate) {
+                demand[i] = 1 + random.nextInt(6);
+            }
+        }
+        forecaster = new DemandForecaster();
+        fit = new DemandForecaster.Fit();
+    }
+
+    // One operation fits a full batch, so ops/s x 2000 is series per second per thread
+    @Benchmark
+    public void fitBatch(Blackhole blackhole) {
+        for (int i = 0; i < SERIES; i++) {
+            forecaster.fit(demand, i * length, length, fit);
+            blackhole.consume(fit.getForecast());
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DemandForecasterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.service.impl.PromotionRuleIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Carts evaluated per second against a catalog-wide rule set, reusing one cart and evaluation as a
+ * pricing thread would. The target is at least 10k carts per second per thread; run with
+ * -prof gc to check that evaluation does not allocate.
+ * Not part of the test suite; run {@link #main} from the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PromotionRuleIndexBenchmark {
+
+    private static final int PRODUCTS = 50_000;
+    private static final int CATEGORIES = 500;
+    private static final int BRANDS = 200;
+    private static final int CARTS = 1024;
+
+    private static final String[] BRAND_NAMES = new String[BRANDS];
+
+    static {
+        for (int i = 0; i < BRANDS; i++) {
+            BRAND_NAMES[i] = "brand-" + i;
+        }
+    }
+
+    @Param({"1000", "10000"})
+    public int rules;
+
+    @Param({"5", "30"})
+    public int linesPerCart;
+
+    private PromotionRuleIndex index;
+    private PromotionRuleIndex.Evaluation evaluation;
+    private PromotionRuleIndex.Cart cart;
+    // Pre-generated cart lines: product, quantity, price, brand, category
+    private int[][] cartLines;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<PromotionRuleIndex.Rule> definitions = new ArrayList<>(rules);
+        for (int r = 0; r < rules; r++) {
+            PromotionRuleIndex.Rule rule = new PromotionRuleIndex.Rule(r + 1, r / 3 + 1)
+                    .automatic(random.nextInt(4) == 0)
+                    .priority(random.nextInt(5))
+                    .exclusive(random.nextInt(20) == 0)
+                    .minQuantity(random.nextInt(3));
+            // Mostly targeted rules, with the odd whole-cart minimum-spend rule
+            switch (random.nextInt(100) == 0 ? 3 : random.nextInt(3)) {
+                case 0 -> rule.product(random.nextInt(PRODUCTS));
+                case 1 -> rule.category(random.nextInt(CATEGORIES));
+                case 2 -> rule.brand(BRAND_NAMES[random.nextInt(BRANDS)]);
+                default -> rule.minSpend(5_000 + random.nextInt(20_000));
+            }
+            if (random.nextBoolean()) {
+                rule.percentOff(500 + random.nextInt(2_000));
+            } else {
+                rule.amountOff(100 + random.nextInt(2_000));
+            }
+            definitions.add(rule);
+        }
+        index = PromotionRuleIndex.compile(definitions);
+        evaluation = index.newEvaluation();
+        cart = new PromotionRuleIndex.Cart();
+
+        cartLines = new int[CARTS * linesPerCart][];
+        for (int i = 0; i < cartLines.length; i++) {
+            cartLines[i] = new int[] {random.nextInt(PRODUCTS), 1 + random.nextInt(3), 100 + random.nextInt(10_000),
+                    random.nextInt(BRANDS), random.nextInt(CATEGORIES)};
+        }
+    }
+
+    @Benchmark
+    public long evaluateCart() {
+        int start = (next++ & (CARTS - 1)) * linesPerCart;
+        cart.clear();
+        for (int i = start; i < start + linesPerCart; i++) {
+            int[] line = cartLines[i];
+            cart.addLine(line[0], line[1], line[2], BRAND_NAMES[line[3]]);
+            cart.addCategory(line[4]);
+        }
+        index.evaluate(cart, 1, 0, evaluation);
+        return evaluation.getTotalDiscount();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PromotionRuleIndexBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.entities.Promotion;
+import com.example.demo.repositories.PromotionCodeRepository;
+import com.example.demo.repositories.PromotionRepository;
+import com.example.demo.repositories.PromotionUsageLeaseRepository;
+import com.example.demo.service.PromotionRuleService;
+import com.example.demo.service.impl.PromotionServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of promotion validation with every thread using the same code, as during a flash sale.
+ * The repositories are stubs, so this measures the cached lookup and the usage counter alone, with a
+ * lease of uses every app.promotions.lease-size reservations; compare one stripe, where all threads
+ * CAS the same word, with the default striping.
+ * Not part of the test suite; run {@link #main} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class PromotionValidationBenchmark {
+
+    private static final String CODE = "FLASH50";
+
+    @Param({"1", "16"})
+    public int stripes;
+
+    private PromotionServiceImpl promotionService;
+
+    // A fresh service per iteration, so that reservations never run out
+    @Setup(Level.Iteration)
+    public void setUp() {
+        Promotion promotion = new Promotion();
+        promotion.setId(1);
+        promotion.setCode(CODE);
+        promotion.setIsActive(true);
+        promotion.setStartDate(LocalDate.now().minusDays(1));
+        promotion.setEndDate(LocalDate.now().plusDays(1));
+        promotion.setMaxUses(Integer.MAX_VALUE);
+
+        PromotionRepository repository = (PromotionRepository) Proxy.newProxyInstance(
+                PromotionRepository.class.getClassLoader(), new Class<?>[] {PromotionRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByCode" -> Optional.of(promotion);
+                    case "lockById" -> Optional.of(promotion);
+                    case "countPromotionUses" -> 0L;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        PromotionUsageLeaseRepository leases = (PromotionUsageLeaseRepository) Proxy.newProxyInstance(
+                PromotionUsageLeaseRepository.class.getClassLoader(), new Class<?>[] {PromotionUsageLeaseRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "sumHeldByOthers" -> 0L;
+                    case "save" -> args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        PlatformTransactionManager transactionManager = (PlatformTransactionManager) Proxy.newProxyInstance(
+                PlatformTransactionManager.class.getClassLoader(), new Class<?>[] {PlatformTransactionManager.class},
+                (proxy, method, args) -> method.getName().equals("getTransaction") ? new SimpleTransactionStatus() : null);
+        // Only consulted for one-time codes and promotion changes, neither of which the benchmark uses
+        PromotionCodeRepository codes = (PromotionCodeRepository) Proxy.newProxyInstance(
+                PromotionCodeRepository.class.getClassLoader(), new Class<?>[] {PromotionCodeRepository.class},
+                (proxy, method, args) -> {
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        PromotionRuleService rules = (PromotionRuleService) Proxy.newProxyInstance(
+                PromotionRuleService.class.getClassLoader(), new Class<?>[] {PromotionRuleService.class},
+                (proxy, method, args) -> null);
+        promotionService = new PromotionServiceImpl(repository, codes, rules, leases, transactionManager);
+        ReflectionTestUtils.setField(promotionService, "usageStripes", stripes);
+        ReflectionTestUtils.setField(promotionService, "leaseSize", 64);
+    }
+
+    @Benchmark
+    public boolean validate() {
+        return promotionService.isPromotionValid(CODE);
+    }
+
+    // Validation followed by the reservation checkout makes
+    @Benchmark
+    public boolean validateAndReserve() {
+        return promotionService.findValidPromotion(CODE)
+                .map(promotionService::reserveUse)
+                .orElse(false);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PromotionValidationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.demo.service;
+
+import com.example.demo.service.impl.BackInStockIndex;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BackInStockIndexTest {
+
+    @Test
+    public void testRestockAlertsStoreAndAnyStoreSubscribersOnce() {
+        BackInStockIndex index = new BackInStockIndex();
+        index.add(1, null, 30);
+        index.add(1, null, 10);
+        index.add(1, 7, 20);
+        index.add(1, 7, 10);
+        index.add(1, 8, 40);
+        index.add(2, 7, 50);
+
+        assertArrayEquals(new int[] {10, 20, 30}, index.subscribers(1, 7));
+        assertArrayEquals(new int[] {10, 30, 40}, index.subscribers(1, 8));
+        assertArrayEquals(new int[] {10, 30}, index.subscribers(1, 9));
+        assertArrayEquals(new int[0], index.subscribers(3, 7));
+        assertEquals(6, index.size());
+        assertEquals(2, index.productCount());
+    }
+
+    @Test
+    public void testAddIsIdempotentAndRemoveDropsEmptyProducts() {
+        BackInStockIndex index = new BackInStockIndex();
+        index.add(1, 7, 10);
+        index.add(1, 7, 10);
+        assertEquals(1, index.size());
+
+        index.remove(1, null, 10);
+        assertEquals(1, index.size());
+        index.remove(1, 7, 10);
+        assertEquals(0, index.size());
+        assertEquals(0, index.productCount());
+    }
+
+    @Test
+    public void testBuilderMatchesSingleAdds() {
+        BackInStockIndex.Builder builder = new BackInStockIndex.Builder();
+        BackInStockIndex added = new BackInStockIndex();
+        // Unordered, with repeats, and enough for one product to outgrow its buffer
+        for (int i = 0; i < 50; i++) {
+            int customerId = (i * 37) % 23;
+            Integer storeId = i % 3 == 0 ? null : 7 + i % 2;
+            builder.add(1, storeId, customerId);
+            added.add(1, storeId, customerId);
+        }
+        builder.add(2, 7, 50);
+        added.add(2, 7, 50);
+
+        BackInStockIndex built = builder.build();
+
+        assertArrayEquals(added.subscribers(1, 7), built.subscribers(1, 7));
+        assertArrayEquals(added.subscribers(1, 8), built.subscribers(1, 8));
+        assertArrayEquals(new int[] {50}, built.subscribers(2, 7));
+        assertEquals(added.size(), built.size());
+        assertEquals(2, built.productCount());
+    }
+
+    @Test
+    public void testRemoveServedKeepsOtherStores() {
+        BackInStockIndex index = new BackInStockIndex();
+        index.add(1, null, 10);
+        index.add(1, 7, 10);
+        index.add(1, 8, 10);
+        index.add(1, 7, 20);
+        index.add(1, null, 30);
+
+        index.removeServed(1, 7, new int[] {10, 20});
+
+        assertArrayEquals(new int[] {10, 30}, index.subscribers(1, 8));
+        assertArrayEquals(new int[] {30}, index.subscribers(1, 7));
+        assertEquals(2, index.size());
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.demo.service;
+
+import com.example.demo.service.impl.BloomFilter;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BloomFilterTest {
+
+    @Test
+    public void testAddedValuesAreAlwaysFound() {
+        BloomFilter filter = new BloomFilter(100_000, 0.01);
+        for (int i = 0; i < 100_000; i++) {
+            filter.put("CODE" + i);
+        }
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(filter.mightContain("CODE" + i));
+        }
+    }
+
+    @Test
+    public void testFalsePositiveRateStaysNearTarget() {
+        BloomFilter filter = new BloomFilter(100_000, 0.01);
+        for (int i = 0; i < 100_000; i++) {
+            filter.put("CODE" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("OTHER" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 1_500, "False positives: " + falsePositives);
+    }
+
+    @Test
+    public void testSizingFollowsTheTargetRate() {
+        BloomFilter filter = new BloomFilter(1_000_000, 0.001);
+        // About 14.4 bits and 10 hashes per value
+        assertEquals(14_377_600, filter.getBitCount(), 64);
+        assertEquals(10, filter.getHashCount());
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(10, 1));
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.demo.service;
+
+import com.example.demo.entities.Cart;
+import com.example.demo.entities.Customer;
+import com.example.demo.entities.Product;
+import com.example.demo.repositories.CartRepository;
+import com.example.demo.repositories.CustomerRepository;
+import com.example.demo.repositories.ProductRepository;
+import com.example.demo.service.impl.CartWriteBehindStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the store against an in-memory Cart table, restarting it on the same journal directory to
+ * stand in for a crash.
+ */
+public class CartWriteBehindStoreTest {
+
+    private static final int CUSTOMER_ID = 1;
+    private static final int PRODUCT_ID = 10;
+
+    @TempDir
+    Path journalDir;
+
+    // The Cart table by row ID
+    private final Map<Integer, Cart> rows = new TreeMap<>();
+    private int nextId = 100;
+
+    private CartRepository cartRepository;
+    private CustomerRepository customerRepository;
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        cartRepository = mock(CartRepository.class);
+        customerRepository = mock(CustomerRepository.class);
+        productRepository = mock(ProductRepository.class);
+
+        when(customerRepository.existsById(anyInt())).thenReturn(true);
+        when(productRepository.existsById(anyInt())).thenReturn(true);
+        when(customerRepository.getReferenceById(anyInt())).thenAnswer(invocation -> {
+            Customer customer = new Customer();
+            customer.setId(invocation.getArgument(0));
+            return customer;
+        });
+        when(productRepository.getReferenceById(anyInt())).thenAnswer(invocation -> {
+            Product product = new Product();
+            product.setId(invocation.getArgument(0));
+            return product;
+        });
+        when(cartRepository.findByCustomerIdWithProduct(anyInt())).thenAnswer(invocation -> rows.values().stream()
+                .filter(row -> row.getCustomer().getId().equals(invocation.getArgument(0)))
+                .toList());
+        when(cartRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<Cart> found = new ArrayList<>();
+            ((Iterable<Integer>) invocation.getArgument(0)).forEach(id -> {
+                if (rows.containsKey(id)) {
+                    found.add(rows.get(id));
+                }
+            });
+            return found;
+        });
+        when(cartRepository.saveAll(any())).thenAnswer(invocation -> {
+            for (Cart row : (Iterable<Cart>) invocation.getArgument(0)) {
+                row.setId(nextId++);
+                rows.put(row.getId(), row);
+            }
+            return invocation.getArgument(0);
+        });
+        doAnswer(invocation -> {
+            ((Collection<Integer>) invocation.getArgument(0)).forEach(rows::remove);
+            return null;
+        }).when(cartRepository).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    public void testReplayKeepsDirectUpdateThenRemove() throws Exception {
+        CartWriteBehindStore store = start();
+        store.addProduct(CUSTOMER_ID, PRODUCT_ID, 2);
+
+        // updateCartQuantity: hand the cart over, then edit the row
+        store.flushAndEvict(CUSTOMER_ID);
+        Cart row = onlyRow();
+        row.setQuantity(5);
+
+        // Crash, then restart on the same journal
+        store = start();
+        assertEquals(5, onlyRow().getQuantity());
+
+        // removeProductFromCart: hand the cart over, then delete the row
+        store.flushAndEvict(CUSTOMER_ID);
+        rows.remove(onlyRow().getId());
+
+        start();
+        assertTrue(rows.isEmpty(), "Replay brought a removed cart line back: " + rows.values());
+    }
+
+    @Test
+    public void testReplayRestoresUnflushedChanges() throws Exception {
+        CartWriteBehindStore store = start();
+        store.addProduct(CUSTOMER_ID, PRODUCT_ID, 2);
+        store.addProduct(CUSTOMER_ID, PRODUCT_ID, 1);
+        assertTrue(rows.isEmpty());
+
+        start();
+        assertEquals(3, onlyRow().getQuantity());
+    }
+
+    private CartWriteBehindStore start() throws Exception {
+        CartWriteBehindStore store = new CartWriteBehindStore(cartRepository, customerRepository, productRepository,
+                mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(store, "maxCarts", 100);
+        ReflectionTestUtils.setField(store, "journalDir", journalDir.toString());
+        store.start();
+        return store;
+    }
+
+    private Cart onlyRow() {
+        assertEquals(1, rows.size(), "Expected one cart row: " + rows.values());
+        return rows.values().iterator().next();
+    }
+}
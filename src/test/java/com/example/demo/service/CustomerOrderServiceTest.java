@@ -0,0 +1,76 @@
+package com.example.demo.service;
+
+import com.example.demo.entities.Customer;
+import com.example.demo.entities.CustomerOrder;
+import com.example.demo.exception.BusinessException;
+import com.example.demo.repositories.CustomerOrderRepository;
+import com.example.demo.service.impl.CustomerOrderServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CustomerOrderServiceTest {
+
+    @Mock
+    private CustomerOrderRepository customerOrderRepository;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private OrderSummaryService orderSummaryService;
+
+    @Mock
+    private DistinctCountService distinctCountService;
+
+    @InjectMocks
+    private CustomerOrderServiceImpl orderService;
+
+    @Test
+    public void testFindersIncludeArchivedOrders() {
+        Customer customer = new Customer();
+        customer.setId(7);
+        CustomerOrder archived = new CustomerOrder();
+        archived.setId(1);
+        archived.setPurchaseDate(LocalDate.now().minusYears(1));
+        when(customerOrderRepository.findOrders(7, null, null, null)).thenReturn(List.of(archived));
+        when(customerOrderRepository.findOrderById(1)).thenReturn(Optional.of(archived));
+
+        assertEquals(List.of(archived), orderService.getOrdersByCustomer(customer));
+        assertEquals(Optional.of(archived), orderService.findOrderById(1));
+        verify(customerOrderRepository, never()).findByCustomer(any());
+    }
+
+    @Test
+    public void testArchivedOrderCannotChange() {
+        when(customerOrderRepository.findById(1)).thenReturn(Optional.empty());
+        when(customerOrderRepository.isArchived(1)).thenReturn(true);
+
+        BusinessException status = assertThrows(BusinessException.class,
+                () -> orderService.updateOrderStatus(1, "CANCELLED"));
+        assertEquals(HttpStatus.CONFLICT, status.getStatus());
+        assertThrows(BusinessException.class, () -> orderService.deleteOrder(1));
+        verify(customerOrderRepository, never()).save(any());
+        verify(customerOrderRepository, never()).delete(any());
+    }
+
+    @Test
+    public void testMissingOrderIsNotFound() {
+        when(customerOrderRepository.findById(2)).thenReturn(Optional.empty());
+        when(customerOrderRepository.isArchived(2)).thenReturn(false);
+
+        assertThrows(IllegalArgumentException.class, () -> orderService.updateOrderStatus(2, "CANCELLED"));
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.demo.service;
+
+import com.example.demo.service.impl.DemandForecaster;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DemandForecasterTest {
+
+    private final DemandForecaster forecaster = new DemandForecaster();
+
+    @Test
+    public void testConstantDemandIsForecastExactly() {
+        int[] demand = {5, 5, 5, 5, 5, 5, 5, 5};
+        DemandForecaster.Fit fit = new DemandForecaster.Fit();
+
+        forecaster.fit(demand, 0, demand.length, fit);
+
+        assertEquals(DemandForecaster.Model.SES, fit.getModel());
+        assertEquals(5.0, fit.getForecast(), 1e-9);
+        assertEquals(0.0, fit.getMae(), 1e-9);
+        assertEquals(0.0, fit.getRmse(), 1e-9);
+        assertEquals(8, fit.getDemandDays());
+    }
+
+    @Test
+    public void testIntermittentDemandUsesCroston() {
+        // Four units every fourth day: about one unit a day, shrunk slightly by the bias correction
+        int[] demand = new int[40];
+        for (int t = 0; t < demand.length; t += 4) {
+            demand[t] = 4;
+        }
+        DemandForecaster.Fit fit = new DemandForecaster.Fit();
+
+        forecaster.fit(demand, 0, demand.length, fit);
+
+        assertEquals(DemandForecaster.Model.CROSTON, fit.getModel());
+        assertEquals(10, fit.getDemandDays());
+        assertTrue(fit.getForecast() < 1.0);
+        assertTrue(fit.getForecast() > 0.7);
+    }
+
+    @Test
+    public void testLeadingZerosBeforeFirstSaleAreIgnored() {
+        // Series packed back to back: only the second one is fitted
+        int[] demand = {9, 9, 9, 0, 0, 0, 3, 3, 3};
+        DemandForecaster.Fit fit = new DemandForecaster.Fit();
+
+        forecaster.fit(demand, 3, 6, fit);
+
+        assertEquals(DemandForecaster.Model.SES, fit.getModel());
+        assertEquals(3, fit.getObservedDays());
+        assertEquals(3.0, fit.getForecast(), 1e-9);
+    }
+
+    @Test
+    public void testSeriesWithoutSalesForecastsZero() {
+        int[] demand = new int[14];
+        DemandForecaster.Fit fit = new DemandForecaster.Fit();
+
+        forecaster.fit(demand, 0, demand.length, fit);
+
+        assertEquals(0.0, fit.getForecast());
+        assertEquals(0, fit.getDemandDays());
+        assertEquals(0, fit.getObservedDays());
+    }
+
+    @Test
+    public void testSmoothingConstantMinimizingErrorIsChosen() {
+        // A level shift is tracked best by the most reactive constant
+        int[] demand = {2, 2, 2, 2, 2, 10, 10, 10, 10, 10, 10, 10};
+        DemandForecaster.Fit fit = new DemandForecaster.Fit();
+
+        new DemandForecaster(new double[]{0.1, 0.9}).fit(demand, 0, demand.length, fit);
+
+        assertEquals(0.9, fit.getAlpha());
+        assertTrue(fit.getBias() > 0);
+    }
+
+    @Test
+    public void testInvalidSmoothingConstantIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new DemandForecaster(new double[]{0.0}));
+        assertThrows(IllegalArgumentException.class, () -> new DemandForecaster(new double[0]));
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.demo.service;
+
+import com.example.demo.service.impl.FulfillmentSolver;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FulfillmentSolverTest {
+
+    @Test
+    public void testSingleStoreCoveringEverythingIsPreferred() {
+        // Store 0 has product 0 only, store 1 has product 1 only, store 2 has both
+        int[][] available = {
+                {10, 0},
+                {0, 10},
+                {2, 3}
+        };
+        int[] demand = {2, 3};
+
+        FulfillmentSolver.Result result = new FulfillmentSolver(available, demand, 1000).solve();
+
+        assertTrue(result.isComplete());
+        assertTrue(result.isOptimal());
+        assertEquals(1, result.getShipments());
+        assertArrayEquals(new int[]{2, 3}, result.getAllocation()[2]);
+    }
+
+    @Test
+    public void testSplitBalancesStockWithinMinimalShipments() {
+        // Both stores together are needed; the shared product is drawn from the deeper store first
+        int[][] available = {
+                {8, 1, 0},
+                {4, 0, 1}
+        };
+        int[] demand = {6, 1, 1};
+
+        FulfillmentSolver.Result result = new FulfillmentSolver(available, demand, 1000).solve();
+
+        assertTrue(result.isComplete());
+        assertEquals(2, result.getShipments());
+        int[][] allocation = result.getAllocation();
+        assertEquals(6, allocation[0][0] + allocation[1][0]);
+        assertTrue(allocation[0][0] >= allocation[1][0]);
+        assertEquals(1, allocation[0][1]);
+        assertEquals(1, allocation[1][2]);
+    }
+
+    @Test
+    public void testGreedyIsImprovedByBranchAndBound() {
+        // Greedy grabs store 0 first (largest coverage) and then needs two more stores,
+        // while stores 1 and 2 together cover the order
+        int[][] available = {
+                {3, 3, 0, 0},
+                {2, 0, 2, 0},
+                {1, 3, 0, 2},
+                {0, 0, 2, 0},
+                {0, 0, 0, 2}
+        };
+        int[] demand = {3, 3, 2, 2};
+
+        FulfillmentSolver.Result result = new FulfillmentSolver(available, demand, 1000).solve();
+
+        assertTrue(result.isComplete());
+        assertTrue(result.isOptimal());
+        assertEquals(2, result.getShipments());
+    }
+
+    @Test
+    public void testInsufficientStockIsReportedAsIncomplete() {
+        int[][] available = {
+                {1},
+                {1}
+        };
+        int[] demand = {5};
+
+        FulfillmentSolver.Result result = new FulfillmentSolver(available, demand, 1000).solve();
+
+        assertFalse(result.isComplete());
+        assertEquals(2, result.getAllocation()[0][0] + result.getAllocation()[1][0]);
+    }
+}
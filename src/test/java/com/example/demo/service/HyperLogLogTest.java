@@ -0,0 +1,90 @@
+package com.example.demo.service;
+
+import com.example.demo.service.impl.HyperLogLog;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HyperLogLogTest {
+
+    @Test
+    public void testSmallCardinalitiesAreNearlyExact() {
+        HyperLogLog sketch = new HyperLogLog(14);
+        for (int i = 1; i <= 200; i++) {
+            sketch.add(i);
+            sketch.add(i);
+        }
+
+        assertEquals(200, sketch.estimate(), 6);
+    }
+
+    @Test
+    public void testLargeCardinalityIsWithinErrorBound() {
+        HyperLogLog sketch = new HyperLogLog(12);
+        int distinct = 500_000;
+        for (int i = 0; i < distinct; i++) {
+            sketch.add(i);
+        }
+
+        double error = Math.abs(sketch.estimate() - distinct) / (double) distinct;
+        assertTrue(error < 3 * sketch.standardError(), "relative error " + error);
+    }
+
+    @Test
+    public void testMergeEstimatesTheUnion() {
+        HyperLogLog first = new HyperLogLog(14);
+        HyperLogLog second = new HyperLogLog(14);
+        HyperLogLog union = new HyperLogLog(14);
+        for (int i = 0; i < 30_000; i++) {
+            first.add(i);
+            union.add(i);
+        }
+        for (int i = 20_000; i < 50_000; i++) {
+            second.add(i);
+            union.add(i);
+        }
+
+        first.merge(second);
+
+        assertEquals(union.estimate(), first.estimate());
+    }
+
+    @Test
+    public void testSerializationRoundTripsSparseAndDense() {
+        HyperLogLog sparse = new HyperLogLog(14);
+        for (int i = 0; i < 50; i++) {
+            sparse.add(i * 7919L);
+        }
+        HyperLogLog dense = new HyperLogLog(10);
+        for (int i = 0; i < 10_000; i++) {
+            dense.add(i);
+        }
+
+        byte[] sparseBytes = sparse.toBytes();
+        assertTrue(sparseBytes.length < 50 * 4);
+        assertEquals(sparse.estimate(), HyperLogLog.fromBytes(sparseBytes).estimate());
+        assertEquals(2 + 1024, dense.toBytes().length);
+        assertEquals(dense.estimate(), HyperLogLog.fromBytes(dense.toBytes()).estimate());
+    }
+
+    @Test
+    public void testSketchesOfDifferentPrecisionsMergeAtTheLowerOne() {
+        HyperLogLog fine = new HyperLogLog(14);
+        HyperLogLog coarse = new HyperLogLog(10);
+        for (int i = 0; i < 40_000; i++) {
+            (i % 2 == 0 ? fine : coarse).add(i);
+        }
+
+        fine.merge(coarse);
+
+        assertEquals(10, fine.getPrecision());
+        double error = Math.abs(fine.estimate() - 40_000) / 40_000.0;
+        assertTrue(error < 3 * fine.standardError(), "relative error " + error);
+    }
+
+    @Test
+    public void testInvalidInputIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(3));
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[]{1, 12, 0}));
+    }
+}
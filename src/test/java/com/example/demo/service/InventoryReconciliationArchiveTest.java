@@ -0,0 +1,141 @@
+package com.example.demo.service;
+
+import com.example.demo.entities.InventoryDrift;
+import com.example.demo.entities.InventoryReconciliationRun;
+import com.example.demo.repositories.*;
+import com.example.demo.service.impl.InventoryReconciliationServiceImpl;
+import com.example.demo.service.impl.OrderArchiveServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Archives a store's orders and then reconciles its inventory, over in-memory hot and archived
+ * order detail tables.
+ */
+public class InventoryReconciliationArchiveTest {
+
+    private static final int STORE_ID = 1;
+    private static final int PRODUCT_ID = 10;
+
+    // Order ID to units sold of PRODUCT_ID at STORE_ID
+    private final Map<Integer, Integer> hotDetails = new TreeMap<>();
+    private final Map<Integer, Integer> archivedDetails = new TreeMap<>();
+    private final List<InventoryDrift> drifts = Collections.synchronizedList(new ArrayList<>());
+
+    private CustomerOrderRepository customerOrderRepository;
+    private OrderDetailRepository orderDetailRepository;
+    private ArchivedOrderDetailRepository archivedOrderDetailRepository;
+    private OrderArchiveServiceImpl archiveService;
+    private InventoryReconciliationServiceImpl reconciliationService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        customerOrderRepository = mock(CustomerOrderRepository.class);
+        orderDetailRepository = mock(OrderDetailRepository.class);
+        archivedOrderDetailRepository = mock(ArchivedOrderDetailRepository.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+        hotDetails.put(1, 30);
+        hotDetails.put(2, 20);
+
+        when(customerOrderRepository.findArchivableIds(any(), any(), any()))
+                .thenAnswer(invocation -> new ArrayList<>(hotDetails.keySet()));
+        when(customerOrderRepository.deleteByIds(any()))
+                .thenAnswer(invocation -> ((Collection<Integer>) invocation.getArgument(0)).size());
+        when(archivedOrderDetailRepository.copyFromHot(any())).thenAnswer(invocation -> {
+            Collection<Integer> orderIds = invocation.getArgument(0);
+            orderIds.forEach(orderId -> archivedDetails.put(orderId, hotDetails.get(orderId)));
+            return orderIds.size();
+        });
+        when(orderDetailRepository.deleteAllByOrderIds(any())).thenAnswer(invocation -> {
+            Collection<Integer> orderIds = invocation.getArgument(0);
+            hotDetails.keySet().removeAll(orderIds);
+            return orderIds.size();
+        });
+        when(orderDetailRepository.streamUnitsSoldByStore(STORE_ID)).thenAnswer(invocation -> unitsSold(hotDetails));
+        when(archivedOrderDetailRepository.streamUnitsSoldByStore(STORE_ID))
+                .thenAnswer(invocation -> unitsSold(archivedDetails));
+
+        archiveService = new OrderArchiveServiceImpl(customerOrderRepository, orderDetailRepository,
+                mock(ShippingRepository.class), mock(ArchivedCustomerOrderRepository.class),
+                archivedOrderDetailRepository, mock(ArchivedShippingRepository.class),
+                mock(OrderArchiveStateRepository.class), transactionManager);
+        ReflectionTestUtils.setField(archiveService, "horizonDays", 180);
+        ReflectionTestUtils.setField(archiveService, "chunkSize", 500);
+        ReflectionTestUtils.setField(archiveService, "closedStatuses", List.of("COMPLETED"));
+
+        StoreRepository storeRepository = mock(StoreRepository.class);
+        StoreInventoryRepository storeInventoryRepository = mock(StoreInventoryRepository.class);
+        SupplyOrderRepository supplyOrderRepository = mock(SupplyOrderRepository.class);
+        ReturnRepository returnRepository = mock(ReturnRepository.class);
+        InventoryReconciliationRunRepository runRepository = mock(InventoryReconciliationRunRepository.class);
+        InventoryDriftRepository driftRepository = mock(InventoryDriftRepository.class);
+
+        // 100 received, 50 sold, 50 on hand
+        when(storeRepository.findAllIds()).thenReturn(List.of(STORE_ID));
+        when(supplyOrderRepository.streamUnitsReceivedByStore(STORE_ID))
+                .thenAnswer(invocation -> Stream.<Object[]>of(new Object[]{PRODUCT_ID, 100L}));
+        when(returnRepository.streamUnitsReturnedByStore(STORE_ID)).thenAnswer(invocation -> Stream.empty());
+        when(storeInventoryRepository.streamQuantitiesByStore(STORE_ID))
+                .thenAnswer(invocation -> Stream.<Object[]>of(new Object[]{PRODUCT_ID, 50}));
+
+        InventoryReconciliationRun run = new InventoryReconciliationRun();
+        when(runRepository.save(any())).thenAnswer(invocation -> {
+            InventoryReconciliationRun saved = invocation.getArgument(0);
+            saved.setId(1);
+            return saved;
+        });
+        when(runRepository.findById(any())).thenAnswer(invocation -> Optional.of(run));
+        when(runRepository.getReferenceById(any())).thenReturn(run);
+        when(driftRepository.saveAll(any())).thenAnswer(invocation -> {
+            ((Iterable<InventoryDrift>) invocation.getArgument(0)).forEach(drifts::add);
+            return invocation.getArgument(0);
+        });
+
+        reconciliationService = new InventoryReconciliationServiceImpl(storeRepository, storeInventoryRepository,
+                orderDetailRepository, archivedOrderDetailRepository, returnRepository, supplyOrderRepository,
+                mock(ReservedStockRepository.class), runRepository, driftRepository,
+                mock(BackInStockService.class), transactionManager);
+        ReflectionTestUtils.setField(reconciliationService, "parallelism", 2);
+        ReflectionTestUtils.setField(reconciliationService, "batchSize", 500);
+    }
+
+    @Test
+    public void testArchivedSalesDoNotShowAsDrift() throws Exception {
+        reconcile();
+        assertTrue(drifts.isEmpty(), "Drift before archiving: " + drifts);
+
+        assertEquals(2, archiveService.archiveClosedOrders());
+        assertTrue(hotDetails.isEmpty());
+
+        reconcile();
+        assertTrue(drifts.isEmpty(), "Archived sales reported as drift of " + drifts.stream()
+                .map(InventoryDrift::getDrift).toList());
+    }
+
+    private void reconcile() throws InterruptedException {
+        drifts.clear();
+        reconciliationService.startReconciliation(true);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while ("RUNNING".equals(reconciliationService.getCurrentStatus().orElseThrow().getStatus())) {
+            assertTrue(System.currentTimeMillis() < deadline, "Reconciliation run did not finish");
+            Thread.sleep(10);
+        }
+        assertEquals("COMPLETED", reconciliationService.getCurrentStatus().orElseThrow().getStatus());
+    }
+
+    private Stream<Object[]> unitsSold(Map<Integer, Integer> details) {
+        long units = details.values().stream().mapToLong(Integer::longValue).sum();
+        return units == 0 ? Stream.empty() : Stream.<Object[]>of(new Object[]{PRODUCT_ID, units});
+    }
+}
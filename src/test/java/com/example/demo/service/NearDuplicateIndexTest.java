@@ -0,0 +1,48 @@
+package com.example.demo.service;
+
+import com.example.demo.service.impl.NearDuplicateIndex;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NearDuplicateIndexTest {
+
+    private static final String REVIEW = "The blender arrived quickly and crushes ice without any trouble, "
+            + "although the lid is a little hard to clean after smoothies";
+
+    @Test
+    public void testNearCopyIsReported() {
+        NearDuplicateIndex index = new NearDuplicateIndex(1000, 8, 0.7);
+        assertEquals(-1, index.add(1, REVIEW));
+        assertEquals(1, index.add(2, REVIEW.toUpperCase() + "!!!"));
+        assertNotEquals(-1, index.add(3, REVIEW.replace("smoothies", "making smoothies")));
+    }
+
+    @Test
+    public void testDifferentTextsAreNotReported() {
+        NearDuplicateIndex index = new NearDuplicateIndex(1000, 8, 0.7);
+        index.add(1, REVIEW);
+        assertEquals(-1, index.add(2, "Stopped working after two weeks, the motor smells burnt and support never answered my emails"));
+        assertEquals(-1, index.add(3, "Great value for the price, my kids use it every morning for their fruit shakes before school"));
+    }
+
+    @Test
+    public void testShortTextsAreIgnored() {
+        NearDuplicateIndex index = new NearDuplicateIndex(1000, 8, 0.7);
+        assertEquals(-1, index.add(1, "Great product, works well"));
+        assertEquals(-1, index.add(2, "Great product, works well"));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testReplacingAndEvicting() {
+        NearDuplicateIndex index = new NearDuplicateIndex(2, 8, 0.7);
+        index.add(1, REVIEW);
+        // An edited review does not match its own earlier text
+        assertEquals(-1, index.add(1, REVIEW));
+        index.add(2, "Stopped working after two weeks, the motor smells burnt and support never answered my emails");
+        index.add(3, "Great value for the price, my kids use it every morning for their fruit shakes before school");
+        assertEquals(2, index.size());
+        assertEquals(-1, index.add(4, REVIEW));
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.demo.service;
+
+import com.example.demo.entities.CustomerOrder;
+import com.example.demo.entities.OrderDetail;
+import com.example.demo.entities.Product;
+import com.example.demo.repositories.CustomerOrderRepository;
+import com.example.demo.repositories.OrderDetailRepository;
+import com.example.demo.repositories.ProductRepository;
+import com.example.demo.service.impl.OrderDetailServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderDetailServiceTest {
+
+    @Mock
+    private OrderDetailRepository orderDetailRepository;
+
+    @Mock
+    private CustomerOrderRepository orderRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Mock
+    private OrderSummaryService orderSummaryService;
+
+    @InjectMocks
+    private OrderDetailServiceImpl orderDetailService;
+
+    private CustomerOrder order;
+    private OrderDetail line;
+
+    @BeforeEach
+    public void setup() {
+        order = new CustomerOrder();
+        order.setId(1);
+        order.setStatus("COMPLETED");
+        order.setPurchaseDate(LocalDate.now());
+
+        Product product = new Product();
+        product.setId(10);
+        line = new OrderDetail();
+        line.setOrder(order);
+        line.setProduct(product);
+        line.setQuantity(2);
+        line.setOriginalPrice(new BigDecimal("10.00"));
+        line.setDiscountAmount(new BigDecimal("1.00"));
+        line.setFinalPrice(new BigDecimal("18.00"));
+    }
+
+    @Test
+    public void testUpdateQuantityRecordsLineChange() {
+        when(orderDetailRepository.findByOrderIdAndProductId(1, 10)).thenReturn(Optional.of(line));
+
+        OrderDetail updated = orderDetailService.updateQuantity(1, 10, 3);
+
+        assertEquals(new BigDecimal("27.00"), updated.getFinalPrice());
+        ArgumentCaptor<OrderDetail> previous = ArgumentCaptor.forClass(OrderDetail.class);
+        verify(salesRollupService).recordLineChange(eq(order), previous.capture(), eq(updated));
+        assertEquals(2, previous.getValue().getQuantity());
+        assertEquals(new BigDecimal("18.00"), previous.getValue().getFinalPrice());
+        verify(orderSummaryService).markChanged(1);
+    }
+
+    @Test
+    public void testDeleteAllRemovesEveryLine() {
+        when(orderRepository.findById(1)).thenReturn(Optional.of(order));
+        when(orderDetailRepository.findByOrderId(1)).thenReturn(List.of(line));
+
+        orderDetailService.deleteAllOrderDetailsForOrder(1);
+
+        verify(salesRollupService).recordLineChange(eq(order), argThat(detail -> detail.getQuantity() == 2), isNull());
+        verify(orderDetailRepository).deleteAllByOrderId(1);
+        verify(orderSummaryService).markChanged(1);
+    }
+}
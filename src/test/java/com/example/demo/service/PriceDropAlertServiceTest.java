@@ -0,0 +1,117 @@
+package com.example.demo.service;
+
+import com.example.demo.entities.Notification;
+import com.example.demo.entities.Product;
+import com.example.demo.repositories.NotificationRepository;
+import com.example.demo.repositories.WishlistRepository;
+import com.example.demo.service.impl.PriceDropAlertServiceImpl;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class PriceDropAlertServiceTest {
+
+    private static final int CUSTOMER_ID = 5;
+
+    private WishlistRepository wishlistRepository;
+    private NotificationService notificationService;
+    private PriceDropAlertServiceImpl alertService;
+
+    @BeforeEach
+    public void setUp() {
+        wishlistRepository = mock(WishlistRepository.class);
+        notificationService = mock(NotificationService.class);
+        when(wishlistRepository.findCustomerIdsByProductAfter(anyInt(), eq(0), any()))
+                .thenReturn(List.of(CUSTOMER_ID));
+
+        alertService = new PriceDropAlertServiceImpl(wishlistRepository, mock(NotificationRepository.class),
+                notificationService, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(alertService, "entityManager", mock(EntityManager.class));
+        ReflectionTestUtils.setField(alertService, "pageSize", 1000);
+        ReflectionTestUtils.setField(alertService, "minPercent", 1.0);
+        ReflectionTestUtils.setField(alertService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(alertService, "retryDelayMs", 0L);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        alertService.shutdown();
+    }
+
+    @Test
+    public void testFailedFanOutIsRetried() {
+        AtomicInteger calls = new AtomicInteger();
+        when(notificationService.createNotifications(any())).thenAnswer(invocation -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new IllegalStateException("Connection reset");
+            }
+            return invocation.getArgument(0);
+        });
+
+        alertService.priceChanged(product(1, "80.00"), new BigDecimal("100.00"));
+
+        verify(notificationService, timeout(5000).times(2)).createNotifications(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testPriceIncreaseUpdatesQueuedDrop() throws InterruptedException {
+        CountDownLatch release = holdSender();
+
+        // Back above the original price: nothing to announce any more
+        alertService.priceChanged(product(1, "80.00"), new BigDecimal("100.00"));
+        alertService.priceChanged(product(1, "120.00"), new BigDecimal("80.00"));
+        // Partly back up: still announced, at the current price
+        alertService.priceChanged(product(2, "80.00"), new BigDecimal("100.00"));
+        alertService.priceChanged(product(2, "90.00"), new BigDecimal("80.00"));
+        release.countDown();
+
+        verify(notificationService, timeout(5000).times(2)).createNotifications(any());
+        verify(wishlistRepository, after(200).never()).findCustomerIdsByProductAfter(eq(1), anyInt(), any());
+        ArgumentCaptor<List<Notification>> sent = ArgumentCaptor.forClass(List.class);
+        verify(notificationService, times(2)).createNotifications(sent.capture());
+        List<String> messages = sent.getAllValues().stream()
+                .flatMap(List::stream)
+                .map(Notification::getMessage)
+                .toList();
+        assertEquals(List.of("Price drop on your wishlist: Product 3 is now 50.00, down from 100.00",
+                "Price drop on your wishlist: Product 2 is now 90.00, down from 100.00"), messages);
+    }
+
+    // Keeps the sender busy with product 3 until the returned latch is released
+    private CountDownLatch holdSender() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(wishlistRepository.findCustomerIdsByProductAfter(eq(3), eq(0), any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return List.of(CUSTOMER_ID);
+        });
+        when(notificationService.createNotifications(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        alertService.priceChanged(product(3, "50.00"), new BigDecimal("100.00"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        return release;
+    }
+
+    private Product product(int id, String price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setProductName("Product " + id);
+        product.setPrice(new BigDecimal(price));
+        return product;
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.demo.service;
+
+import com.example.demo.service.impl.PromotionRuleIndex;
+import com.example.demo.service.impl.PromotionRuleIndex.Cart;
+import com.example.demo.service.impl.PromotionRuleIndex.Evaluation;
+import com.example.demo.service.impl.PromotionRuleIndex.Rule;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PromotionRuleIndexTest {
+
+    private static final int TODAY = 20_000;
+
+    @Test
+    public void testTargetsOnlyMatchingLines() {
+        PromotionRuleIndex index = PromotionRuleIndex.compile(List.of(
+                new Rule(1, 10).category(7).percentOff(1000).automatic(true),
+                new Rule(2, 11).brand("Acme").amountOff(500).automatic(true)));
+        Cart cart = new Cart();
+        cart.addLine(100, 2, 1_000, "Other");
+        cart.addCategory(7);
+        cart.addLine(101, 1, 3_000, "Acme");
+        cart.addLine(102, 1, 2_000, null);
+        Evaluation evaluation = index.newEvaluation();
+
+        index.evaluate(cart, 0, TODAY, evaluation);
+
+        assertEquals(200, evaluation.getDiscount(0));
+        assertEquals(500, evaluation.getDiscount(1));
+        assertEquals(0, evaluation.getDiscount(2));
+        assertEquals(700, evaluation.getTotalDiscount());
+        assertEquals(2, evaluation.getAppliedCount());
+    }
+
+    @Test
+    public void testBestQualifyingTierApplies() {
+        PromotionRuleIndex index = PromotionRuleIndex.compile(List.of(
+                new Rule(1, 10).product(100).minQuantity(2).percentOff(1000).automatic(true),
+                new Rule(2, 10).product(100).minQuantity(5).percentOff(2000).automatic(true),
+                new Rule(3, 10).product(100).minQuantity(10).percentOff(3000).automatic(true)));
+        Cart cart = new Cart();
+        cart.addLine(100, 6, 1_000, null);
+        Evaluation evaluation = index.newEvaluation();
+
+        index.evaluate(cart, 0, TODAY, evaluation);
+
+        assertEquals(1_200, evaluation.getTotalDiscount());
+        assertEquals(1, evaluation.getAppliedCount());
+        assertEquals(2, evaluation.getAppliedRuleId(0));
+    }
+
+    @Test
+    public void testStackingFollowsPriorityOnRemainingAmounts() {
+        PromotionRuleIndex index = PromotionRuleIndex.compile(List.of(
+                new Rule(1, 10).percentOff(5000).automatic(true),
+                new Rule(2, 11).amountOff(1_000).priority(5).automatic(true)));
+        Cart cart = new Cart();
+        cart.addLine(100, 1, 5_000, null);
+        Evaluation evaluation = index.newEvaluation();
+
+        index.evaluate(cart, 0, TODAY, evaluation);
+
+        // 10.00 off first, then half of the remaining 40.00
+        assertEquals(3_000, evaluation.getTotalDiscount());
+        assertEquals(11, evaluation.getAppliedPromotionId(0));
+        assertEquals(10, evaluation.getAppliedPromotionId(1));
+    }
+
+    @Test
+    public void testExclusivePromotionReplacesSmallerStack() {
+        PromotionRuleIndex index = PromotionRuleIndex.compile(List.of(
+                new Rule(1, 10).percentOff(1000).automatic(true),
+                new Rule(2, 11).percentOff(500).automatic(true),
+                new Rule(3, 12).percentOff(2500).exclusive(true).automatic(true)));
+        Cart cart = new Cart();
+        cart.addLine(100, 1, 10_000, null);
+        Evaluation evaluation = index.newEvaluation();
+
+        index.evaluate(cart, 0, TODAY, evaluation);
+
+        assertEquals(2_500, evaluation.getTotalDiscount());
+        assertEquals(1, evaluation.getAppliedCount());
+        assertTrue(evaluation.isApplied(12));
+        assertTrue(evaluation.isQualified(10));
+        assertFalse(evaluation.isApplied(10));
+    }
+
+    @Test
+    public void testCodedRulesNeedTheirCodeAndDatesAndMinimumSpend() {
+        PromotionRuleIndex index = PromotionRuleIndex.compile(List.of(
+                new Rule(1, 10).percentOff(1000),
+                new Rule(2, 11).percentOff(1000).automatic(true).activeBetween(TODAY + 1, TODAY + 7),
+                new Rule(3, 12).minSpend(10_000).percentOff(1000).automatic(true)));
+        Cart cart = new Cart();
+        cart.addLine(100, 1, 5_000, null);
+        Evaluation evaluation = index.newEvaluation();
+
+        index.evaluate(cart, 0, TODAY, evaluation);
+        assertEquals(0, evaluation.getTotalDiscount());
+
+        index.evaluate(cart, 10, TODAY, evaluation);
+        assertEquals(500, evaluation.getTotalDiscount());
+        assertTrue(evaluation.isApplied(10));
+    }
+
+    @Test
+    public void testFixedAmountIsSpreadAndMustLeaveSomethingToPay() {
+        PromotionRuleIndex index = PromotionRuleIndex.compile(List.of(
+                new Rule(1, 10).amountOff(1_000).automatic(true)));
+        Cart cart = new Cart();
+        cart.addLine(100, 1, 3_000, null);
+        cart.addLine(101, 1, 1_000, null);
+        Evaluation evaluation = index.newEvaluation();
+
+        index.evaluate(cart, 0, TODAY, evaluation);
+        assertEquals(750, evaluation.getDiscount(0));
+        assertEquals(250, evaluation.getDiscount(1));
+
+        cart.clear();
+        cart.addLine(100, 1, 1_000, null);
+        index.evaluate(cart, 0, TODAY, evaluation);
+        assertEquals(0, evaluation.getTotalDiscount());
+        assertFalse(evaluation.isQualified(10));
+    }
+
+    @Test
+    public void testRejectsInvalidRules() {
+        assertThrows(IllegalArgumentException.class,
+                () -> PromotionRuleIndex.compile(List.of(new Rule(1, 10))));
+        assertThrows(IllegalArgumentException.class,
+                () -> PromotionRuleIndex.compile(List.of(new Rule(1, 10).percentOff(1000).amountOff(100))));
+        assertThrows(IllegalArgumentException.class,
+                () -> PromotionRuleIndex.compile(List.of(new Rule(1, 10).percentOff(10_001))));
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.demo.service;
+
+import com.example.demo.service.impl.PromotionSchedule;
+import com.example.demo.service.impl.PromotionSchedule.Transition;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PromotionScheduleTest {
+
+    @Test
+    public void testBoundariesComeDueInTimeOrder() {
+        PromotionSchedule schedule = new PromotionSchedule();
+        schedule.schedule(1, 300, 900);
+        schedule.schedule(2, 100, 500);
+
+        assertEquals(100, schedule.nextDue());
+        assertTrue(schedule.poll(99).isEmpty());
+
+        List<Transition> due = schedule.poll(500);
+        assertEquals(List.of(new Transition(2, true, 100), new Transition(1, true, 300),
+                new Transition(2, false, 500)), due);
+        assertFalse(schedule.isScheduled(2));
+        assertTrue(schedule.isScheduled(1));
+        assertEquals(900, schedule.nextDue());
+    }
+
+    @Test
+    public void testEndsComeBeforeStartsAtTheSameInstant() {
+        PromotionSchedule schedule = new PromotionSchedule();
+        schedule.schedule(2, 500, 900);
+        schedule.schedule(1, 100, 500);
+        schedule.poll(100);
+
+        List<Transition> due = schedule.poll(500);
+
+        assertEquals(List.of(new Transition(1, false, 500), new Transition(2, true, 500)), due);
+    }
+
+    @Test
+    public void testReschedulingReplacesEarlierBoundaries() {
+        PromotionSchedule schedule = new PromotionSchedule();
+        schedule.schedule(1, 100, 200);
+        schedule.schedule(1, 100, 400);
+
+        List<Transition> due = schedule.poll(300);
+
+        assertEquals(List.of(new Transition(1, true, 100)), due);
+        assertEquals(400, schedule.nextDue());
+        assertEquals(1, schedule.size());
+    }
+
+    @Test
+    public void testCancelledPromotionsNeverComeDue() {
+        PromotionSchedule schedule = new PromotionSchedule();
+        schedule.schedule(1, 100, 200);
+        schedule.cancel(1);
+
+        assertEquals(Long.MAX_VALUE, schedule.nextDue());
+        assertTrue(schedule.poll(1_000).isEmpty());
+        assertEquals(0, schedule.size());
+    }
+
+    @Test
+    public void testPastBoundariesAreDueImmediately() {
+        PromotionSchedule schedule = new PromotionSchedule();
+        schedule.schedule(1, 100, 200);
+
+        assertEquals(2, schedule.poll(1_000).size());
+        assertThrows(IllegalArgumentException.class, () -> schedule.schedule(2, 200, 100));
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.demo.service;
+
+import com.example.demo.entities.Promotion;
+import com.example.demo.entities.PromotionUsageLease;
+import com.example.demo.repositories.PromotionCodeRepository;
+import com.example.demo.repositories.PromotionRepository;
+import com.example.demo.repositories.PromotionUsageLeaseRepository;
+import com.example.demo.service.impl.PromotionServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Two instances share one code over an in-memory lease table and recorded use count.
+ */
+public class PromotionUsageLeaseTest {
+
+    private static final int MAX_USES = 10;
+
+    private final AtomicLong recordedUses = new AtomicLong();
+    // Instance ID to the lease it last wrote
+    private final Map<String, PromotionUsageLease> leases = new ConcurrentHashMap<>();
+
+    private Promotion promotion;
+    private PromotionServiceImpl first;
+    private PromotionServiceImpl second;
+
+    @BeforeEach
+    public void setUp() {
+        promotion = new Promotion();
+        promotion.setId(1);
+        promotion.setCode("SHARED");
+        promotion.setMaxUses(MAX_USES);
+
+        PromotionRepository promotionRepository = mock(PromotionRepository.class);
+        when(promotionRepository.lockById(1)).thenReturn(Optional.of(promotion));
+        when(promotionRepository.countPromotionUses(1)).thenAnswer(invocation -> recordedUses.get());
+
+        PromotionUsageLeaseRepository leaseRepository = mock(PromotionUsageLeaseRepository.class);
+        when(leaseRepository.save(any())).thenAnswer(invocation -> {
+            PromotionUsageLease lease = invocation.getArgument(0);
+            leases.put(lease.getInstanceId(), lease);
+            return lease;
+        });
+        when(leaseRepository.sumHeldByOthers(eq(1), anyString(), any())).thenAnswer(invocation -> {
+            String instanceId = invocation.getArgument(1);
+            Instant renewedAfter = invocation.getArgument(2);
+            return leases.values().stream()
+                    .filter(lease -> !lease.getInstanceId().equals(instanceId))
+                    .filter(lease -> lease.getRenewedAt().isAfter(renewedAfter))
+                    .mapToLong(PromotionUsageLease::getHeld)
+                    .sum();
+        });
+        when(leaseRepository.deleteByInstance(anyString())).thenAnswer(invocation -> {
+            leases.remove((String) invocation.getArgument(0));
+            return 1;
+        });
+
+        first = service(promotionRepository, leaseRepository);
+        second = service(promotionRepository, leaseRepository);
+    }
+
+    @Test
+    public void testInstancesNeverExceedMaxUsesTogether() {
+        // The first instance leases a few uses, then the second drains what is left
+        assertTrue(reserve(first));
+        int used = 1 + drain(second);
+        used += drain(first);
+        assertEquals(MAX_USES, used);
+
+        int alternating = 0;
+        for (int i = 0; i < MAX_USES; i++) {
+            alternating += (reserve(first) ? 1 : 0) + (reserve(second) ? 1 : 0);
+        }
+        assertEquals(0, alternating);
+        assertEquals(MAX_USES, recordedUses.get());
+    }
+
+    @Test
+    public void testStoppedInstanceHandsBackItsUses() {
+        assertTrue(reserve(first));
+        assertTrue(leases.values().stream().mapToLong(PromotionUsageLease::getHeld).sum() > 0);
+
+        first.stop();
+
+        assertEquals(MAX_USES - 1, drain(second));
+    }
+
+    private int drain(PromotionServiceImpl service) {
+        int used = 0;
+        while (reserve(service)) {
+            used++;
+        }
+        return used;
+    }
+
+    private boolean reserve(PromotionServiceImpl service) {
+        if (!service.reserveUse(promotion)) {
+            return false;
+        }
+        // Outside a transaction the use is confirmed at once, so record it as the checkout would
+        recordedUses.incrementAndGet();
+        return true;
+    }
+
+    private PromotionServiceImpl service(PromotionRepository promotionRepository,
+                                         PromotionUsageLeaseRepository leaseRepository) {
+        PromotionServiceImpl service = new PromotionServiceImpl(promotionRepository,
+                mock(PromotionCodeRepository.class), mock(PromotionRuleService.class), leaseRepository,
+                mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "usageStripes", 4);
+        ReflectionTestUtils.setField(service, "leaseSize", 4);
+        ReflectionTestUtils.setField(service, "leaseTtlMs", 300_000L);
+        ReflectionTestUtils.setField(service, "leaseRetryMs", 0L);
+        service.start();
+        return service;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.demo.service;
+
+import com.example.demo.service.impl.RecentFeed;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecentFeedTest {
+
+    @Test
+    public void testPagesNewestFirstWithCursor() {
+        RecentFeed feed = new RecentFeed(10);
+        for (int id = 1; id <= 5; id++) {
+            feed.add(id, id * 100L);
+        }
+        assertTrue(feed.isComplete());
+        assertArrayEquals(new int[] {5, 4, 3}, feed.page(Long.MAX_VALUE, Integer.MAX_VALUE, 0, 3));
+        assertArrayEquals(new int[] {3, 2}, feed.page(400, 4, 0, 2));
+        assertArrayEquals(new int[] {2, 1}, feed.page(Long.MAX_VALUE, Integer.MAX_VALUE, 3, 10));
+        assertArrayEquals(new int[0], feed.page(100, 1, 0, 10));
+    }
+
+    @Test
+    public void testOverwrittenEntriesFallBackToNull() {
+        RecentFeed feed = new RecentFeed(3);
+        for (int id = 1; id <= 5; id++) {
+            feed.add(id, id * 100L);
+        }
+        assertFalse(feed.isComplete());
+        assertArrayEquals(new int[] {5, 4, 3}, feed.page(Long.MAX_VALUE, Integer.MAX_VALUE, 0, 3));
+        assertNull(feed.page(Long.MAX_VALUE, Integer.MAX_VALUE, 0, 4));
+        assertArrayEquals(new int[] {4, 3}, feed.page(500, 5, 0, 2));
+        assertNull(feed.page(300, 3, 0, 1));
+    }
+
+    @Test
+    public void testOutOfOrderArrivalsOnlyServeWhatIsCertain() {
+        RecentFeed feed = new RecentFeed(3);
+        feed.add(1, 100);
+        feed.add(2, 300);
+        feed.add(3, 200);
+        // Older than ID 1 in its slot, so it is dropped and nothing at or before 50 is certain any more
+        feed.add(4, 50);
+        assertArrayEquals(new int[] {2, 3, 1}, feed.page(Long.MAX_VALUE, Integer.MAX_VALUE, 0, 3));
+        assertNull(feed.page(Long.MAX_VALUE, Integer.MAX_VALUE, 0, 4));
+    }
+
+    @Test
+    public void testLappedWriterNeverHidesNewerEntries() {
+        RecentFeed feed = new RecentFeed(2);
+        feed.add(1, 999);
+        feed.add(2, 10);
+        // Lands on ID 1's slot with an older time, as a writer that was lapped would
+        feed.add(3, 20);
+        assertFalse(feed.isComplete());
+        assertArrayEquals(new int[] {1}, feed.page(Long.MAX_VALUE, Integer.MAX_VALUE, 0, 1));
+        assertNull(feed.page(Long.MAX_VALUE, Integer.MAX_VALUE, 0, 2));
+    }
+
+    @Test
+    public void testRemovedAndRepeatedIds() {
+        RecentFeed feed = new RecentFeed(10);
+        feed.add(1, 100);
+        feed.add(2, 200);
+        feed.add(2, 200);
+        feed.add(3, 300);
+        feed.remove(3);
+        assertEquals(2, feed.size());
+        assertArrayEquals(new int[] {2, 1}, feed.page(Long.MAX_VALUE, Integer.MAX_VALUE, 0, 10));
+    }
+
+    @Test
+    public void testInterleavedWritersNeverServeAWrongPage() {
+        // Four writers adding ascending IDs at very different rates, replayed in a fixed random
+        // interleaving, so entries reach their slots far out of time order
+        RecentFeed feed = new RecentFeed(64);
+        Random random = new Random(42);
+        int[] next = {0, 1, 2, 3};
+        TreeSet<Integer> added = new TreeSet<>();
+        while (added.size() < 40_000) {
+            int writer;
+            do {
+                int pick = random.nextInt(40);
+                writer = pick < 1 ? 0 : pick < 4 ? 1 : pick < 13 ? 2 : 3;
+            } while (next[writer] >= 40_000);
+            feed.add(next[writer], next[writer]);
+            added.add(next[writer]);
+            next[writer] += 4;
+
+            assertArrayEquals(new int[] {added.last()}, feed.page(Long.MAX_VALUE, Integer.MAX_VALUE, 0, 1));
+            for (int n : new int[] {8, 64}) {
+                int[] page = feed.page(Long.MAX_VALUE, Integer.MAX_VALUE, 0, n);
+                if (page != null) {
+                    assertArrayEquals(added.descendingSet().stream().limit(n).mapToInt(Integer::intValue).toArray(), page);
+                }
+            }
+        }
+    }
+}
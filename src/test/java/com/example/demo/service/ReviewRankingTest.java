@@ -0,0 +1,68 @@
+package com.example.demo.service;
+
+import com.example.demo.service.impl.ReviewRanking;
+import com.example.demo.service.impl.ReviewRanking.TopList;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReviewRankingTest {
+
+    private static final Instant NOW = Instant.parse("2026-06-01T00:00:00Z");
+
+    @Test
+    public void testMoreEvidenceOfHelpfulnessRanksHigher() {
+        double fewVotes = ReviewRanking.helpfulnessScore(2, 0, NOW, 180);
+        double manyVotes = ReviewRanking.helpfulnessScore(90, 10, NOW, 180);
+        double unhelpful = ReviewRanking.helpfulnessScore(10, 90, NOW, 180);
+        double unvoted = ReviewRanking.helpfulnessScore(0, 0, NOW, 180);
+
+        assertTrue(manyVotes > fewVotes);
+        assertTrue(fewVotes > unvoted);
+        assertTrue(unvoted > unhelpful);
+    }
+
+    @Test
+    public void testOneHalfLifeOfAgeHalvesTheScore() {
+        double today = ReviewRanking.helpfulnessScore(5, 1, NOW, 180);
+        double halfLifeAgo = ReviewRanking.helpfulnessScore(5, 1, NOW.minus(180, ChronoUnit.DAYS), 180);
+
+        assertEquals(Math.log(2), today - halfLifeAgo, 1e-9);
+    }
+
+    @Test
+    public void testCompleteListReordersOnUpdates() {
+        TopList list = new TopList(5, new int[] {1, 2, 3}, new double[] {3, 2, 1});
+
+        list.update(3, 4);
+        list.update(4, 2.5);
+        list.remove(1);
+
+        assertTrue(list.isComplete());
+        assertArrayEquals(new int[] {3, 4, 2}, list.page(0, 10));
+        assertArrayEquals(new int[] {4}, list.page(1, 1));
+    }
+
+    @Test
+    public void testTruncatedListOnlyServesWhatItKnows() {
+        // Four reviews, of which the list holds three; the fourth has key 1
+        TopList list = new TopList(3, new int[] {1, 2, 3, 4}, new double[] {4, 3, 2, 1});
+        assertFalse(list.isComplete());
+        assertEquals(3, list.trusted());
+
+        // Review 2 drops below the floor: review 4 might now outrank it
+        list.update(2, 0.5);
+        assertEquals(2, list.trusted());
+        assertArrayEquals(new int[] {1, 3}, list.page(0, 2));
+        assertNull(list.page(0, 3));
+
+        // A new review above the floor pushes the last entry out and raises the floor
+        list.update(5, 5);
+        assertArrayEquals(new int[] {5, 1, 3}, list.page(0, 3));
+        list.update(6, 0.8);
+        assertEquals(3, list.trusted());
+    }
+}
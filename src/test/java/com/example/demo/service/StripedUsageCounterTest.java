@@ -0,0 +1,116 @@
+package com.example.demo.service;
+
+import com.example.demo.service.impl.StripedUsageCounter;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StripedUsageCounterTest {
+
+    @Test
+    public void testReservesUpToTheLimitAcrossStripes() {
+        StripedUsageCounter counter = new StripedUsageCounter(10, 3, 4);
+
+        for (int i = 0; i < 7; i++) {
+            assertTrue(counter.tryReserve());
+            counter.confirm();
+        }
+
+        assertFalse(counter.tryReserve());
+        assertFalse(counter.hasRemaining());
+        assertEquals(10, counter.used());
+    }
+
+    @Test
+    public void testReleaseHandsTheUseBack() {
+        StripedUsageCounter counter = new StripedUsageCounter(1, 0, 8);
+
+        assertTrue(counter.tryReserve());
+        assertFalse(counter.tryReserve());
+        assertEquals(1, counter.inFlight());
+
+        counter.release();
+
+        assertEquals(0, counter.inFlight());
+        assertTrue(counter.tryReserve());
+    }
+
+    @Test
+    public void testConcurrentReservationsNeverExceedTheLimit() throws Exception {
+        int limit = 10_000;
+        StripedUsageCounter counter = new StripedUsageCounter(limit, 0, 16);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                int reserved = 0;
+                for (int i = 0; i < limit; i++) {
+                    if (counter.tryReserve()) {
+                        counter.confirm();
+                        reserved++;
+                    }
+                }
+                return reserved;
+            }));
+        }
+        start.countDown();
+        int total = 0;
+        for (Future<Integer> result : results) {
+            total += result.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(limit, total);
+        assertEquals(limit, counter.used());
+        assertFalse(counter.tryReserve());
+    }
+
+    @Test
+    public void testReconcileCorrectsDriftAndKeepsInFlightUses() {
+        StripedUsageCounter counter = new StripedUsageCounter(5, 2, 4);
+        assertTrue(counter.tryReserve());
+
+        // One order was deleted elsewhere: 1 recorded use, plus the reservation still in flight
+        assertTrue(counter.reconcile(() -> 1));
+        assertEquals(2, counter.used());
+
+        // Orders recorded elsewhere push usage past the limit; the overdraft is paid off first
+        assertTrue(counter.reconcile(() -> 6));
+        assertEquals(7, counter.used());
+        assertFalse(counter.tryReserve());
+        counter.release();
+        assertFalse(counter.tryReserve());
+        assertEquals(6, counter.used());
+    }
+
+    @Test
+    public void testReconcileSkipsWhenUsedConcurrently() {
+        StripedUsageCounter counter = new StripedUsageCounter(5, 0, 2);
+
+        boolean applied = counter.reconcile(() -> {
+            counter.tryReserve();
+            return 4;
+        });
+
+        assertFalse(applied);
+        assertEquals(1, counter.used());
+    }
+
+    @Test
+    public void testRejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new StripedUsageCounter(-1, 0, 4));
+        assertThrows(IllegalArgumentException.class, () -> new StripedUsageCounter(5, 0, 0));
+    }
+}
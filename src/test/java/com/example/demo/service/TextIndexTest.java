@@ -0,0 +1,84 @@
+package com.example.demo.service;
+
+import com.example.demo.service.impl.TextIndex;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TextIndexTest {
+
+    private static final int ALL = Integer.MAX_VALUE;
+
+    @Test
+    public void testStemmingMatchesInflections() {
+        assertEquals(TextIndex.stem("battery"), TextIndex.stem("batteries"));
+        assertEquals(TextIndex.stem("charge"), TextIndex.stem("charging"));
+        assertEquals(TextIndex.stem("charge"), TextIndex.stem("charged"));
+        assertEquals(TextIndex.stem("stop"), TextIndex.stem("stopped"));
+        assertEquals("glass", TextIndex.stem("glass"));
+
+        TextIndex index = new TextIndex();
+        index.put(1, "The batteries stopped charging after a week", 0);
+        assertArrayEquals(new int[] {1}, index.search("battery charge", a -> true, 0, ALL).ids());
+    }
+
+    @Test
+    public void testAllWordsMustMatchAndRarerWordsRankHigher() {
+        TextIndex index = new TextIndex();
+        index.put(1, "great screen, great price", 0);
+        index.put(2, "great sound", 0);
+        index.put(3, "great screen but poor sound", 0);
+        index.put(4, "screen cracked", 0);
+
+        TextIndex.Result result = index.search("great screen", a -> true, 0, ALL);
+
+        assertEquals(2, result.total());
+        // Both contain the words, the first one twice and in fewer words
+        assertArrayEquals(new int[] {1, 3}, result.ids());
+        assertTrue(result.scores()[0] > result.scores()[1]);
+        assertEquals(0, index.search("great missing", a -> true, 0, ALL).total());
+    }
+
+    @Test
+    public void testPhrasesMatchConsecutiveWords() {
+        TextIndex index = new TextIndex();
+        index.put(1, "arrived out of stock notice", 0);
+        index.put(2, "stock ran out quickly", 0);
+
+        assertArrayEquals(new int[] {1}, index.search("\"out of stock\"", a -> true, 0, ALL).ids());
+        assertEquals(2, index.search("out stock", a -> true, 0, ALL).total());
+    }
+
+    @Test
+    public void testFiltersAndPages() {
+        TextIndex index = new TextIndex();
+        for (int i = 1; i <= 10; i++) {
+            index.put(i, "fast delivery", i % 2);
+        }
+
+        TextIndex.Result odd = index.search("delivery", a -> a == 1, 0, ALL);
+        assertEquals(5, odd.total());
+
+        // Equal scores: the document indexed last comes first
+        TextIndex.Result page = index.search("delivery", a -> true, 3, 3);
+        assertEquals(10, page.total());
+        assertArrayEquals(new int[] {7, 6, 5}, page.ids());
+    }
+
+    @Test
+    public void testUpdatesAndRemovalsSurviveCompaction() {
+        TextIndex index = new TextIndex();
+        for (int i = 0; i < 5_000; i++) {
+            index.put(i, "original text " + i, 0);
+        }
+        for (int i = 0; i < 2_000; i++) {
+            index.remove(i);
+        }
+        index.put(4_999, "edited wording", 0);
+
+        assertEquals(3_000, index.size());
+        assertEquals(2_999, index.search("original", a -> true, 0, ALL).total());
+        assertArrayEquals(new int[] {4_999}, index.search("edit", a -> true, 0, ALL).ids());
+        assertArrayEquals(new int[] {2_500}, index.search("original 2500", a -> true, 0, ALL).ids());
+    }
+}